@@ -16,6 +16,8 @@
 
 package kieker.diagnosis.service.aggregatedmethods;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -24,7 +26,11 @@ import com.google.inject.Singleton;
 
 import kieker.diagnosis.architecture.service.ServiceBase;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.MethodTimeSeries;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TimeBucket;
 import kieker.diagnosis.service.filter.FilterService;
 
 /**
@@ -47,22 +53,46 @@ public class AggregatedMethodsService extends ServiceBase {
 		// Get the methods
 		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
 		final List<AggregatedMethodCall> methods = monitoringLogService.getAggreatedMethods( );
+		final SymbolTable symbolTable = monitoringLogService.getSymbolTable( );
 
 		// Filter the methods
 		final FilterService filterService = getService( FilterService.class );
 		return methods
 				.parallelStream( )
-				.filter( filterService.getStringPredicate( AggregatedMethodCall::getHost, aFilter.getHost( ), aFilter.isUseRegExpr( ) ) )
-				.filter( filterService.getStringPredicate( AggregatedMethodCall::getClazz, aFilter.getClazz( ), aFilter.isUseRegExpr( ) ) )
-				.filter( filterService.getStringPredicate( AggregatedMethodCall::getMethod, aFilter.getMethod( ), aFilter.isUseRegExpr( ) ) )
-				.filter( filterService.getStringPredicate( AggregatedMethodCall::getException, aFilter.getException( ), aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, AggregatedMethodCall::getHostId, aFilter.getHost( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, AggregatedMethodCall::getClazzId, aFilter.getClazz( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, AggregatedMethodCall::getMethodId, aFilter.getMethod( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, AggregatedMethodCall::getExceptionId, aFilter.getException( ),
+						aFilter.isUseRegExpr( ) ) )
 				.filter( getSearchTypePredicate( aFilter.getSearchType( ) ) )
 				.collect( Collectors.toList( ) );
 	}
 
+	/**
+	 * This method searches, based on the given filter, for the aggregated method calls with the highest total self duration. The self durations have
+	 * already been aggregated during the import, which means that the method calls themselves are not scanned again.
+	 *
+	 * @param aFilter
+	 *            The filter to apply to the method calls.
+	 * @param aLimit
+	 *            The maximal number of aggregated method calls to deliver.
+	 *
+	 * @return A new list containing the matching aggregated method calls, sorted descending by their total self duration.
+	 */
+	public List<AggregatedMethodCall> searchHotMethods( final AggregatedMethodsFilter aFilter, final int aLimit ) {
+		return searchMethods( aFilter )
+				.stream( )
+				.sorted( Comparator.comparingLong( AggregatedMethodCall::getTotalSelfDuration ).reversed( ) )
+				.limit( Math.max( aLimit, 0 ) )
+				.collect( Collectors.toList( ) );
+	}
+
 	private Predicate<AggregatedMethodCall> getSearchTypePredicate( final SearchType aSearchType ) {
 		return method -> {
-			final boolean failedCall = method.getException( ) != null;
+			final boolean failedCall = method.getExceptionId( ) != SymbolTable.NULL_SYMBOL;
 			return aSearchType == SearchType.ALL || aSearchType == SearchType.ONLY_FAILED && failedCall || aSearchType == SearchType.ONLY_SUCCESSFUL && !failedCall;
 		};
 	}
@@ -78,4 +108,55 @@ public class AggregatedMethodsService extends ServiceBase {
 		return methods.size( );
 	}
 
+	/**
+	 * Delivers the time series of the given aggregated method. The buckets have been calculated during the import.
+	 *
+	 * @param aMethod
+	 *            The aggregated method.
+	 *
+	 * @return The buckets of the time series, sorted by their start. The list is empty, if no time series is available.
+	 */
+	public List<TimeBucket> getTimeSeries( final AggregatedMethodCall aMethod ) {
+		final MethodTimeSeries timeSeries = aMethod.getTimeSeries( );
+		return timeSeries != null ? timeSeries.getBuckets( ) : Collections.emptyList( );
+	}
+
+	/**
+	 * Aggregates the given aggregated method again, but only for the method calls within the given time window. The values are calculated from the time
+	 * buckets, which means that the window is aligned to the buckets and that the median is calculated from the histograms.
+	 *
+	 * @param aMethod
+	 *            The aggregated method.
+	 * @param aFrom
+	 *            The start of the window in milliseconds (inclusive).
+	 * @param aTo
+	 *            The end of the window in milliseconds (exclusive).
+	 *
+	 * @return A new aggregated method call containing only the method calls within the window. The count is zero, if there are no method calls within
+	 *         the window or if no time series is available.
+	 */
+	public AggregatedMethodCall aggregateTimeWindow( final AggregatedMethodCall aMethod, final long aFrom, final long aTo ) {
+		final AggregatedMethodCall windowMethod = new AggregatedMethodCall( );
+		windowMethod.setHostId( aMethod.getHostId( ) );
+		windowMethod.setClazzId( aMethod.getClazzId( ) );
+		windowMethod.setMethodId( aMethod.getMethodId( ) );
+		windowMethod.setExceptionId( aMethod.getExceptionId( ) );
+
+		final MethodTimeSeries timeSeries = aMethod.getTimeSeries( );
+		if ( timeSeries != null ) {
+			final TimeBucket window = timeSeries.aggregate( aFrom, aTo );
+			final DurationHistogram histogram = window.getHistogram( );
+
+			windowMethod.setCount( ( int ) window.getCount( ) );
+			windowMethod.setTotalDuration( window.getTotalDuration( ) );
+			windowMethod.setAvgDuration( window.getAvgDuration( ) );
+			windowMethod.setMinDuration( window.getMinDuration( ) );
+			windowMethod.setMaxDuration( window.getMaxDuration( ) );
+			windowMethod.setMedianDuration( histogram.getValueAtPercentile( 50.0 ) );
+			windowMethod.setPercentiles( histogram );
+		}
+
+		return windowMethod;
+	}
+
 }
@@ -0,0 +1,55 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.callingcontexts;
+
+import java.util.List;
+
+import com.google.inject.Singleton;
+
+import kieker.diagnosis.architecture.service.ServiceBase;
+import kieker.diagnosis.service.data.CallingContextNode;
+import kieker.diagnosis.service.data.MonitoringLogService;
+
+/**
+ * This is the service responsible for delivering the calling context tree of the imported monitoring log.
+ *
+ * @author Nils Christian Ehmke
+ */
+@Singleton
+public class CallingContextsService extends ServiceBase {
+
+	/**
+	 * This method delivers the roots of the calling context tree. The children of the nodes can be navigated lazily.
+	 *
+	 * @return A new list containing the roots of the calling context tree.
+	 */
+	public List<CallingContextNode> getRoots( ) {
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		return monitoringLogService.getCallingContextTree( ).getRoots( );
+	}
+
+	/**
+	 * This method counts the number of all nodes within the calling context tree.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int countNodes( ) {
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		return monitoringLogService.getCallingContextTree( ).getSize( );
+	}
+
+}
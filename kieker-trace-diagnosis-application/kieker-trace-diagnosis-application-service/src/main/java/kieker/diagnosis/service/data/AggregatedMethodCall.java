@@ -20,7 +20,8 @@ import lombok.Getter;
 import lombok.Setter;
 
 /**
- * This is a data transfer object representing a single aggregaed method call.
+ * This is a data transfer object representing a single aggregaed method call. The host, class, method, and exception are stored as ids of a
+ * {@link SymbolTable}. The ids are resolved with the table of the import, which is owned by the {@link MonitoringLogService}.
  *
  * @author Nils Christian Ehmke
  */
@@ -28,16 +29,59 @@ import lombok.Setter;
 @Setter
 public final class AggregatedMethodCall {
 
-	private String host;
-	private String clazz;
-	private String method;
-	private String exception;
+	private int hostId;
+	private int clazzId;
+	private int methodId;
+	private int exceptionId;
 
 	private int count;
 	private long avgDuration;
 	private long totalDuration;
+
+	// The median is exact after an import. During a live import, it is taken from a histogram, like the percentiles.
 	private long medianDuration;
 	private long MinDuration;
 	private long maxDuration;
+	private long p90Duration;
+	private long p95Duration;
+	private long p99Duration;
+	private long p999Duration;
+
+	// The self durations exclude the time spent in the direct children. The share is the percentage of the total duration which is self time.
+	private long totalSelfDuration;
+	private long avgSelfDuration;
+	private long maxSelfDuration;
+	private float selfDurationShare;
+
+	// The time series is only available if the buckets have been calculated during the import
+	private MethodTimeSeries timeSeries;
+
+	/**
+	 * Sets the percentiles of the durations based on the given histogram.
+	 *
+	 * @param aHistogram
+	 *                   The histogram containing all durations of this aggregated method call.
+	 */
+	public void setPercentiles( final DurationHistogram aHistogram ) {
+		p90Duration = aHistogram.getValueAtPercentile( 90.0 );
+		p95Duration = aHistogram.getValueAtPercentile( 95.0 );
+		p99Duration = aHistogram.getValueAtPercentile( 99.0 );
+		p999Duration = aHistogram.getValueAtPercentile( 99.9 );
+	}
+
+	/**
+	 * Sets the self durations and derives the average and the share from them. The count and the total duration have to be set before.
+	 *
+	 * @param aTotalSelfDuration
+	 *                           The sum of the self durations of all method calls.
+	 * @param aMaxSelfDuration
+	 *                           The maximal self duration of all method calls.
+	 */
+	public void setSelfDurations( final long aTotalSelfDuration, final long aMaxSelfDuration ) {
+		totalSelfDuration = aTotalSelfDuration;
+		maxSelfDuration = aMaxSelfDuration;
+		avgSelfDuration = count > 0 ? aTotalSelfDuration / count : 0L;
+		selfDurationShare = totalDuration > 0 ? aTotalSelfDuration * 100.0f / totalDuration : 0.0f;
+	}
 
 }
@@ -0,0 +1,244 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import java.util.Arrays;
+
+/**
+ * This is a compact storage for imported traces on the heap. The values of all method calls are stored in parallel primitive arrays (columns). The columns
+ * grow while traces are appended.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class ArrayTraceStore extends TraceStore {
+
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private long[] ivTimestamps = new long[0];
+	private long[] ivDurations = new long[0];
+	private long[] ivSelfDurations = new long[0];
+	private long[] ivTraceIds = new long[0];
+	private int[] ivHostIds = new int[0];
+	private int[] ivClazzIds = new int[0];
+	private int[] ivMethodIds = new int[0];
+	private int[] ivExceptionIds = new int[0];
+	private int[] ivTraceDepths = new int[0];
+	private int[] ivTraceSizes = new int[0];
+	private float[] ivPercents = new float[0];
+	private int[] ivFirstChildren = new int[0];
+	private int[] ivNextSiblings = new int[0];
+	private int[] ivTraceRoots = new int[0];
+
+	private ArrayTraceStore( final SymbolTable aSymbolTable ) {
+		super( aSymbolTable );
+	}
+
+	/**
+	 * Creates a new and empty store.
+	 *
+	 * @param aSymbolTable
+	 *                     The symbol table of the method calls.
+	 *
+	 * @return A new store.
+	 */
+	public static ArrayTraceStore create( final SymbolTable aSymbolTable ) {
+		return new ArrayTraceStore( aSymbolTable );
+	}
+
+	@Override
+	protected void ensureCapacity( final int aSize, final int aTraceRootCount ) {
+		if ( aSize > ivTimestamps.length ) {
+			resizeColumns( grow( ivTimestamps.length, aSize ) );
+		}
+		if ( aTraceRootCount > ivTraceRoots.length ) {
+			ivTraceRoots = Arrays.copyOf( ivTraceRoots, grow( ivTraceRoots.length, aTraceRootCount ) );
+		}
+	}
+
+	private static int grow( final int aCapacity, final int aRequiredCapacity ) {
+		// The columns grow by half of their size, which limits the unused capacity during the import
+		return Math.max( aRequiredCapacity, ( int ) Math.min( MAX_CAPACITY, aCapacity + ( aCapacity >> 1 ) + 16L ) );
+	}
+
+	@Override
+	public void trimToSize( ) {
+		if ( ivTimestamps.length > getSize( ) ) {
+			resizeColumns( getSize( ) );
+		}
+		if ( ivTraceRoots.length > getTraceRootCount( ) ) {
+			ivTraceRoots = Arrays.copyOf( ivTraceRoots, getTraceRootCount( ) );
+		}
+	}
+
+	private void resizeColumns( final int aCapacity ) {
+		ivTimestamps = Arrays.copyOf( ivTimestamps, aCapacity );
+		ivDurations = Arrays.copyOf( ivDurations, aCapacity );
+		ivSelfDurations = Arrays.copyOf( ivSelfDurations, aCapacity );
+		ivTraceIds = Arrays.copyOf( ivTraceIds, aCapacity );
+		ivHostIds = Arrays.copyOf( ivHostIds, aCapacity );
+		ivClazzIds = Arrays.copyOf( ivClazzIds, aCapacity );
+		ivMethodIds = Arrays.copyOf( ivMethodIds, aCapacity );
+		ivExceptionIds = Arrays.copyOf( ivExceptionIds, aCapacity );
+		ivTraceDepths = Arrays.copyOf( ivTraceDepths, aCapacity );
+		ivTraceSizes = Arrays.copyOf( ivTraceSizes, aCapacity );
+		ivPercents = Arrays.copyOf( ivPercents, aCapacity );
+		ivFirstChildren = Arrays.copyOf( ivFirstChildren, aCapacity );
+		ivNextSiblings = Arrays.copyOf( ivNextSiblings, aCapacity );
+	}
+
+	@Override
+	public int getTraceRoot( final int aRootIndex ) {
+		return ivTraceRoots[aRootIndex];
+	}
+
+	@Override
+	protected void setTraceRoot( final int aRootIndex, final int aIndex ) {
+		ivTraceRoots[aRootIndex] = aIndex;
+	}
+
+	@Override
+	public int getFirstChild( final int aIndex ) {
+		return ivFirstChildren[aIndex];
+	}
+
+	@Override
+	protected void setFirstChild( final int aIndex, final int aFirstChild ) {
+		ivFirstChildren[aIndex] = aFirstChild;
+	}
+
+	@Override
+	public int getNextSibling( final int aIndex ) {
+		return ivNextSiblings[aIndex];
+	}
+
+	@Override
+	protected void setNextSibling( final int aIndex, final int aNextSibling ) {
+		ivNextSiblings[aIndex] = aNextSibling;
+	}
+
+	@Override
+	public long getTimestamp( final int aIndex ) {
+		return ivTimestamps[aIndex];
+	}
+
+	@Override
+	void setTimestamp( final int aIndex, final long aTimestamp ) {
+		ivTimestamps[aIndex] = aTimestamp;
+	}
+
+	@Override
+	public long getDuration( final int aIndex ) {
+		return ivDurations[aIndex];
+	}
+
+	@Override
+	void setDuration( final int aIndex, final long aDuration ) {
+		ivDurations[aIndex] = aDuration;
+	}
+
+	@Override
+	public long getSelfDuration( final int aIndex ) {
+		return ivSelfDurations[aIndex];
+	}
+
+	@Override
+	void setSelfDuration( final int aIndex, final long aSelfDuration ) {
+		ivSelfDurations[aIndex] = aSelfDuration;
+	}
+
+	@Override
+	public long getTraceId( final int aIndex ) {
+		return ivTraceIds[aIndex];
+	}
+
+	@Override
+	void setTraceId( final int aIndex, final long aTraceId ) {
+		ivTraceIds[aIndex] = aTraceId;
+	}
+
+	@Override
+	public int getHostId( final int aIndex ) {
+		return ivHostIds[aIndex];
+	}
+
+	@Override
+	void setHostId( final int aIndex, final int aHostId ) {
+		ivHostIds[aIndex] = aHostId;
+	}
+
+	@Override
+	public int getClazzId( final int aIndex ) {
+		return ivClazzIds[aIndex];
+	}
+
+	@Override
+	void setClazzId( final int aIndex, final int aClazzId ) {
+		ivClazzIds[aIndex] = aClazzId;
+	}
+
+	@Override
+	public int getMethodId( final int aIndex ) {
+		return ivMethodIds[aIndex];
+	}
+
+	@Override
+	void setMethodId( final int aIndex, final int aMethodId ) {
+		ivMethodIds[aIndex] = aMethodId;
+	}
+
+	@Override
+	public int getExceptionId( final int aIndex ) {
+		return ivExceptionIds[aIndex];
+	}
+
+	@Override
+	void setExceptionId( final int aIndex, final int aExceptionId ) {
+		ivExceptionIds[aIndex] = aExceptionId;
+	}
+
+	@Override
+	public int getTraceDepth( final int aIndex ) {
+		return ivTraceDepths[aIndex];
+	}
+
+	@Override
+	void setTraceDepth( final int aIndex, final int aTraceDepth ) {
+		ivTraceDepths[aIndex] = aTraceDepth;
+	}
+
+	@Override
+	public int getTraceSize( final int aIndex ) {
+		return ivTraceSizes[aIndex];
+	}
+
+	@Override
+	void setTraceSize( final int aIndex, final int aTraceSize ) {
+		ivTraceSizes[aIndex] = aTraceSize;
+	}
+
+	@Override
+	public float getPercent( final int aIndex ) {
+		return ivPercents[aIndex];
+	}
+
+	@Override
+	void setPercent( final int aIndex, final float aPercent ) {
+		ivPercents[aIndex] = aPercent;
+	}
+
+}
@@ -0,0 +1,125 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.List;
+
+/**
+ * This is a view on a single node of a {@link CallingContextTree}. The node represents all method calls with the same call path. The views are created on
+ * demand and are only small wrappers around the tree and the index of the node.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class CallingContextNode {
+
+	private final CallingContextTree ivTree;
+	private final int ivIndex;
+
+	CallingContextNode( final CallingContextTree aTree, final int aIndex ) {
+		ivTree = aTree;
+		ivIndex = aIndex;
+	}
+
+	public String getHost( ) {
+		return ivTree.getSymbolTable( ).resolve( ivTree.getHostId( ivIndex ) );
+	}
+
+	public String getClazz( ) {
+		return ivTree.getSymbolTable( ).resolve( ivTree.getClazzId( ivIndex ) );
+	}
+
+	public String getMethod( ) {
+		return ivTree.getSymbolTable( ).resolve( ivTree.getMethodId( ivIndex ) );
+	}
+
+	public long getCount( ) {
+		return ivTree.getCount( ivIndex );
+	}
+
+	public long getFailedCount( ) {
+		return ivTree.getFailedCount( ivIndex );
+	}
+
+	public long getTotalDuration( ) {
+		return ivTree.getTotalDuration( ivIndex );
+	}
+
+	/**
+	 * Delivers the sum of the durations of the method calls minus the durations of their direct callees.
+	 *
+	 * @return The self duration in nanoseconds.
+	 */
+	public long getSelfDuration( ) {
+		return ivTree.getSelfDuration( ivIndex );
+	}
+
+	public long getAvgDuration( ) {
+		final long count = getCount( );
+		return count > 0 ? getTotalDuration( ) / count : 0L;
+	}
+
+	public long getMinDuration( ) {
+		return ivTree.getHistogram( ivIndex ).getMinDuration( );
+	}
+
+	public long getMaxDuration( ) {
+		return ivTree.getHistogram( ivIndex ).getMaxDuration( );
+	}
+
+	/**
+	 * Delivers the duration at the given percentile. The value is calculated from a histogram and has therefore only a limited precision.
+	 *
+	 * @param aPercentile
+	 *                    The percentile (between 0 and 100).
+	 *
+	 * @return The duration in nanoseconds.
+	 */
+	public long getDurationAtPercentile( final double aPercentile ) {
+		return ivTree.getHistogram( ivIndex ).getValueAtPercentile( aPercentile );
+	}
+
+	public CallingContextNode getParent( ) {
+		return ivTree.getParent( ivIndex );
+	}
+
+	public List<CallingContextNode> getChildren( ) {
+		return ivTree.getChildren( ivIndex );
+	}
+
+	public boolean hasChildren( ) {
+		return ivTree.hasChildren( ivIndex );
+	}
+
+	@Override
+	public boolean equals( final Object aObject ) {
+		if ( this == aObject ) {
+			return true;
+		}
+		if ( !( aObject instanceof CallingContextNode ) ) {
+			return false;
+		}
+
+		final CallingContextNode otherNode = ( CallingContextNode ) aObject;
+		return ivTree == otherNode.ivTree && ivIndex == otherNode.ivIndex;
+	}
+
+	@Override
+	public int hashCode( ) {
+		return ivIndex;
+	}
+
+}
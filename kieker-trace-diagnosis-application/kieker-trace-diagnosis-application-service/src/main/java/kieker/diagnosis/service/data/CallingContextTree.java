@@ -0,0 +1,272 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongIntMap;
+
+/**
+ * This is a calling context tree (CCT). All traces are merged into a single tree, in which each node represents a call path from a trace root. Two
+ * method calls are merged into the same node, if they have the same host, class, and method and if their callers have been merged into the same node.
+ * The tree is built incrementally, one trace at a time, which means that new traces can be merged without building the tree again. The values of the
+ * nodes are stored in parallel primitive lists, which means that the tree is compact even for millions of traces. The nodes are accessed via
+ * {@link CallingContextNode}s.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class CallingContextTree {
+
+	private static final int NO_NODE = -1;
+
+	private final int ivHistogramPrecision;
+
+	// The operation ids are the interned combinations of host, class, and method. The child indices map a packed pair of parent and operation id to the
+	// child node.
+	private final LongIntMap ivClassMethodIds = new LongIntHashMap( );
+	private final LongIntMap ivOperationIds = new LongIntHashMap( );
+	private final LongIntMap ivChildIndices = new LongIntHashMap( );
+
+	private final IntArrayList ivRoots = new IntArrayList( );
+	private final IntArrayList ivParents = new IntArrayList( );
+	private final IntArrayList ivFirstChildren = new IntArrayList( );
+	private final IntArrayList ivLastChildren = new IntArrayList( );
+	private final IntArrayList ivNextSiblings = new IntArrayList( );
+	private final IntArrayList ivHostIds = new IntArrayList( );
+	private final IntArrayList ivClazzIds = new IntArrayList( );
+	private final IntArrayList ivMethodIds = new IntArrayList( );
+	private final LongArrayList ivCounts = new LongArrayList( );
+	private final LongArrayList ivFailedCounts = new LongArrayList( );
+	private final LongArrayList ivTotalDurations = new LongArrayList( );
+	private final LongArrayList ivSelfDurations = new LongArrayList( );
+	private final List<DurationHistogram> ivHistograms = new ArrayList<>( );
+
+	private final SymbolTable ivSymbolTable;
+
+	private int ivTraceCount;
+
+	/**
+	 * Creates a new and empty tree.
+	 *
+	 * @param aHistogramPrecision
+	 *                            The precision of the histograms, which are used to calculate the percentiles of the nodes.
+	 * @param aSymbolTable
+	 *                            The symbol table to which the ids of the merged traces belong.
+	 */
+	public CallingContextTree( final int aHistogramPrecision, final SymbolTable aSymbolTable ) {
+		ivHistogramPrecision = aHistogramPrecision;
+		ivSymbolTable = aSymbolTable;
+	}
+
+	/**
+	 * Merges the given trace into the tree. The self durations of the method calls have to be calculated beforehand. All traces have to use the symbol table
+	 * of the tree.
+	 *
+	 * @param aTraceRoot
+	 *                   The root of the trace.
+	 */
+	public void addTrace( final MethodCall aTraceRoot ) {
+		// We avoid a recursion, as the traces can be very deep. The stack contains the method calls and the nodes of their callers.
+		final Deque<MethodCall> methodCalls = new ArrayDeque<>( );
+		final IntArrayList parentNodes = new IntArrayList( );
+		methodCalls.push( aTraceRoot );
+		parentNodes.add( NO_NODE );
+
+		while ( !methodCalls.isEmpty( ) ) {
+			final MethodCall methodCall = methodCalls.pop( );
+			final int parentNode = parentNodes.remove( parentNodes.size( ) - 1 );
+			final int node = getOrCreateNode( parentNode, methodCall );
+
+			final List<MethodCall> children = methodCall.getChildren( );
+			for ( int index = children.size( ) - 1; index >= 0; index-- ) {
+				methodCalls.push( children.get( index ) );
+				parentNodes.add( node );
+			}
+
+			final long duration = methodCall.getDuration( );
+			ivCounts.buffer[node]++;
+			ivTotalDurations.buffer[node] += duration;
+			ivSelfDurations.buffer[node] += methodCall.getSelfDuration( );
+			if ( methodCall.getExceptionId( ) != SymbolTable.NULL_SYMBOL ) {
+				ivFailedCounts.buffer[node]++;
+			}
+			ivHistograms.get( node ).record( duration );
+		}
+
+		ivTraceCount++;
+	}
+
+	/**
+	 * Delivers the number of traces which have been merged into the tree.
+	 *
+	 * @return The number of traces.
+	 */
+	public int getTraceCount( ) {
+		return ivTraceCount;
+	}
+
+	/**
+	 * Delivers the symbol table of the merged traces, which is used to resolve the symbols of the nodes.
+	 *
+	 * @return The symbol table.
+	 */
+	SymbolTable getSymbolTable( ) {
+		return ivSymbolTable;
+	}
+
+	private int getOrCreateNode( final int aParentNode, final MethodCall aMethodCall ) {
+		final int classMethodId = getPairId( ivClassMethodIds, aMethodCall.getClazzId( ), aMethodCall.getMethodId( ) );
+		final int operationId = getPairId( ivOperationIds, classMethodId, aMethodCall.getHostId( ) );
+		final long childKey = pack( aParentNode, operationId );
+
+		final int index = ivChildIndices.indexOf( childKey );
+		if ( ivChildIndices.indexExists( index ) ) {
+			return ivChildIndices.indexGet( index );
+		}
+
+		final int node = ivParents.size( );
+		ivChildIndices.indexInsert( index, childKey, node );
+
+		ivParents.add( aParentNode );
+		ivFirstChildren.add( NO_NODE );
+		ivLastChildren.add( NO_NODE );
+		ivNextSiblings.add( NO_NODE );
+		ivHostIds.add( aMethodCall.getHostId( ) );
+		ivClazzIds.add( aMethodCall.getClazzId( ) );
+		ivMethodIds.add( aMethodCall.getMethodId( ) );
+		ivCounts.add( 0L );
+		ivFailedCounts.add( 0L );
+		ivTotalDurations.add( 0L );
+		ivSelfDurations.add( 0L );
+		ivHistograms.add( new DurationHistogram( ivHistogramPrecision ) );
+
+		// The children are appended, which means that they are in the order in which they have been found first
+		if ( aParentNode == NO_NODE ) {
+			ivRoots.add( node );
+		} else if ( ivLastChildren.get( aParentNode ) == NO_NODE ) {
+			ivFirstChildren.set( aParentNode, node );
+			ivLastChildren.set( aParentNode, node );
+		} else {
+			ivNextSiblings.set( ivLastChildren.get( aParentNode ), node );
+			ivLastChildren.set( aParentNode, node );
+		}
+
+		return node;
+	}
+
+	private static int getPairId( final LongIntMap aPairIds, final int aFirstId, final int aSecondId ) {
+		final long pair = pack( aFirstId, aSecondId );
+
+		final int index = aPairIds.indexOf( pair );
+		if ( aPairIds.indexExists( index ) ) {
+			return aPairIds.indexGet( index );
+		}
+
+		final int pairId = aPairIds.size( );
+		aPairIds.indexInsert( index, pair, pairId );
+		return pairId;
+	}
+
+	private static long pack( final int aFirstId, final int aSecondId ) {
+		return ( long ) aFirstId << 32 | aSecondId & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Delivers the number of nodes within the tree.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getSize( ) {
+		return ivParents.size( );
+	}
+
+	/**
+	 * Delivers the roots of the tree, which represent the different trace roots.
+	 *
+	 * @return A new list containing the roots.
+	 */
+	public List<CallingContextNode> getRoots( ) {
+		final List<CallingContextNode> roots = new ArrayList<>( ivRoots.size( ) );
+		for ( int index = 0; index < ivRoots.size( ); index++ ) {
+			roots.add( new CallingContextNode( this, ivRoots.get( index ) ) );
+		}
+		return roots;
+	}
+
+	List<CallingContextNode> getChildren( final int aNode ) {
+		int child = ivFirstChildren.get( aNode );
+		if ( child == NO_NODE ) {
+			return Collections.emptyList( );
+		}
+
+		final List<CallingContextNode> children = new ArrayList<>( );
+		while ( child != NO_NODE ) {
+			children.add( new CallingContextNode( this, child ) );
+			child = ivNextSiblings.get( child );
+		}
+		return children;
+	}
+
+	boolean hasChildren( final int aNode ) {
+		return ivFirstChildren.get( aNode ) != NO_NODE;
+	}
+
+	CallingContextNode getParent( final int aNode ) {
+		final int parent = ivParents.get( aNode );
+		return parent != NO_NODE ? new CallingContextNode( this, parent ) : null;
+	}
+
+	int getHostId( final int aNode ) {
+		return ivHostIds.get( aNode );
+	}
+
+	int getClazzId( final int aNode ) {
+		return ivClazzIds.get( aNode );
+	}
+
+	int getMethodId( final int aNode ) {
+		return ivMethodIds.get( aNode );
+	}
+
+	long getCount( final int aNode ) {
+		return ivCounts.get( aNode );
+	}
+
+	long getFailedCount( final int aNode ) {
+		return ivFailedCounts.get( aNode );
+	}
+
+	long getTotalDuration( final int aNode ) {
+		return ivTotalDurations.get( aNode );
+	}
+
+	long getSelfDuration( final int aNode ) {
+		return ivSelfDurations.get( aNode );
+	}
+
+	DurationHistogram getHistogram( final int aNode ) {
+		return ivHistograms.get( aNode );
+	}
+
+}
@@ -0,0 +1,249 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+
+package kieker.diagnosis.service.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * This is a histogram for durations with logarithmic buckets (similar to an HDR histogram). Each power of two is divided into linear sub-buckets, whose
+ * number is determined by the precision. A precision of {@code n} bits results in a relative error of at most {@code 2^-n}. Recording a duration takes
+ * constant time and histograms with the same precision can be merged, which means that percentiles can be calculated without keeping all durations.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class DurationHistogram {
+
+	/**
+	 * The default precision in bits. It results in a relative error of less than one percent.
+	 */
+	public static final int DEFAULT_PRECISION = 7;
+
+	private static final int MIN_PRECISION = 1;
+	private static final int MAX_PRECISION = 16;
+
+	private final int ivPrecision;
+
+	// The counts cover only the range between the lowest and highest used bucket, as most histograms contain only a few powers of two
+	private int[] ivCounts = new int[0];
+	private int ivFirstBucket;
+	private long ivTotalCount;
+	private long ivMinDuration = Long.MAX_VALUE;
+	private long ivMaxDuration = Long.MIN_VALUE;
+
+	/**
+	 * Creates a new histogram.
+	 *
+	 * @param aPrecision
+	 *                   The number of significant bits which are kept for each duration.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the precision is not between 1 and 16.
+	 */
+	public DurationHistogram( final int aPrecision ) {
+		if ( aPrecision < MIN_PRECISION || aPrecision > MAX_PRECISION ) {
+			throw new IllegalArgumentException( "The precision has to be between " + MIN_PRECISION + " and " + MAX_PRECISION );
+		}
+
+		ivPrecision = aPrecision;
+	}
+
+	public int getPrecision( ) {
+		return ivPrecision;
+	}
+
+	public long getTotalCount( ) {
+		return ivTotalCount;
+	}
+
+	/**
+	 * Delivers the exact minimal recorded duration.
+	 *
+	 * @return The minimal duration or 0, if the histogram is empty.
+	 */
+	public long getMinDuration( ) {
+		return ivTotalCount > 0 ? ivMinDuration : 0L;
+	}
+
+	/**
+	 * Delivers the exact maximal recorded duration.
+	 *
+	 * @return The maximal duration or 0, if the histogram is empty.
+	 */
+	public long getMaxDuration( ) {
+		return ivTotalCount > 0 ? ivMaxDuration : 0L;
+	}
+
+	/**
+	 * Records the given duration.
+	 *
+	 * @param aDuration
+	 *                  The duration. Negative durations are treated as zero.
+	 */
+	public void record( final long aDuration ) {
+		final long duration = Math.max( aDuration, 0L );
+		final int bucket = getBucket( duration );
+		ensureBuckets( bucket, bucket );
+
+		ivCounts[bucket - ivFirstBucket]++;
+		ivTotalCount++;
+		ivMinDuration = Math.min( ivMinDuration, duration );
+		ivMaxDuration = Math.max( ivMaxDuration, duration );
+	}
+
+	/**
+	 * Adds the content of the given histogram to this histogram.
+	 *
+	 * @param aHistogram
+	 *                   The histogram to merge. It is not modified.
+	 *
+	 * @throws IllegalArgumentException
+	 *                                  If the histogram has a different precision.
+	 */
+	public void merge( final DurationHistogram aHistogram ) {
+		if ( aHistogram.ivPrecision != ivPrecision ) {
+			throw new IllegalArgumentException( "Only histograms with the same precision can be merged" );
+		}
+		if ( aHistogram.ivTotalCount == 0 ) {
+			return;
+		}
+
+		ensureBuckets( aHistogram.ivFirstBucket, aHistogram.ivFirstBucket + aHistogram.ivCounts.length - 1 );
+		final int offset = aHistogram.ivFirstBucket - ivFirstBucket;
+		for ( int index = 0; index < aHistogram.ivCounts.length; index++ ) {
+			ivCounts[offset + index] += aHistogram.ivCounts[index];
+		}
+
+		ivTotalCount += aHistogram.ivTotalCount;
+		ivMinDuration = Math.min( ivMinDuration, aHistogram.ivMinDuration );
+		ivMaxDuration = Math.max( ivMaxDuration, aHistogram.ivMaxDuration );
+	}
+
+	/**
+	 * Delivers the duration at the given percentile. The result is the highest duration which is equivalent to the bucket containing the percentile. It
+	 * is never smaller than the minimal or larger than the maximal recorded duration.
+	 *
+	 * @param aPercentile
+	 *                    The percentile (between 0 and 100).
+	 *
+	 * @return The duration or 0, if the histogram is empty.
+	 */
+	public long getValueAtPercentile( final double aPercentile ) {
+		if ( ivTotalCount == 0 ) {
+			return 0L;
+		}
+
+		final double percentile = Math.min( Math.max( aPercentile, 0.0 ), 100.0 );
+		final long rank = Math.max( 1L, ( long ) Math.ceil( percentile / 100.0 * ivTotalCount ) );
+
+		long count = 0;
+		for ( int index = 0; index < ivCounts.length; index++ ) {
+			count += ivCounts[index];
+			if ( count >= rank ) {
+				final long duration = getHighestEquivalentDuration( ivFirstBucket + index );
+				return Math.min( Math.max( duration, ivMinDuration ), ivMaxDuration );
+			}
+		}
+
+		return ivMaxDuration;
+	}
+
+	/**
+	 * Writes this histogram in a compact binary form.
+	 *
+	 * @param aOutput
+	 *                The output to write to.
+	 *
+	 * @throws IOException
+	 *                     If the histogram could not be written.
+	 */
+	public void write( final DataOutput aOutput ) throws IOException {
+		aOutput.writeInt( ivPrecision );
+		aOutput.writeLong( ivTotalCount );
+		aOutput.writeLong( ivMinDuration );
+		aOutput.writeLong( ivMaxDuration );
+		aOutput.writeInt( ivFirstBucket );
+		aOutput.writeInt( ivCounts.length );
+		for ( final int count : ivCounts ) {
+			aOutput.writeInt( count );
+		}
+	}
+
+	/**
+	 * Reads a histogram, which has been written with {@link #write(DataOutput)}.
+	 *
+	 * @param aInput
+	 *               The input to read from.
+	 *
+	 * @return The histogram.
+	 *
+	 * @throws IOException
+	 *                     If the histogram could not be read.
+	 */
+	public static DurationHistogram read( final DataInput aInput ) throws IOException {
+		final DurationHistogram histogram = new DurationHistogram( aInput.readInt( ) );
+		histogram.ivTotalCount = aInput.readLong( );
+		histogram.ivMinDuration = aInput.readLong( );
+		histogram.ivMaxDuration = aInput.readLong( );
+		histogram.ivFirstBucket = aInput.readInt( );
+		histogram.ivCounts = new int[aInput.readInt( )];
+		for ( int index = 0; index < histogram.ivCounts.length; index++ ) {
+			histogram.ivCounts[index] = aInput.readInt( );
+		}
+		return histogram;
+	}
+
+	private void ensureBuckets( final int aFirstBucket, final int aLastBucket ) {
+		if ( ivCounts.length == 0 ) {
+			ivFirstBucket = aFirstBucket;
+			ivCounts = new int[aLastBucket - aFirstBucket + 1];
+			return;
+		}
+
+		final int lastBucket = ivFirstBucket + ivCounts.length - 1;
+		if ( aFirstBucket < ivFirstBucket || aLastBucket > lastBucket ) {
+			// We add some slack to avoid copying the counts too often
+			final int slack = 1 << ( ivPrecision - 1 );
+			final int newFirstBucket = aFirstBucket < ivFirstBucket ? Math.max( 0, aFirstBucket - slack ) : ivFirstBucket;
+			final int newLastBucket = aLastBucket > lastBucket ? aLastBucket + slack : lastBucket;
+
+			final int[] newCounts = new int[newLastBucket - newFirstBucket + 1];
+			System.arraycopy( ivCounts, 0, newCounts, ivFirstBucket - newFirstBucket, ivCounts.length );
+
+			ivCounts = newCounts;
+			ivFirstBucket = newFirstBucket;
+		}
+	}
+
+	private int getBucket( final long aDuration ) {
+		final int shift = Math.max( 0, 63 - Long.numberOfLeadingZeros( aDuration ) - ivPrecision );
+
+		// Within the first 2^(precision+1) durations, the buckets are linear. Afterwards each power of two has 2^precision buckets.
+		return ( shift << ivPrecision ) + ( int ) ( aDuration >>> shift );
+	}
+
+	private long getHighestEquivalentDuration( final int aBucket ) {
+		final int shift = Math.max( 0, ( aBucket >>> ivPrecision ) - 1 );
+		final long subBucket = aBucket - ( ( long ) shift << ivPrecision );
+
+		return ( ( subBucket + 1 ) << shift ) - 1;
+	}
+
+}
@@ -0,0 +1,179 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is a method call whose values are stored in its own fields on the heap. It is used while a trace is reconstructed and for all traces when they are not
+ * moved into a {@link TraceStore}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class HeapMethodCall extends MethodCall {
+
+	private ArrayList<MethodCall> ivChildren;
+
+	private long ivTimestamp;
+	private long ivDuration;
+	private long ivSelfDuration;
+	private long ivTraceId;
+	private int ivHostId;
+	private int ivClazzId;
+	private int ivMethodId;
+	private int ivExceptionId;
+
+	private int ivTraceDepth;
+	private int ivTraceSize;
+	private float ivPercent;
+
+	@Override
+	public List<MethodCall> getChildren( ) {
+		if ( ivChildren == null ) {
+			return Collections.emptyList( );
+		}
+		return ivChildren;
+	}
+
+	@Override
+	public void addChild( final MethodCall aMethod ) {
+		if ( ivChildren == null ) {
+			ivChildren = new ArrayList<>( );
+		}
+		ivChildren.add( aMethod );
+	}
+
+	@Override
+	public void trimToSize( ) {
+		if ( ivChildren != null ) {
+			ivChildren.trimToSize( );
+		}
+	}
+
+	@Override
+	public long getTimestamp( ) {
+		return ivTimestamp;
+	}
+
+	@Override
+	public void setTimestamp( final long aTimestamp ) {
+		ivTimestamp = aTimestamp;
+	}
+
+	@Override
+	public long getDuration( ) {
+		return ivDuration;
+	}
+
+	@Override
+	public void setDuration( final long aDuration ) {
+		ivDuration = aDuration;
+	}
+
+	@Override
+	public long getSelfDuration( ) {
+		return ivSelfDuration;
+	}
+
+	@Override
+	public void setSelfDuration( final long aSelfDuration ) {
+		ivSelfDuration = aSelfDuration;
+	}
+
+	@Override
+	public long getTraceId( ) {
+		return ivTraceId;
+	}
+
+	@Override
+	public void setTraceId( final long aTraceId ) {
+		ivTraceId = aTraceId;
+	}
+
+	@Override
+	public int getHostId( ) {
+		return ivHostId;
+	}
+
+	@Override
+	public void setHostId( final int aHostId ) {
+		ivHostId = aHostId;
+	}
+
+	@Override
+	public int getClazzId( ) {
+		return ivClazzId;
+	}
+
+	@Override
+	public void setClazzId( final int aClazzId ) {
+		ivClazzId = aClazzId;
+	}
+
+	@Override
+	public int getMethodId( ) {
+		return ivMethodId;
+	}
+
+	@Override
+	public void setMethodId( final int aMethodId ) {
+		ivMethodId = aMethodId;
+	}
+
+	@Override
+	public int getExceptionId( ) {
+		return ivExceptionId;
+	}
+
+	@Override
+	public void setExceptionId( final int aExceptionId ) {
+		ivExceptionId = aExceptionId;
+	}
+
+	@Override
+	public int getTraceDepth( ) {
+		return ivTraceDepth;
+	}
+
+	@Override
+	public void setTraceDepth( final int aTraceDepth ) {
+		ivTraceDepth = aTraceDepth;
+	}
+
+	@Override
+	public int getTraceSize( ) {
+		return ivTraceSize;
+	}
+
+	@Override
+	public void setTraceSize( final int aTraceSize ) {
+		ivTraceSize = aTraceSize;
+	}
+
+	@Override
+	public float getPercent( ) {
+		return ivPercent;
+	}
+
+	@Override
+	public void setPercent( final float aPercent ) {
+		ivPercent = aPercent;
+	}
+
+}
@@ -0,0 +1,131 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the progress of a running import. The readers report the consumed bytes of the monitoring log and check regularly whether the import has been
+ * cancelled. The progress can be read (and the import can be cancelled) from any other thread.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class ImportProgress {
+
+	private final AtomicLong ivProcessedBytes = new AtomicLong( );
+	private final long ivStartTime = System.nanoTime( );
+	private volatile long ivTotalBytes = -1;
+	private volatile boolean ivCancelled;
+
+	/**
+	 * Sets the total number of bytes, which are going to be read during the import.
+	 *
+	 * @param aTotalBytes
+	 *                    The total number of bytes.
+	 */
+	public void setTotalBytes( final long aTotalBytes ) {
+		ivTotalBytes = aTotalBytes;
+	}
+
+	/**
+	 * Delivers the total number of bytes, which are going to be read during the import.
+	 *
+	 * @return The total number of bytes or -1, if the total number is not yet known.
+	 */
+	public long getTotalBytes( ) {
+		return ivTotalBytes;
+	}
+
+	public void addProcessedBytes( final long aBytes ) {
+		ivProcessedBytes.addAndGet( aBytes );
+	}
+
+	public long getProcessedBytes( ) {
+		return ivProcessedBytes.get( );
+	}
+
+	/**
+	 * Delivers the current progress.
+	 *
+	 * @return The progress between 0.0 and 1.0 or -1.0, if the progress cannot be determined (yet).
+	 */
+	public double getProgress( ) {
+		final long totalBytes = ivTotalBytes;
+		if ( totalBytes <= 0 ) {
+			return -1.0;
+		}
+
+		return Math.min( 1.0, ( double ) ivProcessedBytes.get( ) / totalBytes );
+	}
+
+	/**
+	 * Delivers the average throughput since the start of the import.
+	 *
+	 * @return The throughput in bytes per second.
+	 */
+	public double getBytesPerSecond( ) {
+		final long elapsedNanos = System.nanoTime( ) - ivStartTime;
+		if ( elapsedNanos <= 0 ) {
+			return 0.0;
+		}
+
+		return ivProcessedBytes.get( ) * ( double ) TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+	}
+
+	/**
+	 * Estimates the remaining duration of the import, based on the average throughput so far.
+	 *
+	 * @return The remaining duration in seconds or -1, if the duration cannot be estimated (yet).
+	 */
+	public long getEstimatedRemainingSeconds( ) {
+		final long totalBytes = ivTotalBytes;
+		final double bytesPerSecond = getBytesPerSecond( );
+		if ( totalBytes <= 0 || bytesPerSecond <= 0.0 ) {
+			return -1;
+		}
+
+		final long remainingBytes = Math.max( 0, totalBytes - ivProcessedBytes.get( ) );
+		return ( long ) Math.ceil( remainingBytes / bytesPerSecond );
+	}
+
+	/**
+	 * Requests the cancellation of the import. The readers stop at the next record.
+	 */
+	public void cancel( ) {
+		ivCancelled = true;
+	}
+
+	public boolean isCancelled( ) {
+		return ivCancelled;
+	}
+
+	/**
+	 * Checks whether the import has been cancelled.
+	 *
+	 * @throws CancellationException
+	 *                               If the import has been cancelled.
+	 */
+	public void checkCancelled( ) {
+		if ( ivCancelled ) {
+			throw new CancellationException( );
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import kieker.diagnosis.service.data.reader.LiveReader;
+
+/**
+ * A running live import. It polls a monitoring log, which is still being written (or received), regularly and publishes the new data to the monitoring log
+ * service.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class LiveImport {
+
+	private final ScheduledExecutorService ivScheduler;
+	private final LiveReader ivLiveReader;
+	private final Executor ivPublishExecutor;
+	private final LiveImportListener ivListener;
+	private volatile boolean ivStopped;
+
+	LiveImport( final LiveReader aLiveReader, final long aPollInterval, final Executor aPublishExecutor, final LiveImportListener aListener ) {
+		ivLiveReader = aLiveReader;
+		ivPublishExecutor = aPublishExecutor;
+		ivListener = aListener;
+
+		ivScheduler = Executors.newSingleThreadScheduledExecutor( aRunnable -> {
+			final Thread thread = new Thread( aRunnable, "Live Import" );
+			thread.setDaemon( true );
+			return thread;
+		} );
+		ivScheduler.scheduleWithFixedDelay( this::poll, 0, aPollInterval, TimeUnit.MILLISECONDS );
+	}
+
+	private void poll( ) {
+		try {
+			final Runnable publication = ivLiveReader.poll( );
+
+			ivPublishExecutor.execute( ( ) -> {
+				// Make sure that nothing is published after the live import has been stopped (for instance because another import started)
+				if ( !ivStopped ) {
+					publication.run( );
+					ivListener.newDataAvailable( );
+				}
+			} );
+		} catch ( final Exception ex ) {
+			// An exception caused by stopping the import is of no interest
+			if ( !ivStopped ) {
+				stop( );
+				ivPublishExecutor.execute( ( ) -> ivListener.liveImportFailed( ex ) );
+			}
+		}
+	}
+
+	/**
+	 * Stops the live import. Data which has not yet been published is discarded.
+	 */
+	public void stop( ) {
+		ivStopped = true;
+		ivScheduler.shutdownNow( );
+		ivLiveReader.close( );
+	}
+
+	public boolean isRunning( ) {
+		return !ivStopped;
+	}
+
+}
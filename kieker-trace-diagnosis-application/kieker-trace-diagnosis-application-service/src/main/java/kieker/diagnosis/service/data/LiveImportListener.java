@@ -0,0 +1,40 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+/**
+ * A listener which is informed about the progress of a {@link LiveImport}. The methods are called by the executor given to the live import.
+ *
+ * @author Nils Christian Ehmke
+ */
+public interface LiveImportListener {
+
+	/**
+	 * This method is called after new data has been published to the monitoring log service.
+	 */
+	void newDataAvailable( );
+
+	/**
+	 * This method is called, if the live import failed. The live import is stopped in this case.
+	 *
+	 * @param aException
+	 *                   The cause of the failure.
+	 */
+	void liveImportFailed( Exception aException );
+
+}
@@ -16,134 +16,72 @@
 
 package kieker.diagnosis.service.data;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * This is a data transfer object representing a single method call. However, it contains also all necessary information to represent a part (or the root) of a
- * trace.
+ * trace. The host, class, method, and exception are stored as ids of a {@link SymbolTable}. The method call does not know the table. The ids are resolved
+ * with the table of the import, which is owned by the {@link MonitoringLogService} (or by the {@link TraceStore} containing the method call).
+ * <p>
+ * This class only defines the accessors. Method calls on the heap are represented by {@link HeapMethodCall}s, which contain their values in own fields. Method
+ * calls within a {@link TraceStore} are represented by {@link StoredMethodCall}s, which read their values from the store.
  *
  * @author Nils Christian Ehmke
  */
-public final class MethodCall {
-
-	private ArrayList<MethodCall> ivChildren;
-
-	private long ivTimestamp;
-	private long ivDuration;
-	private long ivTraceId;
-	private String ivHost;
-	private String ivClazz;
-	private String ivMethod;
-	private String ivException;
-
-	private int ivTraceDepth;
-	private int ivTraceSize;
-	private float ivPercent;
-
-	public List<MethodCall> getChildren( ) {
-		if ( ivChildren == null ) {
-			return Collections.emptyList( );
-		}
-		return ivChildren;
-	}
+public abstract class MethodCall {
 
-	public void addChild( final MethodCall aMethod ) {
-		if ( ivChildren == null ) {
-			ivChildren = new ArrayList<>( );
-		}
-		ivChildren.add( aMethod );
-	}
+	public abstract List<MethodCall> getChildren( );
 
-	public void trimToSize( ) {
-		if ( ivChildren != null ) {
-			ivChildren.trimToSize( );
-		}
-	}
+	public abstract void addChild( final MethodCall aMethod );
 
-	public long getTimestamp( ) {
-		return ivTimestamp;
-	}
+	public abstract void trimToSize( );
 
-	public void setTimestamp( final long aTimestamp ) {
-		ivTimestamp = aTimestamp;
-	}
+	public abstract long getTimestamp( );
 
-	public long getDuration( ) {
-		return ivDuration;
-	}
+	public abstract void setTimestamp( final long aTimestamp );
 
-	public void setDuration( final long aDuration ) {
-		ivDuration = aDuration;
-	}
+	public abstract long getDuration( );
 
-	public long getTraceId( ) {
-		return ivTraceId;
-	}
+	public abstract void setDuration( final long aDuration );
 
-	public void setTraceId( final long aTraceId ) {
-		ivTraceId = aTraceId;
-	}
+	public abstract long getSelfDuration( );
 
-	public String getHost( ) {
-		return ivHost;
-	}
+	public abstract void setSelfDuration( final long aSelfDuration );
 
-	public void setHost( final String aHost ) {
-		ivHost = aHost;
-	}
+	public abstract long getTraceId( );
 
-	public String getClazz( ) {
-		return ivClazz;
-	}
+	public abstract void setTraceId( final long aTraceId );
 
-	public void setClazz( final String aClazz ) {
-		ivClazz = aClazz;
-	}
+	public abstract int getHostId( );
 
-	public String getMethod( ) {
-		return ivMethod;
-	}
+	public abstract void setHostId( final int aHostId );
 
-	public void setMethod( final String aMethod ) {
-		ivMethod = aMethod;
-	}
+	public abstract int getClazzId( );
 
-	public String getException( ) {
-		return ivException;
-	}
+	public abstract void setClazzId( final int aClazzId );
 
-	public void setException( final String aException ) {
-		ivException = aException;
-	}
+	public abstract int getMethodId( );
 
-	public int getTraceDepth( ) {
-		return ivTraceDepth;
-	}
+	public abstract void setMethodId( final int aMethodId );
 
-	public void setTraceDepth( final int aTraceDepth ) {
-		ivTraceDepth = aTraceDepth;
-	}
+	public abstract int getExceptionId( );
 
-	public int getTraceSize( ) {
-		return ivTraceSize;
-	}
+	public abstract void setExceptionId( final int aExceptionId );
 
-	public void setTraceSize( final int aTraceSize ) {
-		ivTraceSize = aTraceSize;
-	}
+	public abstract int getTraceDepth( );
 
-	public float getPercent( ) {
-		return ivPercent;
-	}
+	public abstract void setTraceDepth( final int aTraceDepth );
 
-	public void setPercent( final float aPercent ) {
-		ivPercent = aPercent;
-	}
+	public abstract int getTraceSize( );
+
+	public abstract void setTraceSize( final int aTraceSize );
+
+	public abstract float getPercent( );
+
+	public abstract void setPercent( final float aPercent );
 
 	public void addToTraceSize( final int aTraceSize ) {
-		ivTraceSize += aTraceSize;
+		setTraceSize( getTraceSize( ) + aTraceSize );
 	}
 
 }
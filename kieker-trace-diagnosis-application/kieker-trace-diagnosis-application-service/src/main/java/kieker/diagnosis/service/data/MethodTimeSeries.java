@@ -0,0 +1,149 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+
+package kieker.diagnosis.service.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This is the time series of an aggregated method. The method calls are rolled up into buckets of a fixed interval (based on their start timestamp).
+ * Arbitrary time windows can be aggregated from the buckets without having to scan the method calls again. The time series is immutable.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class MethodTimeSeries {
+
+	private final long ivInterval;
+	private final List<TimeBucket> ivBuckets;
+
+	/**
+	 * Creates a new time series.
+	 *
+	 * @param aInterval
+	 *                  The interval of the buckets in milliseconds.
+	 * @param aBuckets
+	 *                  The buckets. They must not be modified afterwards.
+	 */
+	public MethodTimeSeries( final long aInterval, final Collection<TimeBucket> aBuckets ) {
+		final List<TimeBucket> buckets = new ArrayList<>( aBuckets );
+		buckets.sort( Comparator.comparingLong( TimeBucket::getStartTimestamp ) );
+
+		ivInterval = aInterval;
+		ivBuckets = Collections.unmodifiableList( buckets );
+	}
+
+	/**
+	 * Calculates the start of the bucket containing the given timestamp.
+	 *
+	 * @param aTimestamp
+	 *                   The timestamp in milliseconds.
+	 * @param aInterval
+	 *                   The interval of the buckets in milliseconds.
+	 *
+	 * @return The start of the bucket.
+	 */
+	public static long getBucketStart( final long aTimestamp, final long aInterval ) {
+		return Math.floorDiv( aTimestamp, aInterval ) * aInterval;
+	}
+
+	public long getInterval( ) {
+		return ivInterval;
+	}
+
+	/**
+	 * Delivers the buckets, sorted by their start. Intervals without method calls have no bucket.
+	 *
+	 * @return An unmodifiable list of the buckets.
+	 */
+	public List<TimeBucket> getBuckets( ) {
+		return ivBuckets;
+	}
+
+	/**
+	 * Aggregates all buckets within the given time window. The window is aligned to the buckets, which means that a bucket is included if it starts
+	 * before the end of the window and contains the start of the window or starts after it.
+	 *
+	 * @param aFrom
+	 *              The start of the window in milliseconds (inclusive).
+	 * @param aTo
+	 *              The end of the window in milliseconds (exclusive).
+	 *
+	 * @return A new bucket containing all durations within the window. It starts at the start of the first included bucket.
+	 */
+	public TimeBucket aggregate( final long aFrom, final long aTo ) {
+		final long from = getBucketStart( aFrom, ivInterval );
+		final int firstIndex = findFirstBucket( from );
+
+		// The histograms can only be merged if they have the same precision
+		final int precision = ivBuckets.isEmpty( ) ? DurationHistogram.DEFAULT_PRECISION : ivBuckets.get( 0 ).getHistogram( ).getPrecision( );
+		final TimeBucket result = new TimeBucket( from, precision );
+		for ( int index = firstIndex; index < ivBuckets.size( ) && ivBuckets.get( index ).getStartTimestamp( ) < aTo; index++ ) {
+			result.merge( ivBuckets.get( index ) );
+		}
+		return result;
+	}
+
+	private int findFirstBucket( final long aStartTimestamp ) {
+		// The buckets are sorted, which means that we can use a binary search
+		int low = 0;
+		int high = ivBuckets.size( );
+		while ( low < high ) {
+			final int middle = low + high >>> 1;
+			if ( ivBuckets.get( middle ).getStartTimestamp( ) < aStartTimestamp ) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Merges this time series with the given buckets. Neither this time series nor the buckets are modified.
+	 *
+	 * @param aBuckets
+	 *                 The new buckets. They must have the same interval.
+	 *
+	 * @return A new time series containing the buckets of both.
+	 */
+	public MethodTimeSeries merge( final Collection<TimeBucket> aBuckets ) {
+		final List<TimeBucket> buckets = new ArrayList<>( ivBuckets.size( ) + aBuckets.size( ) );
+		for ( final TimeBucket bucket : ivBuckets ) {
+			buckets.add( bucket );
+		}
+
+		for ( final TimeBucket newBucket : aBuckets ) {
+			final int index = findFirstBucket( newBucket.getStartTimestamp( ) );
+			if ( index < ivBuckets.size( ) && ivBuckets.get( index ).getStartTimestamp( ) == newBucket.getStartTimestamp( ) ) {
+				// The existing bucket might be in use. We therefore merge into a copy.
+				final TimeBucket mergedBucket = ivBuckets.get( index ).copy( );
+				mergedBucket.merge( newBucket );
+				buckets.set( index, mergedBucket );
+			} else {
+				buckets.add( newBucket );
+			}
+		}
+
+		return new MethodTimeSeries( ivInterval, buckets );
+	}
+
+}
@@ -17,29 +17,54 @@
 package kieker.diagnosis.service.data;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
-import java.util.zip.ZipFile;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.carrotsearch.hppc.LongArrayList;
 
-import com.google.common.io.ByteStreams;
-import com.google.common.io.Files;
 import com.google.inject.Singleton;
 
 import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.exception.BusinessRuntimeException;
 import kieker.diagnosis.architecture.exception.TechnicalException;
 import kieker.diagnosis.architecture.service.ServiceBase;
+import kieker.diagnosis.architecture.service.properties.PropertiesService;
+import kieker.diagnosis.service.data.properties.AggregationMemoryBudgetProperty;
+import kieker.diagnosis.service.data.properties.AsciiFileReadModeProperty;
+import kieker.diagnosis.service.data.properties.BinaryFileReadModeProperty;
+import kieker.diagnosis.service.data.properties.HistogramPrecisionProperty;
+import kieker.diagnosis.service.data.properties.ImportParallelismProperty;
+import kieker.diagnosis.service.data.properties.LiveImportIntervalProperty;
+import kieker.diagnosis.service.data.properties.MappedWindowSizeProperty;
+import kieker.diagnosis.service.data.properties.OffHeapBudgetProperty;
+import kieker.diagnosis.service.data.properties.OffHeapScratchDirectoryProperty;
+import kieker.diagnosis.service.data.properties.SnapshotDirectoryProperty;
+import kieker.diagnosis.service.data.properties.SnapshotDirectorySizeProperty;
+import kieker.diagnosis.service.data.properties.TcpImportMaxPendingTracesProperty;
+import kieker.diagnosis.service.data.properties.TcpImportPortProperty;
+import kieker.diagnosis.service.data.properties.TimeBucketIntervalProperty;
+import kieker.diagnosis.service.data.properties.TraceStorageProperty;
+import kieker.diagnosis.service.data.reader.AsciiFileReadMode;
 import kieker.diagnosis.service.data.reader.AsciiFileReader;
+import kieker.diagnosis.service.data.reader.BinaryFileReadMode;
 import kieker.diagnosis.service.data.reader.BinaryFileReader;
-import kieker.diagnosis.service.data.reader.Reader;
+import kieker.diagnosis.service.data.reader.DirectoryLogSource;
+import kieker.diagnosis.service.data.reader.LogSource;
+import kieker.diagnosis.service.data.reader.LogTailer;
+import kieker.diagnosis.service.data.reader.ShardedImporter;
+import kieker.diagnosis.service.data.reader.TcpReceiver;
 import kieker.diagnosis.service.data.reader.TemporaryRepository;
+import kieker.diagnosis.service.data.reader.ZipLogSource;
+import kieker.diagnosis.service.data.snapshot.SnapshotStore;
 
 /**
  * This is the service responsible for importing monitoring logs and holding the necessary data from the import.
@@ -49,9 +74,18 @@ import kieker.diagnosis.service.data.reader.TemporaryRepository;
 @Singleton
 public class MonitoringLogService extends ServiceBase {
 
-	private final List<MethodCall> ivTraceRoots = new ArrayList<>( );
+	private List<MethodCall> ivTraceRoots = new ArrayList<>( );
 	private final List<AggregatedMethodCall> ivAggreatedMethods = new ArrayList<>( );
-	private final List<MethodCall> ivMethods = new ArrayList<>( );
+	private List<MethodCall> ivMethods = new ArrayList<>( );
+	private TraceStore ivTraceStore;
+	private SymbolTable ivSymbolTable = new SymbolTable( );
+	private CallingContextTree ivCallingContextTree = new CallingContextTree( DurationHistogram.DEFAULT_PRECISION, ivSymbolTable );
+	private TraceShapeIndex ivTraceShapeIndex = new TraceShapeIndex( DurationHistogram.DEFAULT_PRECISION );
+	private SymbolIndex ivSymbolIndex;
+	private SortedIndex ivMethodTimestampIndex;
+	private SortedIndex ivMethodTraceIdIndex;
+	private SortedIndex ivTraceTimestampIndex;
+	private TraceIdIndex ivTraceIdIndex = new TraceIdIndex( );
 	private long ivProcessDuration;
 	private long ivProcessedBytes;
 	private boolean dataAvailable = false;
@@ -59,6 +93,7 @@ public class MonitoringLogService extends ServiceBase {
 	private int ivDanglingRecords;
 	private int ivIncompleteTraces;
 	private String ivDirectory;
+	private LiveImport ivLiveImport;
 
 	public MonitoringLogService( ) {
 		// This is one of the few services that is allowed to store a state
@@ -66,28 +101,62 @@ public class MonitoringLogService extends ServiceBase {
 	}
 
 	public void importMonitoringLog( final File aDirectoryOrFile, final ImportType aType ) {
+		importMonitoringLog( aDirectoryOrFile, aType, new ImportProgress( ) );
+	}
+
+	/**
+	 * Imports the given monitoring log. The import can be observed and cancelled from another thread with the given progress. If a valid snapshot of the
+	 * monitoring log exists, the snapshot is read instead. After a successful import, a snapshot is written.
+	 *
+	 * @param aDirectoryOrFile
+	 *                         The directory or file containing the monitoring log.
+	 * @param aType
+	 *                         The type of the import.
+	 * @param aImportProgress
+	 *                         The progress of the import.
+	 *
+	 * @throws CancellationException
+	 *                               If the import has been cancelled. In this case no data is available afterwards.
+	 */
+	public void importMonitoringLog( final File aDirectoryOrFile, final ImportType aType, final ImportProgress aImportProgress ) {
 		final long tin = System.currentTimeMillis( );
 
-		File directory = null;
 		try {
+			stopLiveImport( );
 			clear( );
 
-			directory = extractIfNecessary( aDirectoryOrFile, aType );
+			final PropertiesService propertiesService = getService( PropertiesService.class );
+			final int histogramPrecision = propertiesService.loadSystemProperty( HistogramPrecisionProperty.class );
+			final int timeBucketInterval = propertiesService.loadSystemProperty( TimeBucketIntervalProperty.class );
 
-			// We use some helper classes to avoid having temporary fields in the service
-			final TemporaryRepository temporaryRepository = new TemporaryRepository( this );
-
-			final List<Reader> readerList = new ArrayList<>( );
-			readerList.add( new BinaryFileReader( temporaryRepository ) );
-			readerList.add( new AsciiFileReader( temporaryRepository ) );
-
-			boolean directoryImported = false;
+			final SnapshotStore snapshotStore = createSnapshotStore( );
+			final byte[] snapshotKey = snapshotStore != null ? snapshotStore.calculateKey( aDirectoryOrFile, aType, histogramPrecision, timeBucketInterval ) : null;
+			if ( snapshotStore != null && readSnapshot( snapshotStore, snapshotKey ) ) {
+				setDataAvailable( aDirectoryOrFile, tin );
+				return;
+			}
 
-			for ( final Reader reader : readerList ) {
-				if ( reader.shouldBeExecuted( directory ) ) {
-					reader.readFromDirectory( directory );
-					directoryImported = true;
-				}
+			final boolean directoryImported;
+			final TemporaryRepository temporaryRepository = new TemporaryRepository( this, aImportProgress );
+
+			try ( final LogSource logSource = createLogSource( aDirectoryOrFile, aType ) ) {
+				// We use some helper classes to avoid having temporary fields in the service
+				final BinaryFileReadMode readMode = propertiesService.loadSystemProperty( BinaryFileReadModeProperty.class );
+				final int mappedWindowSize = propertiesService.loadSystemProperty( MappedWindowSizeProperty.class );
+				final AsciiFileReadMode asciiReadMode = propertiesService.loadSystemProperty( AsciiFileReadModeProperty.class );
+				final int parallelism = propertiesService.loadSystemProperty( ImportParallelismProperty.class );
+				final int aggregationMemoryBudget = propertiesService.loadSystemProperty( AggregationMemoryBudgetProperty.class );
+				temporaryRepository.setAggregationMemoryBudget( aggregationMemoryBudget * 1024L * 1024L );
+				temporaryRepository.setHistogramPrecision( histogramPrecision );
+				temporaryRepository.setAggregationParallelism( parallelism );
+				temporaryRepository.setTimeBucketInterval( timeBucketInterval );
+				temporaryRepository.setTraceStoreFactory( createTraceStoreFactory( ) );
+
+				final ShardedImporter importer = new ShardedImporter( temporaryRepository, parallelism );
+				importer.addReader( repository -> new BinaryFileReader( repository, readMode, mappedWindowSize ) );
+				importer.addReader( repository -> new AsciiFileReader( repository, asciiReadMode ) );
+
+				directoryImported = importer.importLogSource( logSource );
 			}
 
 			temporaryRepository.finish( );
@@ -97,95 +166,291 @@ public class MonitoringLogService extends ServiceBase {
 				throw new BusinessException( getLocalizedString( "errorMessageUnknownMonitoringLog" ) );
 			}
 
-			if ( ivIgnoredRecords > 0 && ivTraceRoots.size( ) == 0 ) {
+			if ( ivIgnoredRecords > 0 && getTraceRoots( ).isEmpty( ) ) {
 				// No traces have been reconstructed and records have been ignored. We inform the user.
 				final String msg = String.format( getLocalizedString( "errorMessageNoTraceAndRecordsIgnored" ), ivIgnoredRecords );
 				throw new BusinessException( msg );
 			}
 
+			if ( snapshotStore != null ) {
+				writeSnapshot( snapshotStore, snapshotKey );
+			}
+
 			setDataAvailable( aDirectoryOrFile, tin );
 		} catch ( final BusinessException ex ) {
 			// A business exception means, that something went wrong, but that the data is partially available
 			setDataAvailable( aDirectoryOrFile, tin );
 
 			throw new BusinessRuntimeException( ex );
+		} catch ( final CancellationException ex ) {
+			// The user cancelled the import. We do not want to show partial data.
+			clear( );
+
+			throw ex;
 		} catch ( final Exception ex ) {
 			throw new TechnicalException( getLocalizedString( "errorMessageImportFailed" ), ex );
-		} finally {
-			// If necessary delete the temporary directory
-			if ( aType == ImportType.ZIP_FILE && directory != null ) {
-				deleteDirectory( directory );
-			}
 		}
 	}
 
-	private File extractIfNecessary( final File aDirectoryOrFile, final ImportType aType ) throws ZipException, IOException {
-		final File directory;
-		switch ( aType ) {
-			case DIRECTORY:
-				directory = aDirectoryOrFile;
-			break;
-			case ZIP_FILE:
-				directory = extractZIPFile( aDirectoryOrFile );
-			break;
-			default:
-				// Should not happen
-				directory = null;
-			break;
+	private SnapshotStore createSnapshotStore( ) {
+		final PropertiesService propertiesService = getService( PropertiesService.class );
+		final String snapshotDirectory = propertiesService.loadSystemProperty( SnapshotDirectoryProperty.class );
+		if ( snapshotDirectory.isEmpty( ) ) {
+			return null;
+		}
+
+		final int snapshotDirectorySize = propertiesService.loadSystemProperty( SnapshotDirectorySizeProperty.class );
+		return new SnapshotStore( new File( snapshotDirectory ), snapshotDirectorySize * 1024L * 1024L );
+	}
 
+	private boolean readSnapshot( final SnapshotStore aSnapshotStore, final byte[] aSnapshotKey ) {
+		try {
+			return aSnapshotStore.readSnapshot( aSnapshotKey, this );
+		} catch ( final Exception ex ) {
+			// A broken snapshot is not a problem. We simply import the monitoring log again.
+			clear( );
+			return false;
 		}
-		return directory;
 	}
 
-	private File extractZIPFile( final File aFile ) throws ZipException, IOException {
-		final File tempDirectory = Files.createTempDir( );
+	private void writeSnapshot( final SnapshotStore aSnapshotStore, final byte[] aSnapshotKey ) {
+		try {
+			aSnapshotStore.writeSnapshot( aSnapshotKey, this );
+		} catch ( final IOException ex ) {
+			// The snapshot is only an optimization. The import itself was successful.
+		}
+	}
 
-		try ( final ZipFile zipFile = new ZipFile( aFile ) ) {
-			final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries( );
-			while ( zipEntries.hasMoreElements( ) ) {
-				final ZipEntry zipEntry = zipEntries.nextElement( );
-				try ( InputStream inputStream = zipFile.getInputStream( zipEntry ) ) {
-					try ( final FileOutputStream outputStream = new FileOutputStream( new File( tempDirectory, zipEntry.getName( ) ) ) ) {
-						ByteStreams.copy( inputStream, outputStream );
-					}
-				}
-			}
+	/**
+	 * Starts a live import of the given directory. The directory is polled regularly and new records are imported incrementally, which means that traces
+	 * arrive while the monitored system is still writing the monitoring log. Traces which have already been imported are kept. A running live import is
+	 * stopped beforehand.
+	 *
+	 * @param aDirectory
+	 *                          The directory containing the monitoring log.
+	 * @param aPublishExecutor
+	 *                          The executor used to publish the new data to this service (for instance the UI thread). The data of this service is only
+	 *                          modified by this executor.
+	 * @param aListener
+	 *                          The listener which is informed (by the executor) about new data.
+	 *
+	 * @return The running live import.
+	 */
+	public LiveImport startLiveImport( final File aDirectory, final Executor aPublishExecutor, final LiveImportListener aListener ) {
+		stopLiveImport( );
+		clear( );
+
+		ivDirectory = aDirectory.getAbsolutePath( );
+		ivProcessDuration = 0;
+
+		final PropertiesService propertiesService = getService( PropertiesService.class );
+		final int pollInterval = propertiesService.loadSystemProperty( LiveImportIntervalProperty.class );
+		final int timeBucketInterval = propertiesService.loadSystemProperty( TimeBucketIntervalProperty.class );
+
+		// The live import always reads only the new records. The read modes are therefore not relevant here.
+		final LogTailer logTailer = new LogTailer( this, new DirectoryLogSource( aDirectory ), timeBucketInterval );
+		logTailer.addReader( repository -> new BinaryFileReader( repository ) );
+		logTailer.addReader( repository -> new AsciiFileReader( repository ) );
+
+		ivLiveImport = new LiveImport( logTailer, pollInterval, aPublishExecutor, aListener );
+		return ivLiveImport;
+	}
+
+	/**
+	 * Starts a live import, which receives the records of Kieker's TCP writer on the configured local port. Traces which have already been imported are
+	 * kept. A running live import is stopped beforehand.
+	 *
+	 * @param aPublishExecutor
+	 *                         The executor used to publish the new data to this service (for instance the UI thread). The data of this service is only
+	 *                         modified by this executor.
+	 * @param aListener
+	 *                         The listener which is informed (by the executor) about new data.
+	 *
+	 * @return The running live import.
+	 */
+	public LiveImport startTcpImport( final Executor aPublishExecutor, final LiveImportListener aListener ) {
+		stopLiveImport( );
+		clear( );
+
+		final PropertiesService propertiesService = getService( PropertiesService.class );
+		final int port = propertiesService.loadSystemProperty( TcpImportPortProperty.class );
+		final int maxPendingTraces = propertiesService.loadSystemProperty( TcpImportMaxPendingTracesProperty.class );
+		final int pollInterval = propertiesService.loadSystemProperty( LiveImportIntervalProperty.class );
+		final int timeBucketInterval = propertiesService.loadSystemProperty( TimeBucketIntervalProperty.class );
+
+		final TcpReceiver tcpReceiver;
+		try {
+			tcpReceiver = new TcpReceiver( this, port, maxPendingTraces, timeBucketInterval );
+		} catch ( final IOException ex ) {
+			throw new TechnicalException( String.format( getLocalizedString( "errorMessageTcpImportFailed" ), port ), ex );
 		}
 
-		return tempDirectory;
+		ivDirectory = "tcp://localhost:" + tcpReceiver.getPort( );
+		ivProcessDuration = 0;
+
+		ivLiveImport = new LiveImport( tcpReceiver, pollInterval, aPublishExecutor, aListener );
+		return ivLiveImport;
 	}
 
-	private void deleteDirectory( final File aDirectory ) {
-		final File[] children = aDirectory.listFiles( );
-		if ( children != null ) {
-			for ( final File child : children ) {
-				deleteDirectory( child );
-			}
+	/**
+	 * Stops the running live import (if any). The already imported data is kept.
+	 */
+	public void stopLiveImport( ) {
+		if ( ivLiveImport != null ) {
+			ivLiveImport.stop( );
+			ivLiveImport = null;
 		}
+	}
 
-		aDirectory.delete( );
+	public boolean isLiveImportRunning( ) {
+		return ivLiveImport != null && ivLiveImport.isRunning( );
+	}
+
+	private LogSource createLogSource( final File aDirectoryOrFile, final ImportType aType ) throws IOException {
+		switch ( aType ) {
+			case ZIP_FILE:
+				// The entries of the ZIP file are inflated while they are read. Nothing is extracted to the file system.
+				return new ZipLogSource( aDirectoryOrFile );
+			case DIRECTORY:
+			default:
+				return new DirectoryLogSource( aDirectoryOrFile );
+		}
 	}
 
 	private void setDataAvailable( final File aDirectory, final long aTin ) {
 		ivDirectory = aDirectory.getAbsolutePath( );
 		dataAvailable = true;
 
+		compactTraces( );
+
 		final long tout = System.currentTimeMillis( );
 		final long duration = tout - aTin;
 		ivProcessDuration = duration;
 	}
 
+	/**
+	 * Moves the traces on the heap into a {@link TraceStore}, if this is the configured storage. The method call objects can be collected afterwards.
+	 * Traces which have been appended to a store during the import are already compact.
+	 */
+	private void compactTraces( ) {
+		final Supplier<TraceStore> traceStoreFactory = createTraceStoreFactory( );
+		if ( ivTraceStore != null || traceStoreFactory == null ) {
+			return;
+		}
+
+		final TraceStore traceStore = traceStoreFactory.get( );
+		try {
+			traceStore.appendTraces( ivTraceRoots );
+		} catch ( final UncheckedIOException ex ) {
+			// The off-heap storage is only an optimization. We keep the traces on the heap.
+			traceStore.close( );
+			return;
+		}
+		traceStore.trimToSize( );
+		ivTraceStore = traceStore;
+
+		// We create new lists, as cleared lists would still hold their (large) arrays
+		ivTraceRoots = new ArrayList<>( );
+		ivMethods = new ArrayList<>( );
+	}
+
+	/**
+	 * Creates an empty store of the configured storage, which uses the symbol table of the current import.
+	 *
+	 * @return The store or {@code null}, if the traces are kept on the heap.
+	 */
+	public TraceStore createTraceStore( ) {
+		final Supplier<TraceStore> traceStoreFactory = createTraceStoreFactory( );
+		return traceStoreFactory != null ? traceStoreFactory.get( ) : null;
+	}
+
+	/**
+	 * Creates the factory for the stores of the configured storage. All stores of the factory share the symbol table of the current import and the
+	 * off-heap budget.
+	 *
+	 * @return The factory or {@code null}, if the traces are kept on the heap.
+	 */
+	private Supplier<TraceStore> createTraceStoreFactory( ) {
+		final PropertiesService propertiesService = getService( PropertiesService.class );
+		final TraceStorage traceStorage = propertiesService.loadSystemProperty( TraceStorageProperty.class );
+		final SymbolTable symbolTable = ivSymbolTable;
+
+		switch ( traceStorage ) {
+			case ARRAY:
+				return ( ) -> ArrayTraceStore.create( symbolTable );
+			case OFF_HEAP:
+				final AtomicLong budget = new AtomicLong( propertiesService.loadSystemProperty( OffHeapBudgetProperty.class ) * 1024L * 1024L );
+				final Path scratchDirectory = Paths.get( propertiesService.loadSystemProperty( OffHeapScratchDirectoryProperty.class ) );
+				return ( ) -> OffHeapTraceStore.create( symbolTable, budget, scratchDirectory );
+			case HEAP:
+			default:
+				return null;
+		}
+	}
+
 	private void clear( ) {
 		dataAvailable = false;
-		ivTraceRoots.clear( );
+		if ( ivTraceStore != null ) {
+			ivTraceStore.close( );
+			ivTraceStore = null;
+		}
+		ivTraceRoots = new ArrayList<>( );
 		ivAggreatedMethods.clear( );
-		ivMethods.clear( );
+		ivMethods = new ArrayList<>( );
+
+		// The method calls of the new import get their own symbols. The symbols of the previous import are released with its data.
+		ivSymbolTable = new SymbolTable( );
+		ivSymbolIndex = null;
+		ivMethodTimestampIndex = null;
+		ivMethodTraceIdIndex = null;
+		ivTraceTimestampIndex = null;
+		ivTraceIdIndex = new TraceIdIndex( );
+
+		final PropertiesService propertiesService = getService( PropertiesService.class );
+		final int histogramPrecision = propertiesService.loadSystemProperty( HistogramPrecisionProperty.class );
+		ivTraceShapeIndex = new TraceShapeIndex( histogramPrecision );
+		ivCallingContextTree = new CallingContextTree( histogramPrecision, ivSymbolTable );
 	}
 
 	public void addTraceRoot( final MethodCall aTraceRoot ) {
+		addTraceRoot( aTraceRoot, TraceShape.calculateShapeHash( aTraceRoot ) );
+	}
+
+	/**
+	 * Adds a trace, whose shape has already been calculated during the reconstruction.
+	 *
+	 * @param aTraceRoot
+	 *                   The root of the trace.
+	 * @param aShapeHash
+	 *                   The shape hash of the trace (see {@link TraceShape}).
+	 */
+	public synchronized void addTraceRoot( final MethodCall aTraceRoot, final long aShapeHash ) {
+		getTraceIdIndex( ).add( aTraceRoot.getTraceId( ) );
+		getCallingContextTree( ).addTrace( aTraceRoot );
+		ivTraceShapeIndex.addTrace( ivTraceRoots.size( ), aShapeHash, aTraceRoot.getDuration( ) );
 		ivTraceRoots.add( aTraceRoot );
 	}
 
+	/**
+	 * Takes over the store, to which the traces have been appended during the import. The traces are indexed like the traces added with
+	 * {@link #addTraceRoot(MethodCall, long)}.
+	 *
+	 * @param aTraceStore
+	 *                     The store.
+	 * @param aShapeHashes
+	 *                     The shape hashes of the traces in the order of their roots (see {@link TraceShape}).
+	 */
+	public synchronized void setTraceStore( final TraceStore aTraceStore, final LongArrayList aShapeHashes ) {
+		ivTraceStore = aTraceStore;
+		for ( int rootIndex = 0; rootIndex < aTraceStore.getTraceRootCount( ); rootIndex++ ) {
+			ivTraceShapeIndex.addTrace( rootIndex, aShapeHashes.get( rootIndex ), aTraceStore.getDuration( aTraceStore.getTraceRoot( rootIndex ) ) );
+		}
+
+		// The remaining indices catch up with the new traces
+		getTraceIdIndex( );
+		getCallingContextTree( );
+	}
+
 	public void addAggregatedMethods( final Collection<AggregatedMethodCall> aAggregatedMethodCalls ) {
 		ivAggreatedMethods.addAll( aAggregatedMethodCalls );
 	}
@@ -198,8 +463,121 @@ public class MonitoringLogService extends ServiceBase {
 		ivProcessedBytes = aProcessedBytes;
 	}
 
+	/**
+	 * Delivers the symbol table of the current import. The method calls and aggregated method calls contain only the ids of their symbols, which are
+	 * resolved with this table. It is replaced by a new table as soon as the next import starts.
+	 *
+	 * @return The symbol table.
+	 */
+	public SymbolTable getSymbolTable( ) {
+		return ivSymbolTable;
+	}
+
 	public List<MethodCall> getTraceRoots( ) {
-		return ivTraceRoots;
+		return ivTraceStore != null ? ivTraceStore.getTraceRoots( ) : ivTraceRoots;
+	}
+
+	/**
+	 * Delivers the calling context tree of all imported traces. Each trace is merged into the tree as soon as it is added. Traces which have been added
+	 * directly to the list of trace roots are merged on the next request.
+	 *
+	 * @return The calling context tree.
+	 */
+	public synchronized CallingContextTree getCallingContextTree( ) {
+		final List<MethodCall> traceRoots = getTraceRoots( );
+		if ( ivCallingContextTree.getTraceCount( ) > traceRoots.size( ) ) {
+			final PropertiesService propertiesService = getService( PropertiesService.class );
+			ivCallingContextTree = new CallingContextTree( propertiesService.loadSystemProperty( HistogramPrecisionProperty.class ), ivSymbolTable );
+		}
+		for ( int index = ivCallingContextTree.getTraceCount( ); index < traceRoots.size( ); index++ ) {
+			ivCallingContextTree.addTrace( traceRoots.get( index ) );
+		}
+		return ivCallingContextTree;
+	}
+
+	/**
+	 * Delivers the index of the structurally identical traces. The traces are referenced by their position within {@link #getTraceRoots()}.
+	 *
+	 * @return The index.
+	 */
+	public TraceShapeIndex getTraceShapeIndex( ) {
+		return ivTraceShapeIndex;
+	}
+
+	/**
+	 * Delivers the inverted index over the symbols of the method calls. The method calls are referenced by their position within {@link #getMethods()}.
+	 * The index is only built on the first request, which means that imports without searches do not pay for it. If it is not up to date (for instance
+	 * due to a live import), it is rebuilt from the current method calls.
+	 *
+	 * @return The index.
+	 */
+	public synchronized SymbolIndex getSymbolIndex( ) {
+		final List<MethodCall> methods = getMethods( );
+
+		// The method calls are only appended. A changed size is therefore sufficient to detect an outdated index.
+		if ( ivSymbolIndex == null || ivSymbolIndex.getSize( ) != methods.size( ) ) {
+			ivSymbolIndex = SymbolIndex.create( methods, ivSymbolTable );
+		}
+		return ivSymbolIndex;
+	}
+
+	/**
+	 * Delivers the index of the method calls sorted by their timestamps. The method calls are referenced by their position within {@link #getMethods()}.
+	 * If the index is not available or not up to date, it is built from the current method calls.
+	 *
+	 * @return The index.
+	 */
+	public synchronized SortedIndex getMethodTimestampIndex( ) {
+		final List<MethodCall> methods = getMethods( );
+		if ( ivMethodTimestampIndex == null || ivMethodTimestampIndex.getSize( ) != methods.size( ) ) {
+			ivMethodTimestampIndex = SortedIndex.create( methods, MethodCall::getTimestamp );
+		}
+		return ivMethodTimestampIndex;
+	}
+
+	/**
+	 * Delivers the index of the method calls sorted by their trace ids. The method calls are referenced by their position within {@link #getMethods()}. The
+	 * index is only built on the first request, as trace ids are rarely searched within the method calls. It is rebuilt, if it is not up to date.
+	 *
+	 * @return The index.
+	 */
+	public synchronized SortedIndex getMethodTraceIdIndex( ) {
+		final List<MethodCall> methods = getMethods( );
+		if ( ivMethodTraceIdIndex == null || ivMethodTraceIdIndex.getSize( ) != methods.size( ) ) {
+			ivMethodTraceIdIndex = SortedIndex.create( methods, MethodCall::getTraceId );
+		}
+		return ivMethodTraceIdIndex;
+	}
+
+	/**
+	 * Delivers the index of the trace roots sorted by their timestamps. The traces are referenced by their position within {@link #getTraceRoots()}. If
+	 * the index is not available or not up to date, it is built from the current traces.
+	 *
+	 * @return The index.
+	 */
+	public synchronized SortedIndex getTraceTimestampIndex( ) {
+		final List<MethodCall> traceRoots = getTraceRoots( );
+		if ( ivTraceTimestampIndex == null || ivTraceTimestampIndex.getSize( ) != traceRoots.size( ) ) {
+			ivTraceTimestampIndex = SortedIndex.create( traceRoots, MethodCall::getTimestamp );
+		}
+		return ivTraceTimestampIndex;
+	}
+
+	/**
+	 * Delivers the hash index of the traces by their trace ids. The traces are referenced by their position within {@link #getTraceRoots()}. The index is
+	 * filled as soon as a trace is added. Traces which have been added directly to the list of trace roots are indexed on the next request.
+	 *
+	 * @return The index.
+	 */
+	public synchronized TraceIdIndex getTraceIdIndex( ) {
+		final List<MethodCall> traceRoots = getTraceRoots( );
+		if ( ivTraceIdIndex.getSize( ) > traceRoots.size( ) ) {
+			ivTraceIdIndex = new TraceIdIndex( );
+		}
+		for ( int position = ivTraceIdIndex.getSize( ); position < traceRoots.size( ); position++ ) {
+			ivTraceIdIndex.add( traceRoots.get( position ).getTraceId( ) );
+		}
+		return ivTraceIdIndex;
 	}
 
 	public List<AggregatedMethodCall> getAggreatedMethods( ) {
@@ -207,7 +585,16 @@ public class MonitoringLogService extends ServiceBase {
 	}
 
 	public List<MethodCall> getMethods( ) {
-		return ivMethods;
+		return ivTraceStore != null ? ivTraceStore.getMethodCalls( ) : ivMethods;
+	}
+
+	/**
+	 * Delivers the store containing the imported traces.
+	 *
+	 * @return The store or {@code null}, if the traces are stored on the heap.
+	 */
+	public TraceStore getTraceStore( ) {
+		return ivTraceStore;
 	}
 
 	public long getProcessDuration( ) {
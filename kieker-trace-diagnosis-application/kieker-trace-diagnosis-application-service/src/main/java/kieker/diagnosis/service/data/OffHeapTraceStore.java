@@ -0,0 +1,395 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a storage for imported traces outside of the Java heap. Each method call is a record with a fixed layout of {@value #RECORD_SIZE} bytes. The
+ * records are stored in segments of direct byte buffers as long as the configured budget allows it. The remaining segments are memory mapped from a
+ * scratch file, which means that the operating system pages them in and out as required. The heap consumption of this store does therefore not depend on
+ * the number of method calls. The segments are allocated while traces are appended.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class OffHeapTraceStore extends TraceStore {
+
+	private static final int RECORD_SIZE = 72;
+	private static final int TIMESTAMP_OFFSET = 0;
+	private static final int DURATION_OFFSET = 8;
+	private static final int TRACE_ID_OFFSET = 16;
+	private static final int HOST_ID_OFFSET = 24;
+	private static final int CLAZZ_ID_OFFSET = 28;
+	private static final int METHOD_ID_OFFSET = 32;
+	private static final int EXCEPTION_ID_OFFSET = 36;
+	private static final int TRACE_DEPTH_OFFSET = 40;
+	private static final int TRACE_SIZE_OFFSET = 44;
+	private static final int PERCENT_OFFSET = 48;
+	private static final int FIRST_CHILD_OFFSET = 52;
+	private static final int NEXT_SIBLING_OFFSET = 56;
+	private static final int SELF_DURATION_OFFSET = 64;
+
+	// A segment contains up to 2^20 records (72 MiB). Only the last segment grows, which means that full segments are never copied.
+	private static final int SEGMENT_SHIFT = 20;
+	private static final int SEGMENT_MASK = ( 1 << SEGMENT_SHIFT ) - 1;
+	private static final int MIN_SEGMENT_CAPACITY = 1024;
+
+	private final AtomicLong ivBudget;
+	private final Path ivScratchDirectory;
+	private final Segments ivRecords = new Segments( RECORD_SIZE );
+	private final Segments ivTraceRoots = new Segments( Integer.BYTES );
+
+	private OffHeapTraceStore( final SymbolTable aSymbolTable, final AtomicLong aBudget, final Path aScratchDirectory ) {
+		super( aSymbolTable );
+
+		ivBudget = aBudget;
+		ivScratchDirectory = aScratchDirectory;
+	}
+
+	/**
+	 * Creates a new and empty store. If the scratch file cannot be created or mapped later on, appending a trace fails with an
+	 * {@link UncheckedIOException}.
+	 *
+	 * @param aSymbolTable
+	 *                          The symbol table of the method calls.
+	 * @param aBudget
+	 *                          The number of bytes which can still be allocated in direct buffers. The budget can be shared by several stores. The
+	 *                          remaining data is stored in memory mapped scratch files.
+	 * @param aScratchDirectory
+	 *                          The directory for the scratch files.
+	 *
+	 * @return A new store.
+	 */
+	public static OffHeapTraceStore create( final SymbolTable aSymbolTable, final AtomicLong aBudget, final Path aScratchDirectory ) {
+		return new OffHeapTraceStore( aSymbolTable, aBudget, aScratchDirectory );
+	}
+
+	/**
+	 * Delivers whether parts of this store are memory mapped from a scratch file, because the budget was exceeded.
+	 *
+	 * @return true if and only if a scratch file is used.
+	 */
+	public boolean isUsingScratchFile( ) {
+		return ivRecords.ivScratchFile != null || ivTraceRoots.ivScratchFile != null;
+	}
+
+	@Override
+	protected void ensureCapacity( final int aSize, final int aTraceRootCount ) {
+		ivRecords.ensureCapacity( aSize );
+		ivTraceRoots.ensureCapacity( aTraceRootCount );
+	}
+
+	@Override
+	public void close( ) {
+		ivRecords.release( );
+		ivTraceRoots.release( );
+	}
+
+	private long getLong( final int aIndex, final int aOffset ) {
+		return ivRecords.getSegment( aIndex ).getLong( ivRecords.getPosition( aIndex, aOffset ) );
+	}
+
+	private void putLong( final int aIndex, final int aOffset, final long aValue ) {
+		ivRecords.getSegment( aIndex ).putLong( ivRecords.getPosition( aIndex, aOffset ), aValue );
+	}
+
+	private int getInt( final int aIndex, final int aOffset ) {
+		return ivRecords.getSegment( aIndex ).getInt( ivRecords.getPosition( aIndex, aOffset ) );
+	}
+
+	private void putInt( final int aIndex, final int aOffset, final int aValue ) {
+		ivRecords.getSegment( aIndex ).putInt( ivRecords.getPosition( aIndex, aOffset ), aValue );
+	}
+
+	@Override
+	public int getTraceRoot( final int aRootIndex ) {
+		return ivTraceRoots.getSegment( aRootIndex ).getInt( ivTraceRoots.getPosition( aRootIndex, 0 ) );
+	}
+
+	@Override
+	protected void setTraceRoot( final int aRootIndex, final int aIndex ) {
+		ivTraceRoots.getSegment( aRootIndex ).putInt( ivTraceRoots.getPosition( aRootIndex, 0 ), aIndex );
+	}
+
+	@Override
+	public int getFirstChild( final int aIndex ) {
+		return getInt( aIndex, FIRST_CHILD_OFFSET );
+	}
+
+	@Override
+	protected void setFirstChild( final int aIndex, final int aFirstChild ) {
+		putInt( aIndex, FIRST_CHILD_OFFSET, aFirstChild );
+	}
+
+	@Override
+	public int getNextSibling( final int aIndex ) {
+		return getInt( aIndex, NEXT_SIBLING_OFFSET );
+	}
+
+	@Override
+	protected void setNextSibling( final int aIndex, final int aNextSibling ) {
+		putInt( aIndex, NEXT_SIBLING_OFFSET, aNextSibling );
+	}
+
+	@Override
+	public long getTimestamp( final int aIndex ) {
+		return getLong( aIndex, TIMESTAMP_OFFSET );
+	}
+
+	@Override
+	void setTimestamp( final int aIndex, final long aTimestamp ) {
+		putLong( aIndex, TIMESTAMP_OFFSET, aTimestamp );
+	}
+
+	@Override
+	public long getDuration( final int aIndex ) {
+		return getLong( aIndex, DURATION_OFFSET );
+	}
+
+	@Override
+	void setDuration( final int aIndex, final long aDuration ) {
+		putLong( aIndex, DURATION_OFFSET, aDuration );
+	}
+
+	@Override
+	public long getSelfDuration( final int aIndex ) {
+		return getLong( aIndex, SELF_DURATION_OFFSET );
+	}
+
+	@Override
+	void setSelfDuration( final int aIndex, final long aSelfDuration ) {
+		putLong( aIndex, SELF_DURATION_OFFSET, aSelfDuration );
+	}
+
+	@Override
+	public long getTraceId( final int aIndex ) {
+		return getLong( aIndex, TRACE_ID_OFFSET );
+	}
+
+	@Override
+	void setTraceId( final int aIndex, final long aTraceId ) {
+		putLong( aIndex, TRACE_ID_OFFSET, aTraceId );
+	}
+
+	@Override
+	public int getHostId( final int aIndex ) {
+		return getInt( aIndex, HOST_ID_OFFSET );
+	}
+
+	@Override
+	void setHostId( final int aIndex, final int aHostId ) {
+		putInt( aIndex, HOST_ID_OFFSET, aHostId );
+	}
+
+	@Override
+	public int getClazzId( final int aIndex ) {
+		return getInt( aIndex, CLAZZ_ID_OFFSET );
+	}
+
+	@Override
+	void setClazzId( final int aIndex, final int aClazzId ) {
+		putInt( aIndex, CLAZZ_ID_OFFSET, aClazzId );
+	}
+
+	@Override
+	public int getMethodId( final int aIndex ) {
+		return getInt( aIndex, METHOD_ID_OFFSET );
+	}
+
+	@Override
+	void setMethodId( final int aIndex, final int aMethodId ) {
+		putInt( aIndex, METHOD_ID_OFFSET, aMethodId );
+	}
+
+	@Override
+	public int getExceptionId( final int aIndex ) {
+		return getInt( aIndex, EXCEPTION_ID_OFFSET );
+	}
+
+	@Override
+	void setExceptionId( final int aIndex, final int aExceptionId ) {
+		putInt( aIndex, EXCEPTION_ID_OFFSET, aExceptionId );
+	}
+
+	@Override
+	public int getTraceDepth( final int aIndex ) {
+		return getInt( aIndex, TRACE_DEPTH_OFFSET );
+	}
+
+	@Override
+	void setTraceDepth( final int aIndex, final int aTraceDepth ) {
+		putInt( aIndex, TRACE_DEPTH_OFFSET, aTraceDepth );
+	}
+
+	@Override
+	public int getTraceSize( final int aIndex ) {
+		return getInt( aIndex, TRACE_SIZE_OFFSET );
+	}
+
+	@Override
+	void setTraceSize( final int aIndex, final int aTraceSize ) {
+		putInt( aIndex, TRACE_SIZE_OFFSET, aTraceSize );
+	}
+
+	@Override
+	public float getPercent( final int aIndex ) {
+		return ivRecords.getSegment( aIndex ).getFloat( ivRecords.getPosition( aIndex, PERCENT_OFFSET ) );
+	}
+
+	@Override
+	void setPercent( final int aIndex, final float aPercent ) {
+		ivRecords.getSegment( aIndex ).putFloat( ivRecords.getPosition( aIndex, PERCENT_OFFSET ), aPercent );
+	}
+
+	/**
+	 * A sequence of entries with a fixed size, which is divided into segments. Each segment is either a direct buffer (as long as the budget allows it)
+	 * or memory mapped from a scratch file. Each segment has a fixed region within the scratch file, which means that a mapped segment grows without being
+	 * copied.
+	 */
+	private final class Segments {
+
+		private final int ivEntrySize;
+		private ByteBuffer[] ivSegments = new ByteBuffer[0];
+		private boolean[] ivMappedSegments = new boolean[0];
+		private long ivCapacity;
+		private Path ivScratchFile;
+
+		Segments( final int aEntrySize ) {
+			ivEntrySize = aEntrySize;
+		}
+
+		ByteBuffer getSegment( final int aIndex ) {
+			return ivSegments[aIndex >>> SEGMENT_SHIFT];
+		}
+
+		int getPosition( final int aIndex, final int aOffset ) {
+			return ( aIndex & SEGMENT_MASK ) * ivEntrySize + aOffset;
+		}
+
+		void ensureCapacity( final int aCapacity ) {
+			if ( aCapacity <= ivCapacity ) {
+				return;
+			}
+
+			final int lastSegment = ( aCapacity - 1 ) >>> SEGMENT_SHIFT;
+			if ( lastSegment >= ivSegments.length ) {
+				ivSegments = Arrays.copyOf( ivSegments, lastSegment + 1 );
+				ivMappedSegments = Arrays.copyOf( ivMappedSegments, lastSegment + 1 );
+			}
+
+			ivCapacity = 0;
+			for ( int segment = 0; segment < ivSegments.length; segment++ ) {
+				final int requiredEntries = segment < lastSegment ? SEGMENT_MASK + 1 : ( ( aCapacity - 1 ) & SEGMENT_MASK ) + 1;
+				final ByteBuffer oldSegment = ivSegments[segment];
+				final int oldEntries = oldSegment != null ? oldSegment.capacity( ) / ivEntrySize : 0;
+
+				if ( oldEntries < requiredEntries ) {
+					// The last segment grows geometrically
+					final int entries = Math.min( Math.max( requiredEntries, Math.max( oldEntries * 2, MIN_SEGMENT_CAPACITY ) ), SEGMENT_MASK + 1 );
+					ivSegments[segment] = growSegment( segment, oldSegment, entries * ivEntrySize );
+				}
+
+				ivCapacity += ivSegments[segment].capacity( ) / ivEntrySize;
+			}
+		}
+
+		private ByteBuffer growSegment( final int aSegment, final ByteBuffer aOldSegment, final int aBytes ) {
+			final boolean oldSegmentMapped = ivMappedSegments[aSegment];
+			final ByteBuffer newSegment = allocateSegment( aSegment, aBytes );
+
+			if ( aOldSegment != null ) {
+				// Mapped segments share their region within the scratch file. Everything else has to be copied.
+				if ( !( oldSegmentMapped && ivMappedSegments[aSegment] ) ) {
+					final ByteBuffer source = aOldSegment.duplicate( );
+					source.clear( );
+					newSegment.duplicate( ).put( source );
+				}
+				releaseSegment( aOldSegment, oldSegmentMapped );
+			}
+
+			return newSegment;
+		}
+
+		private ByteBuffer allocateSegment( final int aSegment, final int aBytes ) {
+			if ( ivBudget.addAndGet( -aBytes ) >= 0 ) {
+				try {
+					final ByteBuffer segment = ByteBuffer.allocateDirect( aBytes ).order( ByteOrder.nativeOrder( ) );
+					ivMappedSegments[aSegment] = false;
+					return segment;
+				} catch ( final OutOfMemoryError ex ) {
+					// The budget exceeds the direct memory available to the JVM. We use the scratch file instead.
+				}
+			}
+			ivBudget.addAndGet( aBytes );
+			ivMappedSegments[aSegment] = true;
+
+			try {
+				if ( ivScratchFile == null ) {
+					ivScratchFile = Files.createTempFile( ivScratchDirectory, "kieker-trace-diagnosis", ".traces" );
+					ivScratchFile.toFile( ).deleteOnExit( );
+				}
+
+				try ( final FileChannel fileChannel = FileChannel.open( ivScratchFile, StandardOpenOption.READ, StandardOpenOption.WRITE ) ) {
+					final long position = ( long ) aSegment * ( SEGMENT_MASK + 1 ) * ivEntrySize;
+					return fileChannel.map( MapMode.READ_WRITE, position, aBytes ).order( ByteOrder.nativeOrder( ) );
+				}
+			} catch ( final IOException ex ) {
+				throw new UncheckedIOException( ex );
+			}
+		}
+
+		private void releaseSegment( final ByteBuffer aSegment, final boolean aMapped ) {
+			// The direct buffer is freed by the garbage collector, but its size is available for other segments immediately
+			if ( !aMapped ) {
+				ivBudget.addAndGet( aSegment.capacity( ) );
+			}
+		}
+
+		void release( ) {
+			for ( int segment = 0; segment < ivSegments.length; segment++ ) {
+				if ( ivSegments[segment] != null ) {
+					releaseSegment( ivSegments[segment], ivMappedSegments[segment] );
+				}
+			}
+			ivSegments = new ByteBuffer[0];
+			ivMappedSegments = new boolean[0];
+			ivCapacity = 0;
+
+			if ( ivScratchFile != null ) {
+				try {
+					// This can fail on some operating systems as long as the mapped buffers have not been collected. The file is then deleted on exit.
+					Files.deleteIfExists( ivScratchFile );
+				} catch ( final IOException ex ) {
+					// The file is deleted on exit
+				}
+			}
+		}
+
+	}
+
+}
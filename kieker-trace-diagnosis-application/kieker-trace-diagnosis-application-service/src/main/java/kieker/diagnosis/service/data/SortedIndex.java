@@ -0,0 +1,162 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * This is an index of method calls sorted by a key (for instance the timestamp or the trace id). It is a sorted permutation of the positions of the
+ * method calls. A range of keys does therefore resolve with a binary search to a contiguous range within the index. The permutation is always sorted as
+ * an array of primitives: If the relative keys and the positions fit together into a single long, they are packed directly. Otherwise the keys are
+ * replaced by their ranks first.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SortedIndex {
+
+	private final long[] ivKeys;
+	private final int[] ivPositions;
+
+	private SortedIndex( final long[] aKeys, final int[] aPositions ) {
+		ivKeys = aKeys;
+		ivPositions = aPositions;
+	}
+
+	/**
+	 * Creates a new index for the given method calls. The method calls are referenced by their position within the list.
+	 *
+	 * @param aMethodCalls
+	 *                     The method calls.
+	 * @param aKeyFunction
+	 *                     The function delivering the key of a method call.
+	 *
+	 * @return The new index.
+	 */
+	public static SortedIndex create( final List<MethodCall> aMethodCalls, final ToLongFunction<MethodCall> aKeyFunction ) {
+		final int size = aMethodCalls.size( );
+		final long[] keys = new long[size];
+		long minKey = Long.MAX_VALUE;
+		long maxKey = Long.MIN_VALUE;
+		for ( int position = 0; position < size; position++ ) {
+			final long key = aKeyFunction.applyAsLong( aMethodCalls.get( position ) );
+			keys[position] = key;
+			minKey = Math.min( minKey, key );
+			maxKey = Math.max( maxKey, key );
+		}
+
+		final int positionBits = Integer.SIZE - Integer.numberOfLeadingZeros( size );
+		final long range = maxKey - minKey;
+		if ( size == 0 || range >= 0 && range >>> ( Long.SIZE - 1 - positionBits ) == 0 ) {
+			return createPacked( keys, minKey, positionBits );
+		}
+
+		// The keys spread too far. We sort by their ranks instead, which are always smaller than the number of method calls.
+		final long[] sortedKeys = keys.clone( );
+		Arrays.parallelSort( sortedKeys );
+		final long[] ranks = new long[size];
+		for ( int position = 0; position < size; position++ ) {
+			ranks[position] = findFirstIndex( sortedKeys, keys[position] );
+		}
+
+		final SortedIndex rankIndex = createPacked( ranks, 0L, positionBits );
+		return new SortedIndex( sortedKeys, rankIndex.ivPositions );
+	}
+
+	private static SortedIndex createPacked( final long[] aKeys, final long aMinKey, final int aPositionBits ) {
+		final int size = aKeys.length;
+		final long positionMask = ( 1L << aPositionBits ) - 1;
+
+		// The relative key is stored in the upper bits and the position in the lower bits. Equal keys are therefore sorted by their position.
+		final long[] packed = new long[size];
+		for ( int position = 0; position < size; position++ ) {
+			packed[position] = aKeys[position] - aMinKey << aPositionBits | position;
+		}
+		Arrays.parallelSort( packed );
+
+		final int[] positions = new int[size];
+		for ( int index = 0; index < size; index++ ) {
+			positions[index] = ( int ) ( packed[index] & positionMask );
+			aKeys[index] = ( packed[index] >>> aPositionBits ) + aMinKey;
+		}
+		return new SortedIndex( aKeys, positions );
+	}
+
+	/**
+	 * Delivers the number of method calls within this index.
+	 *
+	 * @return The number of method calls.
+	 */
+	public int getSize( ) {
+		return ivKeys.length;
+	}
+
+	/**
+	 * Finds all method calls with keys within the given range.
+	 *
+	 * @param aFrom
+	 *              The start of the range (inclusive).
+	 * @param aTo
+	 *              The end of the range (exclusive).
+	 *
+	 * @return A new bit set containing the positions of the matching method calls.
+	 */
+	public BitSet findMethodCalls( final long aFrom, final long aTo ) {
+		return findMethodCalls( findFirstIndex( ivKeys, aFrom ), findFirstIndex( ivKeys, aTo ) );
+	}
+
+	/**
+	 * Finds all method calls with the given key.
+	 *
+	 * @param aKey
+	 *             The key.
+	 *
+	 * @return A new bit set containing the positions of the matching method calls.
+	 */
+	public BitSet findMethodCalls( final long aKey ) {
+		final int toIndex = aKey == Long.MAX_VALUE ? ivKeys.length : findFirstIndex( ivKeys, aKey + 1 );
+		return findMethodCalls( findFirstIndex( ivKeys, aKey ), toIndex );
+	}
+
+	private BitSet findMethodCalls( final int aFromIndex, final int aToIndex ) {
+		final BitSet methodCalls = new BitSet( ivPositions.length );
+		for ( int index = aFromIndex; index < aToIndex; index++ ) {
+			methodCalls.set( ivPositions[index] );
+		}
+		return methodCalls;
+	}
+
+	/**
+	 * Delivers the first index whose key is not smaller than the given key (binary search).
+	 */
+	private static int findFirstIndex( final long[] aSortedKeys, final long aKey ) {
+		int low = 0;
+		int high = aSortedKeys.length;
+		while ( low < high ) {
+			final int middle = low + high >>> 1;
+			if ( aSortedKeys[middle] < aKey ) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
@@ -0,0 +1,177 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.List;
+
+/**
+ * This is a lightweight view on a method call within a {@link TraceStore}. All values are read from (and written to) the store. Views on the same method
+ * call are equal, but the tree structure of a view cannot be modified.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class StoredMethodCall extends MethodCall {
+
+	private final TraceStore ivStore;
+	private final int ivIndex;
+
+	StoredMethodCall( final TraceStore aStore, final int aIndex ) {
+		ivStore = aStore;
+		ivIndex = aIndex;
+	}
+
+	@Override
+	public List<MethodCall> getChildren( ) {
+		return ivStore.getChildren( ivIndex );
+	}
+
+	@Override
+	public void addChild( final MethodCall aMethod ) {
+		throw new UnsupportedOperationException( "The tree structure of a stored method call cannot be modified" );
+	}
+
+	@Override
+	public void trimToSize( ) {
+		// The store is already compact
+	}
+
+	@Override
+	public long getTimestamp( ) {
+		return ivStore.getTimestamp( ivIndex );
+	}
+
+	@Override
+	public void setTimestamp( final long aTimestamp ) {
+		ivStore.setTimestamp( ivIndex, aTimestamp );
+	}
+
+	@Override
+	public long getDuration( ) {
+		return ivStore.getDuration( ivIndex );
+	}
+
+	@Override
+	public void setDuration( final long aDuration ) {
+		ivStore.setDuration( ivIndex, aDuration );
+	}
+
+	@Override
+	public long getSelfDuration( ) {
+		return ivStore.getSelfDuration( ivIndex );
+	}
+
+	@Override
+	public void setSelfDuration( final long aSelfDuration ) {
+		ivStore.setSelfDuration( ivIndex, aSelfDuration );
+	}
+
+	@Override
+	public long getTraceId( ) {
+		return ivStore.getTraceId( ivIndex );
+	}
+
+	@Override
+	public void setTraceId( final long aTraceId ) {
+		ivStore.setTraceId( ivIndex, aTraceId );
+	}
+
+	@Override
+	public int getHostId( ) {
+		return ivStore.getHostId( ivIndex );
+	}
+
+	@Override
+	public void setHostId( final int aHostId ) {
+		ivStore.setHostId( ivIndex, aHostId );
+	}
+
+	@Override
+	public int getClazzId( ) {
+		return ivStore.getClazzId( ivIndex );
+	}
+
+	@Override
+	public void setClazzId( final int aClazzId ) {
+		ivStore.setClazzId( ivIndex, aClazzId );
+	}
+
+	@Override
+	public int getMethodId( ) {
+		return ivStore.getMethodId( ivIndex );
+	}
+
+	@Override
+	public void setMethodId( final int aMethodId ) {
+		ivStore.setMethodId( ivIndex, aMethodId );
+	}
+
+	@Override
+	public int getExceptionId( ) {
+		return ivStore.getExceptionId( ivIndex );
+	}
+
+	@Override
+	public void setExceptionId( final int aExceptionId ) {
+		ivStore.setExceptionId( ivIndex, aExceptionId );
+	}
+
+	@Override
+	public int getTraceDepth( ) {
+		return ivStore.getTraceDepth( ivIndex );
+	}
+
+	@Override
+	public void setTraceDepth( final int aTraceDepth ) {
+		ivStore.setTraceDepth( ivIndex, aTraceDepth );
+	}
+
+	@Override
+	public int getTraceSize( ) {
+		return ivStore.getTraceSize( ivIndex );
+	}
+
+	@Override
+	public void setTraceSize( final int aTraceSize ) {
+		ivStore.setTraceSize( ivIndex, aTraceSize );
+	}
+
+	@Override
+	public float getPercent( ) {
+		return ivStore.getPercent( ivIndex );
+	}
+
+	@Override
+	public void setPercent( final float aPercent ) {
+		ivStore.setPercent( ivIndex, aPercent );
+	}
+
+	@Override
+	public int hashCode( ) {
+		return ivIndex;
+	}
+
+	@Override
+	public boolean equals( final Object aObject ) {
+		if ( !( aObject instanceof StoredMethodCall ) ) {
+			return false;
+		}
+
+		final StoredMethodCall other = ( StoredMethodCall ) aObject;
+		return ivStore == other.ivStore && ivIndex == other.ivIndex;
+	}
+
+}
@@ -0,0 +1,249 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntObjectHashMap;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.IntSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+
+/**
+ * This is an inverted index over the symbols of the method calls. For each of the fields host, class, method, and exception, it maps a symbol to the
+ * positions of the method calls using it (posting lists). Additionally, the lower case variants of all used symbols are indexed by their trigrams. A
+ * case-insensitive substring search does therefore not have to scan all method calls: The candidate symbols are determined by intersecting the posting
+ * lists of the trigrams of the search string and only the method calls of the matching symbols are collected afterwards. Regular expressions can not be
+ * answered by this index.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SymbolIndex {
+
+	private static final int TRIGRAM_LENGTH = 3;
+
+	private final int ivSize;
+
+	// The symbol ids within all posting lists are sorted ascending, which allows to intersect them with a merge
+	private final IntArrayList ivSymbolIds = new IntArrayList( );
+	private final IntObjectMap<String> ivLowerCaseSymbols = new IntObjectHashMap<>( );
+	private final LongObjectMap<IntArrayList> ivTrigrams = new LongObjectHashMap<>( );
+
+	private final IntObjectMap<IntArrayList> ivHostPostings = new IntObjectHashMap<>( );
+	private final IntObjectMap<IntArrayList> ivClazzPostings = new IntObjectHashMap<>( );
+	private final IntObjectMap<IntArrayList> ivMethodPostings = new IntObjectHashMap<>( );
+	private final IntObjectMap<IntArrayList> ivExceptionPostings = new IntObjectHashMap<>( );
+
+	private SymbolIndex( final int aSize ) {
+		ivSize = aSize;
+	}
+
+	/**
+	 * Creates a new index for the given method calls. The method calls are referenced by their position within the list.
+	 *
+	 * @param aMethodCalls
+	 *                     The method calls.
+	 * @param aSymbolTable
+	 *                     The symbol table to which the ids of the method calls belong.
+	 *
+	 * @return The new index.
+	 */
+	public static SymbolIndex create( final List<MethodCall> aMethodCalls, final SymbolTable aSymbolTable ) {
+		final int size = aMethodCalls.size( );
+		final SymbolIndex index = new SymbolIndex( size );
+
+		final IntSet usedSymbolIds = new IntHashSet( );
+		for ( int position = 0; position < size; position++ ) {
+			final MethodCall methodCall = aMethodCalls.get( position );
+			addPosting( index.ivHostPostings, methodCall.getHostId( ), position, usedSymbolIds );
+			addPosting( index.ivClazzPostings, methodCall.getClazzId( ), position, usedSymbolIds );
+			addPosting( index.ivMethodPostings, methodCall.getMethodId( ), position, usedSymbolIds );
+			addPosting( index.ivExceptionPostings, methodCall.getExceptionId( ), position, usedSymbolIds );
+		}
+
+		final int[] symbolIds = usedSymbolIds.toArray( );
+		Arrays.sort( symbolIds );
+		for ( final int symbolId : symbolIds ) {
+			index.addSymbol( aSymbolTable, symbolId );
+		}
+
+		return index;
+	}
+
+	private static void addPosting( final IntObjectMap<IntArrayList> aPostings, final int aSymbolId, final int aPosition, final IntSet aUsedSymbolIds ) {
+		// A substring search never matches null. There is therefore no need to index the (usually very long) posting list of the null symbol.
+		if ( aSymbolId == SymbolTable.NULL_SYMBOL ) {
+			return;
+		}
+
+		final int index = aPostings.indexOf( aSymbolId );
+		if ( aPostings.indexExists( index ) ) {
+			aPostings.indexGet( index ).add( aPosition );
+		} else {
+			final IntArrayList postingList = new IntArrayList( );
+			postingList.add( aPosition );
+			aPostings.indexInsert( index, aSymbolId, postingList );
+			aUsedSymbolIds.add( aSymbolId );
+		}
+	}
+
+	private void addSymbol( final SymbolTable aSymbolTable, final int aSymbolId ) {
+		final String lowerCaseSymbol = aSymbolTable.resolve( aSymbolId ).toLowerCase( );
+		ivSymbolIds.add( aSymbolId );
+		ivLowerCaseSymbols.put( aSymbolId, lowerCaseSymbol );
+
+		for ( int offset = 0; offset + TRIGRAM_LENGTH <= lowerCaseSymbol.length( ); offset++ ) {
+			final long trigram = calculateTrigram( lowerCaseSymbol, offset );
+
+			final int index = ivTrigrams.indexOf( trigram );
+			if ( ivTrigrams.indexExists( index ) ) {
+				final IntArrayList postingList = ivTrigrams.indexGet( index );
+
+				// A trigram can occur multiple times within the same symbol
+				if ( postingList.get( postingList.size( ) - 1 ) != aSymbolId ) {
+					postingList.add( aSymbolId );
+				}
+			} else {
+				final IntArrayList postingList = new IntArrayList( );
+				postingList.add( aSymbolId );
+				ivTrigrams.indexInsert( index, trigram, postingList );
+			}
+		}
+	}
+
+	private static long calculateTrigram( final String aString, final int aOffset ) {
+		return ( long ) aString.charAt( aOffset ) << 32 | ( long ) aString.charAt( aOffset + 1 ) << 16 | aString.charAt( aOffset + 2 );
+	}
+
+	/**
+	 * Delivers the number of method calls within this index.
+	 *
+	 * @return The number of method calls.
+	 */
+	public int getSize( ) {
+		return ivSize;
+	}
+
+	/**
+	 * Finds all method calls matching the given search strings. A method call matches, if each of its symbols contains the corresponding search string
+	 * (ignoring the case). A search string which is {@code null} matches all method calls.
+	 *
+	 * @param aHost
+	 *                   The search string for the host or {@code null}.
+	 * @param aClazz
+	 *                   The search string for the class or {@code null}.
+	 * @param aMethod
+	 *                   The search string for the method or {@code null}.
+	 * @param aException
+	 *                   The search string for the exception or {@code null}.
+	 *
+	 * @return A new bit set containing the positions of the matching method calls.
+	 */
+	public BitSet findMethodCalls( final String aHost, final String aClazz, final String aMethod, final String aException ) {
+		final BitSet methodCalls = new BitSet( ivSize );
+		methodCalls.set( 0, ivSize );
+
+		restrictMethodCalls( methodCalls, ivHostPostings, aHost );
+		restrictMethodCalls( methodCalls, ivClazzPostings, aClazz );
+		restrictMethodCalls( methodCalls, ivMethodPostings, aMethod );
+		restrictMethodCalls( methodCalls, ivExceptionPostings, aException );
+
+		return methodCalls;
+	}
+
+	private void restrictMethodCalls( final BitSet aMethodCalls, final IntObjectMap<IntArrayList> aPostings, final String aSearchString ) {
+		if ( aSearchString == null || aMethodCalls.isEmpty( ) ) {
+			return;
+		}
+
+		final BitSet matchingMethodCalls = new BitSet( ivSize );
+		final IntArrayList symbolIds = findSymbols( aSearchString );
+		for ( int symbolIndex = 0; symbolIndex < symbolIds.size( ); symbolIndex++ ) {
+			final IntArrayList postingList = aPostings.get( symbolIds.get( symbolIndex ) );
+			if ( postingList != null ) {
+				final int[] positions = postingList.buffer;
+				for ( int index = 0; index < postingList.size( ); index++ ) {
+					matchingMethodCalls.set( positions[index] );
+				}
+			}
+		}
+
+		aMethodCalls.and( matchingMethodCalls );
+	}
+
+	/**
+	 * Finds all symbols within this index containing the given search string (ignoring the case).
+	 *
+	 * @param aSearchString
+	 *                      The search string.
+	 *
+	 * @return A new list containing the ids of the matching symbols in ascending order.
+	 */
+	public IntArrayList findSymbols( final String aSearchString ) {
+		final String searchString = aSearchString.toLowerCase( );
+
+		// Short search strings contain no trigram. As the number of distinct symbols is small, we simply check all of them.
+		IntArrayList candidates = ivSymbolIds;
+		for ( int offset = 0; offset + TRIGRAM_LENGTH <= searchString.length( ); offset++ ) {
+			final IntArrayList postingList = ivTrigrams.get( calculateTrigram( searchString, offset ) );
+			if ( postingList == null ) {
+				return new IntArrayList( );
+			}
+			candidates = intersect( candidates, postingList );
+		}
+
+		// The trigrams can be contained in a different order. We therefore have to verify the candidates.
+		final IntArrayList symbolIds = new IntArrayList( );
+		for ( int index = 0; index < candidates.size( ); index++ ) {
+			final int symbolId = candidates.get( index );
+			if ( ivLowerCaseSymbols.get( symbolId ).contains( searchString ) ) {
+				symbolIds.add( symbolId );
+			}
+		}
+		return symbolIds;
+	}
+
+	private static IntArrayList intersect( final IntArrayList aFirstList, final IntArrayList aSecondList ) {
+		final int firstSize = aFirstList.size( );
+		final int secondSize = aSecondList.size( );
+		final int[] first = aFirstList.buffer;
+		final int[] second = aSecondList.buffer;
+
+		final IntArrayList intersection = new IntArrayList( Math.min( firstSize, secondSize ) );
+		int firstIndex = 0;
+		int secondIndex = 0;
+		while ( firstIndex < firstSize && secondIndex < secondSize ) {
+			if ( first[firstIndex] < second[secondIndex] ) {
+				firstIndex++;
+			} else if ( first[firstIndex] > second[secondIndex] ) {
+				secondIndex++;
+			} else {
+				intersection.add( first[firstIndex] );
+				firstIndex++;
+				secondIndex++;
+			}
+		}
+
+		return intersection;
+	}
+
+}
@@ -0,0 +1,104 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This is a dictionary for the symbols (hosts, classes, methods, and exceptions) of the method calls. Each distinct symbol is stored only once and
+ * identified by a compact int id. The id {@link #NULL_SYMBOL} stands for {@code null}. The ids are only valid within the table which assigned them.
+ * Each import uses its own table (owned by the {@link MonitoringLogService}), which means that the symbols are released together with the imported data.
+ * A table can be used concurrently by multiple import threads.<br>
+ * <br>
+ * The ids are assigned in the order in which the symbols are interned first. If several threads intern symbols concurrently (like the shards of a
+ * parallel import), the ids depend on the scheduling of the threads. The only guarantee is that two method calls of the same import have the same id if
+ * and only if they have the same symbol. The ids should therefore only be compared with each other and never be shown or persisted without the table.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SymbolTable {
+
+	public static final int NULL_SYMBOL = 0;
+
+	private final ConcurrentMap<String, Integer> ivSymbolIds = new ConcurrentHashMap<>( );
+	private volatile String[] ivSymbols = new String[1024];
+	private int ivSize = 1;
+
+	/**
+	 * Delivers the id of the given symbol. The symbol is added to the table, if it is not yet known.
+	 *
+	 * @param aSymbol
+	 *                The symbol. Can be {@code null}.
+	 *
+	 * @return The id of the symbol.
+	 */
+	public int intern( final String aSymbol ) {
+		if ( aSymbol == null ) {
+			return NULL_SYMBOL;
+		}
+
+		final Integer symbolId = ivSymbolIds.get( aSymbol );
+		if ( symbolId != null ) {
+			return symbolId;
+		}
+
+		return add( aSymbol );
+	}
+
+	private synchronized int add( final String aSymbol ) {
+		final Integer symbolId = ivSymbolIds.get( aSymbol );
+		if ( symbolId != null ) {
+			return symbolId;
+		}
+
+		if ( ivSize == ivSymbols.length ) {
+			ivSymbols = Arrays.copyOf( ivSymbols, ivSize * 2 );
+		}
+
+		// The symbol has to be stored before its id is published via the map
+		final int newSymbolId = ivSize++;
+		ivSymbols[newSymbolId] = aSymbol;
+		ivSymbolIds.put( aSymbol, newSymbolId );
+
+		return newSymbolId;
+	}
+
+	/**
+	 * Delivers the number of ids assigned so far (including {@link #NULL_SYMBOL}). All ids are smaller than this number.
+	 *
+	 * @return The number of ids.
+	 */
+	public synchronized int getSize( ) {
+		return ivSize;
+	}
+
+	/**
+	 * Delivers the symbol with the given id.
+	 *
+	 * @param aSymbolId
+	 *                  The id of the symbol.
+	 *
+	 * @return The symbol or {@code null}, if the id is {@link #NULL_SYMBOL}.
+	 */
+	public String resolve( final int aSymbolId ) {
+		return ivSymbols[aSymbolId];
+	}
+
+}
@@ -0,0 +1,123 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+
+package kieker.diagnosis.service.data;
+
+/**
+ * This is a single bucket of a {@link MethodTimeSeries}. It contains the statistics of all durations of an aggregated method whose method calls started
+ * within the interval of the bucket.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TimeBucket {
+
+	private final long ivStartTimestamp;
+	private final DurationHistogram ivHistogram;
+	private long ivTotalDuration;
+
+	/**
+	 * Creates a new and empty bucket.
+	 *
+	 * @param aStartTimestamp
+	 *                            The start of the interval in milliseconds.
+	 * @param aHistogramPrecision
+	 *                            The precision of the histogram in bits.
+	 */
+	public TimeBucket( final long aStartTimestamp, final int aHistogramPrecision ) {
+		this( aStartTimestamp, new DurationHistogram( aHistogramPrecision ), 0L );
+	}
+
+	/**
+	 * Creates a new bucket with the given content.
+	 *
+	 * @param aStartTimestamp
+	 *                        The start of the interval in milliseconds.
+	 * @param aHistogram
+	 *                        The histogram of the bucket. It is used directly.
+	 * @param aTotalDuration
+	 *                        The sum of all durations within the histogram.
+	 */
+	public TimeBucket( final long aStartTimestamp, final DurationHistogram aHistogram, final long aTotalDuration ) {
+		ivStartTimestamp = aStartTimestamp;
+		ivHistogram = aHistogram;
+		ivTotalDuration = aTotalDuration;
+	}
+
+	public long getStartTimestamp( ) {
+		return ivStartTimestamp;
+	}
+
+	public long getCount( ) {
+		return ivHistogram.getTotalCount( );
+	}
+
+	public long getTotalDuration( ) {
+		return ivTotalDuration;
+	}
+
+	public long getAvgDuration( ) {
+		final long count = getCount( );
+		return count > 0 ? ivTotalDuration / count : 0L;
+	}
+
+	public long getMinDuration( ) {
+		return ivHistogram.getMinDuration( );
+	}
+
+	public long getMaxDuration( ) {
+		return ivHistogram.getMaxDuration( );
+	}
+
+	public DurationHistogram getHistogram( ) {
+		return ivHistogram;
+	}
+
+	/**
+	 * Records the duration of a method call.
+	 *
+	 * @param aDuration
+	 *                  The duration in nanoseconds.
+	 */
+	public void record( final long aDuration ) {
+		ivTotalDuration += aDuration;
+		ivHistogram.record( aDuration );
+	}
+
+	/**
+	 * Adds the content of the given bucket to this bucket.
+	 *
+	 * @param aBucket
+	 *                The bucket to merge. It is not modified.
+	 */
+	public void merge( final TimeBucket aBucket ) {
+		ivTotalDuration += aBucket.ivTotalDuration;
+		ivHistogram.merge( aBucket.ivHistogram );
+	}
+
+	/**
+	 * Creates a copy of this bucket, which can be modified independently.
+	 *
+	 * @return The copy.
+	 */
+	public TimeBucket copy( ) {
+		final TimeBucket copy = new TimeBucket( ivStartTimestamp, ivHistogram.getPrecision( ) );
+		copy.merge( this );
+		return copy;
+	}
+
+}
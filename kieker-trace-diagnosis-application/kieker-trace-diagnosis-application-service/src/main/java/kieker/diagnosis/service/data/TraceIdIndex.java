@@ -0,0 +1,95 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongIntMap;
+
+/**
+ * This is a hash index of the traces by their trace ids. The traces are referenced by their position within the trace roots and are added in this order,
+ * usually as soon as they have been completed. Usually a trace id is unique, but the index supports multiple traces with the same id (for instance from
+ * different hosts). The traces with the same id are linked via a primitive list, which means that the index needs only a single map.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceIdIndex {
+
+	private static final int NO_POSITION = -1;
+
+	// The map contains the last added position of each trace id. The previous positions with the same trace id are linked via the list.
+	private final LongIntMap ivLastPositions = new LongIntHashMap( );
+	private final IntArrayList ivPreviousPositions = new IntArrayList( );
+
+	/**
+	 * Adds the next trace to the index. Its position is the number of traces added so far.
+	 *
+	 * @param aTraceId
+	 *                 The trace id of the trace.
+	 */
+	public void add( final long aTraceId ) {
+		final int position = ivPreviousPositions.size( );
+
+		final int index = ivLastPositions.indexOf( aTraceId );
+		if ( ivLastPositions.indexExists( index ) ) {
+			ivPreviousPositions.add( ivLastPositions.indexGet( index ) );
+			ivLastPositions.indexReplace( index, position );
+		} else {
+			ivPreviousPositions.add( NO_POSITION );
+			ivLastPositions.indexInsert( index, aTraceId, position );
+		}
+	}
+
+	/**
+	 * Delivers the number of traces within this index.
+	 *
+	 * @return The number of traces.
+	 */
+	public int getSize( ) {
+		return ivPreviousPositions.size( );
+	}
+
+	/**
+	 * Finds all traces with the given trace id.
+	 *
+	 * @param aTraceId
+	 *                 The trace id.
+	 *
+	 * @return A new list containing the positions of the traces in ascending order.
+	 */
+	public IntArrayList findTraces( final long aTraceId ) {
+		final IntArrayList positions = new IntArrayList( );
+
+		final int index = ivLastPositions.indexOf( aTraceId );
+		if ( ivLastPositions.indexExists( index ) ) {
+			for ( int position = ivLastPositions.indexGet( index ); position != NO_POSITION; position = ivPreviousPositions.get( position ) ) {
+				positions.add( position );
+			}
+
+			// The positions have been collected in descending order
+			final int[] buffer = positions.buffer;
+			for ( int left = 0, right = positions.size( ) - 1; left < right; left++, right-- ) {
+				final int position = buffer[left];
+				buffer[left] = buffer[right];
+				buffer[right] = position;
+			}
+		}
+
+		return positions;
+	}
+
+}
@@ -0,0 +1,210 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+
+/**
+ * This is a group of structurally identical traces. Two traces have the same shape, if they consist of the same method calls (host, class, and method) in the
+ * same order and nesting. The shape is identified by a 64-bit hash, which is calculated bottom-up from the ordered signatures of the children. The traces
+ * themselves are only referenced by their position within the trace roots of the {@link MonitoringLogService}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceShape {
+
+	private static final long CHILD_MULTIPLIER = 0x100000001B3L;
+
+	private final long ivShapeHash;
+	private final IntArrayList ivTraceIndices = new IntArrayList( );
+	private final DurationHistogram ivHistogram;
+	private long ivTotalDuration;
+
+	/**
+	 * Creates a new shape without traces.
+	 *
+	 * @param aShapeHash
+	 *                            The hash of the shape.
+	 * @param aHistogramPrecision
+	 *                            The precision of the histogram, which is used to calculate the percentiles of the trace durations.
+	 */
+	public TraceShape( final long aShapeHash, final int aHistogramPrecision ) {
+		ivShapeHash = aShapeHash;
+		ivHistogram = new DurationHistogram( aHistogramPrecision );
+	}
+
+	/**
+	 * Adds a trace to this shape.
+	 *
+	 * @param aTraceIndex
+	 *                    The position of the trace within the trace roots.
+	 * @param aDuration
+	 *                    The duration of the trace root in nanoseconds.
+	 */
+	public void addTrace( final int aTraceIndex, final long aDuration ) {
+		ivTraceIndices.add( aTraceIndex );
+		ivHistogram.record( aDuration );
+		ivTotalDuration += aDuration;
+	}
+
+	public long getShapeHash( ) {
+		return ivShapeHash;
+	}
+
+	/**
+	 * Delivers the position of the first trace with this shape, which can be used as a representative of the whole shape.
+	 *
+	 * @return The position within the trace roots.
+	 */
+	public int getFirstTraceIndex( ) {
+		return ivTraceIndices.get( 0 );
+	}
+
+	public int[] getTraceIndices( ) {
+		return ivTraceIndices.toArray( );
+	}
+
+	public int getCount( ) {
+		return ivTraceIndices.size( );
+	}
+
+	public long getTotalDuration( ) {
+		return ivTotalDuration;
+	}
+
+	public long getAvgDuration( ) {
+		return ivTotalDuration / ivTraceIndices.size( );
+	}
+
+	public long getMinDuration( ) {
+		return ivHistogram.getMinDuration( );
+	}
+
+	public long getMaxDuration( ) {
+		return ivHistogram.getMaxDuration( );
+	}
+
+	/**
+	 * Delivers the duration of the traces at the given percentile. The value is calculated from a histogram and has therefore only a limited precision.
+	 *
+	 * @param aPercentile
+	 *                    The percentile (between 0 and 100).
+	 *
+	 * @return The duration in nanoseconds.
+	 */
+	public long getDurationAtPercentile( final double aPercentile ) {
+		return ivHistogram.getValueAtPercentile( aPercentile );
+	}
+
+	/**
+	 * Adds the hash of a child to the accumulated hash of its siblings. The order of the children is relevant.
+	 *
+	 * @param aAccumulator
+	 *                     The accumulated hash of the previous children (0 for the first child).
+	 * @param aChildHash
+	 *                     The shape hash of the child.
+	 *
+	 * @return The new accumulated hash.
+	 */
+	public static long addChild( final long aAccumulator, final long aChildHash ) {
+		return aAccumulator * CHILD_MULTIPLIER + aChildHash;
+	}
+
+	/**
+	 * Calculates the shape hash of a method call from the accumulated hash of its children and its own signature.
+	 *
+	 * @param aAccumulator
+	 *                     The accumulated hash of the children (see {@link #addChild(long, long)}).
+	 * @param aHostId
+	 *                     The host of the method call.
+	 * @param aClazzId
+	 *                     The class of the method call.
+	 * @param aMethodId
+	 *                     The method of the method call.
+	 *
+	 * @return The shape hash.
+	 */
+	public static long calculateNodeHash( final long aAccumulator, final int aHostId, final int aClazzId, final int aMethodId ) {
+		final long signature = mix( ( long ) aClazzId << 32 | aMethodId & 0xFFFFFFFFL ) ^ aHostId;
+		return mix( mix( signature ) + aAccumulator );
+	}
+
+	/**
+	 * Calculates the shape hash of a whole trace by walking through the trace. This is used for traces, which have not been hashed during their
+	 * reconstruction.
+	 *
+	 * @param aTraceRoot
+	 *                   The root of the trace.
+	 *
+	 * @return The shape hash of the trace.
+	 */
+	public static long calculateShapeHash( final MethodCall aTraceRoot ) {
+		// We avoid a recursion, as the traces can be very deep. The method calls are visited in post-order, which means that the children are always
+		// finished before their parent.
+		final Deque<MethodCall> methodCalls = new ArrayDeque<>( );
+		final LongArrayList accumulators = new LongArrayList( );
+		final IntArrayList nextChildren = new IntArrayList( );
+		methodCalls.push( aTraceRoot );
+		accumulators.add( 0L );
+		nextChildren.add( 0 );
+
+		long shapeHash = 0;
+		while ( !methodCalls.isEmpty( ) ) {
+			final MethodCall methodCall = methodCalls.peek( );
+			final List<MethodCall> children = methodCall.getChildren( );
+			final int top = nextChildren.size( ) - 1;
+			final int nextChild = nextChildren.get( top );
+
+			if ( nextChild < children.size( ) ) {
+				nextChildren.set( top, nextChild + 1 );
+				methodCalls.push( children.get( nextChild ) );
+				accumulators.add( 0L );
+				nextChildren.add( 0 );
+			} else {
+				methodCalls.pop( );
+				nextChildren.remove( top );
+				final long accumulator = accumulators.remove( top );
+				shapeHash = calculateNodeHash( accumulator, methodCall.getHostId( ), methodCall.getClazzId( ), methodCall.getMethodId( ) );
+
+				if ( top > 0 ) {
+					accumulators.set( top - 1, addChild( accumulators.get( top - 1 ), shapeHash ) );
+				}
+			}
+		}
+
+		return shapeHash;
+	}
+
+	/**
+	 * The finalizer of MurmurHash3, which distributes the bits of the value.
+	 */
+	private static long mix( final long aValue ) {
+		long value = aValue;
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+}
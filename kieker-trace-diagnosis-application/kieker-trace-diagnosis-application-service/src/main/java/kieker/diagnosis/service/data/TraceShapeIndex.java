@@ -0,0 +1,89 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+
+/**
+ * This is an index from the shape hashes to the groups of structurally identical traces. The shapes are kept in the order in which they have been found
+ * first.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceShapeIndex {
+
+	private final LongObjectMap<TraceShape> ivShapesByHash = new LongObjectHashMap<>( );
+	private final List<TraceShape> ivShapes = new ArrayList<>( );
+	private final int ivHistogramPrecision;
+
+	/**
+	 * Creates a new and empty index.
+	 *
+	 * @param aHistogramPrecision
+	 *                            The precision of the histograms, which are used to calculate the percentiles of the shapes.
+	 */
+	public TraceShapeIndex( final int aHistogramPrecision ) {
+		ivHistogramPrecision = aHistogramPrecision;
+	}
+
+	/**
+	 * Adds a trace to the index.
+	 *
+	 * @param aTraceIndex
+	 *                    The position of the trace within the trace roots.
+	 * @param aShapeHash
+	 *                    The shape hash of the trace.
+	 * @param aDuration
+	 *                    The duration of the trace root in nanoseconds.
+	 */
+	public void addTrace( final int aTraceIndex, final long aShapeHash, final long aDuration ) {
+		final int index = ivShapesByHash.indexOf( aShapeHash );
+
+		final TraceShape shape;
+		if ( ivShapesByHash.indexExists( index ) ) {
+			shape = ivShapesByHash.indexGet( index );
+		} else {
+			shape = new TraceShape( aShapeHash, ivHistogramPrecision );
+			ivShapesByHash.indexInsert( index, aShapeHash, shape );
+			ivShapes.add( shape );
+		}
+
+		shape.addTrace( aTraceIndex, aDuration );
+	}
+
+	public List<TraceShape> getShapes( ) {
+		return Collections.unmodifiableList( ivShapes );
+	}
+
+	public TraceShape getShape( final long aShapeHash ) {
+		return ivShapesByHash.get( aShapeHash );
+	}
+
+	public int getHistogramPrecision( ) {
+		return ivHistogramPrecision;
+	}
+
+	public int size( ) {
+		return ivShapes.size( );
+	}
+
+}
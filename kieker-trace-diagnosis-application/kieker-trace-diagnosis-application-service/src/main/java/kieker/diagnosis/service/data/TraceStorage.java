@@ -0,0 +1,44 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+/**
+ * This enumeration represents the possible ways how the {@link MonitoringLogService} stores the imported traces.
+ *
+ * @author Nils Christian Ehmke
+ */
+public enum TraceStorage {
+
+	/**
+	 * Each method call is a separate object on the heap.
+	 */
+	HEAP,
+
+	/**
+	 * The method calls are appended to an {@link ArrayTraceStore} as soon as their traces are finished. This needs considerably less heap. A live import
+	 * always uses the heap, as its traces are still growing.
+	 */
+	ARRAY,
+
+	/**
+	 * The method calls are appended to an {@link OffHeapTraceStore} as soon as their traces are finished. The heap consumption does not depend on the
+	 * number of method calls. A live import always uses the heap, as its traces are still growing.
+	 */
+	OFF_HEAP
+
+}
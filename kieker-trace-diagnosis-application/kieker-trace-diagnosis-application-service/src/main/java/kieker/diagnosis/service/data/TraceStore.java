@@ -0,0 +1,409 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Stack;
+
+import com.carrotsearch.hppc.IntStack;
+
+/**
+ * This is the base for compact storages of imported traces. Instead of one object per method call, a store keeps the values of the method calls in
+ * columns or records addressed by an index. The method calls are stored in pre-order, which means that each trace occupies a contiguous range of indices.
+ * The tree structure is represented by the indices of the first child and of the next sibling of each method call. Method calls are only created as
+ * lightweight views ({@link StoredMethodCall}) on demand.
+ * <p>
+ * The traces are appended one after another, which means that a store can be filled while the traces are still being imported. The percent values and
+ * the self durations are calculated while the method calls are appended.
+ *
+ * @author Nils Christian Ehmke
+ */
+public abstract class TraceStore {
+
+	public static final int NO_INDEX = -1;
+
+	private final SymbolTable ivSymbolTable;
+
+	private int ivSize;
+	private int ivTraceRootCount;
+
+	// The last appended child of each method call of the current trace (relative to the root of the trace)
+	private int ivCurrentTraceRoot = NO_INDEX;
+	private int[] ivLastChildren = new int[16];
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param aSymbolTable
+	 *                     The symbol table of the stored method calls.
+	 */
+	protected TraceStore( final SymbolTable aSymbolTable ) {
+		ivSymbolTable = aSymbolTable;
+	}
+
+	public final SymbolTable getSymbolTable( ) {
+		return ivSymbolTable;
+	}
+
+	/**
+	 * Appends a method call to this store. The method calls of a trace have to be appended in pre-order, which means that the parent of a method call has
+	 * always been appended before (and belongs to the same trace).
+	 *
+	 * @param aTraceId
+	 *                     The trace id.
+	 * @param aHostId
+	 *                     The symbol of the host.
+	 * @param aTimestamp
+	 *                     The timestamp in milliseconds.
+	 * @param aDuration
+	 *                     The duration in nanoseconds.
+	 * @param aClazzId
+	 *                     The symbol of the class.
+	 * @param aMethodId
+	 *                     The symbol of the method.
+	 * @param aExceptionId
+	 *                     The symbol of the exception.
+	 * @param aTraceDepth
+	 *                     The depth of the subtrace starting with the method call.
+	 * @param aTraceSize
+	 *                     The size of the subtrace starting with the method call.
+	 * @param aParent
+	 *                     The index of the parent or {@link #NO_INDEX}, if the method call is the root of a new trace.
+	 *
+	 * @return The index of the new method call.
+	 */
+	public final int appendMethodCall( final long aTraceId, final int aHostId, final long aTimestamp, final long aDuration, final int aClazzId,
+			final int aMethodId, final int aExceptionId, final int aTraceDepth, final int aTraceSize, final int aParent ) {
+		final int index = ivSize;
+		ensureCapacity( index + 1, aParent == NO_INDEX ? ivTraceRootCount + 1 : ivTraceRootCount );
+		ivSize++;
+
+		setTimestamp( index, aTimestamp );
+		setDuration( index, aDuration );
+		setSelfDuration( index, Math.max( aDuration, 0L ) );
+		setTraceId( index, aTraceId );
+		setHostId( index, aHostId );
+		setClazzId( index, aClazzId );
+		setMethodId( index, aMethodId );
+		setExceptionId( index, aExceptionId );
+		setTraceDepth( index, aTraceDepth );
+		setTraceSize( index, aTraceSize );
+		setFirstChild( index, NO_INDEX );
+		setNextSibling( index, NO_INDEX );
+
+		if ( aParent == NO_INDEX ) {
+			// The trace roots have always 100% of the time
+			setPercent( index, 100.0f );
+			setTraceRoot( ivTraceRootCount++, index );
+			ivCurrentTraceRoot = index;
+		} else {
+			setPercent( index, aDuration * 100.0f / getDuration( aParent ) );
+
+			// Overlapping asynchronous children could exceed the duration of the parent
+			setSelfDuration( aParent, Math.max( getSelfDuration( aParent ) - aDuration, 0L ) );
+
+			final int lastChild = ivLastChildren[aParent - ivCurrentTraceRoot];
+			if ( lastChild == NO_INDEX ) {
+				setFirstChild( aParent, index );
+			} else {
+				setNextSibling( lastChild, index );
+			}
+			ivLastChildren[aParent - ivCurrentTraceRoot] = index;
+		}
+
+		final int offset = index - ivCurrentTraceRoot;
+		if ( offset == ivLastChildren.length ) {
+			ivLastChildren = Arrays.copyOf( ivLastChildren, offset * 2 );
+		}
+		ivLastChildren[offset] = NO_INDEX;
+
+		return index;
+	}
+
+	/**
+	 * Copies the given trace into this store. The given method calls are not modified and can be discarded afterwards.
+	 *
+	 * @param aTraceRoot
+	 *                   The root of the trace.
+	 */
+	public final void appendTrace( final MethodCall aTraceRoot ) {
+		final Stack<MethodCall> stack = new Stack<>( );
+		final IntStack parentStack = new IntStack( );
+		stack.push( aTraceRoot );
+		parentStack.push( NO_INDEX );
+
+		while ( !stack.isEmpty( ) ) {
+			final MethodCall methodCall = stack.pop( );
+			final int index = appendMethodCall( methodCall.getTraceId( ), methodCall.getHostId( ), methodCall.getTimestamp( ), methodCall.getDuration( ),
+					methodCall.getClazzId( ), methodCall.getMethodId( ), methodCall.getExceptionId( ), methodCall.getTraceDepth( ),
+					methodCall.getTraceSize( ), parentStack.pop( ) );
+
+			// The children are popped in their original order, which means that each new child is appended to the children of its parent
+			final List<MethodCall> children = methodCall.getChildren( );
+			for ( int childIndex = children.size( ) - 1; childIndex >= 0; childIndex-- ) {
+				stack.push( children.get( childIndex ) );
+				parentStack.push( index );
+			}
+		}
+	}
+
+	/**
+	 * Copies the given traces into this store. The given method calls are not modified and can be discarded afterwards.
+	 *
+	 * @param aTraceRoots
+	 *                    The roots of the traces.
+	 */
+	public final void appendTraces( final List<MethodCall> aTraceRoots ) {
+		ensureCapacity( ivSize + countMethodCalls( aTraceRoots ), ivTraceRootCount + aTraceRoots.size( ) );
+
+		for ( final MethodCall traceRoot : aTraceRoots ) {
+			appendTrace( traceRoot );
+		}
+	}
+
+	/**
+	 * Copies all traces of the given store into this store. The given store is not modified.
+	 *
+	 * @param aTraceStore
+	 *                    The other store.
+	 */
+	public final void appendTraces( final TraceStore aTraceStore ) {
+		final int offset = ivSize;
+		final int size = aTraceStore.getSize( );
+		final int traceRootCount = aTraceStore.getTraceRootCount( );
+		ensureCapacity( ivSize + size, ivTraceRootCount + traceRootCount );
+
+		for ( int index = 0; index < size; index++ ) {
+			final int target = offset + index;
+			setTimestamp( target, aTraceStore.getTimestamp( index ) );
+			setDuration( target, aTraceStore.getDuration( index ) );
+			setSelfDuration( target, aTraceStore.getSelfDuration( index ) );
+			setTraceId( target, aTraceStore.getTraceId( index ) );
+			setHostId( target, aTraceStore.getHostId( index ) );
+			setClazzId( target, aTraceStore.getClazzId( index ) );
+			setMethodId( target, aTraceStore.getMethodId( index ) );
+			setExceptionId( target, aTraceStore.getExceptionId( index ) );
+			setTraceDepth( target, aTraceStore.getTraceDepth( index ) );
+			setTraceSize( target, aTraceStore.getTraceSize( index ) );
+			setPercent( target, aTraceStore.getPercent( index ) );
+			setFirstChild( target, shift( aTraceStore.getFirstChild( index ), offset ) );
+			setNextSibling( target, shift( aTraceStore.getNextSibling( index ), offset ) );
+		}
+
+		for ( int rootIndex = 0; rootIndex < traceRootCount; rootIndex++ ) {
+			setTraceRoot( ivTraceRootCount + rootIndex, offset + aTraceStore.getTraceRoot( rootIndex ) );
+		}
+
+		ivSize += size;
+		ivTraceRootCount += traceRootCount;
+		ivCurrentTraceRoot = NO_INDEX;
+	}
+
+	private static int shift( final int aIndex, final int aOffset ) {
+		return aIndex == NO_INDEX ? NO_INDEX : aIndex + aOffset;
+	}
+
+	private static int countMethodCalls( final List<MethodCall> aTraceRoots ) {
+		final Stack<MethodCall> stack = new Stack<>( );
+		stack.addAll( aTraceRoots );
+
+		int count = 0;
+		while ( !stack.isEmpty( ) ) {
+			count++;
+			stack.addAll( stack.pop( ).getChildren( ) );
+		}
+
+		return count;
+	}
+
+	/**
+	 * Delivers a view on the method call with the given index. Each call creates a new view, but views on the same method call are equal.
+	 *
+	 * @param aIndex
+	 *               The index of the method call.
+	 *
+	 * @return The view.
+	 */
+	public final MethodCall getMethodCall( final int aIndex ) {
+		return new StoredMethodCall( this, aIndex );
+	}
+
+	/**
+	 * Delivers views on all method calls (in pre-order). The views are created on access.
+	 *
+	 * @return An unmodifiable list of the method calls.
+	 */
+	public final List<MethodCall> getMethodCalls( ) {
+		return new MethodCallList( getSize( ), false );
+	}
+
+	/**
+	 * Delivers views on the roots of all traces. The views are created on access.
+	 *
+	 * @return An unmodifiable list of the trace roots.
+	 */
+	public final List<MethodCall> getTraceRoots( ) {
+		return new MethodCallList( getTraceRootCount( ), true );
+	}
+
+	final List<MethodCall> getChildren( final int aIndex ) {
+		if ( getFirstChild( aIndex ) == NO_INDEX ) {
+			return Collections.emptyList( );
+		}
+
+		final List<MethodCall> children = new ArrayList<>( );
+		for ( int child = getFirstChild( aIndex ); child != NO_INDEX; child = getNextSibling( child ) ) {
+			children.add( getMethodCall( child ) );
+		}
+		return children;
+	}
+
+	/**
+	 * Reserves the capacity for further method calls and traces, if their number is known in advance. This avoids growing the store while appending.
+	 *
+	 * @param aMethodCallCount
+	 *                         The number of further method calls.
+	 * @param aTraceRootCount
+	 *                         The number of further traces.
+	 */
+	public final void reserve( final int aMethodCallCount, final int aTraceRootCount ) {
+		ensureCapacity( ivSize + aMethodCallCount, ivTraceRootCount + aTraceRootCount );
+	}
+
+	/**
+	 * Releases the capacity which has been reserved for further method calls. This should be called after the last trace has been appended.
+	 */
+	public void trimToSize( ) {
+		// Most stores have nothing to release
+	}
+
+	/**
+	 * Releases the resources of this store. The store must not be used afterwards.
+	 */
+	public void close( ) {
+		// Most stores have nothing to release
+	}
+
+	public final int getSize( ) {
+		return ivSize;
+	}
+
+	public final int getTraceRootCount( ) {
+		return ivTraceRootCount;
+	}
+
+	/**
+	 * Makes sure that this store can hold the given number of method calls and traces.
+	 *
+	 * @param aSize
+	 *                        The number of method calls.
+	 * @param aTraceRootCount
+	 *                        The number of traces.
+	 */
+	protected abstract void ensureCapacity( int aSize, int aTraceRootCount );
+
+	public abstract int getTraceRoot( int aRootIndex );
+
+	protected abstract void setTraceRoot( int aRootIndex, int aIndex );
+
+	public abstract int getFirstChild( int aIndex );
+
+	protected abstract void setFirstChild( int aIndex, int aFirstChild );
+
+	public abstract int getNextSibling( int aIndex );
+
+	protected abstract void setNextSibling( int aIndex, int aNextSibling );
+
+	public abstract long getTimestamp( int aIndex );
+
+	abstract void setTimestamp( int aIndex, long aTimestamp );
+
+	public abstract long getDuration( int aIndex );
+
+	abstract void setDuration( int aIndex, long aDuration );
+
+	public abstract long getSelfDuration( int aIndex );
+
+	abstract void setSelfDuration( int aIndex, long aSelfDuration );
+
+	public abstract long getTraceId( int aIndex );
+
+	abstract void setTraceId( int aIndex, long aTraceId );
+
+	public abstract int getHostId( int aIndex );
+
+	abstract void setHostId( int aIndex, int aHostId );
+
+	public abstract int getClazzId( int aIndex );
+
+	abstract void setClazzId( int aIndex, int aClazzId );
+
+	public abstract int getMethodId( int aIndex );
+
+	abstract void setMethodId( int aIndex, int aMethodId );
+
+	public abstract int getExceptionId( int aIndex );
+
+	abstract void setExceptionId( int aIndex, int aExceptionId );
+
+	public abstract int getTraceDepth( int aIndex );
+
+	abstract void setTraceDepth( int aIndex, int aTraceDepth );
+
+	public abstract int getTraceSize( int aIndex );
+
+	abstract void setTraceSize( int aIndex, int aTraceSize );
+
+	public abstract float getPercent( int aIndex );
+
+	abstract void setPercent( int aIndex, float aPercent );
+
+	/**
+	 * A list creating the views on the method calls on access.
+	 */
+	private final class MethodCallList extends AbstractList<MethodCall> implements RandomAccess {
+
+		private final int ivListSize;
+		private final boolean ivTraceRoots;
+
+		MethodCallList( final int aListSize, final boolean aTraceRoots ) {
+			ivListSize = aListSize;
+			ivTraceRoots = aTraceRoots;
+		}
+
+		@Override
+		public MethodCall get( final int aIndex ) {
+			if ( aIndex < 0 || aIndex >= ivListSize ) {
+				throw new IndexOutOfBoundsException( Integer.toString( aIndex ) );
+			}
+			return getMethodCall( ivTraceRoots ? getTraceRoot( aIndex ) : aIndex );
+		}
+
+		@Override
+		public int size( ) {
+			return ivListSize;
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.properties;
+
+import com.google.inject.Singleton;
+
+import kieker.diagnosis.architecture.service.properties.IntegerSystemProperty;
+
+/**
+ * This system property determines the size (in bytes) of the memory mapped windows, which are used to read binary files.
+ *
+ * @author Nils Christian Ehmke
+ */
+@Singleton
+public final class MappedWindowSizeProperty extends IntegerSystemProperty {
+
+	@Override
+	public Integer getDefaultValue( ) {
+		return 64 * 1024 * 1024;
+	}
+
+	@Override
+	public String getKey( ) {
+		return "mappedWindowSize";
+	}
+
+}
@@ -0,0 +1,44 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.properties;
+
+import com.google.inject.Singleton;
+
+import kieker.diagnosis.architecture.service.properties.IntegerSystemProperty;
+
+/**
+ * This system property determines the interval (in milliseconds) of the time buckets, into which the durations of the aggregated methods are rolled
+ * up during the import. If the interval is not positive, no time series are calculated. As each bucket has its own histogram, the time series are
+ * disabled by default. Otherwise long monitoring logs with many methods would need far more memory than the aggregation itself.
+ *
+ * @author Nils Christian Ehmke
+ */
+@Singleton
+public final class TimeBucketIntervalProperty extends IntegerSystemProperty {
+
+	@Override
+	public Integer getDefaultValue( ) {
+		return 0;
+	}
+
+	@Override
+	public String getKey( ) {
+		return "timeBucketInterval";
+	}
+
+}
@@ -0,0 +1,83 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+
+package kieker.diagnosis.service.data.reader;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongIntMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+
+import kieker.diagnosis.service.data.MethodCall;
+
+/**
+ * This factory creates the keys used to aggregate method calls. Two method calls are aggregated, if they have the same host, class, method, and
+ * exception. The key is a single packed long. As long as the symbol ids are small enough, they are packed directly into the key: 16 bits for the class,
+ * the method, and the exception each and 15 bits for the host. This is the case for all imports with less than 32768 symbols and needs no lookup at all.
+ * Method calls with larger symbol ids get a sequence number as key instead, which is marked by the sign bit. Only these keys are unique within a single
+ * factory alone.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class AggregationKeyFactory {
+
+	private static final int ID_BITS = 16;
+	private static final int HOST_ID_BITS = 15;
+	private static final long SEQUENCE_KEY_MARKER = Long.MIN_VALUE;
+
+	// The sequence numbers are only used for method calls whose symbol ids cannot be packed directly. They are found via the class and method first.
+	private final LongObjectMap<LongIntMap> ivSequenceNumbers = new LongObjectHashMap<>( );
+	private int ivNextSequenceNumber;
+
+	public long createKey( final MethodCall aMethodCall ) {
+		final int hostId = aMethodCall.getHostId( );
+		final int clazzId = aMethodCall.getClazzId( );
+		final int methodId = aMethodCall.getMethodId( );
+		final int exceptionId = aMethodCall.getExceptionId( );
+
+		if ( ( clazzId | methodId | exceptionId ) >>> ID_BITS == 0 && hostId >>> HOST_ID_BITS == 0 ) {
+			return ( long ) hostId << 3 * ID_BITS | ( long ) clazzId << 2 * ID_BITS | ( long ) methodId << ID_BITS | exceptionId;
+		}
+
+		return SEQUENCE_KEY_MARKER | getSequenceNumber( hostId, clazzId, methodId, exceptionId );
+	}
+
+	private int getSequenceNumber( final int aHostId, final int aClazzId, final int aMethodId, final int aExceptionId ) {
+		final long operation = pack( aClazzId, aMethodId );
+		LongIntMap sequenceNumbers = ivSequenceNumbers.get( operation );
+		if ( sequenceNumbers == null ) {
+			sequenceNumbers = new LongIntHashMap( );
+			ivSequenceNumbers.put( operation, sequenceNumbers );
+		}
+
+		final long context = pack( aHostId, aExceptionId );
+		final int index = sequenceNumbers.indexOf( context );
+		if ( sequenceNumbers.indexExists( index ) ) {
+			return sequenceNumbers.indexGet( index );
+		}
+
+		final int sequenceNumber = ivNextSequenceNumber++;
+		sequenceNumbers.indexInsert( index, context, sequenceNumber );
+		return sequenceNumber;
+	}
+
+	private static long pack( final int aFirstId, final int aSecondId ) {
+		return ( long ) aFirstId << 32 | aSecondId & 0xFFFFFFFFL;
+	}
+
+}
@@ -0,0 +1,36 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+/**
+ * This enumeration represents the possible ways how the {@link AsciiFileReader} parses the lines of an ascii file.
+ *
+ * @author Nils Christian Ehmke
+ */
+public enum AsciiFileReadMode {
+
+	/**
+	 * The whole file is loaded as lines and each line is parsed with regular expressions.
+	 */
+	REGEX,
+
+	/**
+	 * The file is streamed through a reused buffer and the lines are tokenized by hand. Strings are only created for (cached) names.
+	 */
+	TOKENIZER
+
+}
@@ -16,27 +16,21 @@
 
 package kieker.diagnosis.service.data.reader;
 
-import java.io.File;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
-import com.carrotsearch.hppc.IntObjectMap;
-import com.carrotsearch.hppc.cursors.IntObjectCursor;
-
-import kieker.common.record.flow.trace.TraceMetadata;
-import kieker.common.record.flow.trace.operation.AfterOperationEvent;
-import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
-import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
-import kieker.common.record.misc.KiekerMetadataRecord;
 import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
 import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
-import kieker.diagnosis.service.data.MethodCall;
 
 /**
  * This is a reader to import files written with Kieker's ascii file writer. It exchanges readability and
@@ -46,34 +40,41 @@ import kieker.diagnosis.service.data.MethodCall;
  */
 public final class AsciiFileReader extends Reader {
 
+	private static final int cvInitialBufferSize = 64 * 1024;
+
 	private static final Pattern cvAsciiFileEntryPattern = Pattern.compile( "\\$(\\d*);\\d*;(.*)" );
-	private static final Pattern cvAsciiFileBeforeOperationEventPattern = Pattern.compile( "(\\d*);(-?\\d*).*" );
-	private static final Pattern cvAsciiFileAfterOperationEventPattern = Pattern.compile( "(\\d*);(-?\\d*);\\d*;([^;]*);([^;]*)" );
-	private static final Pattern cvAsciiFileAfterOperationFailedEventPattern = Pattern.compile( "(\\d*);(-?\\d*);\\d*;([^;]*);([^;]*);(.*)" );
-	private static final Pattern cvAsciiFileTraceMetadataPattern = Pattern.compile( "(-?\\d*);\\d*;[^;]*;([^;]*).*" );
-	private static final Pattern cvAsciiFileKiekerMetadataRecordPattern = Pattern.compile( "[^;]*;[^;]*;[^;]*;[^;]*;[^;]*;[^;]*;([^;]*).*" );
 
-	private int ivBeforeOperationEventKey;
-	private int ivAfterOperationEventKey;
-	private int ivAfterOperationFailedEventKey;
-	private int ivTraceMetadataKey;
-	private int ivKiekerMetadataRecordKey;
+	private RecordHandlerTable ivRecordHandlerTable;
 
-	private IntObjectMap<String> ivStringMapping;
+	private final AsciiFileReadMode ivReadMode;
+
+	// The following fields are only used by the tokenizer. They are reused for all lines and files.
+	private final AsciiRecordTokenizer ivTokenizer = new AsciiRecordTokenizer( );
+	private byte[] ivBuffer = new byte[cvInitialBufferSize];
 
 	public AsciiFileReader( final TemporaryRepository aTemporaryRepository ) {
+		this( aTemporaryRepository, AsciiFileReadMode.TOKENIZER );
+	}
+
+	public AsciiFileReader( final TemporaryRepository aTemporaryRepository, final AsciiFileReadMode aReadMode ) {
 		super( aTemporaryRepository );
+
+		ivReadMode = aReadMode;
 	}
 
 	@Override
-	public void readFromDirectory( final File aDirectory ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readFromDirectory(java.io.File)" );
+	public void readNonRecursiveFromDirectory( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readNonRecursiveFromDirectory(kieker.diagnosis.service.data.reader.LogSource, java.lang.String)" );
 
 		try {
-			final List<File> directoriesToBeRead = findDirectoriesToBeRead( aDirectory );
+			ivTemporaryRepository.clearBeforeNextDirectory( );
 
-			for ( final File directoryToBeRead : directoriesToBeRead ) {
-				readNonRecursiveFromDirectory( directoryToBeRead );
+			// The mapping file has to be read first, as we need it to decode the records
+			readMapping( aLogSource, aDirectory );
+
+			final List<String> asciiFiles = aLogSource.findFilesWithExtension( aDirectory, ".dat" );
+			for ( final String asciiFile : asciiFiles ) {
+				readAsciiFile( aLogSource, asciiFile );
 			}
 
 		} catch ( final Throwable t ) {
@@ -84,20 +85,19 @@ public final class AsciiFileReader extends Reader {
 		}
 	}
 
-	private void readNonRecursiveFromDirectory( final File aDirectory ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readNonRecursiveFromDirectory(java.io.File)" );
+	private void readAsciiFile( final LogSource aLogSource, final String aAsciiFile ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readAsciiFile(kieker.diagnosis.service.data.reader.LogSource, java.lang.String)" );
 
 		try {
-			ivTemporaryRepository.clearBeforeNextDirectory( );
-
-			ivStringMapping = readMappingFile( aDirectory );
-			extractImportKeysFromMapping( );
-
-			final File[] asciiFiles = findFilesWithExtension( aDirectory, ".dat" );
-			for ( final File asciiFile : asciiFiles ) {
-				readAsciiFile( asciiFile.toPath( ) );
+			switch ( ivReadMode ) {
+				case REGEX:
+					readAsciiFileWithRegex( aLogSource, aAsciiFile );
+				break;
+				case TOKENIZER:
+				default:
+					readAsciiFileWithTokenizer( aLogSource, aAsciiFile );
+				break;
 			}
-
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -106,147 +106,168 @@ public final class AsciiFileReader extends Reader {
 		}
 	}
 
-	private void extractImportKeysFromMapping( ) {
-		ivBeforeOperationEventKey = -1;
-		ivAfterOperationEventKey = -1;
-		ivAfterOperationFailedEventKey = -1;
-		ivTraceMetadataKey = -1;
-		ivKiekerMetadataRecordKey = -1;
-
-		ivStringMapping.forEach( ( Consumer<IntObjectCursor<String>> ) aCursor -> {
-			final int key = aCursor.key;
-			final String value = aCursor.value;
-
-			if ( ivBeforeOperationEventKey == -1 && BeforeOperationEvent.class.getName( ).equals( value ) ) {
-				ivBeforeOperationEventKey = key;
-			} else if ( ivAfterOperationEventKey == -1 && AfterOperationEvent.class.getName( ).equals( value ) ) {
-				ivAfterOperationEventKey = key;
-			} else if ( ivAfterOperationFailedEventKey == -1 && AfterOperationFailedEvent.class.getName( ).equals( value ) ) {
-				ivAfterOperationFailedEventKey = key;
-			} else if ( ivTraceMetadataKey == -1 && TraceMetadata.class.getName( ).equals( value ) ) {
-				ivTraceMetadataKey = key;
-			} else if ( ivKiekerMetadataRecordKey == -1 && KiekerMetadataRecord.class.getName( ).equals( value ) ) {
-				ivKiekerMetadataRecordKey = key;
-			}
-		} );
-	}
+	private void readAsciiFileWithRegex( final LogSource aLogSource, final String aAsciiFile ) throws IOException {
+		final List<String> lines;
+		try ( final BufferedReader reader = new BufferedReader( new InputStreamReader( openFileWithProgress( aLogSource, aAsciiFile ), StandardCharsets.UTF_8 ) ) ) {
+			lines = reader.lines( ).collect( Collectors.toList( ) );
+		}
 
-	private void readAsciiFile( final Path aAsciiFile ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readAsciiFile(java.nio.file.Path)" );
+		for ( final String line : lines ) {
+			ivImportProgress.checkCancelled( );
 
-		try {
-			final List<String> lines = Files.readAllLines( aAsciiFile, Charset.forName( "UTF-8" ) );
-
-			for ( final String line : lines ) {
-				final Matcher lineMatcher = cvAsciiFileEntryPattern.matcher( line );
-				if ( lineMatcher.matches( ) ) {
-					final String recordKeyStr = lineMatcher.group( 1 );
-					final String remainingLine = lineMatcher.group( 2 );
-
-					final int recordKey = Integer.parseInt( recordKeyStr );
-
-					if ( recordKey == ivBeforeOperationEventKey ) {
-						readBeforeOperationEvent( remainingLine );
-					} else if ( recordKey == ivAfterOperationEventKey ) {
-						readAfterOperationEvent( remainingLine );
-					} else if ( recordKey == ivAfterOperationFailedEventKey ) {
-						readAfterOperationFailedEvent( remainingLine );
-					} else if ( recordKey == ivTraceMetadataKey ) {
-						readTraceMetadata( remainingLine );
-					} else if ( recordKey == ivKiekerMetadataRecordKey ) {
-						readKiekerMetadataRecord( remainingLine );
-					} else {
-						// Skip the line
-						ivTemporaryRepository.processIgnoredRecord( );
-					}
+			final Matcher lineMatcher = cvAsciiFileEntryPattern.matcher( line );
+			if ( lineMatcher.matches( ) ) {
+				final String recordKeyStr = lineMatcher.group( 1 );
+				final String remainingLine = lineMatcher.group( 2 );
+
+				final RecordHandler recordHandler = ivRecordHandlerTable.get( Long.parseLong( recordKeyStr ) );
+				if ( recordHandler != null ) {
+					recordHandler.readAsciiRecordWithRegex( remainingLine, ivTemporaryRepository );
+				} else {
+					// Skip the line
+					ivTemporaryRepository.processIgnoredRecord( );
 				}
 			}
-
-			ivTemporaryRepository.processProcessedBytes( Files.size( aAsciiFile ) );
-		} catch ( final Throwable t ) {
-			probe.fail( t );
-			throw t;
-		} finally {
-			probe.stop( );
 		}
+
+		ivTemporaryRepository.processProcessedBytes( aLogSource.getSize( aAsciiFile ) );
 	}
 
-	private void readBeforeOperationEvent( final String aAsciiContent ) {
-		final Matcher matcher = cvAsciiFileBeforeOperationEventPattern.matcher( aAsciiContent );
-		if ( matcher.matches( ) ) {
-			final long timestamp = Long.parseLong( matcher.group( 1 ) ); // Timestamp
-			final long traceId = Long.parseLong( matcher.group( 2 ) ); // Trace Id
-			// The rest is ignored
+	private void readAsciiFileWithTokenizer( final LogSource aLogSource, final String aAsciiFile ) throws IOException {
+		final long processedBytes;
 
-			ivTemporaryRepository.processBeforeOperationEvent( timestamp, traceId );
+		try ( final InputStream inputStream = openFileWithProgress( aLogSource, aAsciiFile ) ) {
+			processedBytes = tokenizeStream( inputStream, true );
 		}
+
+		ivTemporaryRepository.processProcessedBytes( processedBytes );
 	}
 
-	private void readAfterOperationEvent( final String aAsciiContent ) {
-		final Matcher matcher = cvAsciiFileAfterOperationEventPattern.matcher( aAsciiContent );
-		if ( matcher.matches( ) ) {
-			// Logging timestamp is ignored
-			final long timestamp = Long.parseLong( matcher.group( 1 ) ); // Timestamp
-			final long traceId = Long.parseLong( matcher.group( 2 ) ); // Trace Id
+	/**
+	 * Tokenizes all lines of the given stream.
+	 *
+	 * @param aInputStream
+	 *                            The stream to read.
+	 * @param aReadIncompleteLine
+	 *                            Determines whether a last line without a line break should be read as well.
+	 *
+	 * @return The number of bytes of the tokenized lines.
+	 *
+	 * @throws IOException
+	 *                     If the stream could not be read.
+	 */
+	private long tokenizeStream( final InputStream aInputStream, final boolean aReadIncompleteLine ) throws IOException {
+		long processedBytes = 0;
+
+		// The number of valid bytes in the buffer
+		int length = 0;
+
+		while ( true ) {
+			// Make sure that we have space for the next bytes. This is only necessary if a single line does not fit into the buffer.
+			if ( length == ivBuffer.length ) {
+				ivBuffer = Arrays.copyOf( ivBuffer, ivBuffer.length * 2 );
+			}
+
+			final int readBytes = aInputStream.read( ivBuffer, length, ivBuffer.length - length );
+			if ( readBytes == -1 ) {
+				break;
+			}
 
-			// Order index is ignored
-			final String methodName = matcher.group( 3 ); // Method name
-			final String clazz = matcher.group( 4 ); // Class name
+			final int scanStart = length;
+			length += readBytes;
 
-			ivTemporaryRepository.processAfterOperationEvent( timestamp, traceId, methodName, clazz );
+			// Process all complete lines in the buffer
+			int lineStart = 0;
+			for ( int index = scanStart; index < length; index++ ) {
+				if ( ivBuffer[index] == '\n' ) {
+					ivImportProgress.checkCancelled( );
+					tokenizeLine( lineStart, index );
+					lineStart = index + 1;
+				}
+			}
+			processedBytes += lineStart;
+
+			// Move the incomplete last line to the start of the buffer
+			length -= lineStart;
+			System.arraycopy( ivBuffer, lineStart, ivBuffer, 0, length );
 		}
-	}
 
-	private void readAfterOperationFailedEvent( final String aAsciiContent ) {
-		final Matcher matcher = cvAsciiFileAfterOperationFailedEventPattern.matcher( aAsciiContent );
-		if ( matcher.matches( ) ) {
-			// Logging timestamp is ignored
-			final long timestamp = Long.parseLong( matcher.group( 1 ) ); // Timestamp
-			final long traceId = Long.parseLong( matcher.group( 2 ) ); // Trace Id
-
-			// Order index is ignored
-			final String methodName = matcher.group( 3 ); // Method name
-			final String clazz = matcher.group( 4 ); // Class name
-			final String exception = matcher.group( 5 );
-
-			final MethodCall methodCall = ivTemporaryRepository.processAfterOperationEvent( timestamp, traceId, methodName, clazz );
-			if ( methodCall != null ) {
-				methodCall.setException( exception );
-			}
+		// The last line does not necessarily end with a line break
+		if ( length > 0 && aReadIncompleteLine ) {
+			tokenizeLine( 0, length );
+			processedBytes += length;
 		}
+
+		return processedBytes;
+	}
+
+	@Override
+	public void readMapping( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		ivRecordHandlerTable = new RecordHandlerTable( readMappingFile( aLogSource, aDirectory ) );
+	}
+
+	@Override
+	public List<String> findFilesToBeReadIncrementally( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		final List<String> asciiFiles = aLogSource.findFilesWithExtension( aDirectory, ".dat" );
+		Collections.sort( asciiFiles );
+		return asciiFiles;
 	}
 
-	private void readTraceMetadata( final String aAsciiContent ) {
-		final Matcher matcher = cvAsciiFileTraceMetadataPattern.matcher( aAsciiContent );
-		if ( matcher.matches( ) ) {
-			// Logging timestamp is ignored
-			final long traceId = Long.parseLong( matcher.group( 1 ) ); // Trace Id
-			// Thread id and session id is ignored
-			final String host = matcher.group( 2 ); // Hostname
-			// The rest is ignored
+	@Override
+	public long readNewRecords( final LogSource aLogSource, final String aFile, final long aOffset ) throws IOException {
+		final long processedBytes;
 
-			ivTemporaryRepository.processTraceMetadata( traceId, host );
+		// We always use the tokenizer, as it can stop at the last complete line. The rest of the file is probably still being written.
+		try ( final InputStream inputStream = Channels.newInputStream( openChannelAtOffset( aLogSource, aFile, aOffset ) ) ) {
+			processedBytes = tokenizeStream( inputStream, false );
 		}
+
+		ivTemporaryRepository.processProcessedBytes( processedBytes );
+		return aOffset + processedBytes;
 	}
 
-	private void readKiekerMetadataRecord( final String aAsciiContent ) {
-		final Matcher matcher = cvAsciiFileKiekerMetadataRecordPattern.matcher( aAsciiContent );
-		if ( matcher.matches( ) ) {
-			final String timeUnitName = matcher.group( 1 ); // Time unit
-			// The rest is ignored
+	private void tokenizeLine( final int aLineStart, final int aLineEnd ) {
+		int lineEnd = aLineEnd;
+		if ( lineEnd > aLineStart && ivBuffer[lineEnd - 1] == '\r' ) {
+			lineEnd--;
+		}
+
+		// Each entry starts with a $, followed by the record key and the logging timestamp
+		if ( lineEnd == aLineStart || ivBuffer[aLineStart] != '$' ) {
+			return;
+		}
+
+		ivTokenizer.reset( ivBuffer, aLineStart + 1, lineEnd );
 
-			ivTemporaryRepository.processSourceTimeUnit( timeUnitName );
+		final long recordKey = ivTokenizer.nextLongField( );
+		ivTokenizer.nextLongField( ); // Ignore the logging timestamp
+		if ( ivTokenizer.isMalformedLine( ) || !ivTokenizer.hasNextField( ) ) {
+			return;
+		}
+
+		final RecordHandler recordHandler = ivRecordHandlerTable.get( recordKey );
+		if ( recordHandler != null ) {
+			recordHandler.readAsciiRecord( ivTokenizer, ivTemporaryRepository );
+		} else {
+			// Skip the line
+			ivTemporaryRepository.processIgnoredRecord( );
 		}
 	}
 
 	@Override
-	public boolean shouldBeExecuted( final File aDirectory ) throws IOException {
-		final List<File> directoriesToBeRead = findDirectoriesToBeRead( aDirectory );
-		return !directoriesToBeRead.isEmpty( );
+	public long determineBytesToBeRead( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		long bytes = 0;
+
+		for ( final String asciiFile : aLogSource.findFilesWithExtension( aDirectory, ".dat" ) ) {
+			bytes += aLogSource.getSize( asciiFile );
+		}
+
+		return bytes;
 	}
 
-	private List<File> findDirectoriesToBeRead( final File aDirectory ) throws IOException {
-		return findDirectoriesContainingFilesWithExtensions( aDirectory, ".map", ".dat" );
+	@Override
+	public List<String> findDirectoriesToBeRead( final LogSource aLogSource ) throws IOException {
+		return aLogSource.findDirectoriesContainingFilesWithExtensions( ".map", ".dat" );
 	}
 
 }
@@ -0,0 +1,154 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+/**
+ * This tokenizer splits a single line of an ascii monitoring log into its fields. It works directly on the bytes of the line and creates no objects for
+ * numeric fields. Strings are cached, as the same method and class names occur over and over again. Missing or malformed fields mark the whole line as
+ * malformed.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class AsciiRecordTokenizer {
+
+	private final ByteStringCache ivStringCache = new ByteStringCache( );
+
+	private byte[] ivBuffer;
+	private int ivPosition;
+	private int ivLineEnd;
+	private boolean ivMalformedLine;
+
+	/**
+	 * Prepares the tokenizer for the next line.
+	 *
+	 * @param aBuffer
+	 *                  The buffer containing the line.
+	 * @param aPosition
+	 *                  The start of the first field.
+	 * @param aLineEnd
+	 *                  The end of the line (exclusive and without the line break).
+	 */
+	void reset( final byte[] aBuffer, final int aPosition, final int aLineEnd ) {
+		ivBuffer = aBuffer;
+		ivPosition = aPosition;
+		ivLineEnd = aLineEnd;
+		ivMalformedLine = false;
+	}
+
+	public boolean isMalformedLine( ) {
+		return ivMalformedLine;
+	}
+
+	public boolean hasNextField( ) {
+		return ivPosition <= ivLineEnd;
+	}
+
+	/**
+	 * Parses the current field as long without creating any objects and moves to the next field. Fields which are missing, empty or which contain other
+	 * characters than digits (and a leading minus) mark the line as malformed.
+	 *
+	 * @return The value of the field.
+	 */
+	public long nextLongField( ) {
+		if ( !hasNextField( ) ) {
+			ivMalformedLine = true;
+			return 0;
+		}
+
+		int index = ivPosition;
+		final boolean negative = index < ivLineEnd && ivBuffer[index] == '-';
+		if ( negative ) {
+			index++;
+		}
+
+		final int digitsStart = index;
+		long value = 0;
+		while ( index < ivLineEnd && ivBuffer[index] != ';' ) {
+			final int digit = ivBuffer[index] - '0';
+			if ( digit < 0 || digit > 9 ) {
+				ivMalformedLine = true;
+			}
+			value = value * 10 + digit;
+			index++;
+		}
+
+		if ( index == digitsStart ) {
+			ivMalformedLine = true;
+		}
+
+		ivPosition = index + 1;
+		return negative ? -value : value;
+	}
+
+	public int nextIntField( ) {
+		return ( int ) nextLongField( );
+	}
+
+	public String nextStringField( ) {
+		if ( !hasNextField( ) ) {
+			ivMalformedLine = true;
+			return null;
+		}
+
+		final int start = ivPosition;
+		int index = start;
+		while ( index < ivLineEnd && ivBuffer[index] != ';' ) {
+			index++;
+		}
+
+		ivPosition = index + 1;
+		return ivStringCache.get( ivBuffer, start, index - start );
+	}
+
+	/**
+	 * Delivers the remaining line as a single string. This is necessary for fields which can contain the separator themselves (like exceptions).
+	 *
+	 * @return The remaining line.
+	 */
+	public String remainingString( ) {
+		if ( !hasNextField( ) ) {
+			ivMalformedLine = true;
+			return null;
+		}
+
+		final int start = ivPosition;
+		ivPosition = ivLineEnd + 1;
+		return ivStringCache.get( ivBuffer, start, ivLineEnd - start );
+	}
+
+	public void skipField( ) {
+		if ( !hasNextField( ) ) {
+			ivMalformedLine = true;
+			return;
+		}
+
+		int index = ivPosition;
+		while ( index < ivLineEnd && ivBuffer[index] != ';' ) {
+			index++;
+		}
+
+		ivPosition = index + 1;
+	}
+
+	public void skipFields( final int aFields ) {
+		for ( int field = 0; field < aFields; field++ ) {
+			skipField( );
+		}
+	}
+
+}
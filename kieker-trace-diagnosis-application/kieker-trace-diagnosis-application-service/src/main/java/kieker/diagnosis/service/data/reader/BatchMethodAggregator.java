@@ -0,0 +1,289 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongIntMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MethodTimeSeries;
+import kieker.diagnosis.service.data.TimeBucket;
+
+/**
+ * This aggregator aggregates all method calls of an import at once. The method calls are divided into partitions, which are aggregated independently in
+ * parallel. Each partition has its own maps, which means that there is no contention between the threads. The partial aggregations are merged afterwards
+ * in the order of the partitions. As the merge is only performed once for each aggregated method and partition, it is cheap compared to the aggregation
+ * itself. If the durations have to be spilled to a temporary file, the partitions are processed in waves, which keeps the partial aggregations within the
+ * memory budget. The self durations are summed up along the way. Optionally, the durations are additionally rolled up into time buckets of a fixed interval.
+ * <p>
+ * Each partition collects the durations twice: In a list and in a histogram. The histogram delivers the percentiles, but only within the relative error
+ * of its precision. The median of an import is exact, though, which is why the lists have to stay. They are handed over to the
+ * {@link SpillingDurationStore} without copying, which keeps them within the memory budget and merges them to find the exact median. The live import
+ * keeps no lists and takes the median from the histogram instead (see {@link MethodAggregator}).
+ *
+ * @author Nils Christian Ehmke
+ */
+final class BatchMethodAggregator {
+
+	private static final int MIN_PARTITION_SIZE = 64 * 1024;
+
+	private final long ivMemoryBudget;
+	private final int ivHistogramPrecision;
+	private final int ivParallelism;
+	private final long ivTimeBucketInterval;
+
+	/**
+	 * Creates a new aggregator.
+	 *
+	 * @param aMemoryBudget
+	 *                            The number of bytes which can be used to buffer the durations in memory.
+	 * @param aHistogramPrecision
+	 *                            The precision of the histograms in bits.
+	 * @param aParallelism
+	 *                            The number of partitions which are aggregated in parallel.
+	 * @param aTimeBucketInterval
+	 *                            The interval of the time buckets in milliseconds. If it is not positive, no time series are calculated.
+	 */
+	BatchMethodAggregator( final long aMemoryBudget, final int aHistogramPrecision, final int aParallelism, final long aTimeBucketInterval ) {
+		ivMemoryBudget = aMemoryBudget;
+		ivHistogramPrecision = aHistogramPrecision;
+		ivParallelism = Math.max( 1, aParallelism );
+		ivTimeBucketInterval = aTimeBucketInterval;
+	}
+
+	/**
+	 * Aggregates the given method calls. The aggregated method calls are in the order in which they have been found first.
+	 *
+	 * @param aMethodCalls
+	 *                     The method calls to aggregate.
+	 *
+	 * @return The aggregated method calls.
+	 *
+	 * @throws IOException
+	 *                     If the durations could not be spilled to or read from the temporary file.
+	 */
+	List<AggregatedMethodCall> aggregate( final List<MethodCall> aMethodCalls ) throws IOException {
+		try ( final SpillingDurationStore durationStore = new SpillingDurationStore( ivMemoryBudget, ivHistogramPrecision ) ) {
+			final AggregationKeyFactory keyFactory = new AggregationKeyFactory( );
+			final LongIntMap aggregationIndices = new LongIntHashMap( );
+			final List<MethodCall> exemplaricMethodCalls = new ArrayList<>( );
+			final List<LongObjectMap<TimeBucket>> timeBucketMaps = new ArrayList<>( );
+			final LongArrayList totalSelfDurations = new LongArrayList( );
+			final LongArrayList maxSelfDurations = new LongArrayList( );
+
+			final int size = aMethodCalls.size( );
+			final int partitionSize = calculatePartitionSize( size );
+			final int partitions = ( int ) ( ( size + ( long ) partitionSize - 1 ) / partitionSize );
+
+			for ( int firstPartition = 0; firstPartition < partitions; firstPartition += ivParallelism ) {
+				final int lastPartition = Math.min( partitions, firstPartition + ivParallelism );
+
+				// Each partition is aggregated with its own maps. The collected list keeps the order of the partitions.
+				final List<PartialAggregation> partialAggregations = IntStream.range( firstPartition, lastPartition ).parallel( ).mapToObj( partition -> {
+					final int fromIndex = partition * partitionSize;
+					final int toIndex = ( int ) Math.min( size, ( long ) fromIndex + partitionSize );
+					return new PartialAggregation( aMethodCalls.subList( fromIndex, toIndex ), ivHistogramPrecision, ivTimeBucketInterval );
+				} ).collect( Collectors.toList( ) );
+
+				// Merging the partitions in their order makes sure that the aggregated methods are still numbered in the order in which they have been found
+				// first
+				for ( final PartialAggregation partialAggregation : partialAggregations ) {
+					for ( int groupIndex = 0; groupIndex < partialAggregation.ivExemplaricMethodCalls.size( ); groupIndex++ ) {
+						final MethodCall exemplaricMethodCall = partialAggregation.ivExemplaricMethodCalls.get( groupIndex );
+						final long key = keyFactory.createKey( exemplaricMethodCall );
+
+						final int index = aggregationIndices.indexOf( key );
+						final int aggregationIndex;
+						if ( aggregationIndices.indexExists( index ) ) {
+							aggregationIndex = aggregationIndices.indexGet( index );
+						} else {
+							aggregationIndex = durationStore.addAggregatedMethod( );
+
+							aggregationIndices.indexInsert( index, key, aggregationIndex );
+							exemplaricMethodCalls.add( exemplaricMethodCall );
+							timeBucketMaps.add( new LongObjectHashMap<>( ) );
+							totalSelfDurations.add( 0L );
+							maxSelfDurations.add( 0L );
+						}
+
+						totalSelfDurations.set( aggregationIndex,
+								totalSelfDurations.get( aggregationIndex ) + partialAggregation.ivTotalSelfDurations.get( groupIndex ) );
+						maxSelfDurations.set( aggregationIndex,
+								Math.max( maxSelfDurations.get( aggregationIndex ), partialAggregation.ivMaxSelfDurations.get( groupIndex ) ) );
+
+						if ( isTimeSeriesEnabled( ) ) {
+							mergeTimeBuckets( timeBucketMaps.get( aggregationIndex ), partialAggregation.ivTimeBucketMaps.get( groupIndex ) );
+						}
+
+						durationStore.addDurations( aggregationIndex, partialAggregation.ivDurationLists.get( groupIndex ),
+								partialAggregation.ivHistograms.get( groupIndex ) );
+					}
+				}
+			}
+
+			// Now we can calculate the aggregated methods based on the stored durations. This is done in parallel as well. The collected list keeps the
+			// order of the indices, which makes the result deterministic.
+			return IntStream.range( 0, durationStore.getAggregatedMethods( ) ).parallel( ).mapToObj( aggregationIndex -> {
+				final MethodCall exemplaricMethodCall = exemplaricMethodCalls.get( aggregationIndex );
+
+				final AggregatedMethodCall aggregatedMethodCall = new AggregatedMethodCall( );
+				aggregatedMethodCall.setHostId( exemplaricMethodCall.getHostId( ) );
+				aggregatedMethodCall.setClazzId( exemplaricMethodCall.getClazzId( ) );
+				aggregatedMethodCall.setMethodId( exemplaricMethodCall.getMethodId( ) );
+				aggregatedMethodCall.setExceptionId( exemplaricMethodCall.getExceptionId( ) );
+
+				if ( isTimeSeriesEnabled( ) ) {
+					aggregatedMethodCall.setTimeSeries( createTimeSeries( timeBucketMaps.get( aggregationIndex ), ivTimeBucketInterval ) );
+				}
+
+				try {
+					durationStore.calculateValues( aggregationIndex, aggregatedMethodCall );
+				} catch ( final IOException ex ) {
+					throw new UncheckedIOException( ex );
+				}
+
+				// The self durations depend on the count and the total duration and have therefore to be set afterwards
+				aggregatedMethodCall.setSelfDurations( totalSelfDurations.get( aggregationIndex ), maxSelfDurations.get( aggregationIndex ) );
+
+				return aggregatedMethodCall;
+			} ).collect( Collectors.toList( ) );
+		} catch ( final UncheckedIOException ex ) {
+			throw ex.getCause( );
+		}
+	}
+
+	private boolean isTimeSeriesEnabled( ) {
+		return ivTimeBucketInterval > 0;
+	}
+
+	private static void mergeTimeBuckets( final LongObjectMap<TimeBucket> aTarget, final LongObjectMap<TimeBucket> aSource ) {
+		for ( final LongObjectCursor<TimeBucket> cursor : aSource ) {
+			final int index = aTarget.indexOf( cursor.key );
+			if ( aTarget.indexExists( index ) ) {
+				aTarget.indexGet( index ).merge( cursor.value );
+			} else {
+				// The partial aggregation is not used anymore, which means that we can adopt the bucket
+				aTarget.indexInsert( index, cursor.key, cursor.value );
+			}
+		}
+	}
+
+	static MethodTimeSeries createTimeSeries( final LongObjectMap<TimeBucket> aTimeBuckets, final long aInterval ) {
+		final List<TimeBucket> buckets = new ArrayList<>( aTimeBuckets.size( ) );
+		for ( final ObjectCursor<TimeBucket> cursor : aTimeBuckets.values( ) ) {
+			buckets.add( cursor.value );
+		}
+		return new MethodTimeSeries( aInterval, buckets );
+	}
+
+	private int calculatePartitionSize( final int aSize ) {
+		final long evenPartitionSize = Math.max( 1, ( aSize + ( long ) ivParallelism - 1 ) / ivParallelism );
+
+		// A wave of partitions should not exceed the memory budget. Otherwise the partial aggregations would use more memory than the store itself.
+		final long budgetPartitionSize = Math.max( MIN_PARTITION_SIZE, ivMemoryBudget / Long.BYTES / ivParallelism );
+
+		return ( int ) Math.min( evenPartitionSize, budgetPartitionSize );
+	}
+
+	/**
+	 * The aggregation of a single partition. The aggregated methods are numbered in the order in which they have been found first within the partition.
+	 */
+	private static final class PartialAggregation {
+
+		private final List<MethodCall> ivExemplaricMethodCalls = new ArrayList<>( );
+
+		// The exact durations are required for the exact median. The histograms are only used for the percentiles.
+		private final List<LongArrayList> ivDurationLists = new ArrayList<>( );
+		private final List<DurationHistogram> ivHistograms = new ArrayList<>( );
+		private final List<LongObjectMap<TimeBucket>> ivTimeBucketMaps = new ArrayList<>( );
+		private final LongArrayList ivTotalSelfDurations = new LongArrayList( );
+		private final LongArrayList ivMaxSelfDurations = new LongArrayList( );
+
+		PartialAggregation( final List<MethodCall> aMethodCalls, final int aHistogramPrecision, final long aTimeBucketInterval ) {
+			// The key factory is local as well. Its keys are only used within this partition.
+			final AggregationKeyFactory keyFactory = new AggregationKeyFactory( );
+			final LongIntMap groupIndices = new LongIntHashMap( );
+
+			// The method calls of an aggregated method are usually sorted by time. We therefore remember the last used bucket of each group to avoid a
+			// lookup in most cases.
+			final List<TimeBucket> lastTimeBuckets = new ArrayList<>( );
+
+			for ( final MethodCall methodCall : aMethodCalls ) {
+				final long key = keyFactory.createKey( methodCall );
+
+				final int index = groupIndices.indexOf( key );
+				final int groupIndex;
+				if ( groupIndices.indexExists( index ) ) {
+					groupIndex = groupIndices.indexGet( index );
+				} else {
+					groupIndex = ivDurationLists.size( );
+
+					groupIndices.indexInsert( index, key, groupIndex );
+					ivExemplaricMethodCalls.add( methodCall );
+					ivDurationLists.add( new LongArrayList( ) );
+					ivHistograms.add( new DurationHistogram( aHistogramPrecision ) );
+					ivTimeBucketMaps.add( new LongObjectHashMap<>( ) );
+					ivTotalSelfDurations.add( 0L );
+					ivMaxSelfDurations.add( 0L );
+					lastTimeBuckets.add( null );
+				}
+
+				final long selfDuration = methodCall.getSelfDuration( );
+				ivTotalSelfDurations.set( groupIndex, ivTotalSelfDurations.get( groupIndex ) + selfDuration );
+				ivMaxSelfDurations.set( groupIndex, Math.max( ivMaxSelfDurations.get( groupIndex ), selfDuration ) );
+
+				final long duration = methodCall.getDuration( );
+				ivDurationLists.get( groupIndex ).add( duration );
+				ivHistograms.get( groupIndex ).record( duration );
+
+				if ( aTimeBucketInterval > 0 ) {
+					final long bucketStart = MethodTimeSeries.getBucketStart( methodCall.getTimestamp( ), aTimeBucketInterval );
+
+					TimeBucket timeBucket = lastTimeBuckets.get( groupIndex );
+					if ( timeBucket == null || timeBucket.getStartTimestamp( ) != bucketStart ) {
+						final LongObjectMap<TimeBucket> timeBucketMap = ivTimeBucketMaps.get( groupIndex );
+						timeBucket = timeBucketMap.get( bucketStart );
+						if ( timeBucket == null ) {
+							timeBucket = new TimeBucket( bucketStart, aHistogramPrecision );
+							timeBucketMap.put( bucketStart, timeBucket );
+						}
+						lastTimeBuckets.set( groupIndex, timeBucket );
+					}
+					timeBucket.record( duration );
+				}
+			}
+		}
+
+	}
+
+}
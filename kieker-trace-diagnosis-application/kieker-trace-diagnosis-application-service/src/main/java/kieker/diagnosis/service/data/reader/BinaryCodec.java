@@ -0,0 +1,218 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipInputStream;
+
+import org.tukaani.xz.XZInputStream;
+
+import kieker.diagnosis.service.data.ImportProgress;
+
+/**
+ * This enumeration represents the codecs which can be used for Kieker's binary files. The codec of a file is detected by its extension. Plain binary files
+ * are additionally checked for the magic bytes of the compression formats.
+ *
+ * @author Nils Christian Ehmke
+ */
+enum BinaryCodec {
+
+	NONE( ".bin" ) {
+
+		@Override
+		protected InputStream decode( final InputStream aInputStream ) {
+			return aInputStream;
+		}
+
+	},
+
+	DEFLATE( ".bin.df" ) {
+
+		@Override
+		protected InputStream decode( final InputStream aInputStream ) {
+			return new InflaterInputStream( aInputStream, new Inflater( ), cvBufferSize );
+		}
+
+	},
+
+	GZIP( ".bin.gz" ) {
+
+		@Override
+		protected InputStream decode( final InputStream aInputStream ) throws IOException {
+			return new GZIPInputStream( aInputStream, cvBufferSize );
+		}
+
+	},
+
+	ZIP( ".bin.zip" ) {
+
+		@Override
+		protected InputStream decode( final InputStream aInputStream ) throws IOException {
+			// Kieker writes a single entry into the ZIP file
+			final ZipInputStream zipInputStream = new ZipInputStream( aInputStream );
+			zipInputStream.getNextEntry( );
+			return zipInputStream;
+		}
+
+	},
+
+	XZ( ".bin.xz" ) {
+
+		@Override
+		protected InputStream decode( final InputStream aInputStream ) throws IOException {
+			return new XZInputStream( aInputStream );
+		}
+
+	};
+
+	private static final int cvBufferSize = 64 * 1024;
+
+	private static final byte[] cvGzipMagic = { ( byte ) 0x1F, ( byte ) 0x8B };
+	private static final byte[] cvZipMagic = { 'P', 'K', 3, 4 };
+	private static final byte[] cvXzMagic = { ( byte ) 0xFD, '7', 'z', 'X', 'Z', 0 };
+
+	private final String ivExtension;
+
+	private BinaryCodec( final String aExtension ) {
+		ivExtension = aExtension;
+	}
+
+	public String getExtension( ) {
+		return ivExtension;
+	}
+
+	/**
+	 * Wraps the given (raw) stream into a stream delivering the decoded content.
+	 *
+	 * @param aInputStream
+	 *                     The raw stream.
+	 *
+	 * @return The decoding stream.
+	 *
+	 * @throws IOException
+	 *                     If the header of the compressed stream could not be read.
+	 */
+	protected abstract InputStream decode( final InputStream aInputStream ) throws IOException;
+
+	/**
+	 * Opens the given file and wraps it into a stream delivering the decoded content. The read (encoded) bytes are reported to the given progress.
+	 *
+	 * @param aLogSource
+	 *                        The source containing the file.
+	 * @param aFile
+	 *                        The file.
+	 * @param aImportProgress
+	 *                        The progress of the import.
+	 *
+	 * @return The decoding stream.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be opened.
+	 */
+	public InputStream open( final LogSource aLogSource, final String aFile, final ImportProgress aImportProgress ) throws IOException {
+		final InputStream inputStream = new BufferedInputStream( new ProgressInputStream( aLogSource.openFile( aFile ), aImportProgress ), cvBufferSize );
+
+		try {
+			return decode( inputStream );
+		} catch ( final IOException | RuntimeException ex ) {
+			inputStream.close( );
+			throw ex;
+		}
+	}
+
+	/**
+	 * Detects the codec of the given file. If the file seems to be a plain binary file, the magic bytes are checked as well.
+	 *
+	 * @param aLogSource
+	 *                   The source containing the file.
+	 * @param aFile
+	 *                   The file.
+	 *
+	 * @return The codec or {@code null}, if the file is no binary file.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be opened.
+	 */
+	public static BinaryCodec detect( final LogSource aLogSource, final String aFile ) throws IOException {
+		final BinaryCodec codec = fromFileName( aFile );
+		if ( codec != NONE ) {
+			return codec;
+		}
+
+		try ( final InputStream inputStream = aLogSource.openFile( aFile ) ) {
+			return fromMagicBytes( inputStream );
+		}
+	}
+
+	/**
+	 * Detects the codec based on the extension of the given file.
+	 *
+	 * @param aFile
+	 *              The file.
+	 *
+	 * @return The codec or {@code null}, if the file is no binary file.
+	 */
+	private static BinaryCodec fromFileName( final String aFile ) {
+		final String lowerFile = aFile.toLowerCase( );
+
+		for ( final BinaryCodec codec : values( ) ) {
+			if ( lowerFile.endsWith( codec.ivExtension ) ) {
+				return codec;
+			}
+		}
+
+		return null;
+	}
+
+	private static BinaryCodec fromMagicBytes( final InputStream aInputStream ) throws IOException {
+		// A plain binary file starts with a (small) record key. Its first byte is therefore zero and can not be confused with the magic bytes.
+		final byte[] header = new byte[cvXzMagic.length];
+		final int length = aInputStream.readNBytes( header, 0, header.length );
+
+		if ( startsWith( header, length, cvGzipMagic ) ) {
+			return GZIP;
+		}
+		if ( startsWith( header, length, cvZipMagic ) ) {
+			return ZIP;
+		}
+		if ( startsWith( header, length, cvXzMagic ) ) {
+			return XZ;
+		}
+
+		return NONE;
+	}
+
+	private static boolean startsWith( final byte[] aHeader, final int aLength, final byte[] aMagic ) {
+		if ( aLength < aMagic.length ) {
+			return false;
+		}
+
+		for ( int index = 0; index < aMagic.length; index++ ) {
+			if ( aHeader[index] != aMagic[index] ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+}
@@ -0,0 +1,36 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+/**
+ * This enumeration represents the possible ways how the {@link BinaryFileReader} accesses the content of a binary file.
+ *
+ * @author Nils Christian Ehmke
+ */
+public enum BinaryFileReadMode {
+
+	/**
+	 * The whole file is loaded into a byte array on the heap. This is only suitable for small files.
+	 */
+	HEAP,
+
+	/**
+	 * The file is walked through memory mapped windows of a fixed size. The heap consumption does not depend on the size of the file.
+	 */
+	MAPPED
+
+}
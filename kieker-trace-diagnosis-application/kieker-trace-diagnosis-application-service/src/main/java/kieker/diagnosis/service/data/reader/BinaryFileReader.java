@@ -16,30 +16,28 @@
 
 package kieker.diagnosis.service.data.reader;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ResourceBundle;
-import java.util.function.Consumer;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import com.carrotsearch.hppc.IntByteHashMap;
-import com.carrotsearch.hppc.IntByteMap;
+import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
-import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.google.common.io.ByteStreams;
 
-import kieker.common.record.flow.trace.TraceMetadata;
-import kieker.common.record.flow.trace.operation.AfterOperationEvent;
-import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
-import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
-import kieker.common.record.misc.KiekerMetadataRecord;
 import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
 import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
-import kieker.diagnosis.service.data.MethodCall;
 
 /**
  * This is a reader to import files written with Kieker's binary file writer. It exchanges readability and
@@ -49,30 +47,89 @@ import kieker.diagnosis.service.data.MethodCall;
  */
 public final class BinaryFileReader extends Reader {
 
+	/**
+	 * The maximal size of a single record (including key and logging timestamp) of the record handlers. Ignored records of unknown types can be larger.
+	 */
+	private static final int cvMaxRecordSize = 256;
+
+	/**
+	 * The size of the reused buffer for sources which do not support memory mapping.
+	 */
+	private static final int cvStreamBufferSize = 1024 * 1024;
+
+	private static final int cvRecordHeaderSize = 4 + 8;
+
+	/**
+	 * Streams (like the one of Kieker's TCP writer) contain no mapping file. The strings are registered with special records instead. Such a record
+	 * consists of this key, the key of the string, the length of the string and the bytes of the string.
+	 */
+	private static final int cvStringRegistrationKey = -1;
+	private static final int cvStringRegistrationHeaderSize = 4 + 4 + 4;
+
 	private final ResourceBundle ivResourceBundle = ResourceBundle.getBundle( getClass( ).getName( ) );
 
-	private final IntByteMap ivIgnoredRecordsSizeMap = new IntByteHashMap( );
 	private IntObjectMap<String> ivStringMapping;
+	private RecordHandlerTable ivRecordHandlerTable;
+	private ByteBuffer ivStreamBuffer;
 
-	private int ivBeforeOperationEventKey;
-	private int ivAfterOperationEventKey;
-	private int ivAfterOperationFailedEventKey;
-	private int ivTraceMetadataKey;
-	private int ivKiekerMetadataRecordKey;
+	private final BinaryFileReadMode ivReadMode;
+	private final int ivMappedWindowSize;
 
 	public BinaryFileReader( final TemporaryRepository aTemporaryRepository ) {
+		this( aTemporaryRepository, BinaryFileReadMode.MAPPED, 64 * 1024 * 1024 );
+	}
+
+	/**
+	 * Creates a new reader.
+	 *
+	 * @param aTemporaryRepository
+	 *                             The repository which receives the read records.
+	 * @param aReadMode
+	 *                             Determines how the binary files are accessed.
+	 * @param aMappedWindowSize
+	 *                             The size of the memory mapped windows in bytes. This is only used in {@link BinaryFileReadMode#MAPPED}. Values smaller
+	 *                             than twice the maximal record size are increased.
+	 */
+	public BinaryFileReader( final TemporaryRepository aTemporaryRepository, final BinaryFileReadMode aReadMode, final int aMappedWindowSize ) {
 		super( aTemporaryRepository );
+
+		ivReadMode = aReadMode;
+		ivMappedWindowSize = Math.max( aMappedWindowSize, 2 * cvMaxRecordSize );
 	}
 
 	@Override
-	public void readFromDirectory( final File aDirectory ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readFromDirectory(java.io.File)" );
+	public void readNonRecursiveFromDirectory( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readNonRecursiveFromDirectory(kieker.diagnosis.service.data.reader.LogSource, java.lang.String)" );
 
 		try {
-			final List<File> directoriesToBeRead = findDirectoriesToBeRead( aDirectory );
+			ivTemporaryRepository.clearBeforeNextDirectory( );
+
+			// The mapping file has to be read first, as we need it to decode the records
+			readMapping( aLogSource, aDirectory );
 
-			for ( final File directoryToBeRead : directoriesToBeRead ) {
-				readNonRecursiveFromDirectory( directoryToBeRead );
+			final List<String> binaryFiles = findBinaryFiles( aLogSource, aDirectory );
+			final List<BinaryCodec> codecs = new ArrayList<>( binaryFiles.size( ) );
+			final List<String> compressedFiles = new ArrayList<>( );
+			final List<BinaryCodec> compressedCodecs = new ArrayList<>( );
+			for ( final String binaryFile : binaryFiles ) {
+				final BinaryCodec codec = BinaryCodec.detect( aLogSource, binaryFile );
+				codecs.add( codec );
+
+				if ( codec != BinaryCodec.NONE ) {
+					compressedFiles.add( binaryFile );
+					compressedCodecs.add( codec );
+				}
+			}
+
+			// Compressed files are decompressed in the background, while we decode the records
+			try ( final DecompressionPipeline pipeline = compressedFiles.isEmpty( ) ? null : new DecompressionPipeline( aLogSource, compressedFiles, compressedCodecs, ivImportProgress ) ) {
+				for ( int index = 0; index < binaryFiles.size( ); index++ ) {
+					if ( codecs.get( index ) == BinaryCodec.NONE ) {
+						readBinaryFile( aLogSource, binaryFiles.get( index ) );
+					} else {
+						readCompressedBinaryFile( pipeline );
+					}
+				}
 			}
 
 		} catch ( final Throwable t ) {
@@ -83,21 +140,142 @@ public final class BinaryFileReader extends Reader {
 		}
 	}
 
-	private void readNonRecursiveFromDirectory( final File aDirectory ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readNonRecursiveFromDirectory(java.io.File)" );
+	@Override
+	public void readMapping( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		ivStringMapping = readMappingFile( aLogSource, aDirectory );
+		ivRecordHandlerTable = new RecordHandlerTable( ivStringMapping );
+	}
 
-		try {
-			ivTemporaryRepository.clearBeforeNextDirectory( );
-			ivIgnoredRecordsSizeMap.clear( );
+	@Override
+	public List<String> findFilesToBeReadIncrementally( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		// Compressed files cannot be read incrementally (and are usually not written by a running system anyway)
+		final List<String> binaryFiles = new ArrayList<>( );
+		for ( final String binaryFile : findBinaryFiles( aLogSource, aDirectory ) ) {
+			if ( BinaryCodec.detect( aLogSource, binaryFile ) == BinaryCodec.NONE ) {
+				binaryFiles.add( binaryFile );
+			}
+		}
+		return binaryFiles;
+	}
+
+	@Override
+	public long readNewRecords( final LogSource aLogSource, final String aFile, final long aOffset ) throws IOException {
+		if ( ivStreamBuffer == null ) {
+			ivStreamBuffer = ByteBuffer.allocate( cvStreamBufferSize );
+		}
 
-			ivStringMapping = readMappingFile( aDirectory );
-			extractImportKeysFromMapping( );
+		final ByteBuffer buffer = ivStreamBuffer;
+		buffer.clear( );
 
-			final File[] binaryFiles = findFilesWithExtension( aDirectory, ".bin" );
-			for ( final File binaryFile : binaryFiles ) {
-				readBinaryFile( binaryFile.toPath( ) );
+		long offset = aOffset;
+
+		try ( final FileChannel channel = openChannelAtOffset( aLogSource, aFile, aOffset ) ) {
+			while ( channel.read( buffer ) > 0 ) {
+				buffer.flip( );
+
+				// We read only complete records. The rest is probably still being written.
+				while ( isRecordComplete( buffer ) ) {
+					readRecord( buffer );
+				}
+
+				offset += buffer.position( );
+				buffer.compact( );
 			}
+		}
+
+		ivTemporaryRepository.processProcessedBytes( offset - aOffset );
+		return offset;
+	}
+
+	/**
+	 * Prepares this reader for a stream without mapping file. The strings are registered within the stream instead.
+	 */
+	void startStream( ) {
+		ivStringMapping = new IntObjectHashMap<>( );
+		ivRecordHandlerTable = new RecordHandlerTable( ivStringMapping );
+	}
+
+	/**
+	 * Reads all complete records (including the string registrations) of the given buffer, which contains a stream. An incomplete record at the end of the
+	 * buffer is not read.
+	 *
+	 * @param aByteBuffer
+	 *                    The buffer, positioned at the start of a record.
+	 */
+	void readStreamRecords( final ByteBuffer aByteBuffer ) {
+		while ( aByteBuffer.remaining( ) >= Integer.BYTES ) {
+			final int recordKey = aByteBuffer.getInt( aByteBuffer.position( ) );
+
+			if ( recordKey == cvStringRegistrationKey ) {
+				if ( !readStringRegistration( aByteBuffer ) ) {
+					break;
+				}
+			} else if ( isRecordComplete( aByteBuffer ) ) {
+				readRecord( aByteBuffer );
+			} else {
+				break;
+			}
+		}
+	}
+
+	private boolean readStringRegistration( final ByteBuffer aByteBuffer ) {
+		if ( aByteBuffer.remaining( ) < cvStringRegistrationHeaderSize ) {
+			return false;
+		}
+
+		final int position = aByteBuffer.position( );
+		final int length = aByteBuffer.getInt( position + 8 );
+		if ( aByteBuffer.remaining( ) < cvStringRegistrationHeaderSize + length ) {
+			return false;
+		}
+
+		final int key = aByteBuffer.getInt( position + 4 );
+		final byte[] bytes = new byte[length];
+		aByteBuffer.position( position + cvStringRegistrationHeaderSize );
+		aByteBuffer.get( bytes );
+
+		final String string = new String( bytes, StandardCharsets.UTF_8 ).intern( );
+		ivStringMapping.put( key, string );
+		ivRecordHandlerTable.register( key, string );
+
+		return true;
+	}
+
+	private boolean isRecordComplete( final ByteBuffer aByteBuffer ) {
+		if ( aByteBuffer.remaining( ) < cvRecordHeaderSize ) {
+			return false;
+		}
+
+		final int recordKey = aByteBuffer.getInt( aByteBuffer.position( ) );
+		return aByteBuffer.remaining( ) >= cvRecordHeaderSize + getRecordHandler( recordKey ).getBinarySize( );
+	}
 
+	private List<String> findBinaryFiles( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		final List<String> binaryFiles = new ArrayList<>( );
+
+		for ( final BinaryCodec codec : BinaryCodec.values( ) ) {
+			binaryFiles.addAll( aLogSource.findFilesWithExtension( aDirectory, codec.getExtension( ) ) );
+		}
+
+		// Kieker numbers the files consecutively. Sorting them by name makes sure that we read them in the same order for each import.
+		Collections.sort( binaryFiles );
+
+		return binaryFiles;
+	}
+
+	private void readBinaryFile( final LogSource aLogSource, final String aBinaryFile ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readBinaryFile(kieker.diagnosis.service.data.reader.LogSource, java.lang.String)" );
+
+		try {
+			switch ( ivReadMode ) {
+				case HEAP:
+					readBinaryFileIntoHeap( aLogSource, aBinaryFile );
+				break;
+				case MAPPED:
+				default:
+					readBinaryFileMapped( aLogSource, aBinaryFile );
+				break;
+			}
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -106,64 +284,76 @@ public final class BinaryFileReader extends Reader {
 		}
 	}
 
-	private void extractImportKeysFromMapping( ) {
-		ivBeforeOperationEventKey = -1;
-		ivAfterOperationEventKey = -1;
-		ivAfterOperationFailedEventKey = -1;
-		ivTraceMetadataKey = -1;
-		ivKiekerMetadataRecordKey = -1;
-
-		ivStringMapping.forEach( ( Consumer<IntObjectCursor<String>> ) aCursor -> {
-			final int key = aCursor.key;
-			final String value = aCursor.value;
-
-			if ( ivBeforeOperationEventKey == -1 && BeforeOperationEvent.class.getName( ).equals( value ) ) {
-				ivBeforeOperationEventKey = key;
-			} else if ( ivAfterOperationEventKey == -1 && AfterOperationEvent.class.getName( ).equals( value ) ) {
-				ivAfterOperationEventKey = key;
-			} else if ( ivAfterOperationFailedEventKey == -1 && AfterOperationFailedEvent.class.getName( ).equals( value ) ) {
-				ivAfterOperationFailedEventKey = key;
-			} else if ( ivTraceMetadataKey == -1 && TraceMetadata.class.getName( ).equals( value ) ) {
-				ivTraceMetadataKey = key;
-			} else if ( ivKiekerMetadataRecordKey == -1 && KiekerMetadataRecord.class.getName( ).equals( value ) ) {
-				ivKiekerMetadataRecordKey = key;
+	private void readBinaryFileIntoHeap( final LogSource aLogSource, final String aBinaryFile ) throws IOException {
+		final byte[] binaryContent;
+		try ( final InputStream inputStream = aLogSource.openFile( aBinaryFile ) ) {
+			binaryContent = ByteStreams.toByteArray( inputStream );
+		}
+		final ByteBuffer byteBuffer = ByteBuffer.wrap( binaryContent );
+
+		try {
+			while ( byteBuffer.hasRemaining( ) ) {
+				ivImportProgress.checkCancelled( );
+				readRecord( byteBuffer );
 			}
-		} );
+		} catch ( final BufferUnderflowException | IllegalArgumentException ex ) {
+			// The stream is incomplete. We still want to terminate the whole import in a useful manner.
+			ivTemporaryRepository.processException( ex );
+		}
+
+		ivTemporaryRepository.processProcessedBytes( binaryContent.length );
+		ivImportProgress.addProcessedBytes( binaryContent.length );
 	}
 
-	private void readBinaryFile( final Path aBinaryFile ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readBinaryFile(java.nio.file.Path)" );
+	private void readBinaryFileMapped( final LogSource aLogSource, final String aBinaryFile ) throws IOException {
+		try ( final FileChannel channel = aLogSource.openChannel( aBinaryFile ) ) {
+			if ( channel == null ) {
+				// The source does not support memory mapping. We use a reused buffer instead.
+				readBinaryFileStreamed( aLogSource, aBinaryFile );
+				return;
+			}
+
+			final long fileSize = channel.size( );
 
-		try {
-			final byte[] binaryContent = Files.readAllBytes( aBinaryFile );
-			final ByteBuffer byteBuffer = ByteBuffer.wrap( binaryContent );
+			long windowStart = 0;
+			ByteBuffer window = mapWindow( channel, windowStart, fileSize, 0 );
 
 			try {
-				while ( byteBuffer.hasRemaining( ) ) {
-					final int recordKey = byteBuffer.getInt( );
-					skipBytes( ( byte ) 8, byteBuffer ); // Ignore the logging timestamp
-
-					if ( recordKey == ivBeforeOperationEventKey ) {
-						readBeforeOperationEvent( byteBuffer );
-					} else if ( recordKey == ivAfterOperationEventKey ) {
-						readAfterOperationEvent( byteBuffer );
-					} else if ( recordKey == ivAfterOperationFailedEventKey ) {
-						readAfterOperationFailedEvent( byteBuffer );
-					} else if ( recordKey == ivTraceMetadataKey ) {
-						readTraceMetadata( byteBuffer );
-					} else if ( recordKey == ivKiekerMetadataRecordKey ) {
-						readKiekerMetadataRecord( byteBuffer );
-					} else {
-						// Expensive case. We have to find out which record we are dealing with and skip it
-						readUnknownRecord( byteBuffer, recordKey );
+				while ( windowStart + window.position( ) < fileSize ) {
+					ivImportProgress.checkCancelled( );
+
+					// If the rest of the window is too small for the next record, we move the window to the current position. This way a record never spans
+					// two windows.
+					final int recordSize = getRecordSize( window );
+					if ( window.remaining( ) < recordSize && windowStart + window.limit( ) < fileSize ) {
+						ivImportProgress.addProcessedBytes( window.position( ) );
+						windowStart += window.position( );
+						window = mapWindow( channel, windowStart, fileSize, recordSize );
 					}
+
+					readRecord( window );
 				}
 			} catch ( final BufferUnderflowException | IllegalArgumentException ex ) {
 				// The stream is incomplete. We still want to terminate the whole import in a useful manner.
 				ivTemporaryRepository.processException( ex );
 			}
 
-			ivTemporaryRepository.processProcessedBytes( binaryContent.length );
+			ivTemporaryRepository.processProcessedBytes( fileSize );
+			ivImportProgress.addProcessedBytes( fileSize - windowStart );
+		}
+	}
+
+	private void readBinaryFileStreamed( final LogSource aLogSource, final String aBinaryFile ) throws IOException {
+		try ( final InputStream inputStream = openFileWithProgress( aLogSource, aBinaryFile ) ) {
+			readBinaryStream( inputStream );
+		}
+	}
+
+	private void readCompressedBinaryFile( final DecompressionPipeline aPipeline ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readCompressedBinaryFile(kieker.diagnosis.service.data.reader.DecompressionPipeline)" );
+
+		try ( final InputStream inputStream = aPipeline.nextFile( ) ) {
+			readBinaryStream( inputStream );
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -172,89 +362,142 @@ public final class BinaryFileReader extends Reader {
 		}
 	}
 
-	private void skipBytes( final byte aCountBytes, final ByteBuffer aByteBuffer ) {
-		aByteBuffer.position( aByteBuffer.position( ) + aCountBytes );
-	}
+	private void readBinaryStream( final InputStream aInputStream ) {
+		if ( ivStreamBuffer == null ) {
+			ivStreamBuffer = ByteBuffer.allocate( cvStreamBufferSize );
+		}
 
-	private void readBeforeOperationEvent( final ByteBuffer aByteBuffer ) {
-		final long timestamp = aByteBuffer.getLong( ); // Timestamp
-		final long traceId = aByteBuffer.getLong( ); // Trace Id
-		skipBytes( ( byte ) ( 3 * 4 ), aByteBuffer ); // Ignore order index, method name and class name
+		final ByteBuffer buffer = ivStreamBuffer;
+		buffer.clear( );
+		buffer.flip( );
 
-		ivTemporaryRepository.processBeforeOperationEvent( timestamp, traceId );
-	}
+		long processedBytes = 0;
+		boolean endOfStream = false;
 
-	private MethodCall readAfterOperationEvent( final ByteBuffer aByteBuffer ) {
-		final long timestamp = aByteBuffer.getLong( ); // Timestamp
-		final long traceId = aByteBuffer.getLong( ); // Trace Id
-		skipBytes( ( byte ) 4, aByteBuffer ); // Ignore order index
-		final String methodName = ivStringMapping.get( aByteBuffer.getInt( ) ); // Method name
-		final String clazz = ivStringMapping.get( aByteBuffer.getInt( ) ); // Class name
+		try {
+			while ( buffer.hasRemaining( ) || !endOfStream ) {
+				// If the rest of the buffer is too small for the next record, we move the rest to the start of the buffer and refill it
+				final int recordSize = getRecordSize( buffer );
+				if ( recordSize > buffer.capacity( ) ) {
+					throw new IllegalArgumentException( String.format( ivResourceBundle.getString( "errorMessageRecordTooLarge" ), recordSize ) );
+				}
+				if ( buffer.remaining( ) < recordSize && !endOfStream ) {
+					buffer.compact( );
+					processedBytes += fill( aInputStream, buffer );
+					endOfStream = buffer.hasRemaining( );
+					buffer.flip( );
+
+					if ( !buffer.hasRemaining( ) ) {
+						break;
+					}
+				}
 
-		return ivTemporaryRepository.processAfterOperationEvent( timestamp, traceId, methodName, clazz );
+				ivImportProgress.checkCancelled( );
+				readRecord( buffer );
+			}
+		} catch ( final BufferUnderflowException | IllegalArgumentException | IOException ex ) {
+			// The stream is incomplete (or the compressed data is corrupt). We still want to terminate the whole import in a useful manner.
+			ivTemporaryRepository.processException( ex );
+		}
+
+		ivTemporaryRepository.processProcessedBytes( processedBytes );
 	}
 
-	private void readAfterOperationFailedEvent( final ByteBuffer aByteBuffer ) {
-		final MethodCall lastMethodCall = readAfterOperationEvent( aByteBuffer );
+	/**
+	 * Fills the given buffer from the stream until the buffer is full or the stream ends.
+	 *
+	 * @return The number of bytes read.
+	 */
+	private int fill( final InputStream aInputStream, final ByteBuffer aBuffer ) throws IOException {
+		final int start = aBuffer.position( );
+
+		while ( aBuffer.hasRemaining( ) ) {
+			final int readBytes = aInputStream.read( aBuffer.array( ), aBuffer.position( ), aBuffer.remaining( ) );
+			if ( readBytes == -1 ) {
+				break;
+			}
+			aBuffer.position( aBuffer.position( ) + readBytes );
+		}
 
-		final String exception = ivStringMapping.get( aByteBuffer.getInt( ) );
+		return aBuffer.position( ) - start;
+	}
 
-		// This can happen if the data is incomplete and we have a method call, but not a trace record
+	/**
+	 * Maps the next window of the file. The window is enlarged, if the next record is larger than the configured window size.
+	 */
+	private ByteBuffer mapWindow( final FileChannel aChannel, final long aWindowStart, final long aFileSize, final int aRecordSize ) throws IOException {
+		final long windowSize = Math.min( Math.max( ivMappedWindowSize, aRecordSize ), aFileSize - aWindowStart );
+		return aChannel.map( MapMode.READ_ONLY, aWindowStart, windowSize );
+	}
 
-		if ( lastMethodCall != null ) {
-			lastMethodCall.setException( exception );
+	/**
+	 * Delivers the size of the next record (including key and logging timestamp). Records of unknown types are skipped with the size determined by their
+	 * class, which means that they can be larger than {@link #cvMaxRecordSize}.
+	 *
+	 * @return The size of the record or the size of the header, if the key of the record is not yet available.
+	 */
+	private int getRecordSize( final ByteBuffer aByteBuffer ) {
+		if ( aByteBuffer.remaining( ) < Integer.BYTES ) {
+			return cvRecordHeaderSize;
 		}
-	}
 
-	private void readTraceMetadata( final ByteBuffer aByteBuffer ) {
-		final long traceId = aByteBuffer.getLong( );
-		skipBytes( ( byte ) ( 8 + 4 ), aByteBuffer ); // Ignore thread id and session id
+		final int recordKey = aByteBuffer.getInt( aByteBuffer.position( ) );
+		return cvRecordHeaderSize + getRecordHandler( recordKey ).getBinarySize( );
+	}
 
-		final String host = ivStringMapping.get( aByteBuffer.getInt( ) ); // Hostname
-		skipBytes( ( byte ) ( 8 + 4 ), aByteBuffer ); // Ignore parent trace Id and parent order Id
+	private void readRecord( final ByteBuffer aByteBuffer ) {
+		final int recordKey = aByteBuffer.getInt( );
+		aByteBuffer.position( aByteBuffer.position( ) + 8 ); // Ignore the logging timestamp
 
-		ivTemporaryRepository.processTraceMetadata( traceId, host );
+		getRecordHandler( recordKey ).readBinaryRecord( aByteBuffer, ivStringMapping, ivTemporaryRepository );
 	}
 
-	private void readKiekerMetadataRecord( final ByteBuffer aByteBuffer ) {
-		skipBytes( ( byte ) ( 4 * 4 + 1 + 8 ), aByteBuffer ); // Ignore a lot of fields...
-		final String timeUnitName = ivStringMapping.get( aByteBuffer.getInt( ) ); // Time unit
-		skipBytes( ( byte ) 8, aByteBuffer ); // Ignore the number of records
+	private RecordHandler getRecordHandler( final int aRecordKey ) {
+		final RecordHandler recordHandler = ivRecordHandlerTable.get( aRecordKey );
+		if ( recordHandler != null ) {
+			return recordHandler;
+		}
 
-		ivTemporaryRepository.processSourceTimeUnit( timeUnitName );
+		// Expensive case. We have to find out which record we are dealing with, but only once per record type and mapping.
+		final RecordHandler ignoredRecordHandler = createIgnoredRecordHandler( aRecordKey );
+		ivRecordHandlerTable.put( aRecordKey, ignoredRecordHandler );
+		return ignoredRecordHandler;
 	}
 
-	private void readUnknownRecord( final ByteBuffer aByteBuffer, final int aRecordKey ) {
-		byte size;
+	private RecordHandler createIgnoredRecordHandler( final int aRecordKey ) {
+		final String recordName = ivStringMapping.get( aRecordKey );
+		try {
+			final Class<?> recordClass = Class.forName( recordName );
+			final Field sizeField = recordClass.getDeclaredField( "SIZE" );
+			final int size = ( int ) sizeField.get( null );
+
+			return new IgnoredRecordHandler( recordName, size );
+		} catch ( final Exception ex ) {
+			// We have no chance. We cannot skip the record, as we don't know its size.
+			throw new RuntimeException( String.format( ivResourceBundle.getString( "errorMessageUnknownRecord" ), recordName ), ex );
+		}
+	}
 
-		if ( !ivIgnoredRecordsSizeMap.containsKey( aRecordKey ) ) {
-			final String recordName = ivStringMapping.get( aRecordKey );
-			try {
-				final Class<?> recordClass = Class.forName( recordName );
-				final Field sizeField = recordClass.getDeclaredField( "SIZE" );
-				size = ( byte ) ( int ) sizeField.get( null );
-
-				ivIgnoredRecordsSizeMap.put( aRecordKey, size );
-			} catch ( final Exception ex ) {
-				// We have no chance. We cannot skip the record, as we don't know its size.
-				throw new RuntimeException( String.format( ivResourceBundle.getString( "errorMessageUnknownRecord" ), recordName ), ex );
-			}
-		} else {
-			size = ivIgnoredRecordsSizeMap.get( aRecordKey );
+	@Override
+	public long determineBytesToBeRead( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		long bytes = 0;
+
+		for ( final String binaryFile : findBinaryFiles( aLogSource, aDirectory ) ) {
+			bytes += aLogSource.getSize( binaryFile );
 		}
 
-		ivTemporaryRepository.processIgnoredRecord( );
-		skipBytes( size, aByteBuffer );
+		return bytes;
 	}
 
 	@Override
-	public boolean shouldBeExecuted( final File aDirectory ) throws IOException {
-		final List<File> directoriesToBeRead = findDirectoriesToBeRead( aDirectory );
-		return !directoriesToBeRead.isEmpty( );
-	}
+	public List<String> findDirectoriesToBeRead( final LogSource aLogSource ) throws IOException {
+		// We need the directories which contain a mapping file and at least one binary file (of any codec)
+		final Set<String> directoriesWithBinaryFiles = new HashSet<>( );
+		for ( final BinaryCodec codec : BinaryCodec.values( ) ) {
+			directoriesWithBinaryFiles.addAll( aLogSource.findDirectoriesContainingFilesWithExtensions( ".map", codec.getExtension( ) ) );
+		}
 
-	private List<File> findDirectoriesToBeRead( final File aDirectory ) throws IOException {
-		return findDirectoriesContainingFilesWithExtensions( aDirectory, ".map", ".bin" );
+		return aLogSource.findDirectoriesContainingFilesWithExtensions( ".map" ).stream( ).filter( directoriesWithBinaryFiles::contains ).collect( Collectors.toList( ) );
 	}
 
 }
@@ -0,0 +1,118 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This is a small cache which maps UTF-8 encoded byte sequences to strings. It allows to parse names from a byte buffer without creating a new string
+ * for each occurrence. The strings are not interned, as the symbol table of the import deduplicates them anyway. The cache is not thread safe.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class ByteStringCache {
+
+	/**
+	 * Once the cache contains this number of entries, new strings are no longer cached. This protects us from unique values (like exception messages).
+	 */
+	private static final int cvMaxEntries = 1 << 16;
+
+	private byte[][] ivKeys = new byte[1024][];
+	private String[] ivValues = new String[1024];
+	private int[] ivHashes = new int[1024];
+	private int ivSize;
+
+	/**
+	 * Delivers the (cached) string for the given byte sequence.
+	 *
+	 * @param aBuffer
+	 *                The buffer containing the UTF-8 encoded string.
+	 * @param aOffset
+	 *                The start of the string within the buffer.
+	 * @param aLength
+	 *                The length of the string in bytes.
+	 *
+	 * @return The string.
+	 */
+	public String get( final byte[] aBuffer, final int aOffset, final int aLength ) {
+		final int hash = hash( aBuffer, aOffset, aLength );
+
+		final int mask = ivKeys.length - 1;
+		int slot = hash & mask;
+
+		byte[] key;
+		while ( ( key = ivKeys[slot] ) != null ) {
+			if ( ivHashes[slot] == hash && Arrays.equals( key, 0, key.length, aBuffer, aOffset, aOffset + aLength ) ) {
+				return ivValues[slot];
+			}
+			slot = ( slot + 1 ) & mask;
+		}
+
+		final String value = new String( aBuffer, aOffset, aLength, StandardCharsets.UTF_8 );
+
+		if ( ivSize < cvMaxEntries ) {
+			ivKeys[slot] = Arrays.copyOfRange( aBuffer, aOffset, aOffset + aLength );
+			ivValues[slot] = value;
+			ivHashes[slot] = hash;
+			ivSize++;
+
+			// We keep the load factor below 0.5
+			if ( ivSize * 2 > ivKeys.length ) {
+				grow( );
+			}
+		}
+
+		return value;
+	}
+
+	private static int hash( final byte[] aBuffer, final int aOffset, final int aLength ) {
+		int hash = 1;
+		for ( int index = aOffset; index < aOffset + aLength; index++ ) {
+			hash = 31 * hash + aBuffer[index];
+		}
+
+		// Spread the bits, as we use only the lower bits for the slot
+		return hash ^ ( hash >>> 16 );
+	}
+
+	private void grow( ) {
+		final byte[][] oldKeys = ivKeys;
+		final String[] oldValues = ivValues;
+		final int[] oldHashes = ivHashes;
+
+		final int newCapacity = oldKeys.length * 2;
+		ivKeys = new byte[newCapacity][];
+		ivValues = new String[newCapacity];
+		ivHashes = new int[newCapacity];
+
+		final int mask = newCapacity - 1;
+		for ( int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++ ) {
+			if ( oldKeys[oldSlot] != null ) {
+				int slot = oldHashes[oldSlot] & mask;
+				while ( ivKeys[slot] != null ) {
+					slot = ( slot + 1 ) & mask;
+				}
+
+				ivKeys[slot] = oldKeys[oldSlot];
+				ivValues[slot] = oldValues[oldSlot];
+				ivHashes[slot] = oldHashes[oldSlot];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import kieker.diagnosis.service.data.ImportProgress;
+
+/**
+ * This pipeline decompresses a list of files in a background thread, while the reader decodes the records. The decompressed content is handed over in
+ * blocks through a bounded queue. As the background thread continues with the next file as soon as the current file is decompressed, the decompression of
+ * the next file overlaps with the decoding of the current file. The blocks are reused, which means that the memory consumption of the pipeline is fixed.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class DecompressionPipeline implements Closeable {
+
+	private static final int cvBlockSize = 256 * 1024;
+	private static final int cvQueueCapacity = 16;
+
+	private final BlockingQueue<Block> ivFilledBlocks = new ArrayBlockingQueue<>( cvQueueCapacity + 1 );
+	private final BlockingQueue<Block> ivFreeBlocks = new ArrayBlockingQueue<>( cvQueueCapacity );
+	private final Thread ivThread;
+
+	/**
+	 * Creates the pipeline and starts the decompression of the files immediately.
+	 *
+	 * @param aLogSource
+	 *                        The source containing the files.
+	 * @param aFiles
+	 *                        The files in the order in which they are read later.
+	 * @param aCodecs
+	 *                        The codecs of the files.
+	 * @param aImportProgress
+	 *                        The progress of the import, to which the read (compressed) bytes are reported.
+	 */
+	public DecompressionPipeline( final LogSource aLogSource, final List<String> aFiles, final List<BinaryCodec> aCodecs, final ImportProgress aImportProgress ) {
+		for ( int index = 0; index < cvQueueCapacity; index++ ) {
+			ivFreeBlocks.add( new Block( new byte[cvBlockSize] ) );
+		}
+
+		ivThread = new Thread( ( ) -> decompressFiles( aLogSource, aFiles, aCodecs, aImportProgress ), "Decompression" );
+		ivThread.setDaemon( true );
+		ivThread.start( );
+	}
+
+	private void decompressFiles( final LogSource aLogSource, final List<String> aFiles, final List<BinaryCodec> aCodecs, final ImportProgress aImportProgress ) {
+		try {
+			for ( int index = 0; index < aFiles.size( ); index++ ) {
+				try ( final InputStream inputStream = aCodecs.get( index ).open( aLogSource, aFiles.get( index ), aImportProgress ) ) {
+					decompressFile( inputStream );
+					ivFilledBlocks.put( Block.endOfFile( ) );
+				} catch ( final IOException | RuntimeException ex ) {
+					// The reader gets the exception when it reaches the block. The error block marks the end of the file as well.
+					ivFilledBlocks.put( Block.error( ex ) );
+				}
+			}
+		} catch ( final InterruptedException ex ) {
+			// The pipeline has been closed
+			Thread.currentThread( ).interrupt( );
+		}
+	}
+
+	private void decompressFile( final InputStream aInputStream ) throws IOException, InterruptedException {
+		while ( true ) {
+			final Block block = ivFreeBlocks.take( );
+
+			// Fill the block as far as possible
+			int length = 0;
+			while ( length < block.ivData.length ) {
+				final int readBytes = aInputStream.read( block.ivData, length, block.ivData.length - length );
+				if ( readBytes == -1 ) {
+					break;
+				}
+				length += readBytes;
+			}
+
+			if ( length == 0 ) {
+				ivFreeBlocks.put( block );
+				return;
+			}
+
+			block.ivLength = length;
+			ivFilledBlocks.put( block );
+
+			if ( length < block.ivData.length ) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Delivers a stream for the next file of the pipeline. The previous stream has to be closed before this method is called again.
+	 *
+	 * @return The stream delivering the decompressed content of the next file.
+	 */
+	public InputStream nextFile( ) {
+		return new BlockInputStream( );
+	}
+
+	@Override
+	public void close( ) {
+		ivThread.interrupt( );
+	}
+
+	/**
+	 * A block of decompressed data. Special blocks (without data) mark the end of a file or an error.
+	 */
+	private static final class Block {
+
+		private final byte[] ivData;
+		private int ivLength;
+		private final Exception ivException;
+
+		Block( final byte[] aData ) {
+			this( aData, null );
+		}
+
+		private Block( final byte[] aData, final Exception aException ) {
+			ivData = aData;
+			ivException = aException;
+		}
+
+		static Block endOfFile( ) {
+			return new Block( null );
+		}
+
+		static Block error( final Exception aException ) {
+			return new Block( null, aException );
+		}
+
+		boolean isEndOfFile( ) {
+			return ivData == null && ivException == null;
+		}
+
+	}
+
+	/**
+	 * A stream reading the blocks of a single file from the queue. Consumed blocks are given back to the decompression thread.
+	 */
+	private final class BlockInputStream extends InputStream {
+
+		private Block ivCurrentBlock;
+		private int ivPosition;
+		private boolean ivFinished;
+
+		@Override
+		public int read( ) throws IOException {
+			final byte[] singleByte = new byte[1];
+			final int readBytes = read( singleByte, 0, 1 );
+			return readBytes == -1 ? -1 : singleByte[0] & 0xFF;
+		}
+
+		@Override
+		public int read( final byte[] aBuffer, final int aOffset, final int aLength ) throws IOException {
+			if ( aLength == 0 ) {
+				return 0;
+			}
+
+			if ( !nextBlockIfNecessary( ) ) {
+				return -1;
+			}
+
+			final int length = Math.min( aLength, ivCurrentBlock.ivLength - ivPosition );
+			System.arraycopy( ivCurrentBlock.ivData, ivPosition, aBuffer, aOffset, length );
+			ivPosition += length;
+
+			return length;
+		}
+
+		private boolean nextBlockIfNecessary( ) throws IOException {
+			if ( ivFinished ) {
+				return false;
+			}
+
+			if ( ivCurrentBlock != null && ivPosition < ivCurrentBlock.ivLength ) {
+				return true;
+			}
+
+			// The current block is consumed. We give it back to the decompression thread.
+			if ( ivCurrentBlock != null ) {
+				ivFreeBlocks.add( ivCurrentBlock );
+				ivCurrentBlock = null;
+			}
+
+			final Block block;
+			try {
+				block = ivFilledBlocks.take( );
+			} catch ( final InterruptedException ex ) {
+				Thread.currentThread( ).interrupt( );
+				throw new IOException( ex );
+			}
+
+			if ( block.ivException != null ) {
+				ivFinished = true;
+				throw new IOException( block.ivException );
+			}
+
+			if ( block.isEndOfFile( ) ) {
+				ivFinished = true;
+				return false;
+			}
+
+			ivCurrentBlock = block;
+			ivPosition = 0;
+			return true;
+		}
+
+		@Override
+		public void close( ) throws IOException {
+			// Skip the rest of the file, so that the next stream starts at the correct block. A corrupt rest of the file is of no interest at this point.
+			try {
+				while ( nextBlockIfNecessary( ) ) {
+					ivPosition = ivCurrentBlock.ivLength;
+				}
+			} catch ( final IOException ex ) {
+				ivFinished = true;
+			}
+
+			// The last block has to be given back as well
+			if ( ivCurrentBlock != null ) {
+				ivFreeBlocks.add( ivCurrentBlock );
+				ivCurrentBlock = null;
+			}
+		}
+
+	}
+
+}
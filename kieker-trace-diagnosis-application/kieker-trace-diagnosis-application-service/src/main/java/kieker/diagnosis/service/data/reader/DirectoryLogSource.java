@@ -0,0 +1,110 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This is a {@link LogSource} for a directory in the file system. Directories and files are identified by their absolute paths.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class DirectoryLogSource implements LogSource {
+
+	private final File ivRootDirectory;
+
+	public DirectoryLogSource( final File aRootDirectory ) {
+		ivRootDirectory = aRootDirectory;
+	}
+
+	@Override
+	public List<String> findDirectoriesContainingFilesWithExtensions( final String... aExtensions ) throws IOException {
+		try ( final Stream<File> files = Files.walk( ivRootDirectory.toPath( ), Integer.MAX_VALUE, new FileVisitOption[0] ).map( path -> path.toFile( ) ) ) {
+			return files.filter( file -> file.isDirectory( ) ) // Visit all directories in infinite depth...
+					.filter( directory -> containsFilesWithAllExtensions( directory, aExtensions ) ) // ...which contain at least one file for each extension.
+					.map( directory -> directory.getAbsolutePath( ) ).collect( Collectors.toList( ) );
+		}
+	}
+
+	private boolean containsFilesWithAllExtensions( final File aDirectory, final String[] aExtensions ) {
+		for ( final String extension : aExtensions ) {
+			// Did we find a file with the extension?
+			if ( listFilesWithExtension( aDirectory, extension ).length == 0 ) {
+				return false;
+			}
+		}
+
+		// It seems that we found a file for each extension.
+		return true;
+	}
+
+	@Override
+	public List<String> findFilesWithExtension( final String aDirectory, final String aExtension ) {
+		final List<String> files = new ArrayList<>( );
+
+		for ( final File file : listFilesWithExtension( new File( aDirectory ), aExtension ) ) {
+			files.add( file.getAbsolutePath( ) );
+		}
+
+		return files;
+	}
+
+	private File[] listFilesWithExtension( final File aDirectory, final String aExtension ) {
+		final String lowerExtension = aExtension.toLowerCase( );
+		final File[] files = aDirectory.listFiles( ( FilenameFilter ) ( aDir, aName ) -> aName.toLowerCase( ).endsWith( lowerExtension ) );
+		return files != null ? files : new File[0];
+	}
+
+	@Override
+	public String findFile( final String aDirectory, final String aFileName ) {
+		final File file = new File( aDirectory, aFileName );
+		return file.isFile( ) ? file.getAbsolutePath( ) : null;
+	}
+
+	@Override
+	public InputStream openFile( final String aFile ) throws IOException {
+		return Files.newInputStream( Paths.get( aFile ) );
+	}
+
+	@Override
+	public FileChannel openChannel( final String aFile ) throws IOException {
+		return FileChannel.open( Paths.get( aFile ), StandardOpenOption.READ );
+	}
+
+	@Override
+	public long getSize( final String aFile ) throws IOException {
+		return Files.size( Paths.get( aFile ) );
+	}
+
+	@Override
+	public void close( ) {
+		// Nothing to do here
+	}
+
+}
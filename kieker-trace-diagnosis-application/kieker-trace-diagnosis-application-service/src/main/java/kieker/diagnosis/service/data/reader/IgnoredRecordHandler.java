@@ -0,0 +1,65 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.nio.ByteBuffer;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+/**
+ * This handler skips records, for which no other handler is available, and counts them as ignored records.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class IgnoredRecordHandler implements RecordHandler {
+
+	private final String ivRecordType;
+	private final int ivBinarySize;
+
+	IgnoredRecordHandler( final String aRecordType, final int aBinarySize ) {
+		ivRecordType = aRecordType;
+		ivBinarySize = aBinarySize;
+	}
+
+	@Override
+	public String getRecordType( ) {
+		return ivRecordType;
+	}
+
+	@Override
+	public int getBinarySize( ) {
+		return ivBinarySize;
+	}
+
+	@Override
+	public void readBinaryRecord( final ByteBuffer aBuffer, final IntObjectMap<String> aStringMapping, final TemporaryRepository aTemporaryRepository ) {
+		aBuffer.position( aBuffer.position( ) + ivBinarySize );
+		aTemporaryRepository.processIgnoredRecord( );
+	}
+
+	@Override
+	public void readAsciiRecord( final AsciiRecordTokenizer aTokenizer, final TemporaryRepository aTemporaryRepository ) {
+		aTemporaryRepository.processIgnoredRecord( );
+	}
+
+	@Override
+	public void readAsciiRecordWithRegex( final String aAsciiContent, final TemporaryRepository aTemporaryRepository ) {
+		aTemporaryRepository.processIgnoredRecord( );
+	}
+
+}
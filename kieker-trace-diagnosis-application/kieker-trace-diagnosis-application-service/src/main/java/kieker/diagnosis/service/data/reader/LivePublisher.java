@@ -0,0 +1,99 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.util.Collection;
+import java.util.List;
+
+import kieker.diagnosis.service.data.ImportProgress;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+
+/**
+ * This publisher prepares the publication of incrementally imported data for the live readers. The expensive calculations are performed in the thread of
+ * the live reader, while the publication itself only adds the prepared data to the monitoring log service.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class LivePublisher {
+
+	private final MethodAggregator ivMethodAggregator;
+	private final MonitoringLogService ivMonitoringLogService;
+	private final TemporaryRepository ivTemporaryRepository;
+
+	LivePublisher( final MonitoringLogService aMonitoringLogService, final long aTimeBucketInterval ) {
+		ivMethodAggregator = new MethodAggregator( aTimeBucketInterval );
+		ivMonitoringLogService = aMonitoringLogService;
+		ivTemporaryRepository = new TemporaryRepository( aMonitoringLogService, new ImportProgress( ) );
+	}
+
+	/**
+	 * Delivers the root repository. The live readers should use shards of this repository.
+	 *
+	 * @return The repository.
+	 */
+	TemporaryRepository getTemporaryRepository( ) {
+		return ivTemporaryRepository;
+	}
+
+	/**
+	 * Prepares the publication of the given traces.
+	 *
+	 * @param aNewTraceRoots
+	 *                       The traces which have been completed since the last publication.
+	 * @param aRepositories
+	 *                       All repositories of the live reader. They are used to determine the statistics.
+	 *
+	 * @return The action publishing the new data.
+	 */
+	Runnable createPublication( final List<MethodCall> aNewTraceRoots, final Collection<TemporaryRepository> aRepositories ) {
+		final List<MethodCall> newMethods = ivTemporaryRepository.calculatePercentAndCollectMethods( aNewTraceRoots );
+		final Runnable aggregatedMethodsPublication = ivMethodAggregator.add( newMethods, ivMonitoringLogService::addAggregatedMethods );
+
+		long processedBytes = 0;
+		int ignoredRecords = 0;
+		int danglingRecords = 0;
+		int unfinishedTraces = 0;
+		for ( final TemporaryRepository repository : aRepositories ) {
+			processedBytes += repository.getProcessedBytes( );
+			ignoredRecords += repository.getIgnoredRecords( );
+			danglingRecords += repository.getDanglingRecords( );
+			unfinishedTraces += repository.getUnfinishedTraces( );
+		}
+
+		final long finalProcessedBytes = processedBytes;
+		final int finalIgnoredRecords = ignoredRecords;
+		final int finalDanglingRecords = danglingRecords;
+		final int finalUnfinishedTraces = unfinishedTraces;
+
+		return ( ) -> {
+			for ( final MethodCall traceRoot : aNewTraceRoots ) {
+				ivMonitoringLogService.addTraceRoot( traceRoot );
+			}
+			ivMonitoringLogService.addMethods( newMethods );
+			aggregatedMethodsPublication.run( );
+
+			ivMonitoringLogService.setProcessedBytes( finalProcessedBytes );
+			ivMonitoringLogService.setIgnoredRecords( finalIgnoredRecords );
+			ivMonitoringLogService.setDanglingRecords( finalDanglingRecords );
+			ivMonitoringLogService.setIncompleteTraces( finalUnfinishedTraces );
+			ivMonitoringLogService.setDataAvailable( true );
+		};
+	}
+
+}
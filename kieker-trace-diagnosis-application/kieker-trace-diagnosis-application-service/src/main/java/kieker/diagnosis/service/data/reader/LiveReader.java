@@ -0,0 +1,47 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.IOException;
+
+/**
+ * This is the interface for readers, which deliver the data of a monitoring log incrementally, while the monitored system is still running. Such a reader is
+ * used by a live import, which polls it regularly.
+ *
+ * @author Nils Christian Ehmke
+ */
+public interface LiveReader {
+
+	/**
+	 * Collects all data, which arrived since the last call. The monitoring log service is not modified by this method, as the data of the service might be
+	 * in use by another thread. Instead, the returned action publishes the new data to the service. The actions have to be performed in the order of the
+	 * calls.
+	 *
+	 * @return The action publishing the new data.
+	 *
+	 * @throws IOException
+	 *                     If the monitoring log could not be read.
+	 */
+	Runnable poll( ) throws IOException;
+
+	/**
+	 * Releases all resources of this reader. The reader must not be polled afterwards.
+	 */
+	void close( );
+
+}
@@ -0,0 +1,112 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * This is an abstraction of the location a monitoring log is read from (for instance a directory or a ZIP file). Directories and files are identified by
+ * strings, whose meaning depends on the actual implementation. Implementations must allow to read different files concurrently.
+ *
+ * @author Nils Christian Ehmke
+ */
+public interface LogSource extends Closeable {
+
+	/**
+	 * Delivers all directories of the source, which contain at least one file for each of the given extensions. The search is performed recursive.
+	 *
+	 * @param aExtensions
+	 *                    The extensions to search for.
+	 *
+	 * @return The resulting list of directories.
+	 *
+	 * @throws IOException
+	 *                     If the list of directories could not be determined.
+	 */
+	List<String> findDirectoriesContainingFilesWithExtensions( String... aExtensions ) throws IOException;
+
+	/**
+	 * Delivers all files with the given extension within the given directory. The search is performed non-recursive.
+	 *
+	 * @param aDirectory
+	 *                   The directory.
+	 * @param aExtension
+	 *                   The extension to search for.
+	 *
+	 * @return The resulting list of files.
+	 *
+	 * @throws IOException
+	 *                     If the list of files could not be determined.
+	 */
+	List<String> findFilesWithExtension( String aDirectory, String aExtension ) throws IOException;
+
+	/**
+	 * Delivers the file with the given name within the given directory.
+	 *
+	 * @param aDirectory
+	 *                   The directory.
+	 * @param aFileName
+	 *                   The name of the file.
+	 *
+	 * @return The file or {@code null}, if the directory contains no such file.
+	 */
+	String findFile( String aDirectory, String aFileName );
+
+	/**
+	 * Opens a stream to the content of the given file. The caller is responsible to close the stream.
+	 *
+	 * @param aFile
+	 *              The file.
+	 *
+	 * @return A new stream.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be opened.
+	 */
+	InputStream openFile( String aFile ) throws IOException;
+
+	/**
+	 * Opens a channel to the content of the given file, which can be used for memory mapping. The caller is responsible to close the channel.
+	 *
+	 * @param aFile
+	 *              The file.
+	 *
+	 * @return A new channel or {@code null}, if the source does not support random access.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be opened.
+	 */
+	FileChannel openChannel( String aFile ) throws IOException;
+
+	/**
+	 * Delivers the (uncompressed) size of the given file.
+	 *
+	 * @param aFile
+	 *              The file.
+	 *
+	 * @return The size in bytes or -1, if the size is not known.
+	 *
+	 * @throws IOException
+	 *                     If the size could not be determined.
+	 */
+	long getSize( String aFile ) throws IOException;
+
+}
@@ -0,0 +1,154 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
+import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+
+/**
+ * This tailer imports a monitoring log, which is still being written, incrementally. Each call of {@link #poll()} reads only the records which have been
+ * written since the last call. The reconstruction state of unfinished traces is kept between the calls, which means that traces can span several polls.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class LogTailer implements LiveReader {
+
+	private static final String cvMappingFileName = "kieker.map";
+
+	private final List<Function<TemporaryRepository, Reader>> ivReaderFactories = new ArrayList<>( );
+	private final Map<String, DirectoryState> ivDirectoryStates = new LinkedHashMap<>( );
+	private final LivePublisher ivLivePublisher;
+	private final TemporaryRepository ivTemporaryRepository;
+	private final LogSource ivLogSource;
+
+	/**
+	 * Creates a new tailer.
+	 *
+	 * @param aMonitoringLogService
+	 *                              The service to which the new data is published.
+	 * @param aLogSource
+	 *                              The source of the monitoring log. It has to support random access.
+	 * @param aTimeBucketInterval
+	 *                              The interval of the time buckets in milliseconds. If it is not positive, no time series are calculated.
+	 */
+	public LogTailer( final MonitoringLogService aMonitoringLogService, final LogSource aLogSource, final long aTimeBucketInterval ) {
+		ivLivePublisher = new LivePublisher( aMonitoringLogService, aTimeBucketInterval );
+		ivLogSource = aLogSource;
+		ivTemporaryRepository = ivLivePublisher.getTemporaryRepository( );
+	}
+
+	/**
+	 * Adds a reader to this tailer. A new reader is created for each directory.
+	 *
+	 * @param aReaderFactory
+	 *                       The factory creating a reader for a given repository.
+	 */
+	public void addReader( final Function<TemporaryRepository, Reader> aReaderFactory ) {
+		ivReaderFactories.add( aReaderFactory );
+	}
+
+	/**
+	 * Reads all records, which have been written since the last call.
+	 */
+	@Override
+	public Runnable poll( ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "poll()" );
+
+		try {
+			final List<MethodCall> newTraceRoots = new ArrayList<>( );
+
+			for ( int readerIndex = 0; readerIndex < ivReaderFactories.size( ); readerIndex++ ) {
+				final Function<TemporaryRepository, Reader> readerFactory = ivReaderFactories.get( readerIndex );
+				final List<String> directoriesToBeRead = readerFactory.apply( ivTemporaryRepository ).findDirectoriesToBeRead( ivLogSource );
+
+				for ( final String directoryToBeRead : directoriesToBeRead ) {
+					// New directories can appear at any time
+					final String stateKey = readerIndex + ":" + directoryToBeRead;
+					DirectoryState directoryState = ivDirectoryStates.get( stateKey );
+					if ( directoryState == null ) {
+						directoryState = new DirectoryState( readerFactory );
+						ivDirectoryStates.put( stateKey, directoryState );
+					}
+
+					directoryState.readNewRecords( directoryToBeRead );
+					newTraceRoots.addAll( directoryState.ivRepository.drainTraceRoots( ) );
+				}
+			}
+
+			final List<TemporaryRepository> repositories = ivDirectoryStates.values( ).stream( ).map( state -> state.ivRepository ).collect( Collectors.toList( ) );
+			return ivLivePublisher.createPublication( newTraceRoots, repositories );
+		} catch ( final Throwable t ) {
+			probe.fail( t );
+			throw t;
+		} finally {
+			probe.stop( );
+		}
+	}
+
+	@Override
+	public void close( ) {
+		// The files are only opened during a poll. There is nothing to release.
+	}
+
+	/**
+	 * The state of a single directory, which is read by a single reader.
+	 */
+	private final class DirectoryState {
+
+		private final TemporaryRepository ivRepository;
+		private final Reader ivReader;
+		private final Map<String, Long> ivFileOffsets = new HashMap<>( );
+		private long ivMappingFileSize = -1;
+
+		DirectoryState( final Function<TemporaryRepository, Reader> aReaderFactory ) {
+			ivRepository = ivTemporaryRepository.createShard( );
+			ivRepository.clearBeforeNextDirectory( );
+			ivReader = aReaderFactory.apply( ivRepository );
+		}
+
+		void readNewRecords( final String aDirectory ) throws IOException {
+			// The mapping file grows, whenever the monitored system registers new strings
+			final String mappingFile = ivLogSource.findFile( aDirectory, cvMappingFileName );
+			final long mappingFileSize = mappingFile != null ? ivLogSource.getSize( mappingFile ) : 0;
+			if ( mappingFileSize != ivMappingFileSize ) {
+				ivReader.readMapping( ivLogSource, aDirectory );
+				ivMappingFileSize = mappingFileSize;
+			}
+
+			for ( final String file : ivReader.findFilesToBeReadIncrementally( ivLogSource, aDirectory ) ) {
+				final long offset = ivFileOffsets.getOrDefault( file, 0L );
+				if ( ivLogSource.getSize( file ) > offset ) {
+					ivFileOffsets.put( file, ivReader.readNewRecords( ivLogSource, file, offset ) );
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,204 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongIntMap;
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.LongLongMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.LongObjectMap;
+
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MethodTimeSeries;
+import kieker.diagnosis.service.data.TimeBucket;
+
+/**
+ * This aggregator aggregates method calls incrementally. For each aggregated method, it keeps only the sum of the durations and a histogram, which
+ * contains the count, the exact minimum, and the exact maximum. New method calls are recorded into them, which means that the costs of a poll depend only
+ * on the number of new method calls and not on the number of all previous method calls. The median and the other percentiles are taken from the histogram.
+ * The same holds for the time series and for the self durations.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class MethodAggregator {
+
+	private final AggregationKeyFactory ivKeyFactory = new AggregationKeyFactory( );
+	private final LongObjectMap<AggregatedMethodCall> ivAggregatedMethodCalls = new LongObjectHashMap<>( );
+	private final LongObjectMap<DurationHistogram> ivHistograms = new LongObjectHashMap<>( );
+	private final LongLongMap ivTotalDurations = new LongLongHashMap( );
+	private final LongObjectMap<MethodTimeSeries> ivTimeSeries = new LongObjectHashMap<>( );
+	private final LongLongMap ivTotalSelfDurations = new LongLongHashMap( );
+	private final LongLongMap ivMaxSelfDurations = new LongLongHashMap( );
+	private final long ivTimeBucketInterval;
+
+	/**
+	 * Creates a new aggregator.
+	 *
+	 * @param aTimeBucketInterval
+	 *                            The interval of the time buckets in milliseconds. If it is not positive, no time series are calculated.
+	 */
+	public MethodAggregator( final long aTimeBucketInterval ) {
+		ivTimeBucketInterval = aTimeBucketInterval;
+	}
+
+	/**
+	 * Adds the given method calls to the aggregation. The already delivered aggregated method calls are not modified by this method, as they might be in
+	 * use by another thread. Instead, the modification is performed by the returned action.
+	 *
+	 * @param aMethodCalls
+	 *                     The new method calls.
+	 * @param aConsumer
+	 *                     The consumer which gets the newly created aggregated method calls, when the returned action is performed.
+	 *
+	 * @return The action updating the already delivered aggregated method calls and delivering the new ones.
+	 */
+	public Runnable add( final Collection<MethodCall> aMethodCalls, final Consumer<List<AggregatedMethodCall>> aConsumer ) {
+		// Group the new method calls by their aggregation key. The groups are numbered in the order in which they have been found first.
+		final LongIntMap groupIndices = new LongIntHashMap( );
+		final LongArrayList keys = new LongArrayList( );
+		final List<MethodCall> exemplaricMethodCalls = new ArrayList<>( );
+		final List<LongObjectMap<TimeBucket>> newTimeBuckets = new ArrayList<>( );
+		for ( final MethodCall methodCall : aMethodCalls ) {
+			final long key = ivKeyFactory.createKey( methodCall );
+
+			final int index = groupIndices.indexOf( key );
+			if ( !groupIndices.indexExists( index ) ) {
+				groupIndices.indexInsert( index, key, keys.size( ) );
+				keys.add( key );
+				newTimeBuckets.add( new LongObjectHashMap<>( ) );
+				exemplaricMethodCalls.add( methodCall );
+			}
+
+			// The histograms are only used by this aggregator, which means that the durations can be recorded directly
+			DurationHistogram histogram = ivHistograms.get( key );
+			if ( histogram == null ) {
+				histogram = new DurationHistogram( DurationHistogram.DEFAULT_PRECISION );
+				ivHistograms.put( key, histogram );
+			}
+			histogram.record( methodCall.getDuration( ) );
+			ivTotalDurations.addTo( key, methodCall.getDuration( ) );
+
+			final long selfDuration = methodCall.getSelfDuration( );
+			ivTotalSelfDurations.addTo( key, selfDuration );
+			if ( selfDuration > ivMaxSelfDurations.get( key ) ) {
+				ivMaxSelfDurations.put( key, selfDuration );
+			}
+
+			if ( isTimeSeriesEnabled( ) ) {
+				final long bucketStart = MethodTimeSeries.getBucketStart( methodCall.getTimestamp( ), ivTimeBucketInterval );
+				final LongObjectMap<TimeBucket> timeBucketMap = newTimeBuckets.get( groupIndices.get( key ) );
+				TimeBucket timeBucket = timeBucketMap.get( bucketStart );
+				if ( timeBucket == null ) {
+					timeBucket = new TimeBucket( bucketStart, DurationHistogram.DEFAULT_PRECISION );
+					timeBucketMap.put( bucketStart, timeBucket );
+				}
+				timeBucket.record( methodCall.getDuration( ) );
+			}
+		}
+
+		final List<AggregatedMethodCall> newAggregatedMethodCalls = new ArrayList<>( );
+		final List<AggregatedMethodCall> changedAggregatedMethodCalls = new ArrayList<>( );
+		final List<AggregatedMethodCall> changedValues = new ArrayList<>( );
+
+		for ( int groupIndex = 0; groupIndex < keys.size( ); groupIndex++ ) {
+			final long key = keys.get( groupIndex );
+			final DurationHistogram histogram = ivHistograms.get( key );
+
+			// The existing time series might be in use by another thread. We therefore create a new time series.
+			MethodTimeSeries timeSeries = null;
+			if ( isTimeSeriesEnabled( ) ) {
+				final MethodTimeSeries existingTimeSeries = ivTimeSeries.get( key );
+				final MethodTimeSeries newTimeSeries = BatchMethodAggregator.createTimeSeries( newTimeBuckets.get( groupIndex ), ivTimeBucketInterval );
+				timeSeries = existingTimeSeries != null ? existingTimeSeries.merge( newTimeSeries.getBuckets( ) ) : newTimeSeries;
+				ivTimeSeries.put( key, timeSeries );
+			}
+
+			final MethodCall exemplaricMethodCall = exemplaricMethodCalls.get( groupIndex );
+			final AggregatedMethodCall values = new AggregatedMethodCall( );
+			calculateValues( values, histogram, ivTotalDurations.get( key ) );
+			values.setPercentiles( histogram );
+			values.setTimeSeries( timeSeries );
+			values.setSelfDurations( ivTotalSelfDurations.get( key ), ivMaxSelfDurations.get( key ) );
+
+			final AggregatedMethodCall aggregatedMethodCall = ivAggregatedMethodCalls.get( key );
+			if ( aggregatedMethodCall == null ) {
+				// This aggregated method call is not yet known by anyone. We can use the values directly.
+				values.setHostId( exemplaricMethodCall.getHostId( ) );
+				values.setClazzId( exemplaricMethodCall.getClazzId( ) );
+				values.setMethodId( exemplaricMethodCall.getMethodId( ) );
+				values.setExceptionId( exemplaricMethodCall.getExceptionId( ) );
+
+				ivAggregatedMethodCalls.put( key, values );
+				newAggregatedMethodCalls.add( values );
+			} else {
+				changedAggregatedMethodCalls.add( aggregatedMethodCall );
+				changedValues.add( values );
+			}
+		}
+
+		return ( ) -> {
+			for ( int index = 0; index < changedAggregatedMethodCalls.size( ); index++ ) {
+				copyValues( changedValues.get( index ), changedAggregatedMethodCalls.get( index ) );
+			}
+			aConsumer.accept( newAggregatedMethodCalls );
+		};
+	}
+
+	private boolean isTimeSeriesEnabled( ) {
+		return ivTimeBucketInterval > 0;
+	}
+
+	private static void calculateValues( final AggregatedMethodCall aAggregatedMethodCall, final DurationHistogram aHistogram, final long aTotalDuration ) {
+		final int count = ( int ) aHistogram.getTotalCount( );
+
+		aAggregatedMethodCall.setAvgDuration( aTotalDuration / count );
+		aAggregatedMethodCall.setTotalDuration( aTotalDuration );
+		aAggregatedMethodCall.setCount( count );
+		aAggregatedMethodCall.setMedianDuration( aHistogram.getValueAtPercentile( 50.0 ) );
+		aAggregatedMethodCall.setMinDuration( aHistogram.getMinDuration( ) );
+		aAggregatedMethodCall.setMaxDuration( aHistogram.getMaxDuration( ) );
+	}
+
+	private static void copyValues( final AggregatedMethodCall aSource, final AggregatedMethodCall aTarget ) {
+		aTarget.setAvgDuration( aSource.getAvgDuration( ) );
+		aTarget.setTotalDuration( aSource.getTotalDuration( ) );
+		aTarget.setCount( aSource.getCount( ) );
+		aTarget.setMedianDuration( aSource.getMedianDuration( ) );
+		aTarget.setMinDuration( aSource.getMinDuration( ) );
+		aTarget.setMaxDuration( aSource.getMaxDuration( ) );
+		aTarget.setP90Duration( aSource.getP90Duration( ) );
+		aTarget.setP95Duration( aSource.getP95Duration( ) );
+		aTarget.setP99Duration( aSource.getP99Duration( ) );
+		aTarget.setP999Duration( aSource.getP999Duration( ) );
+		aTarget.setTimeSeries( aSource.getTimeSeries( ) );
+		aTarget.setTotalSelfDuration( aSource.getTotalSelfDuration( ) );
+		aTarget.setAvgSelfDuration( aSource.getAvgSelfDuration( ) );
+		aTarget.setMaxSelfDuration( aSource.getMaxSelfDuration( ) );
+		aTarget.setSelfDurationShare( aSource.getSelfDurationShare( ) );
+	}
+
+}
@@ -0,0 +1,72 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import kieker.diagnosis.service.data.ImportProgress;
+
+/**
+ * A stream reporting the number of bytes read from the underlying (raw) stream to the progress of the import.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class ProgressInputStream extends FilterInputStream {
+
+	private final ImportProgress ivImportProgress;
+
+	ProgressInputStream( final InputStream aInputStream, final ImportProgress aImportProgress ) {
+		super( aInputStream );
+
+		ivImportProgress = aImportProgress;
+	}
+
+	@Override
+	public int read( ) throws IOException {
+		final int value = super.read( );
+		if ( value != -1 ) {
+			ivImportProgress.addProcessedBytes( 1 );
+		}
+		return value;
+	}
+
+	@Override
+	public int read( final byte[] aBuffer, final int aOffset, final int aLength ) throws IOException {
+		final int readBytes = super.read( aBuffer, aOffset, aLength );
+		if ( readBytes > 0 ) {
+			ivImportProgress.addProcessedBytes( readBytes );
+		}
+		return readBytes;
+	}
+
+	@Override
+	public long skip( final long aBytes ) throws IOException {
+		final long skippedBytes = super.skip( aBytes );
+		ivImportProgress.addProcessedBytes( skippedBytes );
+		return skippedBytes;
+	}
+
+	@Override
+	public boolean markSupported( ) {
+		// Otherwise we would count some bytes twice
+		return false;
+	}
+
+}
@@ -16,21 +16,22 @@
 
 package kieker.diagnosis.service.data.reader;
 
-import java.io.File;
-import java.io.FilenameFilter;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.FileVisitOption;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
 
 import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
 import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
+import kieker.diagnosis.service.data.ImportProgress;
 
 /**
  * This is an abstract base for readers, which import monitoring logs. It provides some convenient helper methods.
@@ -42,54 +43,33 @@ public abstract class Reader {
 	private static final Pattern cvMappingFileEntryPattern = Pattern.compile( "\\$(\\d*)=(.*)" );
 
 	protected final TemporaryRepository ivTemporaryRepository;
+	protected final ImportProgress ivImportProgress;
 
 	public Reader( final TemporaryRepository aTemporaryRepository ) {
 		ivTemporaryRepository = aTemporaryRepository;
+		ivImportProgress = aTemporaryRepository.getImportProgress( );
 	}
 
-	public abstract void readFromDirectory( final File aDirectory ) throws IOException;
-
-	public abstract boolean shouldBeExecuted( final File aDirectory ) throws IOException;
-
 	/**
-	 * Reads the Kieker mapping file from the given directory. If the directory contains no such mapping file, an empty map
-	 * is returned.
-	 *
-	 * @param aDirectory
-	 *                   The directory from which the mapping file should be read.
+	 * Reads all directories of the given source, which can be handled by this reader. The directories are read one after another into the repository of
+	 * this reader.
 	 *
-	 * @return The mapping between the keys and the Strings.
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
 	 *
 	 * @throws IOException
-	 *                     If the mapping file exists but could not be read.
+	 *                     If the directories could not be read.
 	 */
-	protected final IntObjectMap<String> readMappingFile( final File aDirectory ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readMappingFile(java.io.File)" );
+	public final void readFromDirectory( final LogSource aLogSource ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readFromDirectory(kieker.diagnosis.service.data.reader.LogSource)" );
 
 		try {
-			final IntObjectMap<String> stringMapping = new IntObjectHashMap<>( );
-
-			// Check if the file exists
-			final File mappingFile = new File( aDirectory, "kieker.map" );
-			if ( mappingFile.exists( ) ) {
-				final List<String> lines = Files.readAllLines( mappingFile.toPath( ) );
+			final List<String> directoriesToBeRead = findDirectoriesToBeRead( aLogSource );
 
-				for ( final String line : lines ) {
-					final Matcher matcher = cvMappingFileEntryPattern.matcher( line );
-
-					if ( matcher.find( ) ) {
-						// Split the line into key and value
-						final String key = matcher.group( 1 );
-						final String value = matcher.group( 2 ).intern( );
-
-						// Store the entry in our map
-						final int intKey = Integer.parseInt( key );
-						stringMapping.put( intKey, value );
-					}
-				}
+			for ( final String directoryToBeRead : directoriesToBeRead ) {
+				readNonRecursiveFromDirectory( aLogSource, directoryToBeRead );
 			}
 
-			return stringMapping;
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -98,70 +78,183 @@ public abstract class Reader {
 		}
 	}
 
+	public final boolean shouldBeExecuted( final LogSource aLogSource ) throws IOException {
+		final List<String> directoriesToBeRead = findDirectoriesToBeRead( aLogSource );
+		return !directoriesToBeRead.isEmpty( );
+	}
+
 	/**
-	 * Delivers a list of all directories, which contain at least one file for each of the given extensions. The search is
-	 * performed recursive.
+	 * Delivers all directories of the given source, which can be handled by this reader.
 	 *
-	 * @param aDirectory
-	 *                    The root directory.
-	 * @param aExtensions
-	 *                    The extensions to search for.
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
 	 *
-	 * @return The resulting list of directories.
+	 * @return The directories to be read.
 	 *
 	 * @throws IOException
 	 *                     If the list of directories could not be determined.
 	 */
-	protected List<File> findDirectoriesContainingFilesWithExtensions( final File aDirectory, final String... aExtensions ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "findDirectoriesContainingFilesWithExtensions(java.io.File, java.lang.String[])" );
+	public abstract List<String> findDirectoriesToBeRead( final LogSource aLogSource ) throws IOException;
 
-		try {
-			return Files.walk( aDirectory.toPath( ), Integer.MAX_VALUE, new FileVisitOption[0] ) // Visit all files in infinite depth...
-					.map( path -> path.toFile( ) ).filter( file -> file.isDirectory( ) ) // ...which are directories...
-					.filter( directory -> containsFilesWithAllExtensions( directory, aExtensions ) ) // ...and contain at least one file for each extension.
-					.collect( Collectors.toList( ) );
-		} catch ( final Throwable t ) {
-			probe.fail( t );
-			throw t;
-		} finally {
-			probe.stop( );
-		}
-	}
+	/**
+	 * Reads the given directory (but not its subdirectories) into the repository of this reader.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 * @param aDirectory
+	 *                   The directory to read.
+	 *
+	 * @throws IOException
+	 *                     If the directory could not be read.
+	 */
+	public abstract void readNonRecursiveFromDirectory( final LogSource aLogSource, final String aDirectory ) throws IOException;
 
-	private boolean containsFilesWithAllExtensions( final File aDirectory, final String[] aExtensions ) {
-		for ( final String extension : aExtensions ) {
-			final String lowerExtension = extension.toLowerCase( );
-			final File[] filesWithExtension = aDirectory.listFiles( ( FilenameFilter ) ( aDir, aName ) -> aName.toLowerCase( ).endsWith( lowerExtension ) );
+	/**
+	 * Delivers the files of the given directory, which can be read incrementally with {@link #readNewRecords(LogSource, String, long)}.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 * @param aDirectory
+	 *                   The directory.
+	 *
+	 * @return The files in the order in which they should be read.
+	 *
+	 * @throws IOException
+	 *                     If the files could not be determined.
+	 */
+	public abstract List<String> findFilesToBeReadIncrementally( final LogSource aLogSource, final String aDirectory ) throws IOException;
 
-			// Did we find a file with the extension?
-			if ( filesWithExtension.length == 0 ) {
-				return false;
-			}
+	/**
+	 * (Re)reads the mapping file of the given directory. For an incremental import this has to be done whenever the mapping file changes, as the
+	 * monitored system can register new strings at any time.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 * @param aDirectory
+	 *                   The directory containing the mapping file.
+	 *
+	 * @throws IOException
+	 *                     If the mapping file could not be read.
+	 */
+	public abstract void readMapping( final LogSource aLogSource, final String aDirectory ) throws IOException;
+
+	/**
+	 * Reads all complete records of the given file, starting at the given offset. An incomplete record at the end of the file (which is probably still
+	 * being written) is not read. The repository is not cleared, which means that traces can be reconstructed across several calls.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log. It has to support random access.
+	 * @param aFile
+	 *                   The file to read.
+	 * @param aOffset
+	 *                   The offset of the first record to read.
+	 *
+	 * @return The offset after the last complete record, which is the offset for the next call.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be read.
+	 */
+	public abstract long readNewRecords( final LogSource aLogSource, final String aFile, final long aOffset ) throws IOException;
+
+	/**
+	 * Opens the given file as channel, positioned at the given offset.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 * @param aFile
+	 *                   The file to open.
+	 * @param aOffset
+	 *                   The offset.
+	 *
+	 * @return The channel.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be opened or if the source does not support random access.
+	 */
+	protected final FileChannel openChannelAtOffset( final LogSource aLogSource, final String aFile, final long aOffset ) throws IOException {
+		final FileChannel channel = aLogSource.openChannel( aFile );
+		if ( channel == null ) {
+			throw new IOException( "The source does not support random access: " + aFile );
 		}
 
-		// It seems that we found a file for each extension.
-		return true;
+		channel.position( aOffset );
+		return channel;
+	}
+
+	/**
+	 * Delivers the number of bytes, which are going to be read from the given directory. This is used to determine the progress of the import.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 * @param aDirectory
+	 *                   The directory to be read.
+	 *
+	 * @return The number of bytes.
+	 *
+	 * @throws IOException
+	 *                     If the size of the files could not be determined.
+	 */
+	public abstract long determineBytesToBeRead( final LogSource aLogSource, final String aDirectory ) throws IOException;
+
+	/**
+	 * Opens the given file. The bytes read from the stream are reported to the progress of the import.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 * @param aFile
+	 *                   The file to open.
+	 *
+	 * @return The stream of the file.
+	 *
+	 * @throws IOException
+	 *                     If the file could not be opened.
+	 */
+	protected final InputStream openFileWithProgress( final LogSource aLogSource, final String aFile ) throws IOException {
+		return new ProgressInputStream( aLogSource.openFile( aFile ), ivImportProgress );
 	}
 
 	/**
-	 * Delivers a list of all files with the given extension. The search is performed non-recursive.
+	 * Reads the Kieker mapping file from the given directory. If the directory contains no such mapping file, an empty map
+	 * is returned.
 	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
 	 * @param aDirectory
-	 *                   The root directory.
-	 * @param aExtension
-	 *                   The extension to search for.
+	 *                   The directory from which the mapping file should be read.
 	 *
-	 * @return The resulting list of files.
+	 * @return The mapping between the keys and the Strings.
 	 *
 	 * @throws IOException
-	 *                     If the list of files could not be determined.
+	 *                     If the mapping file exists but could not be read.
 	 */
-	protected File[] findFilesWithExtension( final File aDirectory, final String aExtension ) throws IOException {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "findFilesWithExtension(java.io.File, java.lang.String)" );
+	protected final IntObjectMap<String> readMappingFile( final LogSource aLogSource, final String aDirectory ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readMappingFile(kieker.diagnosis.service.data.reader.LogSource, java.lang.String)" );
 
 		try {
-			final String lowerExtension = aExtension.toLowerCase( );
-			return aDirectory.listFiles( ( FilenameFilter ) ( aDir, aName ) -> aName.toLowerCase( ).endsWith( lowerExtension ) );
+			final IntObjectMap<String> stringMapping = new IntObjectHashMap<>( );
+
+			// Check if the file exists
+			final String mappingFile = aLogSource.findFile( aDirectory, "kieker.map" );
+			if ( mappingFile != null ) {
+				try ( final BufferedReader reader = new BufferedReader( new InputStreamReader( aLogSource.openFile( mappingFile ), StandardCharsets.UTF_8 ) ) ) {
+					String line;
+					while ( ( line = reader.readLine( ) ) != null ) {
+						final Matcher matcher = cvMappingFileEntryPattern.matcher( line );
+
+						if ( matcher.find( ) ) {
+							// Split the line into key and value
+							final String key = matcher.group( 1 );
+							final String value = matcher.group( 2 ).intern( );
+
+							// Store the entry in our map
+							final int intKey = Integer.parseInt( key );
+							stringMapping.put( intKey, value );
+						}
+					}
+				}
+			}
+
+			return stringMapping;
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -0,0 +1,82 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.nio.ByteBuffer;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+/**
+ * This is the interface for handlers, which decode a single record type for the readers. The handlers are found with the {@link java.util.ServiceLoader}
+ * (in {@code META-INF/services/kieker.diagnosis.service.data.reader.RecordHandler}), which means that additional record types can be supported without
+ * changing the readers. The readers build a table from the mapping file, which contains the handler for each record key. The handlers are shared between
+ * the readers (and threads) and should therefore be stateless.
+ *
+ * @author Nils Christian Ehmke
+ */
+public interface RecordHandler {
+
+	/**
+	 * Delivers the type of the records, which are handled by this handler.
+	 *
+	 * @return The fully qualified class name of the records, as it is written into the mapping file.
+	 */
+	String getRecordType( );
+
+	/**
+	 * Delivers the size of a binary record (without the record key and the logging timestamp). The size must not exceed 244 bytes.
+	 *
+	 * @return The size in bytes.
+	 */
+	int getBinarySize( );
+
+	/**
+	 * Reads a single binary record. The record key and the logging timestamp have already been read. The handler has to read exactly
+	 * {@link #getBinarySize()} bytes.
+	 *
+	 * @param aBuffer
+	 *                             The buffer, positioned at the first field of the record.
+	 * @param aStringMapping
+	 *                             The strings of the mapping file.
+	 * @param aTemporaryRepository
+	 *                             The repository which receives the read record.
+	 */
+	void readBinaryRecord( ByteBuffer aBuffer, IntObjectMap<String> aStringMapping, TemporaryRepository aTemporaryRepository );
+
+	/**
+	 * Reads a single ascii record. The record key and the logging timestamp have already been read. Malformed lines should be ignored.
+	 *
+	 * @param aTokenizer
+	 *                             The tokenizer, positioned at the first field of the record.
+	 * @param aTemporaryRepository
+	 *                             The repository which receives the read record.
+	 */
+	void readAsciiRecord( AsciiRecordTokenizer aTokenizer, TemporaryRepository aTemporaryRepository );
+
+	/**
+	 * Reads a single ascii record with a regular expression. This is the slower alternative to the tokenizer, which is used by
+	 * {@link AsciiFileReadMode#REGEX}. The record key and the logging timestamp have already been removed from the line. Malformed lines should be ignored.
+	 *
+	 * @param aAsciiContent
+	 *                             The remaining fields of the record.
+	 * @param aTemporaryRepository
+	 *                             The repository which receives the read record.
+	 */
+	void readAsciiRecordWithRegex( String aAsciiContent, TemporaryRepository aTemporaryRepository );
+
+}
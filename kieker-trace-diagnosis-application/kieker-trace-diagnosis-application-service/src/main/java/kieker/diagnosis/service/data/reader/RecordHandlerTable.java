@@ -0,0 +1,120 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+
+/**
+ * This table contains the {@link RecordHandler} for each record key of a mapping file. It is built once for each mapping, which means that the readers can
+ * dispatch each record with a simple array access.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class RecordHandlerTable {
+
+	private static final Map<String, RecordHandler> cvRecordHandlersByType = loadRecordHandlers( );
+
+	private RecordHandler[] ivRecordHandlers;
+
+	/**
+	 * Creates a new table.
+	 *
+	 * @param aStringMapping
+	 *                       The mapping between the keys and the strings of a directory.
+	 */
+	RecordHandlerTable( final IntObjectMap<String> aStringMapping ) {
+		int maxKey = -1;
+		for ( final IntObjectCursor<String> cursor : aStringMapping ) {
+			maxKey = Math.max( maxKey, cursor.key );
+		}
+
+		ivRecordHandlers = new RecordHandler[maxKey + 1];
+		aStringMapping.forEach( ( Consumer<IntObjectCursor<String>> ) aCursor -> {
+			if ( aCursor.key >= 0 ) {
+				ivRecordHandlers[aCursor.key] = cvRecordHandlersByType.get( aCursor.value );
+			}
+		} );
+	}
+
+	/**
+	 * Delivers the handler for the given record key.
+	 *
+	 * @param aRecordKey
+	 *                   The record key.
+	 *
+	 * @return The handler or {@code null}, if there is no handler for the key.
+	 */
+	RecordHandler get( final long aRecordKey ) {
+		if ( aRecordKey < 0 || aRecordKey >= ivRecordHandlers.length ) {
+			return null;
+		}
+		return ivRecordHandlers[( int ) aRecordKey];
+	}
+
+	/**
+	 * Installs a handler for the given record key. This is used to remember how unknown records are skipped. Keys, which are not part of the mapping, are
+	 * ignored.
+	 *
+	 * @param aRecordKey
+	 *                       The record key.
+	 * @param aRecordHandler
+	 *                       The handler.
+	 */
+	void put( final int aRecordKey, final RecordHandler aRecordHandler ) {
+		if ( aRecordKey >= 0 && aRecordKey < ivRecordHandlers.length ) {
+			ivRecordHandlers[aRecordKey] = aRecordHandler;
+		}
+	}
+
+	/**
+	 * Registers a new string of the mapping. This is necessary for streams, in which the strings are registered while the records are read.
+	 *
+	 * @param aKey
+	 *                The key of the string.
+	 * @param aString
+	 *                The string.
+	 */
+	void register( final int aKey, final String aString ) {
+		if ( aKey < 0 ) {
+			return;
+		}
+
+		if ( aKey >= ivRecordHandlers.length ) {
+			ivRecordHandlers = Arrays.copyOf( ivRecordHandlers, Math.max( aKey + 1, ivRecordHandlers.length * 2 ) );
+		}
+		ivRecordHandlers[aKey] = cvRecordHandlersByType.get( aString );
+	}
+
+	private static Map<String, RecordHandler> loadRecordHandlers( ) {
+		// The first handler for a record type wins
+		final Map<String, RecordHandler> recordHandlersByType = new HashMap<>( );
+		for ( final RecordHandler recordHandler : ServiceLoader.load( RecordHandler.class, RecordHandler.class.getClassLoader( ) ) ) {
+			recordHandlersByType.putIfAbsent( recordHandler.getRecordType( ), recordHandler );
+		}
+		return Collections.unmodifiableMap( recordHandlersByType );
+	}
+
+}
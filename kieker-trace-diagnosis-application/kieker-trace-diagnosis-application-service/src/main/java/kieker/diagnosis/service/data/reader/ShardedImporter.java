@@ -0,0 +1,195 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
+import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
+
+/**
+ * This importer reads a monitoring log with a set of readers. Each directory is read by its own reader into its own shard of the temporary repository. The
+ * shards can be read in parallel on a fork/join pool (for ZIP files this means that several entries are inflated in parallel). Afterwards they are merged
+ * in a fixed order (first by reader, then by directory), which means that the result does not depend on the degree of parallelism.<br>
+ * <br>
+ * The only exception are the ids of the {@link kieker.diagnosis.service.data.SymbolTable}. The shards intern their symbols concurrently into the table
+ * of the import, which means that the ids of a parallel import depend on the scheduling of the threads. Everything derived from the symbols (like the
+ * aggregated methods or the trace shapes) depends only on the equality of the ids, and is therefore still deterministic.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class ShardedImporter {
+
+	private final List<Function<TemporaryRepository, Reader>> ivReaderFactories = new ArrayList<>( );
+	private final TemporaryRepository ivTemporaryRepository;
+	private final int ivParallelism;
+
+	/**
+	 * Creates a new importer.
+	 *
+	 * @param aTemporaryRepository
+	 *                             The repository into which the shards are merged.
+	 * @param aParallelism
+	 *                             The maximal number of directories which are read in parallel. A value of one (or less) means that the directories are read
+	 *                             sequentially in the calling thread.
+	 */
+	public ShardedImporter( final TemporaryRepository aTemporaryRepository, final int aParallelism ) {
+		ivTemporaryRepository = aTemporaryRepository;
+		ivParallelism = aParallelism;
+	}
+
+	/**
+	 * Adds a reader to this importer. As readers are stateful, a new reader is created for each shard.
+	 *
+	 * @param aReaderFactory
+	 *                       The factory creating a reader for a given shard.
+	 */
+	public void addReader( final Function<TemporaryRepository, Reader> aReaderFactory ) {
+		ivReaderFactories.add( aReaderFactory );
+	}
+
+	/**
+	 * Imports all directories of the given source.
+	 *
+	 * @param aLogSource
+	 *                   The source of the monitoring log.
+	 *
+	 * @return true if and only if at least one reader was responsible for at least one directory.
+	 *
+	 * @throws IOException
+	 *                     If a directory could not be read.
+	 */
+	public boolean importLogSource( final LogSource aLogSource ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "importLogSource(kieker.diagnosis.service.data.reader.LogSource)" );
+
+		try {
+			final List<Callable<TemporaryRepository>> tasks = createTasks( aLogSource );
+
+			final List<TemporaryRepository> shards;
+			if ( ivParallelism <= 1 || tasks.size( ) <= 1 ) {
+				shards = executeSequential( tasks );
+			} else {
+				shards = executeParallel( tasks );
+			}
+
+			// The shards are merged in the order of the tasks
+			for ( final TemporaryRepository shard : shards ) {
+				ivTemporaryRepository.merge( shard );
+			}
+
+			return !tasks.isEmpty( );
+		} catch ( final Throwable t ) {
+			probe.fail( t );
+			throw t;
+		} finally {
+			probe.stop( );
+		}
+	}
+
+	private List<Callable<TemporaryRepository>> createTasks( final LogSource aLogSource ) throws IOException {
+		final List<Callable<TemporaryRepository>> tasks = new ArrayList<>( );
+		long totalBytes = 0;
+
+		for ( final Function<TemporaryRepository, Reader> readerFactory : ivReaderFactories ) {
+			final Reader scanningReader = readerFactory.apply( ivTemporaryRepository );
+			final List<String> directoriesToBeRead = scanningReader.findDirectoriesToBeRead( aLogSource );
+
+			for ( final String directoryToBeRead : directoriesToBeRead ) {
+				totalBytes += scanningReader.determineBytesToBeRead( aLogSource, directoryToBeRead );
+
+				tasks.add( ( ) -> {
+					final TemporaryRepository shard = ivTemporaryRepository.createShard( );
+					final Reader reader = readerFactory.apply( shard );
+					reader.readNonRecursiveFromDirectory( aLogSource, directoryToBeRead );
+					return shard;
+				} );
+			}
+		}
+
+		// The total is known before the first byte is read. This way the progress of the import can be determined.
+		ivTemporaryRepository.getImportProgress( ).setTotalBytes( totalBytes );
+
+		return tasks;
+	}
+
+	private List<TemporaryRepository> executeSequential( final List<Callable<TemporaryRepository>> aTasks ) throws IOException {
+		final List<TemporaryRepository> shards = new ArrayList<>( aTasks.size( ) );
+
+		for ( final Callable<TemporaryRepository> task : aTasks ) {
+			try {
+				shards.add( task.call( ) );
+			} catch ( final IOException | RuntimeException ex ) {
+				throw ex;
+			} catch ( final Exception ex ) {
+				// Should not happen, as the readers throw only IO exceptions
+				throw new IOException( ex );
+			}
+		}
+
+		return shards;
+	}
+
+	private List<TemporaryRepository> executeParallel( final List<Callable<TemporaryRepository>> aTasks ) throws IOException {
+		final ForkJoinPool pool = new ForkJoinPool( ivParallelism );
+
+		try {
+			final List<Future<TemporaryRepository>> futures = new ArrayList<>( aTasks.size( ) );
+			for ( final Callable<TemporaryRepository> task : aTasks ) {
+				futures.add( pool.submit( task ) );
+			}
+
+			final List<TemporaryRepository> shards = new ArrayList<>( aTasks.size( ) );
+			for ( final Future<TemporaryRepository> future : futures ) {
+				shards.add( waitForShard( future ) );
+			}
+
+			return shards;
+		} finally {
+			pool.shutdownNow( );
+		}
+	}
+
+	private TemporaryRepository waitForShard( final Future<TemporaryRepository> aFuture ) throws IOException {
+		try {
+			return aFuture.get( );
+		} catch ( final InterruptedException ex ) {
+			Thread.currentThread( ).interrupt( );
+			throw new IOException( ex );
+		} catch ( final ExecutionException ex ) {
+			// Unwrap the original exception, so that the caller sees the same exceptions as in the sequential case
+			final Throwable cause = ex.getCause( );
+			if ( cause instanceof IOException ) {
+				throw ( IOException ) cause;
+			}
+			if ( cause instanceof RuntimeException ) {
+				throw ( RuntimeException ) cause;
+			}
+			if ( cause instanceof Error ) {
+				throw ( Error ) cause;
+			}
+			throw new IOException( cause );
+		}
+	}
+
+}
@@ -0,0 +1,343 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+
+/**
+ * This store collects the durations of the aggregated methods and calculates the aggregated values. As long as the number of buffered durations stays
+ * within the budget, everything is kept in memory. Once the budget is exceeded, the buffered durations of each aggregated method are sorted and written
+ * as a run to a temporary file. The runs are merged afterwards with a heap (k-way merge) to find the exact median. The count, sum, minimum, and maximum are tracked while the
+ * durations are added. The percentiles are calculated from histograms, which are merged while the durations are added.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class SpillingDurationStore implements Closeable {
+
+	private static final int READ_BUFFER_DURATIONS = 1024;
+
+	private final long ivMaxBufferedDurations;
+	private final int ivHistogramPrecision;
+	private final List<LongArrayList> ivBuffers = new ArrayList<>( );
+	private final List<LongArrayList> ivRunOffsets = new ArrayList<>( );
+	private final List<IntArrayList> ivRunSizes = new ArrayList<>( );
+	private final IntArrayList ivCounts = new IntArrayList( );
+	private final LongArrayList ivSums = new LongArrayList( );
+	private final LongArrayList ivMinimums = new LongArrayList( );
+	private final LongArrayList ivMaximums = new LongArrayList( );
+	private final List<DurationHistogram> ivHistograms = new ArrayList<>( );
+
+	private long ivBufferedDurations;
+	private Path ivSpillFile;
+	private FileChannel ivSpillChannel;
+	private long ivSpillPosition;
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param aMemoryBudget
+	 *                            The number of bytes which can be used to buffer the durations in memory.
+	 * @param aHistogramPrecision
+	 *                            The precision of the histograms in bits.
+	 */
+	SpillingDurationStore( final long aMemoryBudget, final int aHistogramPrecision ) {
+		ivMaxBufferedDurations = aMemoryBudget / Long.BYTES;
+		ivHistogramPrecision = aHistogramPrecision;
+	}
+
+	/**
+	 * Adds a new aggregated method.
+	 *
+	 * @return The index of the aggregated method.
+	 */
+	int addAggregatedMethod( ) {
+		ivBuffers.add( new LongArrayList( ) );
+		ivRunOffsets.add( null );
+		ivRunSizes.add( null );
+		ivCounts.add( 0 );
+		ivSums.add( 0L );
+		ivMinimums.add( Long.MAX_VALUE );
+		ivMaximums.add( Long.MIN_VALUE );
+		ivHistograms.add( new DurationHistogram( ivHistogramPrecision ) );
+		return ivBuffers.size( ) - 1;
+	}
+
+	int getAggregatedMethods( ) {
+		return ivBuffers.size( );
+	}
+
+	/**
+	 * Adds the given durations to the aggregated method. The durations are usually collected by another thread, which is why the histogram has already
+	 * been calculated.
+	 *
+	 * @param aAggregatedMethod
+	 *                          The index of the aggregated method.
+	 * @param aDurations
+	 *                          The new durations. The list must not be used anymore afterwards, as it might be adopted by the store.
+	 * @param aHistogram
+	 *                          The histogram of the new durations.
+	 *
+	 * @throws IOException
+	 *                     If the durations had to be spilled and the spill file could not be written.
+	 */
+	void addDurations( final int aAggregatedMethod, final LongArrayList aDurations, final DurationHistogram aHistogram ) throws IOException {
+		final int size = aDurations.size( );
+		final long[] durations = aDurations.buffer;
+
+		long sum = 0;
+		long minimum = ivMinimums.get( aAggregatedMethod );
+		long maximum = ivMaximums.get( aAggregatedMethod );
+		for ( int index = 0; index < size; index++ ) {
+			final long duration = durations[index];
+			sum += duration;
+			minimum = Math.min( minimum, duration );
+			maximum = Math.max( maximum, duration );
+		}
+
+		ivCounts.buffer[aAggregatedMethod] += size;
+		ivSums.buffer[aAggregatedMethod] += sum;
+		ivMinimums.buffer[aAggregatedMethod] = minimum;
+		ivMaximums.buffer[aAggregatedMethod] = maximum;
+		ivHistograms.get( aAggregatedMethod ).merge( aHistogram );
+
+		// We avoid copying the durations, if there are no buffered durations yet
+		final LongArrayList buffer = ivBuffers.get( aAggregatedMethod );
+		if ( buffer.isEmpty( ) ) {
+			ivBuffers.set( aAggregatedMethod, aDurations );
+		} else {
+			buffer.add( durations, 0, size );
+		}
+
+		ivBufferedDurations += size;
+		if ( ivBufferedDurations > ivMaxBufferedDurations ) {
+			spill( );
+		}
+	}
+
+	boolean isSpilled( ) {
+		return ivSpillChannel != null;
+	}
+
+	private void spill( ) throws IOException {
+		if ( ivSpillChannel == null ) {
+			ivSpillFile = Files.createTempFile( "kieker-trace-diagnosis", ".durations" );
+			ivSpillChannel = FileChannel.open( ivSpillFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE );
+		}
+
+		final ByteBuffer writeBuffer = ByteBuffer.allocateDirect( READ_BUFFER_DURATIONS * Long.BYTES );
+
+		for ( int aggregatedMethod = 0; aggregatedMethod < ivBuffers.size( ); aggregatedMethod++ ) {
+			final LongArrayList buffer = ivBuffers.get( aggregatedMethod );
+			if ( buffer.isEmpty( ) ) {
+				continue;
+			}
+
+			// Each run is sorted, which allows to merge the runs later
+			Arrays.sort( buffer.buffer, 0, buffer.size( ) );
+			addRun( aggregatedMethod, ivSpillPosition, buffer.size( ) );
+
+			for ( int index = 0; index < buffer.size( ); index++ ) {
+				if ( !writeBuffer.hasRemaining( ) ) {
+					ivSpillPosition += write( writeBuffer );
+				}
+				writeBuffer.putLong( buffer.get( index ) );
+			}
+			ivSpillPosition += write( writeBuffer );
+
+			// We release the array, as a cleared list would still occupy the memory
+			buffer.release( );
+		}
+
+		ivBufferedDurations = 0;
+	}
+
+	private void addRun( final int aAggregatedMethod, final long aOffset, final int aSize ) {
+		if ( ivRunOffsets.get( aAggregatedMethod ) == null ) {
+			ivRunOffsets.set( aAggregatedMethod, new LongArrayList( ) );
+			ivRunSizes.set( aAggregatedMethod, new IntArrayList( ) );
+		}
+		ivRunOffsets.get( aAggregatedMethod ).add( aOffset );
+		ivRunSizes.get( aAggregatedMethod ).add( aSize );
+	}
+
+	private long write( final ByteBuffer aWriteBuffer ) throws IOException {
+		aWriteBuffer.flip( );
+		final long bytes = aWriteBuffer.remaining( );
+		long position = ivSpillPosition;
+		while ( aWriteBuffer.hasRemaining( ) ) {
+			position += ivSpillChannel.write( aWriteBuffer, position );
+		}
+		aWriteBuffer.clear( );
+		return bytes;
+	}
+
+	/**
+	 * Calculates the values of the given aggregated method. This method can be called concurrently for different aggregated methods, but no durations
+	 * must be added anymore.
+	 *
+	 * @param aAggregatedMethod
+	 *                              The index of the aggregated method.
+	 * @param aAggregatedMethodCall
+	 *                              The aggregated method call which receives the values.
+	 *
+	 * @throws IOException
+	 *                     If the spilled runs could not be read.
+	 */
+	void calculateValues( final int aAggregatedMethod, final AggregatedMethodCall aAggregatedMethodCall ) throws IOException {
+		final int count = ivCounts.get( aAggregatedMethod );
+		final long sum = ivSums.get( aAggregatedMethod );
+
+		aAggregatedMethodCall.setAvgDuration( sum / count );
+		aAggregatedMethodCall.setTotalDuration( sum );
+		aAggregatedMethodCall.setCount( count );
+		aAggregatedMethodCall.setMedianDuration( findDuration( aAggregatedMethod, count / 2 ) );
+		aAggregatedMethodCall.setMinDuration( ivMinimums.get( aAggregatedMethod ) );
+		aAggregatedMethodCall.setMaxDuration( ivMaximums.get( aAggregatedMethod ) );
+		aAggregatedMethodCall.setPercentiles( ivHistograms.get( aAggregatedMethod ) );
+	}
+
+	/**
+	 * Finds the duration with the given rank (in ascending order) by merging the spilled runs and the buffered durations. The runs are ordered in a heap by
+	 * their next duration, which means that each step of the merge needs only logarithmic time in the number of runs.
+	 */
+	private long findDuration( final int aAggregatedMethod, final int aRank ) throws IOException {
+		final LongArrayList buffer = ivBuffers.get( aAggregatedMethod );
+		Arrays.sort( buffer.buffer, 0, buffer.size( ) );
+
+		final LongArrayList runOffsets = ivRunOffsets.get( aAggregatedMethod );
+		if ( runOffsets == null ) {
+			return buffer.get( aRank );
+		}
+
+		final IntArrayList runSizes = ivRunSizes.get( aAggregatedMethod );
+		final int runCount = runOffsets.size( );
+		final PriorityQueue<RunReader> runReaders = new PriorityQueue<>( runCount + 1, Comparator.comparingLong( RunReader::peek ) );
+		for ( int run = 0; run < runCount; run++ ) {
+			runReaders.add( new RunReader( ivSpillChannel, runOffsets.get( run ), runSizes.get( run ) ) );
+		}
+		if ( !buffer.isEmpty( ) ) {
+			runReaders.add( new RunReader( buffer ) );
+		}
+
+		for ( int rank = 0;; rank++ ) {
+			final RunReader smallestReader = runReaders.poll( );
+			final long duration = smallestReader.next( );
+			if ( rank == aRank ) {
+				return duration;
+			}
+
+			// The reader is put back with its new head
+			if ( smallestReader.hasNext( ) ) {
+				runReaders.add( smallestReader );
+			}
+		}
+	}
+
+	@Override
+	public void close( ) throws IOException {
+		if ( ivSpillChannel != null ) {
+			// The file is deleted on close
+			ivSpillChannel.close( );
+		}
+	}
+
+	/**
+	 * A reader for a sorted run, which is either stored in the spill file or in memory.
+	 */
+	private static final class RunReader {
+
+		private final FileChannel ivChannel;
+		private final ByteBuffer ivReadBuffer;
+		private final long[] ivDurations;
+		private long ivPosition;
+		private int ivRemaining;
+		private int ivIndex;
+		private int ivSize;
+
+		RunReader( final FileChannel aChannel, final long aOffset, final int aSize ) throws IOException {
+			ivChannel = aChannel;
+			ivReadBuffer = ByteBuffer.allocate( READ_BUFFER_DURATIONS * Long.BYTES );
+			ivDurations = new long[READ_BUFFER_DURATIONS];
+			ivPosition = aOffset;
+			ivRemaining = aSize;
+			fill( );
+		}
+
+		RunReader( final LongArrayList aDurations ) {
+			ivChannel = null;
+			ivReadBuffer = null;
+			ivDurations = aDurations.buffer;
+			ivSize = aDurations.size( );
+		}
+
+		private void fill( ) throws IOException {
+			final int durations = Math.min( ivRemaining, READ_BUFFER_DURATIONS );
+			ivReadBuffer.clear( ).limit( durations * Long.BYTES );
+			while ( ivReadBuffer.hasRemaining( ) ) {
+				// We use positional reads, as multiple threads read from the same channel
+				final int bytes = ivChannel.read( ivReadBuffer, ivPosition );
+				if ( bytes < 0 ) {
+					throw new IOException( "Unexpected end of the spill file" );
+				}
+				ivPosition += bytes;
+			}
+			ivReadBuffer.flip( );
+			ivReadBuffer.asLongBuffer( ).get( ivDurations, 0, durations );
+
+			ivRemaining -= durations;
+			ivIndex = 0;
+			ivSize = durations;
+		}
+
+		boolean hasNext( ) {
+			return ivIndex < ivSize;
+		}
+
+		long peek( ) {
+			return ivDurations[ivIndex];
+		}
+
+		long next( ) throws IOException {
+			final long duration = ivDurations[ivIndex++];
+			if ( ivIndex == ivSize && ivChannel != null && ivRemaining > 0 ) {
+				fill( );
+			}
+			return duration;
+		}
+
+	}
+
+}
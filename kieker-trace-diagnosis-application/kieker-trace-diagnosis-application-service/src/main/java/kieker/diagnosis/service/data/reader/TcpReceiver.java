@@ -0,0 +1,331 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
+import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+
+/**
+ * This receiver accepts the binary stream of Kieker's TCP writer on a local port. The strings of such a stream are registered inline with special records.
+ * Each connection is read by its own thread into its own repository, which means that traces can arrive while the monitored system is still running. The
+ * records are decoded without holding the lock of the receiver. Only the completed traces are handed over under the lock.<br>
+ * <br>
+ * The receiver buffers only a limited amount of data. Each connection reads into a fixed buffer, and it stops reading as soon as too many traces have been
+ * completed but not yet been published. In this case the operating system's TCP flow control slows down the writer of the monitored system.<br>
+ * <br>
+ * A closed connection is removed as soon as its remaining traces have been delivered. Only its statistics are kept, which means that monitored systems
+ * can reconnect as often as they like.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TcpReceiver implements LiveReader {
+
+	private static final int cvBufferSize = 1024 * 1024;
+
+	private final Object ivLock = new Object( );
+	private final List<Connection> ivConnections = new ArrayList<>( );
+	private final LivePublisher ivLivePublisher;
+	private final TemporaryRepository ivTemporaryRepository;
+
+	/**
+	 * The repository containing the statistics of the removed connections. It is only accessed under the lock of the receiver.
+	 */
+	private final TemporaryRepository ivClosedConnections;
+	private final ServerSocketChannel ivServerChannel;
+	private final int ivMaxPendingTraces;
+
+	/**
+	 * The number of traces which have been delivered by {@link #poll()}, but which have not yet been published.
+	 */
+	private int ivUnpublishedTraces;
+	private Exception ivFailure;
+	private volatile boolean ivClosed;
+
+	/**
+	 * Creates a new receiver and starts accepting connections.
+	 *
+	 * @param aMonitoringLogService
+	 *                              The service to which the new data is published.
+	 * @param aPort
+	 *                              The local port. If this is 0, a free port is chosen. The port is only opened on the loopback interface, as the
+	 *                              receiver does not authenticate the monitored systems.
+	 * @param aMaxPendingTraces
+	 *                              The maximal number of completed traces, which have not yet been published. The connections are not read while this
+	 *                              number is reached.
+	 * @param aTimeBucketInterval
+	 *                              The interval of the time buckets in milliseconds. If it is not positive, no time series are calculated.
+	 *
+	 * @throws IOException
+	 *                     If the port could not be opened.
+	 */
+	public TcpReceiver( final MonitoringLogService aMonitoringLogService, final int aPort, final int aMaxPendingTraces, final long aTimeBucketInterval )
+			throws IOException {
+		ivLivePublisher = new LivePublisher( aMonitoringLogService, aTimeBucketInterval );
+		ivTemporaryRepository = ivLivePublisher.getTemporaryRepository( );
+		ivClosedConnections = ivTemporaryRepository.createShard( );
+		ivMaxPendingTraces = Math.max( aMaxPendingTraces, 1 );
+
+		ivServerChannel = ServerSocketChannel.open( );
+		ivServerChannel.bind( new InetSocketAddress( InetAddress.getLoopbackAddress( ), aPort ) );
+
+		startThread( this::acceptConnections, "TCP Import" );
+	}
+
+	public int getPort( ) {
+		return ivServerChannel.socket( ).getLocalPort( );
+	}
+
+	/**
+	 * Delivers the number of connections, which have not yet been removed.
+	 *
+	 * @return The number of connections.
+	 */
+	int getConnectionCount( ) {
+		synchronized ( ivLock ) {
+			return ivConnections.size( );
+		}
+	}
+
+	private void acceptConnections( ) {
+		try {
+			while ( !ivClosed ) {
+				final SocketChannel channel = ivServerChannel.accept( );
+				final Connection connection = new Connection( channel );
+
+				synchronized ( ivLock ) {
+					if ( ivClosed ) {
+						channel.close( );
+						return;
+					}
+					ivConnections.add( connection );
+				}
+
+				startThread( connection::receive, "TCP Import Connection" );
+			}
+		} catch ( final IOException ex ) {
+			// If the receiver has been closed, this is the expected way to leave the loop
+			fail( ex );
+		}
+	}
+
+	private static void startThread( final Runnable aRunnable, final String aName ) {
+		final Thread thread = new Thread( aRunnable, aName );
+		thread.setDaemon( true );
+		thread.start( );
+	}
+
+	/**
+	 * Waits until the connections are allowed to read more data.
+	 *
+	 * @return false if and only if the receiver has been closed in the meantime.
+	 */
+	private boolean awaitCapacity( ) {
+		synchronized ( ivLock ) {
+			while ( !ivClosed && countPendingTraces( ) >= ivMaxPendingTraces ) {
+				try {
+					ivLock.wait( );
+				} catch ( final InterruptedException ex ) {
+					Thread.currentThread( ).interrupt( );
+					return false;
+				}
+			}
+
+			return !ivClosed;
+		}
+	}
+
+	private int countPendingTraces( ) {
+		int pendingTraces = ivUnpublishedTraces;
+		for ( final Connection connection : ivConnections ) {
+			pendingTraces += connection.ivRepository.getTraceRootCount( );
+		}
+		return pendingTraces;
+	}
+
+	private void fail( final Exception aException ) {
+		synchronized ( ivLock ) {
+			if ( !ivClosed && ivFailure == null ) {
+				ivFailure = aException;
+			}
+		}
+	}
+
+	/**
+	 * Collects all traces, which have been completed since the last call.
+	 */
+	@Override
+	public Runnable poll( ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "poll()" );
+
+		try {
+			final List<MethodCall> newTraceRoots = new ArrayList<>( );
+			final List<TemporaryRepository> repositories = new ArrayList<>( );
+
+			synchronized ( ivLock ) {
+				if ( ivFailure != null ) {
+					throw new IOException( ivFailure );
+				}
+
+				for ( final Iterator<Connection> iterator = ivConnections.iterator( ); iterator.hasNext( ); ) {
+					final Connection connection = iterator.next( );
+					newTraceRoots.addAll( connection.ivRepository.drainTraceRoots( ) );
+
+					if ( connection.ivFinished ) {
+						// The connection will not deliver any more traces. We keep only its statistics.
+						ivClosedConnections.merge( connection.ivRepository );
+						iterator.remove( );
+					} else {
+						repositories.add( connection.ivRepository );
+					}
+				}
+				repositories.add( ivClosedConnections );
+
+				// The traces are still pending until they are published
+				ivUnpublishedTraces += newTraceRoots.size( );
+			}
+
+			final Runnable publication = ivLivePublisher.createPublication( newTraceRoots, repositories );
+			return ( ) -> {
+				publication.run( );
+				releaseUnpublishedTraces( newTraceRoots.size( ) );
+			};
+		} catch ( final Throwable t ) {
+			probe.fail( t );
+			throw t;
+		} finally {
+			probe.stop( );
+		}
+	}
+
+	private void releaseUnpublishedTraces( final int aTraces ) {
+		synchronized ( ivLock ) {
+			ivUnpublishedTraces -= aTraces;
+			ivLock.notifyAll( );
+		}
+	}
+
+	@Override
+	public void close( ) {
+		synchronized ( ivLock ) {
+			ivClosed = true;
+			ivLock.notifyAll( );
+
+			closeQuietly( ivServerChannel );
+			for ( final Connection connection : ivConnections ) {
+				closeQuietly( connection.ivChannel );
+			}
+		}
+	}
+
+	private static void closeQuietly( final Channel aChannel ) {
+		try {
+			aChannel.close( );
+		} catch ( final IOException ex ) {
+			// Nothing we could do here
+		}
+	}
+
+	/**
+	 * A single connection of a monitored system.
+	 */
+	private final class Connection {
+
+		private final SocketChannel ivChannel;
+
+		/**
+		 * The repository containing the completed traces and the statistics of the connection. It is only accessed under the lock of the receiver.
+		 */
+		private final TemporaryRepository ivRepository;
+
+		/**
+		 * The repository into which the records are decoded. It is only accessed by the thread of the connection.
+		 */
+		private final TemporaryRepository ivReadingRepository;
+		private final BinaryFileReader ivReader;
+		private final ByteBuffer ivBuffer = ByteBuffer.allocate( cvBufferSize );
+
+		/**
+		 * Determines whether the connection has been closed and whether all of its remaining data has been transferred into {@link #ivRepository}. It is
+		 * only accessed under the lock of the receiver.
+		 */
+		private boolean ivFinished;
+
+		Connection( final SocketChannel aChannel ) {
+			ivChannel = aChannel;
+			ivRepository = ivTemporaryRepository.createShard( );
+			ivReadingRepository = ivTemporaryRepository.createShard( );
+			ivReadingRepository.clearBeforeNextDirectory( );
+			ivReader = new BinaryFileReader( ivReadingRepository );
+			ivReader.startStream( );
+		}
+
+		void receive( ) {
+			try {
+				while ( awaitCapacity( ) && ivChannel.read( ivBuffer ) != -1 ) {
+					ivBuffer.flip( );
+
+					final int start = ivBuffer.position( );
+					ivReader.readStreamRecords( ivBuffer );
+					ivReadingRepository.processProcessedBytes( ivBuffer.position( ) - start );
+
+					synchronized ( ivLock ) {
+						ivRepository.transferCompletedTraces( ivReadingRepository );
+					}
+
+					if ( ivBuffer.position( ) == 0 && ivBuffer.limit( ) == ivBuffer.capacity( ) ) {
+						throw new IllegalStateException( "A single record exceeds the buffer of the TCP import" );
+					}
+					ivBuffer.compact( );
+				}
+			} catch ( final IOException ex ) {
+				// The connection has been closed or reset. The traces which are not yet finished, remain unfinished.
+			} catch ( final RuntimeException ex ) {
+				// The stream is corrupt (for instance because of an unknown record). We cannot continue to read it.
+				fail( ex );
+			} finally {
+				closeQuietly( ivChannel );
+				finish( );
+			}
+		}
+
+		private void finish( ) {
+			// The traces which are not yet finished, will never be finished
+			ivReadingRepository.clearBeforeNextDirectory( );
+
+			synchronized ( ivLock ) {
+				ivRepository.transferCompletedTraces( ivReadingRepository );
+				ivFinished = true;
+			}
+		}
+
+	}
+
+}
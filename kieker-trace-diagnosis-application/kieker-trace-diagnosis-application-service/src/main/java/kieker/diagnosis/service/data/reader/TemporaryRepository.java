@@ -16,27 +16,34 @@
 
 package kieker.diagnosis.service.data.reader;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.ResourceBundle;
 import java.util.Stack;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.LongObjectHashMap;
 import com.carrotsearch.hppc.LongObjectMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 
 import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
 import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.HeapMethodCall;
+import kieker.diagnosis.service.data.ImportProgress;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceShape;
+import kieker.diagnosis.service.data.TraceStore;
 
 /**
  * This is a temporary storage used during an import of monitoring logs. Readers can use it to store the read data.
@@ -50,101 +57,346 @@ public final class TemporaryRepository {
 
 	private final ResourceBundle ivResourceBundle = ResourceBundle.getBundle( getClass( ).getName( ) );
 
-	private final LongObjectMap<String> ivHostMap = new LongObjectHashMap<>( );
-	private final LongObjectMap<List<MethodCall>> ivReconstructionMap = new LongObjectHashMap<>( );
+	private static final int MAX_POOLED_TRACE_STATES = 1024;
+
+	private final LongObjectMap<TraceState> ivTraceStates = new LongObjectHashMap<>( );
+	private final ArrayDeque<TraceState> ivTraceStatePool = new ArrayDeque<>( );
+	private final LongObjectMap<List<OperationExecution>> ivExecutionMap = new LongObjectHashMap<>( );
 	private boolean ivStreamCorrupt = false;
 	private Exception ivException = null;
 	private final MonitoringLogService ivMonitoringLogService;
+	private final SymbolTable ivSymbolTable;
+	private final ImportProgress ivImportProgress;
+	private final List<MethodCall> ivTraceRoots = new ArrayList<>( );
+	private final LongArrayList ivTraceShapeHashes = new LongArrayList( );
+	private Supplier<TraceStore> ivTraceStoreFactory;
+	private TraceStore ivTraceStore;
 
 	private int ivIgnoredRecords;
 	private int ivDanglingRecords;
+	private int ivIncompleteTraces;
 
 	private TimeUnit ivSourceTimeUnit;
 	private long ivProcessedBytes;
+	private long ivAggregationMemoryBudget = Long.MAX_VALUE;
+	private int ivHistogramPrecision = DurationHistogram.DEFAULT_PRECISION;
+	private int ivAggregationParallelism = Runtime.getRuntime( ).availableProcessors( );
+	private long ivTimeBucketInterval;
 
-	public TemporaryRepository( final MonitoringLogService aMonitoringLogService ) {
+	public TemporaryRepository( final MonitoringLogService aMonitoringLogService, final ImportProgress aImportProgress ) {
 		ivMonitoringLogService = aMonitoringLogService;
+		ivImportProgress = aImportProgress;
+
+		// The symbols are interned directly into the table of the current import
+		ivSymbolTable = aMonitoringLogService.getSymbolTable( );
 	}
 
-	void processBeforeOperationEvent( final long timestamp, final long traceId ) {
-		final List<MethodCall> methodList = ivReconstructionMap.get( traceId );
+	/**
+	 * Creates a new and empty repository, which can be filled independently from this repository (for instance in another thread). The content of the shard
+	 * is later transferred with {@link #merge(TemporaryRepository)}. All shards share the progress of the import.
+	 *
+	 * @return A new shard.
+	 */
+	public TemporaryRepository createShard( ) {
+		final TemporaryRepository shard = new TemporaryRepository( ivMonitoringLogService, ivImportProgress );
+		shard.setTraceStoreFactory( ivTraceStoreFactory );
+		return shard;
+	}
 
-		if ( methodList == null ) {
-			// This can happen if the data is incomplete and we have a method call, but not a trace record
-			ivDanglingRecords++;
-		} else {
+	/**
+	 * Sets the factory for the store, to which the finished traces are appended during the import. Each shard gets its own store. Without a factory, the
+	 * traces are kept as method call objects on the heap. This has to be set before any trace is finished.
+	 *
+	 * @param aTraceStoreFactory
+	 *                           The factory or {@code null}.
+	 */
+	public void setTraceStoreFactory( final Supplier<TraceStore> aTraceStoreFactory ) {
+		ivTraceStoreFactory = aTraceStoreFactory;
+		ivTraceStore = aTraceStoreFactory != null ? aTraceStoreFactory.get( ) : null;
+	}
+
+	/**
+	 * Sets how many bytes the aggregation of the methods can use to buffer the durations in memory. Further durations are spilled to a temporary file.
+	 *
+	 * @param aAggregationMemoryBudget
+	 *                                 The memory budget in bytes.
+	 */
+	public void setAggregationMemoryBudget( final long aAggregationMemoryBudget ) {
+		ivAggregationMemoryBudget = aAggregationMemoryBudget;
+	}
 
-			final MethodCall methodCall = new MethodCall( );
-			final String host = ivHostMap.get( traceId );
-			methodCall.setHost( host );
-
-			methodCall.setTraceId( traceId );
-			methodCall.setTraceDepth( 1 );
-			methodCall.setTraceSize( 1 );
-			methodCall.setTimestamp( timestamp );
-
-			if ( !methodList.isEmpty( ) ) {
-				// This is not the first entry and thus not the root of a method. Which means that this method is the child of the
-				// previous method.
-				final int lastIndex = methodList.size( ) - 1;
-				final MethodCall previousMethodCall = methodList.get( lastIndex );
-				previousMethodCall.addChild( methodCall );
+	/**
+	 * Sets the precision of the histograms, which are used to calculate the percentiles of the aggregated methods.
+	 *
+	 * @param aHistogramPrecision
+	 *                            The precision in bits.
+	 */
+	public void setHistogramPrecision( final int aHistogramPrecision ) {
+		ivHistogramPrecision = aHistogramPrecision;
+	}
+
+	/**
+	 * Sets into how many partitions the methods are divided, which are aggregated in parallel.
+	 *
+	 * @param aAggregationParallelism
+	 *                                The number of partitions.
+	 */
+	public void setAggregationParallelism( final int aAggregationParallelism ) {
+		ivAggregationParallelism = aAggregationParallelism;
+	}
+
+	/**
+	 * Sets the interval of the time buckets, into which the durations of the aggregated methods are rolled up.
+	 *
+	 * @param aTimeBucketInterval
+	 *                            The interval in milliseconds. If it is not positive, no time series are calculated.
+	 */
+	public void setTimeBucketInterval( final long aTimeBucketInterval ) {
+		ivTimeBucketInterval = aTimeBucketInterval;
+	}
+
+	public ImportProgress getImportProgress( ) {
+		return ivImportProgress;
+	}
+
+	/**
+	 * Transfers the content of the given shard into this repository. Traces which are still incomplete in the shard are counted as incomplete traces. The
+	 * shards should always be merged in the same order to get a deterministic result.
+	 *
+	 * @param aShard
+	 *               The shard to merge.
+	 */
+	public void merge( final TemporaryRepository aShard ) {
+		ivTraceRoots.addAll( aShard.ivTraceRoots );
+		ivTraceShapeHashes.addAll( aShard.ivTraceShapeHashes );
+
+		if ( aShard.ivTraceStore != null ) {
+			if ( ivTraceStore.getSize( ) == 0 ) {
+				// The store of the first shard can simply be taken over
+				ivTraceStore.close( );
+				ivTraceStore = aShard.ivTraceStore;
+			} else {
+				ivTraceStore.appendTraces( aShard.ivTraceStore );
+				aShard.ivTraceStore.close( );
 			}
+			aShard.ivTraceStore = null;
+		}
+
+		ivIgnoredRecords += aShard.ivIgnoredRecords;
+		ivDanglingRecords += aShard.ivDanglingRecords;
+		ivIncompleteTraces += aShard.ivIncompleteTraces + aShard.ivTraceStates.size( ) + aShard.ivExecutionMap.size( );
+		ivProcessedBytes += aShard.ivProcessedBytes;
+
+		if ( aShard.ivStreamCorrupt && !ivStreamCorrupt ) {
+			processException( aShard.ivException );
+		}
+	}
+
+	public void processBeforeOperationEvent( final long timestamp, final long traceId ) {
+		final TraceState traceState = ivTraceStates.get( traceId );
 
-			methodList.add( methodCall );
+		if ( traceState == null ) {
+			// This can happen if the data is incomplete and we have a method call, but not a trace record
+			ivDanglingRecords++;
+		} else {
+			// If this is not the first entry, the method is a child of the previous method
+			traceState.push( timestamp );
 		}
 	}
 
-	MethodCall processAfterOperationEvent( final long timestamp, final long traceId, final String methodName, final String clazz ) {
-		final List<MethodCall> methodList = ivReconstructionMap.get( traceId );
+	public void processAfterOperationEvent( final long timestamp, final long traceId, final String methodName, final String clazz ) {
+		processAfterOperationFailedEvent( timestamp, traceId, methodName, clazz, null );
+	}
+
+	/**
+	 * Processes the end of a method call.
+	 *
+	 * @param aTimestamp
+	 *                    The end of the method call.
+	 * @param aTraceId
+	 *                    The trace id.
+	 * @param aMethodName
+	 *                    The method.
+	 * @param aClazz
+	 *                    The class.
+	 * @param aException
+	 *                    The exception thrown by the method call or {@code null}, if the method call was successful.
+	 */
+	public void processAfterOperationFailedEvent( final long aTimestamp, final long aTraceId, final String aMethodName, final String aClazz,
+			final String aException ) {
+		final TraceState traceState = ivTraceStates.get( aTraceId );
 
-		if ( methodList == null ) {
+		if ( traceState == null ) {
 			// This can happen if the data is incomplete and we have a method call, but not a trace record
 			ivDanglingRecords++;
-			return null;
+			return;
 		}
 
 		// This event closes the last method call from the trace
-		final int lastIndex = methodList.size( ) - 1;
-		final MethodCall lastMethodCall = methodList.get( lastIndex );
-		methodList.remove( lastIndex );
+		final long childShapes = traceState.peekShapeAccumulator( );
+		final int lastMethodCall = traceState.pop( );
+
+		final long startTimestamp = traceState.getTimestamp( lastMethodCall );
+		traceState.setDuration( lastMethodCall, convertDuration( aTimestamp - startTimestamp ) );
+		traceState.setTimestamp( lastMethodCall, convertTimestamp( startTimestamp ) );
+		traceState.setClazzId( lastMethodCall, ivSymbolTable.intern( aClazz ) );
+		traceState.setMethodId( lastMethodCall, ivSymbolTable.intern( aMethodName ) );
+		traceState.setExceptionId( lastMethodCall, ivSymbolTable.intern( aException ) );
+
+		// The children are already finished, which means that we can calculate the shape on-the-fly
+		final long shapeHash = TraceShape.calculateNodeHash( childShapes, traceState.getHostId( ), traceState.getClazzId( lastMethodCall ),
+				traceState.getMethodId( lastMethodCall ) );
+
+		// If the stack is now empty, we just finished a whole trace
+		if ( traceState.isEmpty( ) ) {
+			// Add the trace to the container
+			if ( ivTraceStore != null ) {
+				traceState.appendTo( ivTraceStore );
+			} else {
+				ivTraceRoots.add( traceState.createMethodCalls( ) );
+			}
+			ivTraceShapeHashes.add( shapeHash );
 
-		long duration = timestamp - lastMethodCall.getTimestamp( );
-		// Make sure that the duration is always in nanoseconds
-		if ( DESTINATION_DURATION_TIME_UNIT != ivSourceTimeUnit ) {
-			duration = DESTINATION_DURATION_TIME_UNIT.convert( duration, ivSourceTimeUnit );
+			// Remove the data we no longer need
+			ivTraceStates.remove( aTraceId );
+			releaseTraceState( traceState );
+		} else {
+			traceState.addChildShape( shapeHash );
+
+			// We can calculate the trace size and the trace depth on-the-fly
+			traceState.addFinishedChild( lastMethodCall );
 		}
-		lastMethodCall.setDuration( duration );
-		lastMethodCall.setClazz( clazz );
-		lastMethodCall.setMethod( methodName );
+	}
 
-		// Make sure that the timestamp is always in milliseconds
-		if ( DESTINATION_TIMESTAMP_TIME_UNIT != ivSourceTimeUnit ) {
-			final long newTimestamp = DESTINATION_TIMESTAMP_TIME_UNIT.convert( lastMethodCall.getTimestamp( ), ivSourceTimeUnit );
-			lastMethodCall.setTimestamp( newTimestamp );
+	public void processTraceMetadata( final long traceId, final String host ) {
+		TraceState traceState = ivTraceStates.get( traceId );
+		if ( traceState == null ) {
+			traceState = acquireTraceState( );
+			ivTraceStates.put( traceId, traceState );
 		}
 
-		// If the list is now empty, we just finished a whole trace
-		if ( methodList.isEmpty( ) ) {
-			// Remove the data we no longer need
-			ivHostMap.remove( traceId );
-			ivReconstructionMap.remove( traceId );
+		// If the trace is already open, its previous content is discarded
+		traceState.reset( traceId, ivSymbolTable.intern( host ) );
+	}
 
-			// Add the trace to the container
-			ivMonitoringLogService.addTraceRoot( lastMethodCall );
-		} else {
-			final MethodCall previousMethodCall = methodList.get( methodList.size( ) - 1 );
-			// We can calculate the trace size and the trace depth on-the-fly
-			previousMethodCall.addToTraceSize( lastMethodCall.getTraceSize( ) );
-			previousMethodCall.setTraceDepth( Math.max( previousMethodCall.getTraceDepth( ), lastMethodCall.getTraceDepth( ) + 1 ) );
+	private TraceState acquireTraceState( ) {
+		final TraceState traceState = ivTraceStatePool.pollLast( );
+		return traceState != null ? traceState : new TraceState( );
+	}
+
+	private void releaseTraceState( final TraceState aTraceState ) {
+		if ( ivTraceStatePool.size( ) < MAX_POOLED_TRACE_STATES ) {
+			aTraceState.reset( 0L, SymbolTable.NULL_SYMBOL );
+			ivTraceStatePool.addLast( aTraceState );
+		}
+	}
+
+	/**
+	 * Processes a whole method call, as it is contained in the legacy operation execution records. The records of a trace are collected until the root of
+	 * the trace arrives. As the root is finished last, it is also written last.
+	 *
+	 * @param aTraceId
+	 *                     The trace id.
+	 * @param aTin
+	 *                     The start of the method call.
+	 * @param aTout
+	 *                     The end of the method call.
+	 * @param aHost
+	 *                     The host.
+	 * @param aClazz
+	 *                     The class.
+	 * @param aMethodName
+	 *                     The method.
+	 * @param aEoi
+	 *                     The execution order index (which is the position of the method call within the trace in pre-order).
+	 * @param aEss
+	 *                     The execution stack size (which is the depth of the method call within the trace, starting with 0).
+	 */
+	public void processOperationExecution( final long aTraceId, final long aTin, final long aTout, final String aHost, final String aClazz,
+			final String aMethodName, final int aEoi, final int aEss ) {
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( ivSymbolTable.intern( aHost ) );
+		methodCall.setClazzId( ivSymbolTable.intern( aClazz ) );
+		methodCall.setMethodId( ivSymbolTable.intern( aMethodName ) );
+		methodCall.setTraceId( aTraceId );
+		methodCall.setTraceDepth( 1 );
+		methodCall.setTraceSize( 1 );
+		methodCall.setTimestamp( convertTimestamp( aTin ) );
+		methodCall.setDuration( convertDuration( aTout - aTin ) );
+
+		List<OperationExecution> executions = ivExecutionMap.get( aTraceId );
+		if ( executions == null ) {
+			executions = new ArrayList<>( );
+			ivExecutionMap.put( aTraceId, executions );
+		}
+		executions.add( new OperationExecution( methodCall, aEoi, aEss ) );
+
+		if ( aEss == 0 ) {
+			ivExecutionMap.remove( aTraceId );
+
+			final MethodCall traceRoot = reconstructTrace( executions );
+			if ( ivTraceStore != null ) {
+				ivTraceStore.appendTrace( traceRoot );
+			} else {
+				ivTraceRoots.add( traceRoot );
+			}
+			ivTraceShapeHashes.add( TraceShape.calculateShapeHash( traceRoot ) );
+		}
+	}
+
+	private static MethodCall reconstructTrace( final List<OperationExecution> aExecutions ) {
+		// In the order of the execution order indices, the parent of each method call is the last method call with a smaller execution stack size
+		aExecutions.sort( Comparator.comparingInt( OperationExecution::getEoi ) );
+
+		final List<OperationExecution> stack = new ArrayList<>( );
+		MethodCall root = null;
+
+		for ( final OperationExecution execution : aExecutions ) {
+			while ( !stack.isEmpty( ) && stack.get( stack.size( ) - 1 ).getEss( ) >= execution.getEss( ) ) {
+				stack.remove( stack.size( ) - 1 );
+			}
+
+			if ( root == null ) {
+				root = execution.getMethodCall( );
+			} else {
+				// Records without a parent (if the trace is incomplete) are simply added to the root
+				final MethodCall parent = stack.isEmpty( ) ? root : stack.get( stack.size( ) - 1 ).getMethodCall( );
+				parent.addChild( execution.getMethodCall( ) );
+			}
+
+			stack.add( execution );
 		}
 
-		return lastMethodCall;
+		// The children have higher execution order indices than their parents. We can therefore calculate the trace size and the trace depth backwards.
+		for ( int index = aExecutions.size( ) - 1; index >= 0; index-- ) {
+			final MethodCall methodCall = aExecutions.get( index ).getMethodCall( );
+			for ( final MethodCall child : methodCall.getChildren( ) ) {
+				methodCall.addToTraceSize( child.getTraceSize( ) );
+				methodCall.setTraceDepth( Math.max( methodCall.getTraceDepth( ), child.getTraceDepth( ) + 1 ) );
+			}
+		}
+
+		return root;
 	}
 
-	void processTraceMetadata( final long traceId, final String host ) {
-		ivReconstructionMap.put( traceId, new ArrayList<>( ) );
-		ivHostMap.put( traceId, host.intern( ) );
+	/**
+	 * Makes sure that the duration is always in nanoseconds.
+	 */
+	private long convertDuration( final long aDuration ) {
+		if ( DESTINATION_DURATION_TIME_UNIT != ivSourceTimeUnit ) {
+			return DESTINATION_DURATION_TIME_UNIT.convert( aDuration, ivSourceTimeUnit );
+		}
+		return aDuration;
+	}
+
+	/**
+	 * Makes sure that the timestamp is always in milliseconds.
+	 */
+	private long convertTimestamp( final long aTimestamp ) {
+		if ( DESTINATION_TIMESTAMP_TIME_UNIT != ivSourceTimeUnit ) {
+			return DESTINATION_TIMESTAMP_TIME_UNIT.convert( aTimestamp, ivSourceTimeUnit );
+		}
+		return aTimestamp;
 	}
 
 	public void processSourceTimeUnit( final String aTimeUnitName ) {
@@ -160,13 +412,77 @@ public final class TemporaryRepository {
 	}
 
 	public void clearBeforeNextDirectory( ) {
-		ivHostMap.clear( );
-		ivReconstructionMap.clear( );
+		// The traces which have not been finished yet, will never be finished
+		ivIncompleteTraces += ivTraceStates.size( ) + ivExecutionMap.size( );
+
+		for ( final ObjectCursor<TraceState> traceState : ivTraceStates.values( ) ) {
+			releaseTraceState( traceState.value );
+		}
+		ivTraceStates.clear( );
+		ivExecutionMap.clear( );
 
 		// This is just necessary, if we have incomplete data and have to assume a time unit
 		ivSourceTimeUnit = TimeUnit.NANOSECONDS;
 	}
 
+	/**
+	 * Delivers the traces which have been completed since the last call of this method and removes them from this repository. This is used for an
+	 * incremental import, where the reconstruction state of the unfinished traces is kept between the calls.
+	 *
+	 * @return The roots of the completed traces.
+	 */
+	List<MethodCall> drainTraceRoots( ) {
+		final List<MethodCall> traceRoots = new ArrayList<>( ivTraceRoots );
+		ivTraceRoots.clear( );
+		ivTraceShapeHashes.clear( );
+		return traceRoots;
+	}
+
+	/**
+	 * Transfers the traces which have been completed in the given shard into this repository and takes over the current statistics of the shard. In
+	 * contrast to {@link #merge(TemporaryRepository)}, the shard keeps its unfinished traces and continues to reconstruct them. This is used to hand over
+	 * the data of a thread reading into the shard to the threads using this repository, without making them wait for the reading thread.
+	 *
+	 * @param aShard
+	 *               The shard. It must not be modified by another thread during the call.
+	 */
+	void transferCompletedTraces( final TemporaryRepository aShard ) {
+		ivTraceRoots.addAll( aShard.ivTraceRoots );
+		ivTraceShapeHashes.addAll( aShard.ivTraceShapeHashes );
+		aShard.ivTraceRoots.clear( );
+		aShard.ivTraceShapeHashes.clear( );
+
+		ivIgnoredRecords = aShard.ivIgnoredRecords;
+		ivDanglingRecords = aShard.ivDanglingRecords;
+		ivIncompleteTraces = aShard.getUnfinishedTraces( );
+		ivProcessedBytes = aShard.ivProcessedBytes;
+	}
+
+	int getTraceRootCount( ) {
+		return ivTraceRoots.size( );
+	}
+
+	long getProcessedBytes( ) {
+		return ivProcessedBytes;
+	}
+
+	int getIgnoredRecords( ) {
+		return ivIgnoredRecords;
+	}
+
+	int getDanglingRecords( ) {
+		return ivDanglingRecords;
+	}
+
+	/**
+	 * Delivers the number of traces, which are either incomplete or still being reconstructed.
+	 *
+	 * @return The number of traces.
+	 */
+	int getUnfinishedTraces( ) {
+		return ivIncompleteTraces + ivTraceStates.size( ) + ivExecutionMap.size( );
+	}
+
 	public void processException( final Exception aEx ) {
 		ivStreamCorrupt = true;
 		ivException = aEx;
@@ -180,55 +496,82 @@ public final class TemporaryRepository {
 	 *                           If the monitoring log stream was somehow corrupted.
 	 */
 	public void finish( ) throws BusinessException {
-		calculatePercentAndCollectMethods( );
+		if ( ivTraceStore != null ) {
+			// The percent values and the self durations have already been calculated while the traces were appended
+			ivTraceStore.trimToSize( );
+			ivMonitoringLogService.setTraceStore( ivTraceStore, ivTraceShapeHashes );
+			ivTraceStore = null;
+		} else {
+			// The self durations are required to merge the traces into the calling context tree of the service
+			final List<MethodCall> methods = calculatePercentAndCollectMethods( ivTraceRoots );
+			for ( int index = 0; index < ivTraceRoots.size( ); index++ ) {
+				ivMonitoringLogService.addTraceRoot( ivTraceRoots.get( index ), ivTraceShapeHashes.get( index ) );
+			}
+			ivMonitoringLogService.addMethods( methods );
+		}
 		aggregateMethods( );
 
 		ivMonitoringLogService.setProcessedBytes( ivProcessedBytes );
 		ivMonitoringLogService.setIgnoredRecords( ivIgnoredRecords );
 		ivMonitoringLogService.setDanglingRecords( ivDanglingRecords );
-		ivMonitoringLogService.setIncompleteTraces( ivReconstructionMap.size( ) );
+		ivMonitoringLogService.setIncompleteTraces( ivIncompleteTraces + ivTraceStates.size( ) + ivExecutionMap.size( ) );
 
 		if ( ivStreamCorrupt ) {
 			throw new BusinessException( ivResourceBundle.getString( "errorMessageStreamCorrupt" ), ivException );
 		}
 	}
 
-	private void calculatePercentAndCollectMethods( ) {
-		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "calculatePercentAndCollectMethods()" );
+	/**
+	 * Calculates the percent values and the self durations of all method calls within the given traces. The self duration of a method call is its
+	 * duration without the durations of its direct children.
+	 *
+	 * @param aTraceRoots
+	 *                    The roots of the traces.
+	 *
+	 * @return All method calls within the given traces. The method calls are collected trace by trace in pre-order, which is the same order as the one of a
+	 *         {@link TraceStore}.
+	 */
+	List<MethodCall> calculatePercentAndCollectMethods( final List<MethodCall> aTraceRoots ) {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "calculatePercentAndCollectMethods(java.util.List)" );
 
 		try {
 
-			final List<MethodCall> traceRoots = ivMonitoringLogService.getTraceRoots( );
-
 			final Stack<MethodCall> stack = new Stack<>( );
-			stack.addAll( traceRoots );
-
-			// The trace roots have always 100% of the time
-			for ( final MethodCall traceRoot : traceRoots ) {
-				traceRoot.setPercent( 100.0f );
-			}
-
 			final List<MethodCall> methods = new ArrayList<>( );
 
-			while ( !stack.isEmpty( ) ) {
-				// Get the next method call
-				final MethodCall methodCall = stack.pop( );
-				final long duration = methodCall.getDuration( );
-
-				// Calculate the percent of each child
-				final List<MethodCall> children = methodCall.getChildren( );
-				for ( final MethodCall child : children ) {
-					child.setPercent( child.getDuration( ) * 100.0f / duration );
-
-					// Add the child to the stack
-					stack.push( child );
+			for ( final MethodCall traceRoot : aTraceRoots ) {
+				// The trace roots have always 100% of the time
+				traceRoot.setPercent( 100.0f );
+				stack.push( traceRoot );
+
+				while ( !stack.isEmpty( ) ) {
+					// Get the next method call
+					final MethodCall methodCall = stack.pop( );
+					final long duration = methodCall.getDuration( );
+
+					// Calculate the percent of each child
+					final List<MethodCall> children = methodCall.getChildren( );
+					long childrenDuration = 0;
+					for ( final MethodCall child : children ) {
+						final long childDuration = child.getDuration( );
+						child.setPercent( childDuration * 100.0f / duration );
+						childrenDuration += childDuration;
+					}
+
+					// The children are pushed in reverse order, so that the first child is visited next (pre-order)
+					for ( int index = children.size( ) - 1; index >= 0; index-- ) {
+						stack.push( children.get( index ) );
+					}
+
+					// Overlapping asynchronous children could exceed the duration of the parent
+					methodCall.setSelfDuration( Math.max( duration - childrenDuration, 0L ) );
+
+					methodCall.trimToSize( );
+					methods.add( methodCall );
 				}
-
-				methodCall.trimToSize( );
-				methods.add( methodCall );
 			}
 
-			ivMonitoringLogService.addMethods( methods );
+			return methods;
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -241,62 +584,15 @@ public final class TemporaryRepository {
 		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "aggregateMethods()" );
 
 		try {
-			final Map<AggregationKey, MethodCall> aggregationMapWithExemplaricMethodCall = new HashMap<>( );
-			final Map<AggregationKey, LongArrayList> aggregationMapWithDuration = new HashMap<>( );
-
-			// Aggregate the methods. We perform only the key calculation in parallel, as the put into the aggregation maps would be
-			// slower due to synchronization.
-			final List<MethodCall> methodCalls = ivMonitoringLogService.getMethods( );
-			methodCalls.parallelStream( ).map( method -> new AggregationKey( method.getHost( ), method.getClazz( ), method.getMethod( ), method.getException( ), method ) )
-					.sequential( ).forEach( key -> {
-						LongArrayList durationlist = aggregationMapWithDuration.get( key );
-
-						if ( durationlist == null ) {
-							durationlist = new LongArrayList( );
-
-							aggregationMapWithDuration.put( key, durationlist );
-							aggregationMapWithExemplaricMethodCall.put( key, key.getMethodCall( ) );
-						}
-
-						durationlist.add( key.getMethodCall( ).getDuration( ) );
-					} );
-
-			// As we need the median, we have to have sorted lists. The sorting can be performed in parallel.
-			aggregationMapWithDuration.values( ).parallelStream( ).forEach( list -> Arrays.sort( list.buffer, 0, list.size( ) ) );
-
-			// Now we can calculate the aggregated methods based on the aggregation maps. As we have no "complex" put-if-absent-part
-			// here (as above), we do this in parallel.
-			final Queue<AggregatedMethodCall> aggregatedMethodCalls = new ConcurrentLinkedQueue<>( );
-			aggregationMapWithExemplaricMethodCall.keySet( ).parallelStream( ).forEach( key -> {
-				final MethodCall exemplaricMethodCall = aggregationMapWithExemplaricMethodCall.get( key );
-				final LongArrayList durationList = aggregationMapWithDuration.get( key );
-
-				// We need the sum of the durations
-				long durationSum = 0;
-				final int size = durationList.size( );
-				final long[] array = durationList.buffer;
-				for ( int index = 0; index < size; index++ ) {
-					durationSum += array[index];
-				}
+			// The aggregation is performed in parallel on partitions of the methods. The result is still deterministic.
+			final BatchMethodAggregator aggregator = new BatchMethodAggregator( ivAggregationMemoryBudget, ivHistogramPrecision, ivAggregationParallelism,
+					ivTimeBucketInterval );
+			final List<AggregatedMethodCall> aggregatedMethodCalls = aggregator.aggregate( ivMonitoringLogService.getMethods( ) );
 
-				// Now assemble the aggregated method call
-				final AggregatedMethodCall aggregatedMethodCall = new AggregatedMethodCall( );
-				aggregatedMethodCall.setAvgDuration( durationSum / size );
-				aggregatedMethodCall.setTotalDuration( durationSum );
-				aggregatedMethodCall.setHost( exemplaricMethodCall.getHost( ) );
-				aggregatedMethodCall.setClazz( exemplaricMethodCall.getClazz( ) );
-				aggregatedMethodCall.setMethod( exemplaricMethodCall.getMethod( ) );
-				aggregatedMethodCall.setException( exemplaricMethodCall.getException( ) );
-				aggregatedMethodCall.setCount( size );
-				aggregatedMethodCall.setMedianDuration( array[size / 2] );
-				aggregatedMethodCall.setMinDuration( array[0] );
-				aggregatedMethodCall.setMaxDuration( array[size - 1] );
-
-				aggregatedMethodCalls.add( aggregatedMethodCall );
-			} );
-
-			// Add them now to the service, as we are out of the parallel stream
 			ivMonitoringLogService.addAggregatedMethods( aggregatedMethodCalls );
+		} catch ( final IOException ex ) {
+			probe.fail( ex );
+			throw new UncheckedIOException( ex );
 		} catch ( final Throwable t ) {
 			probe.fail( t );
 			throw t;
@@ -305,88 +601,31 @@ public final class TemporaryRepository {
 		}
 	}
 
-	private static class AggregationKey {
+	/**
+	 * A method call of a legacy operation execution record, together with its position within the trace.
+	 */
+	private static final class OperationExecution {
 
-		private final String ivHost;
-		private final String ivClass;
-		private final String ivMethod;
-		private final String ivException;
 		private final MethodCall ivMethodCall;
-		private int ivHash;
+		private final int ivEoi;
+		private final int ivEss;
 
-		public AggregationKey( final String aHost, final String aClass, final String aMethod, final String aException, final MethodCall aMethodCall ) {
-			ivHost = aHost;
-			ivClass = aClass;
-			ivMethod = aMethod;
-			ivException = aException;
+		OperationExecution( final MethodCall aMethodCall, final int aEoi, final int aEss ) {
 			ivMethodCall = aMethodCall;
-
-			calculateHash( );
-		}
-
-		private void calculateHash( ) {
-			final int prime = 31;
-
-			int result = 1;
-			result = prime * result + ( ivClass == null ? 0 : ivClass.hashCode( ) );
-			result = prime * result + ( ivException == null ? 0 : ivException.hashCode( ) );
-			result = prime * result + ( ivHost == null ? 0 : ivHost.hashCode( ) );
-			result = prime * result + ( ivMethod == null ? 0 : ivMethod.hashCode( ) );
-
-			// We calculate the hash eagerly and only once.
-			ivHash = result;
+			ivEoi = aEoi;
+			ivEss = aEss;
 		}
 
-		@Override
-		public int hashCode( ) {
-			return ivHash;
+		MethodCall getMethodCall( ) {
+			return ivMethodCall;
 		}
 
-		@Override
-		public boolean equals( final Object obj ) {
-			if ( this == obj ) {
-				return true;
-			}
-			if ( obj == null ) {
-				return false;
-			}
-			if ( getClass( ) != obj.getClass( ) ) {
-				return false;
-			}
-			final AggregationKey other = ( AggregationKey ) obj;
-			if ( ivClass == null ) {
-				if ( other.ivClass != null ) {
-					return false;
-				}
-			} else if ( !ivClass.equals( other.ivClass ) ) {
-				return false;
-			}
-			if ( ivException == null ) {
-				if ( other.ivException != null ) {
-					return false;
-				}
-			} else if ( !ivException.equals( other.ivException ) ) {
-				return false;
-			}
-			if ( ivHost == null ) {
-				if ( other.ivHost != null ) {
-					return false;
-				}
-			} else if ( !ivHost.equals( other.ivHost ) ) {
-				return false;
-			}
-			if ( ivMethod == null ) {
-				if ( other.ivMethod != null ) {
-					return false;
-				}
-			} else if ( !ivMethod.equals( other.ivMethod ) ) {
-				return false;
-			}
-			return true;
+		int getEoi( ) {
+			return ivEoi;
 		}
 
-		public MethodCall getMethodCall( ) {
-			return ivMethodCall;
+		int getEss( ) {
+			return ivEss;
 		}
 
 	}
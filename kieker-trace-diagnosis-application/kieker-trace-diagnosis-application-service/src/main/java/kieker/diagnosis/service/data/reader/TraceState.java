@@ -0,0 +1,285 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.util.Arrays;
+
+import kieker.diagnosis.service.data.HeapMethodCall;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.TraceShape;
+import kieker.diagnosis.service.data.TraceStore;
+
+/**
+ * This is the reconstruction state of a single open trace. The method calls of the trace are not objects, but entries in parallel primitive arrays,
+ * addressed by an index. As the method calls are started in pre-order, the indices of a trace are also in pre-order, and the children of a method call
+ * have ascending indices. The stack of the method calls which have been started, but not yet finished, is a stack of such indices. The states are pooled
+ * and reused by the {@link TemporaryRepository}, which means that no objects are allocated while a trace is reconstructed once the pool is warmed up. A
+ * finished trace is either appended directly to a {@link TraceStore} (see {@link #appendTo(TraceStore)}) or converted into {@link MethodCall} objects
+ * (see {@link #createMethodCalls()}).
+ * <p>
+ * For each open method call, the state accumulates also the shape hashes of the already finished children (see {@link TraceShape}). This means that the
+ * shape of a trace is known as soon as the trace is finished.
+ *
+ * @author Nils Christian Ehmke
+ */
+final class TraceState {
+
+	private static final int NO_PARENT = -1;
+
+	private long ivTraceId;
+	private int ivHostId;
+
+	// The method calls of the trace
+	private int ivSize;
+	private long[] ivTimestamps = new long[16];
+	private long[] ivDurations = new long[16];
+	private int[] ivClazzIds = new int[16];
+	private int[] ivMethodIds = new int[16];
+	private int[] ivExceptionIds = new int[16];
+	private int[] ivTraceDepths = new int[16];
+	private int[] ivTraceSizes = new int[16];
+	private int[] ivParents = new int[16];
+
+	// The stack of the open method calls
+	private int ivStackSize;
+	private int[] ivStack = new int[16];
+	private long[] ivShapeAccumulators = new long[16];
+
+	// The method call objects are only used while a finished trace is converted
+	private MethodCall[] ivMethodCalls = new MethodCall[16];
+
+	void reset( final long aTraceId, final int aHostId ) {
+		ivTraceId = aTraceId;
+		ivHostId = aHostId;
+		ivSize = 0;
+		ivStackSize = 0;
+	}
+
+	long getTraceId( ) {
+		return ivTraceId;
+	}
+
+	int getHostId( ) {
+		return ivHostId;
+	}
+
+	/**
+	 * Delivers the number of method calls of the trace (finished or not).
+	 *
+	 * @return The number of method calls.
+	 */
+	int getSize( ) {
+		return ivSize;
+	}
+
+	boolean isEmpty( ) {
+		return ivStackSize == 0;
+	}
+
+	/**
+	 * Starts a new method call. If another method call is open, the new method call is its last child.
+	 *
+	 * @param aTimestamp
+	 *                   The start of the method call.
+	 *
+	 * @return The index of the new method call.
+	 */
+	int push( final long aTimestamp ) {
+		if ( ivSize == ivTimestamps.length ) {
+			final int newLength = ivSize * 2;
+			ivTimestamps = Arrays.copyOf( ivTimestamps, newLength );
+			ivDurations = Arrays.copyOf( ivDurations, newLength );
+			ivClazzIds = Arrays.copyOf( ivClazzIds, newLength );
+			ivMethodIds = Arrays.copyOf( ivMethodIds, newLength );
+			ivExceptionIds = Arrays.copyOf( ivExceptionIds, newLength );
+			ivTraceDepths = Arrays.copyOf( ivTraceDepths, newLength );
+			ivTraceSizes = Arrays.copyOf( ivTraceSizes, newLength );
+			ivParents = Arrays.copyOf( ivParents, newLength );
+		}
+		if ( ivStackSize == ivStack.length ) {
+			ivStack = Arrays.copyOf( ivStack, ivStackSize * 2 );
+			ivShapeAccumulators = Arrays.copyOf( ivShapeAccumulators, ivStackSize * 2 );
+		}
+
+		final int index = ivSize++;
+		ivTimestamps[index] = aTimestamp;
+		ivDurations[index] = 0L;
+		ivClazzIds[index] = 0;
+		ivMethodIds[index] = 0;
+		ivExceptionIds[index] = 0;
+		ivTraceDepths[index] = 1;
+		ivTraceSizes[index] = 1;
+		ivParents[index] = ivStackSize == 0 ? NO_PARENT : ivStack[ivStackSize - 1];
+
+		ivShapeAccumulators[ivStackSize] = 0L;
+		ivStack[ivStackSize++] = index;
+
+		return index;
+	}
+
+	/**
+	 * Finishes the last open method call.
+	 *
+	 * @return The index of the finished method call.
+	 */
+	int pop( ) {
+		return ivStack[--ivStackSize];
+	}
+
+	/**
+	 * Delivers the last open method call.
+	 *
+	 * @return The index of the method call.
+	 */
+	int peek( ) {
+		return ivStack[ivStackSize - 1];
+	}
+
+	/**
+	 * Delivers the accumulated shape hash of the finished children of the last method call. This has to be called before the method call is popped.
+	 *
+	 * @return The accumulated hash.
+	 */
+	long peekShapeAccumulator( ) {
+		return ivShapeAccumulators[ivStackSize - 1];
+	}
+
+	/**
+	 * Adds the shape hash of a finished child to the last method call.
+	 *
+	 * @param aChildShapeHash
+	 *                        The shape hash of the child.
+	 */
+	void addChildShape( final long aChildShapeHash ) {
+		ivShapeAccumulators[ivStackSize - 1] = TraceShape.addChild( ivShapeAccumulators[ivStackSize - 1], aChildShapeHash );
+	}
+
+	long getTimestamp( final int aIndex ) {
+		return ivTimestamps[aIndex];
+	}
+
+	void setTimestamp( final int aIndex, final long aTimestamp ) {
+		ivTimestamps[aIndex] = aTimestamp;
+	}
+
+	long getDuration( final int aIndex ) {
+		return ivDurations[aIndex];
+	}
+
+	void setDuration( final int aIndex, final long aDuration ) {
+		ivDurations[aIndex] = aDuration;
+	}
+
+	int getClazzId( final int aIndex ) {
+		return ivClazzIds[aIndex];
+	}
+
+	void setClazzId( final int aIndex, final int aClazzId ) {
+		ivClazzIds[aIndex] = aClazzId;
+	}
+
+	int getMethodId( final int aIndex ) {
+		return ivMethodIds[aIndex];
+	}
+
+	void setMethodId( final int aIndex, final int aMethodId ) {
+		ivMethodIds[aIndex] = aMethodId;
+	}
+
+	int getExceptionId( final int aIndex ) {
+		return ivExceptionIds[aIndex];
+	}
+
+	void setExceptionId( final int aIndex, final int aExceptionId ) {
+		ivExceptionIds[aIndex] = aExceptionId;
+	}
+
+	int getTraceDepth( final int aIndex ) {
+		return ivTraceDepths[aIndex];
+	}
+
+	int getTraceSize( final int aIndex ) {
+		return ivTraceSizes[aIndex];
+	}
+
+	/**
+	 * Adds a finished child to the trace size and the trace depth of its parent, which means that both are calculated on-the-fly.
+	 *
+	 * @param aChild
+	 *               The index of the finished child.
+	 */
+	void addFinishedChild( final int aChild ) {
+		final int parent = ivParents[aChild];
+		ivTraceSizes[parent] += ivTraceSizes[aChild];
+		ivTraceDepths[parent] = Math.max( ivTraceDepths[parent], ivTraceDepths[aChild] + 1 );
+	}
+
+	/**
+	 * Appends the finished trace to the given store without creating any objects.
+	 *
+	 * @param aTraceStore
+	 *                    The store.
+	 */
+	void appendTo( final TraceStore aTraceStore ) {
+		// The parents have smaller indices than their children, which means that the trace is appended in pre-order
+		final int root = aTraceStore.getSize( );
+		for ( int index = 0; index < ivSize; index++ ) {
+			final int parent = ivParents[index] == NO_PARENT ? TraceStore.NO_INDEX : root + ivParents[index];
+			aTraceStore.appendMethodCall( ivTraceId, ivHostId, ivTimestamps[index], ivDurations[index], ivClazzIds[index], ivMethodIds[index],
+					ivExceptionIds[index], ivTraceDepths[index], ivTraceSizes[index], parent );
+		}
+	}
+
+	/**
+	 * Creates the method call objects of the finished trace.
+	 *
+	 * @return The root of the trace.
+	 */
+	MethodCall createMethodCalls( ) {
+		if ( ivMethodCalls.length < ivSize ) {
+			ivMethodCalls = new MethodCall[ivTimestamps.length];
+		}
+		final MethodCall[] methodCalls = ivMethodCalls;
+
+		// The parents have smaller indices than their children and the children are in the order of their indices
+		for ( int index = 0; index < ivSize; index++ ) {
+			final MethodCall methodCall = new HeapMethodCall( );
+			methodCall.setTraceId( ivTraceId );
+			methodCall.setHostId( ivHostId );
+			methodCall.setTimestamp( ivTimestamps[index] );
+			methodCall.setDuration( ivDurations[index] );
+			methodCall.setClazzId( ivClazzIds[index] );
+			methodCall.setMethodId( ivMethodIds[index] );
+			methodCall.setExceptionId( ivExceptionIds[index] );
+			methodCall.setTraceDepth( ivTraceDepths[index] );
+			methodCall.setTraceSize( ivTraceSizes[index] );
+
+			if ( ivParents[index] != NO_PARENT ) {
+				methodCalls[ivParents[index]].addChild( methodCall );
+			}
+			methodCalls[index] = methodCall;
+		}
+
+		final MethodCall root = methodCalls[0];
+
+		// The references are removed, so that the method calls are not kept alive by the pool
+		Arrays.fill( methodCalls, 0, ivSize, null );
+
+		return root;
+	}
+
+}
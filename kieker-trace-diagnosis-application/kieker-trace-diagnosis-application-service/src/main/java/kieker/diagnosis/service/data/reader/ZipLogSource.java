@@ -0,0 +1,140 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * This is a {@link LogSource} for a ZIP file. The entries are inflated on demand while they are read - nothing is extracted to the file system. Directories
+ * are identified by the path of the directory within the ZIP file (the root directory is the empty string) and files by the name of their entries.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class ZipLogSource implements LogSource {
+
+	private final ZipFile ivZipFile;
+
+	/**
+	 * The file entries grouped by their directories. Both maps keep the order of the entries within the ZIP file.
+	 */
+	private final Map<String, Map<String, ZipEntry>> ivDirectories = new LinkedHashMap<>( );
+
+	public ZipLogSource( final File aZipFile ) throws IOException {
+		ivZipFile = new ZipFile( aZipFile );
+
+		final Enumeration<? extends ZipEntry> zipEntries = ivZipFile.entries( );
+		while ( zipEntries.hasMoreElements( ) ) {
+			final ZipEntry zipEntry = zipEntries.nextElement( );
+
+			if ( !zipEntry.isDirectory( ) ) {
+				final String name = zipEntry.getName( );
+				final int lastSeparator = name.lastIndexOf( '/' );
+				final String directory = lastSeparator >= 0 ? name.substring( 0, lastSeparator ) : "";
+				final String fileName = name.substring( lastSeparator + 1 );
+
+				ivDirectories.computeIfAbsent( directory, key -> new LinkedHashMap<>( ) ).put( fileName, zipEntry );
+			}
+		}
+	}
+
+	@Override
+	public List<String> findDirectoriesContainingFilesWithExtensions( final String... aExtensions ) {
+		final List<String> directories = new ArrayList<>( );
+
+		for ( final String directory : ivDirectories.keySet( ) ) {
+			if ( containsFilesWithAllExtensions( directory, aExtensions ) ) {
+				directories.add( directory );
+			}
+		}
+
+		return directories;
+	}
+
+	private boolean containsFilesWithAllExtensions( final String aDirectory, final String[] aExtensions ) {
+		for ( final String extension : aExtensions ) {
+			if ( findFilesWithExtension( aDirectory, extension ).isEmpty( ) ) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public List<String> findFilesWithExtension( final String aDirectory, final String aExtension ) {
+		final List<String> files = new ArrayList<>( );
+
+		final Map<String, ZipEntry> entries = ivDirectories.get( aDirectory );
+		if ( entries != null ) {
+			final String lowerExtension = aExtension.toLowerCase( );
+			for ( final Map.Entry<String, ZipEntry> entry : entries.entrySet( ) ) {
+				if ( entry.getKey( ).toLowerCase( ).endsWith( lowerExtension ) ) {
+					files.add( entry.getValue( ).getName( ) );
+				}
+			}
+		}
+
+		return files;
+	}
+
+	@Override
+	public String findFile( final String aDirectory, final String aFileName ) {
+		final Map<String, ZipEntry> entries = ivDirectories.get( aDirectory );
+		final ZipEntry entry = entries != null ? entries.get( aFileName ) : null;
+		return entry != null ? entry.getName( ) : null;
+	}
+
+	@Override
+	public InputStream openFile( final String aFile ) throws IOException {
+		return ivZipFile.getInputStream( getEntry( aFile ) );
+	}
+
+	@Override
+	public FileChannel openChannel( final String aFile ) {
+		// The entries are usually compressed and can therefore not be mapped
+		return null;
+	}
+
+	@Override
+	public long getSize( final String aFile ) throws IOException {
+		return getEntry( aFile ).getSize( );
+	}
+
+	private ZipEntry getEntry( final String aFile ) throws IOException {
+		final ZipEntry entry = ivZipFile.getEntry( aFile );
+		if ( entry == null ) {
+			throw new IOException( "Unknown ZIP entry: " + aFile );
+		}
+		return entry;
+	}
+
+	@Override
+	public void close( ) throws IOException {
+		ivZipFile.close( );
+	}
+
+}
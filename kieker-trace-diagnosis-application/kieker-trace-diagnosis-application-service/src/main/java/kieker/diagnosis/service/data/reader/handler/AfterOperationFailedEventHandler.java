@@ -0,0 +1,92 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader.handler;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.diagnosis.service.data.reader.AsciiRecordTokenizer;
+import kieker.diagnosis.service.data.reader.RecordHandler;
+import kieker.diagnosis.service.data.reader.TemporaryRepository;
+
+/**
+ * This handler reads the {@link AfterOperationFailedEvent}, which finishes a method call with an exception.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class AfterOperationFailedEventHandler implements RecordHandler {
+
+	private static final int cvBinarySize = 8 + 8 + 4 + 4 + 4 + 4;
+	private static final Pattern cvAsciiPattern = Pattern.compile( "(\\d*);(-?\\d*);\\d*;([^;]*);([^;]*);(.*)" );
+
+	@Override
+	public String getRecordType( ) {
+		return AfterOperationFailedEvent.class.getName( );
+	}
+
+	@Override
+	public int getBinarySize( ) {
+		return cvBinarySize;
+	}
+
+	@Override
+	public void readBinaryRecord( final ByteBuffer aBuffer, final IntObjectMap<String> aStringMapping, final TemporaryRepository aTemporaryRepository ) {
+		final long timestamp = aBuffer.getLong( ); // Timestamp
+		final long traceId = aBuffer.getLong( ); // Trace Id
+		aBuffer.position( aBuffer.position( ) + 4 ); // Ignore order index
+		final String methodName = aStringMapping.get( aBuffer.getInt( ) ); // Method name
+		final String clazz = aStringMapping.get( aBuffer.getInt( ) ); // Class name
+		final String exception = aStringMapping.get( aBuffer.getInt( ) ); // Exception
+
+		aTemporaryRepository.processAfterOperationFailedEvent( timestamp, traceId, methodName, clazz, exception );
+	}
+
+	@Override
+	public void readAsciiRecord( final AsciiRecordTokenizer aTokenizer, final TemporaryRepository aTemporaryRepository ) {
+		final long timestamp = aTokenizer.nextLongField( ); // Timestamp
+		final long traceId = aTokenizer.nextLongField( ); // Trace Id
+		aTokenizer.skipField( ); // Order index is ignored
+		final String methodName = aTokenizer.nextStringField( ); // Method name
+		final String clazz = aTokenizer.nextStringField( ); // Class name
+		final String exception = aTokenizer.remainingString( ); // Exception (which can contain the separator)
+
+		if ( !aTokenizer.isMalformedLine( ) ) {
+			aTemporaryRepository.processAfterOperationFailedEvent( timestamp, traceId, methodName, clazz, exception );
+		}
+	}
+
+	@Override
+	public void readAsciiRecordWithRegex( final String aAsciiContent, final TemporaryRepository aTemporaryRepository ) {
+		final Matcher matcher = cvAsciiPattern.matcher( aAsciiContent );
+		if ( matcher.matches( ) ) {
+			final long timestamp = Long.parseLong( matcher.group( 1 ) ); // Timestamp
+			final long traceId = Long.parseLong( matcher.group( 2 ) ); // Trace Id
+			// Order index is ignored
+			final String methodName = matcher.group( 3 ); // Method name
+			final String clazz = matcher.group( 4 ); // Class name
+			final String exception = matcher.group( 5 ); // Exception (which can contain the separator)
+
+			aTemporaryRepository.processAfterOperationFailedEvent( timestamp, traceId, methodName, clazz, exception );
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader.handler;
+
+import java.nio.ByteBuffer;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+import kieker.common.record.flow.trace.operation.CallOperationEvent;
+import kieker.diagnosis.service.data.reader.AsciiRecordTokenizer;
+import kieker.diagnosis.service.data.reader.RecordHandler;
+import kieker.diagnosis.service.data.reader.TemporaryRepository;
+
+/**
+ * This handler reads the {@link CallOperationEvent}. A call event only announces the call of another method. The callee is reconstructed from its own
+ * before and after events, which means that the call event does not contribute anything to the trace. However, it is a valid part of the trace and is
+ * therefore not counted as ignored record.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class CallOperationEventHandler implements RecordHandler {
+
+	private static final int cvBinarySize = 8 + 8 + 4 + 4 + 4 + 4 + 4;
+
+	@Override
+	public String getRecordType( ) {
+		return CallOperationEvent.class.getName( );
+	}
+
+	@Override
+	public int getBinarySize( ) {
+		return cvBinarySize;
+	}
+
+	@Override
+	public void readBinaryRecord( final ByteBuffer aBuffer, final IntObjectMap<String> aStringMapping, final TemporaryRepository aTemporaryRepository ) {
+		aBuffer.position( aBuffer.position( ) + cvBinarySize );
+	}
+
+	@Override
+	public void readAsciiRecord( final AsciiRecordTokenizer aTokenizer, final TemporaryRepository aTemporaryRepository ) {
+		// Nothing to do here
+	}
+
+	@Override
+	public void readAsciiRecordWithRegex( final String aAsciiContent, final TemporaryRepository aTemporaryRepository ) {
+		// Nothing to do here
+	}
+
+}
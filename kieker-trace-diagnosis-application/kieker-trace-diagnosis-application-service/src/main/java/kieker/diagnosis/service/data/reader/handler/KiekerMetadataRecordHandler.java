@@ -0,0 +1,82 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader.handler;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+import kieker.common.record.misc.KiekerMetadataRecord;
+import kieker.diagnosis.service.data.reader.AsciiRecordTokenizer;
+import kieker.diagnosis.service.data.reader.RecordHandler;
+import kieker.diagnosis.service.data.reader.TemporaryRepository;
+
+/**
+ * This handler reads the {@link KiekerMetadataRecord}, which contains the time unit of the monitoring log.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class KiekerMetadataRecordHandler implements RecordHandler {
+
+	private static final int cvBinarySize = 4 * 4 + 1 + 8 + 4 + 8;
+	private static final Pattern cvAsciiPattern = Pattern.compile( "[^;]*;[^;]*;[^;]*;[^;]*;[^;]*;[^;]*;([^;]*).*" );
+
+	@Override
+	public String getRecordType( ) {
+		return KiekerMetadataRecord.class.getName( );
+	}
+
+	@Override
+	public int getBinarySize( ) {
+		return cvBinarySize;
+	}
+
+	@Override
+	public void readBinaryRecord( final ByteBuffer aBuffer, final IntObjectMap<String> aStringMapping, final TemporaryRepository aTemporaryRepository ) {
+		aBuffer.position( aBuffer.position( ) + 4 * 4 + 1 + 8 ); // Ignore a lot of fields...
+		final String timeUnitName = aStringMapping.get( aBuffer.getInt( ) ); // Time unit
+		aBuffer.position( aBuffer.position( ) + 8 ); // Ignore the number of records
+
+		aTemporaryRepository.processSourceTimeUnit( timeUnitName );
+	}
+
+	@Override
+	public void readAsciiRecord( final AsciiRecordTokenizer aTokenizer, final TemporaryRepository aTemporaryRepository ) {
+		aTokenizer.skipFields( 6 ); // Ignore a lot of fields...
+		final String timeUnitName = aTokenizer.nextStringField( ); // Time unit
+		// The rest is ignored
+
+		if ( !aTokenizer.isMalformedLine( ) ) {
+			aTemporaryRepository.processSourceTimeUnit( timeUnitName );
+		}
+	}
+
+	@Override
+	public void readAsciiRecordWithRegex( final String aAsciiContent, final TemporaryRepository aTemporaryRepository ) {
+		final Matcher matcher = cvAsciiPattern.matcher( aAsciiContent );
+		if ( matcher.matches( ) ) {
+			final String timeUnitName = matcher.group( 1 ); // Time unit
+			// The rest is ignored
+
+			aTemporaryRepository.processSourceTimeUnit( timeUnitName );
+		}
+	}
+
+}
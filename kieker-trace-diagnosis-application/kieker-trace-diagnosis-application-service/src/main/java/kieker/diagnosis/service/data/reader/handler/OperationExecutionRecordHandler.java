@@ -0,0 +1,127 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader.handler;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+import kieker.common.record.controlflow.OperationExecutionRecord;
+import kieker.diagnosis.service.data.reader.AsciiRecordTokenizer;
+import kieker.diagnosis.service.data.reader.RecordHandler;
+import kieker.diagnosis.service.data.reader.TemporaryRepository;
+
+/**
+ * This handler reads the legacy {@link OperationExecutionRecord}. Each record contains a whole method call. The traces are reconstructed from the execution
+ * order indices and the execution stack sizes of the records.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class OperationExecutionRecordHandler implements RecordHandler {
+
+	private static final int cvBinarySize = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+	private static final Pattern cvAsciiPattern = Pattern.compile( "([^;]*);[^;]*;(-?\\d+);(-?\\d+);(-?\\d+);([^;]*);(-?\\d+);(-?\\d+)" );
+
+	@Override
+	public String getRecordType( ) {
+		return OperationExecutionRecord.class.getName( );
+	}
+
+	@Override
+	public int getBinarySize( ) {
+		return cvBinarySize;
+	}
+
+	@Override
+	public void readBinaryRecord( final ByteBuffer aBuffer, final IntObjectMap<String> aStringMapping, final TemporaryRepository aTemporaryRepository ) {
+		final String operationSignature = aStringMapping.get( aBuffer.getInt( ) ); // Operation signature
+		aBuffer.position( aBuffer.position( ) + 4 ); // Ignore session id
+		final long traceId = aBuffer.getLong( ); // Trace Id
+		final long tin = aBuffer.getLong( ); // Start of the method call
+		final long tout = aBuffer.getLong( ); // End of the method call
+		final String host = aStringMapping.get( aBuffer.getInt( ) ); // Hostname
+		final int eoi = aBuffer.getInt( ); // Execution order index
+		final int ess = aBuffer.getInt( ); // Execution stack size
+
+		processOperationExecution( aTemporaryRepository, operationSignature, traceId, tin, tout, host, eoi, ess );
+	}
+
+	@Override
+	public void readAsciiRecord( final AsciiRecordTokenizer aTokenizer, final TemporaryRepository aTemporaryRepository ) {
+		final String operationSignature = aTokenizer.nextStringField( ); // Operation signature
+		aTokenizer.skipField( ); // Session id is ignored
+		final long traceId = aTokenizer.nextLongField( ); // Trace Id
+		final long tin = aTokenizer.nextLongField( ); // Start of the method call
+		final long tout = aTokenizer.nextLongField( ); // End of the method call
+		final String host = aTokenizer.nextStringField( ); // Hostname
+		final int eoi = aTokenizer.nextIntField( ); // Execution order index
+		final int ess = aTokenizer.nextIntField( ); // Execution stack size
+
+		if ( !aTokenizer.isMalformedLine( ) ) {
+			processOperationExecution( aTemporaryRepository, operationSignature, traceId, tin, tout, host, eoi, ess );
+		}
+	}
+
+	@Override
+	public void readAsciiRecordWithRegex( final String aAsciiContent, final TemporaryRepository aTemporaryRepository ) {
+		final Matcher matcher = cvAsciiPattern.matcher( aAsciiContent );
+		if ( matcher.matches( ) ) {
+			final String operationSignature = matcher.group( 1 ); // Operation signature
+			// Session id is ignored
+			final long traceId = Long.parseLong( matcher.group( 2 ) ); // Trace Id
+			final long tin = Long.parseLong( matcher.group( 3 ) ); // Start of the method call
+			final long tout = Long.parseLong( matcher.group( 4 ) ); // End of the method call
+			final String host = matcher.group( 5 ); // Hostname
+			final int eoi = Integer.parseInt( matcher.group( 6 ) ); // Execution order index
+			final int ess = Integer.parseInt( matcher.group( 7 ) ); // Execution stack size
+
+			processOperationExecution( aTemporaryRepository, operationSignature, traceId, tin, tout, host, eoi, ess );
+		}
+	}
+
+	private static void processOperationExecution( final TemporaryRepository aTemporaryRepository, final String aOperationSignature, final long aTraceId,
+			final long aTin, final long aTout, final String aHost, final int aEoi, final int aEss ) {
+		final String clazz = extractClassName( aOperationSignature );
+		aTemporaryRepository.processOperationExecution( aTraceId, aTin, aTout, aHost, clazz, aOperationSignature, aEoi, aEss );
+	}
+
+	/**
+	 * The legacy records contain no class signature. We extract the class from the operation signature (e.g. {@code public void package.Class.method()}).
+	 */
+	private static String extractClassName( final String aOperationSignature ) {
+		if ( aOperationSignature == null ) {
+			return null;
+		}
+
+		int end = aOperationSignature.indexOf( '(' );
+		if ( end == -1 ) {
+			end = aOperationSignature.length( );
+		}
+		final int start = aOperationSignature.lastIndexOf( ' ', end ) + 1;
+		final int methodStart = aOperationSignature.lastIndexOf( '.', end );
+
+		if ( methodStart < start ) {
+			return "";
+		}
+
+		return aOperationSignature.substring( start, methodStart ).intern( );
+	}
+
+}
@@ -0,0 +1,86 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader.handler;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.carrotsearch.hppc.IntObjectMap;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.diagnosis.service.data.reader.AsciiRecordTokenizer;
+import kieker.diagnosis.service.data.reader.RecordHandler;
+import kieker.diagnosis.service.data.reader.TemporaryRepository;
+
+/**
+ * This handler reads the {@link TraceMetadata}, which starts a trace.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceMetadataHandler implements RecordHandler {
+
+	private static final int cvBinarySize = 8 + 8 + 4 + 4 + 8 + 4;
+	private static final Pattern cvAsciiPattern = Pattern.compile( "(-?\\d*);\\d*;[^;]*;([^;]*).*" );
+
+	@Override
+	public String getRecordType( ) {
+		return TraceMetadata.class.getName( );
+	}
+
+	@Override
+	public int getBinarySize( ) {
+		return cvBinarySize;
+	}
+
+	@Override
+	public void readBinaryRecord( final ByteBuffer aBuffer, final IntObjectMap<String> aStringMapping, final TemporaryRepository aTemporaryRepository ) {
+		final long traceId = aBuffer.getLong( ); // Trace Id
+		aBuffer.position( aBuffer.position( ) + 8 + 4 ); // Ignore thread id and session id
+		final String host = aStringMapping.get( aBuffer.getInt( ) ); // Hostname
+		aBuffer.position( aBuffer.position( ) + 8 + 4 ); // Ignore parent trace Id and parent order Id
+
+		aTemporaryRepository.processTraceMetadata( traceId, host );
+	}
+
+	@Override
+	public void readAsciiRecord( final AsciiRecordTokenizer aTokenizer, final TemporaryRepository aTemporaryRepository ) {
+		final long traceId = aTokenizer.nextLongField( ); // Trace Id
+		aTokenizer.skipFields( 2 ); // Thread id and session id are ignored
+		final String host = aTokenizer.nextStringField( ); // Hostname
+		// The rest is ignored
+
+		if ( !aTokenizer.isMalformedLine( ) ) {
+			aTemporaryRepository.processTraceMetadata( traceId, host );
+		}
+	}
+
+	@Override
+	public void readAsciiRecordWithRegex( final String aAsciiContent, final TemporaryRepository aTemporaryRepository ) {
+		final Matcher matcher = cvAsciiPattern.matcher( aAsciiContent );
+		if ( matcher.matches( ) ) {
+			final long traceId = Long.parseLong( matcher.group( 1 ) ); // Trace Id
+			// Thread id and session id are ignored
+			final String host = matcher.group( 2 ); // Hostname
+			// The rest is ignored
+
+			aTemporaryRepository.processTraceMetadata( traceId, host );
+		}
+	}
+
+}
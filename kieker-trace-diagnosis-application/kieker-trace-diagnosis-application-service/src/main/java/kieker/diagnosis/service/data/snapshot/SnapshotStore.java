@@ -0,0 +1,819 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.carrotsearch.hppc.IntStack;
+import com.carrotsearch.hppc.LongArrayList;
+import com.google.common.io.CountingInputStream;
+
+import kieker.diagnosis.architecture.monitoring.MonitoringProbe;
+import kieker.diagnosis.architecture.monitoring.MonitoringUtil;
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.HeapMethodCall;
+import kieker.diagnosis.service.data.ImportType;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MethodTimeSeries;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TimeBucket;
+import kieker.diagnosis.service.data.TraceShape;
+import kieker.diagnosis.service.data.TraceStore;
+
+/**
+ * This store writes the imported data of the monitoring log service into a compact snapshot file and reads it again. The snapshot is identified by a key,
+ * which is calculated from the paths, sizes, and modification times of the files of the monitoring log as well as from the settings the derived data
+ * depends on. This means that a snapshot is automatically invalid, as soon as the monitoring log or one of the settings changes.<br>
+ * <br>
+ * The traces are stored in a columnar form (each attribute of all method calls is stored consecutively). The columns are memory mapped in segments while
+ * reading, which means that they are read without being copied into temporary arrays and that a snapshot can exceed the limit of a single mapping. The
+ * method calls are still appended to the trace store of the service, as the mapping would otherwise have to stay open as long as the traces are used.
+ * The trace trees are stored in pre-order together with the number of children of each node. The symbol table of the import is stored as string table,
+ * which means that each string is stored only once.<br>
+ * <br>
+ * Snapshots of changed monitoring logs are never read again. The least recently used snapshots are therefore deleted, as soon as all snapshots together
+ * exceed a given size.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SnapshotStore {
+
+	private static final int cvMagicNumber = 0x4B544453; // "KTDS"
+	private static final int cvVersion = 5;
+	private static final String cvFileExtension = ".snapshot";
+	private static final int cvSegmentSize = 1 << 30;
+
+	private final File ivSnapshotDirectory;
+	private final long ivMaxSize;
+	private final int ivSegmentSize;
+
+	/**
+	 * Creates a new store.
+	 *
+	 * @param aSnapshotDirectory
+	 *                           The directory containing the snapshots.
+	 * @param aMaxSize
+	 *                           The maximal size of all snapshots together in bytes.
+	 */
+	public SnapshotStore( final File aSnapshotDirectory, final long aMaxSize ) {
+		this( aSnapshotDirectory, aMaxSize, cvSegmentSize );
+	}
+
+	/**
+	 * Creates a new store with a specific size of the mapped segments.
+	 *
+	 * @param aSnapshotDirectory
+	 *                           The directory containing the snapshots.
+	 * @param aMaxSize
+	 *                           The maximal size of all snapshots together in bytes.
+	 * @param aSegmentSize
+	 *                           The size of the segments in bytes, in which the columns of the traces are mapped.
+	 */
+	SnapshotStore( final File aSnapshotDirectory, final long aMaxSize, final int aSegmentSize ) {
+		ivSnapshotDirectory = aSnapshotDirectory;
+		ivMaxSize = aMaxSize;
+		ivSegmentSize = aSegmentSize;
+	}
+
+	/**
+	 * Calculates the key of a monitoring log, based on the absolute paths, the sizes, and the modification times of all its files. The key contains also
+	 * the type of the import and the settings, which determine the percentiles and the time series of the aggregated methods.
+	 *
+	 * @param aDirectoryOrFile
+	 *                            The directory or (ZIP) file containing the monitoring log.
+	 * @param aType
+	 *                            The type of the import.
+	 * @param aHistogramPrecision
+	 *                            The precision of the histograms in bits.
+	 * @param aTimeBucketInterval
+	 *                            The interval of the time buckets in milliseconds.
+	 *
+	 * @return The key.
+	 *
+	 * @throws IOException
+	 *                     If the files could not be listed.
+	 */
+	public byte[] calculateKey( final File aDirectoryOrFile, final ImportType aType, final int aHistogramPrecision, final long aTimeBucketInterval )
+			throws IOException {
+		final MessageDigest messageDigest = createMessageDigest( );
+		messageDigest.update( aDirectoryOrFile.getAbsolutePath( ).getBytes( StandardCharsets.UTF_8 ) );
+		messageDigest.update( aType.name( ).getBytes( StandardCharsets.UTF_8 ) );
+
+		final ByteBuffer settings = ByteBuffer.allocate( Integer.BYTES + Long.BYTES );
+		settings.putInt( aHistogramPrecision );
+		settings.putLong( aTimeBucketInterval );
+		messageDigest.update( settings.array( ) );
+
+		final List<Path> files;
+		try ( final Stream<Path> paths = Files.walk( aDirectoryOrFile.toPath( ) ) ) {
+			files = paths.filter( Files::isRegularFile ).sorted( ).collect( Collectors.toList( ) );
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate( 2 * Long.BYTES );
+		for ( final Path file : files ) {
+			messageDigest.update( file.toString( ).getBytes( StandardCharsets.UTF_8 ) );
+
+			buffer.clear( );
+			buffer.putLong( Files.size( file ) );
+			buffer.putLong( Files.getLastModifiedTime( file ).toMillis( ) );
+			messageDigest.update( buffer.array( ) );
+		}
+
+		return messageDigest.digest( );
+	}
+
+	private MessageDigest createMessageDigest( ) {
+		try {
+			return MessageDigest.getInstance( "SHA-256" );
+		} catch ( final NoSuchAlgorithmException ex ) {
+			// Every Java platform has to support SHA-256
+			throw new IllegalStateException( ex );
+		}
+	}
+
+	/**
+	 * Writes the data of the given service into a snapshot. An existing snapshot with the same key is replaced. Afterwards, the least recently used
+	 * snapshots are deleted, if all snapshots together exceed the maximal size.
+	 *
+	 * @param aKey
+	 *                              The key of the monitoring log.
+	 * @param aMonitoringLogService
+	 *                              The service containing the imported data.
+	 *
+	 * @throws IOException
+	 *                     If the snapshot could not be written.
+	 */
+	public void writeSnapshot( final byte[] aKey, final MonitoringLogService aMonitoringLogService ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "writeSnapshot(byte[], kieker.diagnosis.service.data.MonitoringLogService)" );
+
+		try {
+			Files.createDirectories( ivSnapshotDirectory.toPath( ) );
+
+			// We write into a temporary file first. This way nobody reads a partially written snapshot.
+			final Path snapshotFile = getSnapshotFile( aKey );
+			final Path temporaryFile = Files.createTempFile( ivSnapshotDirectory.toPath( ), "snapshot", ".tmp" );
+
+			try {
+				try ( final DataOutputStream outputStream = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporaryFile ), 1024 * 1024 ) ) ) {
+					writeSnapshot( outputStream, aKey, aMonitoringLogService );
+				}
+
+				Files.move( temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+			} finally {
+				Files.deleteIfExists( temporaryFile );
+			}
+
+			deleteLeastRecentlyUsedSnapshots( );
+		} catch ( final Throwable t ) {
+			probe.fail( t );
+			throw t;
+		} finally {
+			probe.stop( );
+		}
+	}
+
+	private void deleteLeastRecentlyUsedSnapshots( ) throws IOException {
+		// The modification time of a snapshot is updated whenever the snapshot is read
+		final List<Path> snapshotFiles;
+		try ( final Stream<Path> paths = Files.list( ivSnapshotDirectory.toPath( ) ) ) {
+			snapshotFiles = paths.filter( path -> path.getFileName( ).toString( ).endsWith( cvFileExtension ) ).collect( Collectors.toList( ) );
+		}
+
+		final Map<Path, FileTime> lastUsedTimes = new HashMap<>( );
+		for ( final Path snapshotFile : snapshotFiles ) {
+			lastUsedTimes.put( snapshotFile, Files.getLastModifiedTime( snapshotFile ) );
+		}
+		snapshotFiles.sort( Comparator.comparing( lastUsedTimes::get, Comparator.reverseOrder( ) ) );
+
+		long size = 0L;
+		for ( final Path snapshotFile : snapshotFiles ) {
+			size += Files.size( snapshotFile );
+			if ( size > ivMaxSize ) {
+				Files.deleteIfExists( snapshotFile );
+			}
+		}
+	}
+
+	private void writeSnapshot( final DataOutputStream aOutputStream, final byte[] aKey, final MonitoringLogService aMonitoringLogService ) throws IOException {
+		// Header
+		aOutputStream.writeInt( cvMagicNumber );
+		aOutputStream.writeInt( cvVersion );
+		aOutputStream.writeInt( aKey.length );
+		aOutputStream.write( aKey );
+
+		// Statistics
+		aOutputStream.writeLong( aMonitoringLogService.getProcessedBytes( ) );
+		aOutputStream.writeInt( aMonitoringLogService.getIgnoredRecords( ) );
+		aOutputStream.writeInt( aMonitoringLogService.getDanglingRecords( ) );
+		aOutputStream.writeInt( aMonitoringLogService.getIncompleteTraces( ) );
+
+		// The symbol table of the import is the string table. This means that the method calls can be written with their symbol ids.
+		final SymbolTable symbolTable = aMonitoringLogService.getSymbolTable( );
+		final int symbolCount = symbolTable.getSize( );
+		aOutputStream.writeInt( symbolCount );
+		for ( int symbolId = SymbolTable.NULL_SYMBOL + 1; symbolId < symbolCount; symbolId++ ) {
+			final byte[] bytes = symbolTable.resolve( symbolId ).getBytes( StandardCharsets.UTF_8 );
+			aOutputStream.writeInt( bytes.length );
+			aOutputStream.write( bytes );
+		}
+
+		// The traces
+		final TraceStore traceStore = aMonitoringLogService.getTraceStore( );
+		if ( traceStore != null ) {
+			writeTraces( aOutputStream, traceStore );
+		} else {
+			writeTraces( aOutputStream, aMonitoringLogService.getTraceRoots( ) );
+		}
+
+		// The aggregated methods
+		final List<AggregatedMethodCall> aggregatedMethodCalls = aMonitoringLogService.getAggreatedMethods( );
+		aOutputStream.writeInt( aggregatedMethodCalls.size( ) );
+		for ( final AggregatedMethodCall aggregatedMethodCall : aggregatedMethodCalls ) {
+			aOutputStream.writeInt( aggregatedMethodCall.getHostId( ) );
+			aOutputStream.writeInt( aggregatedMethodCall.getClazzId( ) );
+			aOutputStream.writeInt( aggregatedMethodCall.getMethodId( ) );
+			aOutputStream.writeInt( aggregatedMethodCall.getExceptionId( ) );
+			aOutputStream.writeInt( aggregatedMethodCall.getCount( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getAvgDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getTotalDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getMedianDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getMinDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getMaxDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getP90Duration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getP95Duration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getP99Duration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getP999Duration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getTotalSelfDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getAvgSelfDuration( ) );
+			aOutputStream.writeLong( aggregatedMethodCall.getMaxSelfDuration( ) );
+			aOutputStream.writeFloat( aggregatedMethodCall.getSelfDurationShare( ) );
+			writeTimeSeries( aOutputStream, aggregatedMethodCall.getTimeSeries( ) );
+		}
+
+		aOutputStream.writeInt( cvMagicNumber );
+	}
+
+	private static void writeTraces( final DataOutputStream aOutputStream, final TraceStore aTraceStore ) throws IOException {
+		// The store contains the method calls already in pre-order
+		final int size = aTraceStore.getSize( );
+		aOutputStream.writeInt( aTraceStore.getTraceRootCount( ) );
+		aOutputStream.writeInt( size );
+
+		writeIntColumn( aOutputStream, size, index -> countChildren( aTraceStore, index ) );
+		writeLongColumn( aOutputStream, size, aTraceStore::getTimestamp );
+		writeLongColumn( aOutputStream, size, aTraceStore::getDuration );
+		writeLongColumn( aOutputStream, size, aTraceStore::getSelfDuration );
+		writeLongColumn( aOutputStream, size, aTraceStore::getTraceId );
+		writeIntColumn( aOutputStream, size, aTraceStore::getHostId );
+		writeIntColumn( aOutputStream, size, aTraceStore::getClazzId );
+		writeIntColumn( aOutputStream, size, aTraceStore::getMethodId );
+		writeIntColumn( aOutputStream, size, aTraceStore::getExceptionId );
+		writeIntColumn( aOutputStream, size, aTraceStore::getTraceDepth );
+		writeIntColumn( aOutputStream, size, aTraceStore::getTraceSize );
+		for ( int index = 0; index < size; index++ ) {
+			aOutputStream.writeFloat( aTraceStore.getPercent( index ) );
+		}
+	}
+
+	private static void writeTraces( final DataOutputStream aOutputStream, final List<MethodCall> aTraceRoots ) throws IOException {
+		// Bring the traces into pre-order. The nodes are identified by their position in this list.
+		final List<MethodCall> nodes = new ArrayList<>( );
+		for ( final MethodCall traceRoot : aTraceRoots ) {
+			collectInPreOrder( traceRoot, nodes );
+		}
+
+		final int size = nodes.size( );
+		aOutputStream.writeInt( aTraceRoots.size( ) );
+		aOutputStream.writeInt( size );
+
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getChildren( ).size( ) );
+		writeLongColumn( aOutputStream, size, index -> nodes.get( index ).getTimestamp( ) );
+		writeLongColumn( aOutputStream, size, index -> nodes.get( index ).getDuration( ) );
+		writeLongColumn( aOutputStream, size, index -> nodes.get( index ).getSelfDuration( ) );
+		writeLongColumn( aOutputStream, size, index -> nodes.get( index ).getTraceId( ) );
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getHostId( ) );
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getClazzId( ) );
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getMethodId( ) );
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getExceptionId( ) );
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getTraceDepth( ) );
+		writeIntColumn( aOutputStream, size, index -> nodes.get( index ).getTraceSize( ) );
+		for ( final MethodCall node : nodes ) {
+			aOutputStream.writeFloat( node.getPercent( ) );
+		}
+	}
+
+	private static int countChildren( final TraceStore aTraceStore, final int aIndex ) {
+		int count = 0;
+		for ( int child = aTraceStore.getFirstChild( aIndex ); child != TraceStore.NO_INDEX; child = aTraceStore.getNextSibling( child ) ) {
+			count++;
+		}
+		return count;
+	}
+
+	private static void writeIntColumn( final DataOutputStream aOutputStream, final int aSize, final IntUnaryOperator aColumn ) throws IOException {
+		for ( int index = 0; index < aSize; index++ ) {
+			aOutputStream.writeInt( aColumn.applyAsInt( index ) );
+		}
+	}
+
+	private static void writeLongColumn( final DataOutputStream aOutputStream, final int aSize, final IntToLongFunction aColumn ) throws IOException {
+		for ( int index = 0; index < aSize; index++ ) {
+			aOutputStream.writeLong( aColumn.applyAsLong( index ) );
+		}
+	}
+
+	private static void writeTimeSeries( final DataOutputStream aOutputStream, final MethodTimeSeries aTimeSeries ) throws IOException {
+		// A time series is optional. We use a negative interval as marker.
+		if ( aTimeSeries == null ) {
+			aOutputStream.writeLong( -1L );
+			return;
+		}
+
+		aOutputStream.writeLong( aTimeSeries.getInterval( ) );
+		aOutputStream.writeInt( aTimeSeries.getBuckets( ).size( ) );
+		for ( final TimeBucket bucket : aTimeSeries.getBuckets( ) ) {
+			aOutputStream.writeLong( bucket.getStartTimestamp( ) );
+			aOutputStream.writeLong( bucket.getTotalDuration( ) );
+			bucket.getHistogram( ).write( aOutputStream );
+		}
+	}
+
+	private static MethodTimeSeries readTimeSeries( final DataInputStream aInputStream ) throws IOException {
+		final long interval = aInputStream.readLong( );
+		if ( interval < 0 ) {
+			return null;
+		}
+
+		final int bucketCount = aInputStream.readInt( );
+		final List<TimeBucket> buckets = new ArrayList<>( bucketCount );
+		for ( int index = 0; index < bucketCount; index++ ) {
+			final long startTimestamp = aInputStream.readLong( );
+			final long totalDuration = aInputStream.readLong( );
+			buckets.add( new TimeBucket( startTimestamp, DurationHistogram.read( aInputStream ), totalDuration ) );
+		}
+		return new MethodTimeSeries( interval, buckets );
+	}
+
+	private static void collectInPreOrder( final MethodCall aMethodCall, final List<MethodCall> aNodes ) {
+		// We avoid a recursion, as the traces can be very deep
+		final List<MethodCall> stack = new ArrayList<>( );
+		stack.add( aMethodCall );
+
+		while ( !stack.isEmpty( ) ) {
+			final MethodCall node = stack.remove( stack.size( ) - 1 );
+			aNodes.add( node );
+
+			final List<MethodCall> children = node.getChildren( );
+			for ( int index = children.size( ) - 1; index >= 0; index-- ) {
+				stack.add( children.get( index ) );
+			}
+		}
+	}
+
+	/**
+	 * Reads the snapshot with the given key into the given service (if such a snapshot exists).
+	 *
+	 * @param aKey
+	 *                              The key of the monitoring log.
+	 * @param aMonitoringLogService
+	 *                              The service into which the data is read.
+	 *
+	 * @return true if and only if a valid snapshot has been read.
+	 *
+	 * @throws IOException
+	 *                     If the snapshot exists but could not be read.
+	 */
+	public boolean readSnapshot( final byte[] aKey, final MonitoringLogService aMonitoringLogService ) throws IOException {
+		final MonitoringProbe probe = MonitoringUtil.createMonitoringProbe( getClass( ), "readSnapshot(byte[], kieker.diagnosis.service.data.MonitoringLogService)" );
+
+		try {
+			final Path snapshotFile = getSnapshotFile( aKey );
+			if ( !Files.isRegularFile( snapshotFile ) ) {
+				return false;
+			}
+
+			final boolean snapshotRead;
+			try ( final FileChannel channel = FileChannel.open( snapshotFile, StandardOpenOption.READ ) ) {
+				snapshotRead = readSnapshot( channel, aKey, aMonitoringLogService );
+			}
+
+			if ( snapshotRead ) {
+				markAsRecentlyUsed( snapshotFile );
+			}
+			return snapshotRead;
+		} catch ( final Throwable t ) {
+			probe.fail( t );
+			throw t;
+		} finally {
+			probe.stop( );
+		}
+	}
+
+	private static void markAsRecentlyUsed( final Path aSnapshotFile ) {
+		try {
+			Files.setLastModifiedTime( aSnapshotFile, FileTime.fromMillis( System.currentTimeMillis( ) ) );
+		} catch ( final IOException ex ) {
+			// The snapshot has been read nevertheless. It is just deleted a little earlier.
+		}
+	}
+
+	private boolean readSnapshot( final FileChannel aChannel, final byte[] aKey, final MonitoringLogService aMonitoringLogService ) throws IOException {
+		// The parts before and after the columns of the traces are read as streams. The position is counted, as the columns are mapped instead.
+		final CountingInputStream countingStream = new CountingInputStream( new BufferedInputStream( Channels.newInputStream( aChannel ) ) );
+		final DataInputStream headStream = new DataInputStream( countingStream );
+
+		// Check the header. Snapshots of other versions are simply ignored (and overwritten later).
+		if ( aChannel.size( ) < 3 * Integer.BYTES || headStream.readInt( ) != cvMagicNumber || headStream.readInt( ) != cvVersion ) {
+			return false;
+		}
+		final byte[] key = new byte[headStream.readInt( )];
+		headStream.readFully( key );
+		if ( !Arrays.equals( key, aKey ) ) {
+			return false;
+		}
+
+		// Statistics
+		final long processedBytes = headStream.readLong( );
+		final int ignoredRecords = headStream.readInt( );
+		final int danglingRecords = headStream.readInt( );
+		final int incompleteTraces = headStream.readInt( );
+
+		// String table. The symbol ids of the snapshot are mapped to the symbol ids of the import only once.
+		final SymbolTable symbolTable = aMonitoringLogService.getSymbolTable( );
+		final int[] symbolIds = new int[headStream.readInt( )];
+		for ( int index = SymbolTable.NULL_SYMBOL + 1; index < symbolIds.length; index++ ) {
+			final byte[] bytes = new byte[headStream.readInt( )];
+			headStream.readFully( bytes );
+			symbolIds[index] = symbolTable.intern( new String( bytes, StandardCharsets.UTF_8 ) );
+		}
+
+		// The traces are read directly from the mapped columns, without copying the columns first
+		final int traceRootCount = headStream.readInt( );
+		final int size = headStream.readInt( );
+		final long columnsStart = countingStream.getCount( );
+		final long columnsEnd = columnsStart + TraceColumns.calculateLength( size );
+		if ( columnsEnd + Integer.BYTES > aChannel.size( ) ) {
+			return false;
+		}
+		final TraceColumns traceColumns = new TraceColumns( aChannel, columnsStart, size, symbolIds, ivSegmentSize );
+		final TraceStore traceStore = aMonitoringLogService.createTraceStore( );
+		boolean traceStoreTransferred = false;
+
+		try {
+			final List<MethodCall> traceRoots = new ArrayList<>( );
+			final List<MethodCall> methods = new ArrayList<>( );
+			if ( traceStore != null ) {
+				readTraces( traceColumns, traceRootCount, traceStore );
+			} else {
+				readTraces( traceColumns, traceRoots, methods );
+			}
+
+			aChannel.position( columnsEnd );
+			final DataInputStream tailStream = new DataInputStream( new BufferedInputStream( Channels.newInputStream( aChannel ) ) );
+
+			final int aggregatedMethodCallCount = tailStream.readInt( );
+			final List<AggregatedMethodCall> aggregatedMethodCalls = new ArrayList<>( aggregatedMethodCallCount );
+			for ( int index = 0; index < aggregatedMethodCallCount; index++ ) {
+				final AggregatedMethodCall aggregatedMethodCall = new AggregatedMethodCall( );
+				aggregatedMethodCall.setHostId( symbolIds[tailStream.readInt( )] );
+				aggregatedMethodCall.setClazzId( symbolIds[tailStream.readInt( )] );
+				aggregatedMethodCall.setMethodId( symbolIds[tailStream.readInt( )] );
+				aggregatedMethodCall.setExceptionId( symbolIds[tailStream.readInt( )] );
+				aggregatedMethodCall.setCount( tailStream.readInt( ) );
+				aggregatedMethodCall.setAvgDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setTotalDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setMedianDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setMinDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setMaxDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setP90Duration( tailStream.readLong( ) );
+				aggregatedMethodCall.setP95Duration( tailStream.readLong( ) );
+				aggregatedMethodCall.setP99Duration( tailStream.readLong( ) );
+				aggregatedMethodCall.setP999Duration( tailStream.readLong( ) );
+				aggregatedMethodCall.setTotalSelfDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setAvgSelfDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setMaxSelfDuration( tailStream.readLong( ) );
+				aggregatedMethodCall.setSelfDurationShare( tailStream.readFloat( ) );
+				aggregatedMethodCall.setTimeSeries( readTimeSeries( tailStream ) );
+				aggregatedMethodCalls.add( aggregatedMethodCall );
+			}
+
+			// A truncated snapshot would have failed before. This is just to be sure.
+			if ( tailStream.readInt( ) != cvMagicNumber ) {
+				return false;
+			}
+
+			// Only now we transfer the data into the service
+			if ( traceStore != null ) {
+				aMonitoringLogService.setTraceStore( traceStore, calculateShapeHashes( traceStore ) );
+				traceStoreTransferred = true;
+			} else {
+				for ( final MethodCall traceRoot : traceRoots ) {
+					aMonitoringLogService.addTraceRoot( traceRoot );
+				}
+				aMonitoringLogService.addMethods( methods );
+			}
+			aMonitoringLogService.addAggregatedMethods( aggregatedMethodCalls );
+			aMonitoringLogService.setProcessedBytes( processedBytes );
+			aMonitoringLogService.setIgnoredRecords( ignoredRecords );
+			aMonitoringLogService.setDanglingRecords( danglingRecords );
+			aMonitoringLogService.setIncompleteTraces( incompleteTraces );
+
+			return true;
+		} finally {
+			if ( traceStore != null && !traceStoreTransferred ) {
+				traceStore.close( );
+			}
+		}
+	}
+
+	private static void readTraces( final TraceColumns aColumns, final int aTraceRootCount, final TraceStore aTraceStore ) {
+		final int size = aColumns.getSize( );
+		aTraceStore.reserve( size, aTraceRootCount );
+
+		// The store calculates the percentages and the self durations itself, while the children are appended
+		final IntStack parents = new IntStack( );
+		final IntStack missingChildren = new IntStack( );
+		for ( int row = 0; row < size; row++ ) {
+			final int parent = parents.isEmpty( ) ? TraceStore.NO_INDEX : parents.peek( );
+			final int index = aTraceStore.appendMethodCall( aColumns.getTraceId( row ), aColumns.getHostId( row ), aColumns.getTimestamp( row ),
+					aColumns.getDuration( row ), aColumns.getClazzId( row ), aColumns.getMethodId( row ), aColumns.getExceptionId( row ),
+					aColumns.getTraceDepth( row ), aColumns.getTraceSize( row ), parent );
+
+			if ( parent != TraceStore.NO_INDEX ) {
+				childRead( parents, missingChildren );
+			}
+			if ( aColumns.getChildCount( row ) > 0 ) {
+				parents.push( index );
+				missingChildren.push( aColumns.getChildCount( row ) );
+			}
+		}
+
+		aTraceStore.trimToSize( );
+	}
+
+	private static void readTraces( final TraceColumns aColumns, final List<MethodCall> aTraceRoots, final List<MethodCall> aMethods ) {
+		// The method calls are in pre-order, which means that their rows are also their positions in the list of methods
+		final IntStack parents = new IntStack( );
+		final IntStack missingChildren = new IntStack( );
+		for ( int row = 0; row < aColumns.getSize( ); row++ ) {
+			final MethodCall methodCall = new HeapMethodCall( );
+			methodCall.setTimestamp( aColumns.getTimestamp( row ) );
+			methodCall.setDuration( aColumns.getDuration( row ) );
+			methodCall.setSelfDuration( aColumns.getSelfDuration( row ) );
+			methodCall.setTraceId( aColumns.getTraceId( row ) );
+			methodCall.setHostId( aColumns.getHostId( row ) );
+			methodCall.setClazzId( aColumns.getClazzId( row ) );
+			methodCall.setMethodId( aColumns.getMethodId( row ) );
+			methodCall.setExceptionId( aColumns.getExceptionId( row ) );
+			methodCall.setTraceDepth( aColumns.getTraceDepth( row ) );
+			methodCall.setTraceSize( aColumns.getTraceSize( row ) );
+			methodCall.setPercent( aColumns.getPercent( row ) );
+			aMethods.add( methodCall );
+
+			if ( parents.isEmpty( ) ) {
+				aTraceRoots.add( methodCall );
+			} else {
+				final MethodCall parent = aMethods.get( parents.peek( ) );
+				parent.addChild( methodCall );
+				if ( childRead( parents, missingChildren ) ) {
+					parent.trimToSize( );
+				}
+			}
+			if ( aColumns.getChildCount( row ) > 0 ) {
+				parents.push( row );
+				missingChildren.push( aColumns.getChildCount( row ) );
+			}
+		}
+	}
+
+	/**
+	 * Counts a child of the topmost parent on the stack. The parent is removed from the stack as soon as its last child has been read.
+	 *
+	 * @param aParents
+	 *                         The parents which still expect children.
+	 * @param aMissingChildren
+	 *                         The number of missing children for each parent.
+	 *
+	 * @return true if and only if the last child of the parent has been read.
+	 */
+	private static boolean childRead( final IntStack aParents, final IntStack aMissingChildren ) {
+		final int top = aMissingChildren.size( ) - 1;
+		final int missingChildren = aMissingChildren.get( top ) - 1;
+		if ( missingChildren > 0 ) {
+			aMissingChildren.set( top, missingChildren );
+			return false;
+		}
+
+		aParents.pop( );
+		aMissingChildren.pop( );
+		return true;
+	}
+
+	private static LongArrayList calculateShapeHashes( final TraceStore aTraceStore ) {
+		final LongArrayList shapeHashes = new LongArrayList( aTraceStore.getTraceRootCount( ) );
+		for ( final MethodCall traceRoot : aTraceStore.getTraceRoots( ) ) {
+			shapeHashes.add( TraceShape.calculateShapeHash( traceRoot ) );
+		}
+		return shapeHashes;
+	}
+
+	private Path getSnapshotFile( final byte[] aKey ) {
+		final StringBuilder fileName = new StringBuilder( );
+		for ( final byte keyByte : aKey ) {
+			fileName.append( String.format( "%02x", keyByte ) );
+		}
+		fileName.append( cvFileExtension );
+
+		return new File( ivSnapshotDirectory, fileName.toString( ) ).toPath( );
+	}
+
+	/**
+	 * The columns of the traces within a snapshot. The columns are memory mapped in segments and the values are read directly from the segments, without
+	 * copying the columns first. The segments overlap by the size of the largest value, which means that no value is split between two segments.
+	 */
+	private static final class TraceColumns {
+
+		private static final int ROW_SIZE = Integer.BYTES + 4 * Long.BYTES + 6 * Integer.BYTES + Float.BYTES;
+
+		private final ByteBuffer[] ivSegments;
+		private final int ivSegmentSize;
+		private final int ivSize;
+		private final int[] ivSymbolIds;
+
+		// The offsets of the columns relative to the start of the first column
+		private final long ivTimestamps;
+		private final long ivDurations;
+		private final long ivSelfDurations;
+		private final long ivTraceIds;
+		private final long ivHostIds;
+		private final long ivClazzIds;
+		private final long ivMethodIds;
+		private final long ivExceptionIds;
+		private final long ivTraceDepths;
+		private final long ivTraceSizes;
+		private final long ivPercents;
+
+		/**
+		 * Maps the columns.
+		 *
+		 * @param aChannel
+		 *                     The channel of the snapshot file.
+		 * @param aPosition
+		 *                     The position of the first column within the file.
+		 * @param aSize
+		 *                     The number of method calls.
+		 * @param aSymbolIds
+		 *                     The symbol ids of the import for the symbol ids of the snapshot.
+		 * @param aSegmentSize
+		 *                     The size of the mapped segments in bytes (without the overlap).
+		 *
+		 * @throws IOException
+		 *                     If the columns could not be mapped.
+		 */
+		TraceColumns( final FileChannel aChannel, final long aPosition, final int aSize, final int[] aSymbolIds, final int aSegmentSize )
+				throws IOException {
+			ivSegmentSize = aSegmentSize;
+			ivSize = aSize;
+			ivSymbolIds = aSymbolIds;
+
+			ivTimestamps = ( long ) aSize * Integer.BYTES;
+			ivDurations = ivTimestamps + ( long ) aSize * Long.BYTES;
+			ivSelfDurations = ivDurations + ( long ) aSize * Long.BYTES;
+			ivTraceIds = ivSelfDurations + ( long ) aSize * Long.BYTES;
+			ivHostIds = ivTraceIds + ( long ) aSize * Long.BYTES;
+			ivClazzIds = ivHostIds + ( long ) aSize * Integer.BYTES;
+			ivMethodIds = ivClazzIds + ( long ) aSize * Integer.BYTES;
+			ivExceptionIds = ivMethodIds + ( long ) aSize * Integer.BYTES;
+			ivTraceDepths = ivExceptionIds + ( long ) aSize * Integer.BYTES;
+			ivTraceSizes = ivTraceDepths + ( long ) aSize * Integer.BYTES;
+			ivPercents = ivTraceSizes + ( long ) aSize * Integer.BYTES;
+
+			final long length = calculateLength( aSize );
+			ivSegments = new ByteBuffer[( int ) ( ( length + aSegmentSize - 1 ) / aSegmentSize )];
+			for ( int segment = 0; segment < ivSegments.length; segment++ ) {
+				final long segmentStart = ( long ) segment * aSegmentSize;
+				final long segmentLength = Math.min( aSegmentSize + Long.BYTES, length - segmentStart );
+				ivSegments[segment] = aChannel.map( MapMode.READ_ONLY, aPosition + segmentStart, segmentLength );
+			}
+		}
+
+		static long calculateLength( final int aSize ) {
+			return ( long ) aSize * ROW_SIZE;
+		}
+
+		private ByteBuffer getSegment( final long aOffset ) {
+			return ivSegments[( int ) ( aOffset / ivSegmentSize )];
+		}
+
+		private int getPosition( final long aOffset ) {
+			return ( int ) ( aOffset % ivSegmentSize );
+		}
+
+		private int getInt( final long aOffset ) {
+			return getSegment( aOffset ).getInt( getPosition( aOffset ) );
+		}
+
+		private long getLong( final long aOffset ) {
+			return getSegment( aOffset ).getLong( getPosition( aOffset ) );
+		}
+
+		int getSize( ) {
+			return ivSize;
+		}
+
+		int getChildCount( final int aRow ) {
+			return getInt( ( long ) aRow * Integer.BYTES );
+		}
+
+		long getTimestamp( final int aRow ) {
+			return getLong( ivTimestamps + ( long ) aRow * Long.BYTES );
+		}
+
+		long getDuration( final int aRow ) {
+			return getLong( ivDurations + ( long ) aRow * Long.BYTES );
+		}
+
+		long getSelfDuration( final int aRow ) {
+			return getLong( ivSelfDurations + ( long ) aRow * Long.BYTES );
+		}
+
+		long getTraceId( final int aRow ) {
+			return getLong( ivTraceIds + ( long ) aRow * Long.BYTES );
+		}
+
+		int getHostId( final int aRow ) {
+			return ivSymbolIds[getInt( ivHostIds + ( long ) aRow * Integer.BYTES )];
+		}
+
+		int getClazzId( final int aRow ) {
+			return ivSymbolIds[getInt( ivClazzIds + ( long ) aRow * Integer.BYTES )];
+		}
+
+		int getMethodId( final int aRow ) {
+			return ivSymbolIds[getInt( ivMethodIds + ( long ) aRow * Integer.BYTES )];
+		}
+
+		int getExceptionId( final int aRow ) {
+			return ivSymbolIds[getInt( ivExceptionIds + ( long ) aRow * Integer.BYTES )];
+		}
+
+		int getTraceDepth( final int aRow ) {
+			return getInt( ivTraceDepths + ( long ) aRow * Integer.BYTES );
+		}
+
+		int getTraceSize( final int aRow ) {
+			return getInt( ivTraceSizes + ( long ) aRow * Integer.BYTES );
+		}
+
+		float getPercent( final int aRow ) {
+			final long offset = ivPercents + ( long ) aRow * Float.BYTES;
+			return getSegment( offset ).getFloat( getPosition( offset ) );
+		}
+
+	}
+
+}
@@ -22,14 +22,19 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.regex.Pattern;
 
 import com.google.inject.Singleton;
 
 import kieker.diagnosis.architecture.service.ServiceBase;
+import kieker.diagnosis.service.data.SymbolTable;
 import kieker.diagnosis.service.pattern.PatternService;
 
 /**
@@ -71,6 +76,71 @@ public class FilterService extends ServiceBase {
 		};
 	}
 
+	/**
+	 * This method delivers a predicate on symbol ids, which is equivalent to the string predicate on the corresponding symbols. The string predicate is
+	 * evaluated once for each distinct symbol of the given table when the predicate is created. The matching symbols are stored in a bit set, which means
+	 * that testing a method call is a single lookup - even for regular expressions. This makes the predicate suitable for scans over a large number of
+	 * method calls.
+	 *
+	 * @param aSymbolTable
+	 *                      The symbol table to which the ids belong.
+	 * @param aSearchString
+	 *                      The search string or {@code null}.
+	 * @param aUseRegExpr
+	 *                      Whether the search string is a regular expression.
+	 *
+	 * @return The predicate on the symbol ids.
+	 */
+	public IntPredicate getSymbolPredicate( final SymbolTable aSymbolTable, final String aSearchString, final boolean aUseRegExpr ) {
+		if ( aSearchString == null ) {
+			return id -> true;
+		}
+
+		final Predicate<String> stringPredicate = getStringPredicate( Function.identity( ), aSearchString, aUseRegExpr );
+
+		// The null symbol never matches. The bit set is not modified afterwards and can therefore be read concurrently.
+		final int symbolCount = aSymbolTable.getSize( );
+		final BitSet matchingSymbols = new BitSet( symbolCount );
+		for ( int id = SymbolTable.NULL_SYMBOL + 1; id < symbolCount; id++ ) {
+			if ( stringPredicate.test( aSymbolTable.resolve( id ) ) ) {
+				matchingSymbols.set( id );
+			}
+		}
+
+		return id -> {
+			// Symbols which have been added after the creation of the predicate (for instance by a live import) are evaluated directly
+			if ( id >= symbolCount ) {
+				return stringPredicate.test( aSymbolTable.resolve( id ) );
+			}
+			return matchingSymbols.get( id );
+		};
+	}
+
+	/**
+	 * This method delivers a predicate, which is equivalent to the string predicate on the corresponding symbols, but works on the symbol ids (see
+	 * {@link #getSymbolPredicate(SymbolTable, String, boolean)}). The predicate on the ids is created only once.
+	 *
+	 * @param aSymbolTable
+	 *                             The symbol table to which the ids of the elements belong.
+	 * @param aSymbolFunction
+	 *                             The function delivering the symbol id of an element.
+	 * @param aSearchString
+	 *                             The search string or {@code null}.
+	 * @param aUseRegExpr
+	 *                             Whether the search string is a regular expression.
+	 *
+	 * @return The predicate.
+	 */
+	public <T> Predicate<T> getSymbolPredicate( final SymbolTable aSymbolTable, final ToIntFunction<T> aSymbolFunction, final String aSearchString,
+			final boolean aUseRegExpr ) {
+		if ( aSearchString == null ) {
+			return t -> true;
+		}
+
+		final IntPredicate symbolPredicate = getSymbolPredicate( aSymbolTable, aSearchString, aUseRegExpr );
+		return t -> symbolPredicate.test( aSymbolFunction.applyAsInt( t ) );
+	}
+
 	/**
 	 * This method conjuncts a given list of predicates. That means they are AND-linked. If the list is empty, an always true predicate is returned.
 	 *
@@ -85,82 +155,108 @@ public class FilterService extends ServiceBase {
 				.reduce( t -> true, Predicate::and );
 	}
 
-	public <T> Predicate<T> getAfterTimePredicate( final Function<T, Long> aTimestampFunction, final LocalDate aLowerDate, final LocalTime aLowerTime ) {
+	/**
+	 * This method delivers a predicate checking whether the timestamp of an element is not before the given lower bound. If a date is given, the bound is
+	 * converted only once into a timestamp, which means that the predicate is a simple comparison. If only a time is given, the predicate checks the time
+	 * of the day of each element.
+	 *
+	 * @param aTimestampFunction
+	 *                           The function delivering the timestamp (in milliseconds) of an element.
+	 * @param aLowerDate
+	 *                           The lower date or {@code null}.
+	 * @param aLowerTime
+	 *                           The lower time or {@code null}.
+	 *
+	 * @return The predicate.
+	 */
+	public <T> Predicate<T> getAfterTimePredicate( final ToLongFunction<T> aTimestampFunction, final LocalDate aLowerDate, final LocalTime aLowerTime ) {
 		if ( aLowerDate == null && aLowerTime == null ) {
 			return t -> true;
 		}
 
-		return t -> {
-			// Get the date and time from the timestamp
-			final LocalDateTime localDateTime = getDateTime( aTimestampFunction, t );
-
-			// Compare the date
-			if ( aLowerDate != null ) {
-				final LocalDate localDate = localDateTime.toLocalDate( );
-
-				if ( localDate.isAfter( aLowerDate ) ) {
-					return true;
-				}
-				if ( localDate.isBefore( aLowerDate ) ) {
-					return false;
-				}
-			}
-
-			// Compare the time
-			if ( aLowerTime != null ) {
-				final LocalTime localTime = localDateTime.toLocalTime( );
-
-				if ( localTime.isBefore( aLowerTime ) ) {
-					return false;
-				}
-
-				return true;
-			}
-
-			return true;
+		if ( aLowerDate != null ) {
+			final long lowerTimestamp = getLowerTimestamp( aLowerDate, aLowerTime );
+			return t -> aTimestampFunction.applyAsLong( t ) >= lowerTimestamp;
+		}
 
-		};
+		// Compare only the time
+		return t -> !getDateTime( aTimestampFunction, t ).toLocalTime( ).isBefore( aLowerTime );
 	}
 
-	public <T> Predicate<T> getBeforeTimePredicate( final Function<T, Long> aTimestampFunction, final LocalDate aUpperDate, final LocalTime aUpperTime ) {
+	/**
+	 * This method delivers a predicate checking whether the timestamp of an element is not after the given upper bound. If a date is given, the bound is
+	 * converted only once into a timestamp, which means that the predicate is a simple comparison. If only a time is given, the predicate checks the time
+	 * of the day of each element.
+	 *
+	 * @param aTimestampFunction
+	 *                           The function delivering the timestamp (in milliseconds) of an element.
+	 * @param aUpperDate
+	 *                           The upper date or {@code null}.
+	 * @param aUpperTime
+	 *                           The upper time or {@code null}.
+	 *
+	 * @return The predicate.
+	 */
+	public <T> Predicate<T> getBeforeTimePredicate( final ToLongFunction<T> aTimestampFunction, final LocalDate aUpperDate, final LocalTime aUpperTime ) {
 		if ( aUpperDate == null && aUpperTime == null ) {
 			return t -> true;
-		} else {
-			return t -> {
-				// Get the date and time from the timestamp
-				final LocalDateTime localDateTime = getDateTime( aTimestampFunction, t );
-
-				// Compare the date
-				if ( aUpperDate != null ) {
-					final LocalDate localDate = localDateTime.toLocalDate( );
-
-					if ( localDate.isBefore( aUpperDate ) ) {
-						return true;
-					}
-					if ( localDate.isAfter( aUpperDate ) ) {
-						return false;
-					}
-				}
+		}
 
-				// Compare the time
-				if ( aUpperTime != null ) {
-					final LocalTime localTime = localDateTime.toLocalTime( );
+		if ( aUpperDate != null ) {
+			final long upperTimestamp = getUpperTimestamp( aUpperDate, aUpperTime );
+			return t -> aTimestampFunction.applyAsLong( t ) < upperTimestamp;
+		}
 
-					if ( localTime.isAfter( aUpperTime ) ) {
-						return false;
-					}
+		// Compare only the time
+		return t -> !getDateTime( aTimestampFunction, t ).toLocalTime( ).isAfter( aUpperTime );
+	}
 
-					return true;
-				}
+	/**
+	 * Converts the given lower bound into a timestamp. The times of the elements are compared with a precision of seconds. A lower bound with fractions of
+	 * a second is therefore rounded up.
+	 *
+	 * @param aLowerDate
+	 *                   The lower date or {@code null}.
+	 * @param aLowerTime
+	 *                   The lower time or {@code null}. It is only considered, if a date is given.
+	 *
+	 * @return The smallest matching timestamp in milliseconds or {@link Long#MIN_VALUE}, if no date is given.
+	 */
+	public long getLowerTimestamp( final LocalDate aLowerDate, final LocalTime aLowerTime ) {
+		if ( aLowerDate == null ) {
+			return Long.MIN_VALUE;
+		}
 
-				return true;
+		LocalDateTime lowerDateTime = aLowerDate.atTime( aLowerTime != null ? aLowerTime : LocalTime.MIN );
+		if ( lowerDateTime.getNano( ) != 0 ) {
+			lowerDateTime = lowerDateTime.truncatedTo( ChronoUnit.SECONDS ).plusSeconds( 1 );
+		}
+		return lowerDateTime.atZone( ZoneId.systemDefault( ) ).toInstant( ).toEpochMilli( );
+	}
 
-			};
+	/**
+	 * Converts the given upper bound into a timestamp. The times of the elements are compared with a precision of seconds. The whole second (or the whole
+	 * day, if no time is given) of the bound does therefore still match.
+	 *
+	 * @param aUpperDate
+	 *                   The upper date or {@code null}.
+	 * @param aUpperTime
+	 *                   The upper time or {@code null}. It is only considered, if a date is given.
+	 *
+	 * @return The smallest timestamp in milliseconds, which does no longer match, or {@link Long#MAX_VALUE}, if no date is given.
+	 */
+	public long getUpperTimestamp( final LocalDate aUpperDate, final LocalTime aUpperTime ) {
+		if ( aUpperDate == null ) {
+			return Long.MAX_VALUE;
 		}
+
+		final LocalDateTime upperDateTime = aUpperTime != null ? aUpperDate.atTime( aUpperTime ).truncatedTo( ChronoUnit.SECONDS ).plusSeconds( 1 )
+				: aUpperDate.plusDays( 1 ).atStartOfDay( );
+		return upperDateTime.atZone( ZoneId.systemDefault( ) ).toInstant( ).toEpochMilli( );
 	}
 
-	private <T> LocalDateTime getDateTime( final Function<T, Long> aTimestampFunction, final T t ) {
-		final long timestamp = aTimestampFunction.apply( t );
+	private <T> LocalDateTime getDateTime( final ToLongFunction<T> aTimestampFunction, final T t ) {
+		final long timestamp = aTimestampFunction.applyAsLong( t );
 		final Instant instant = Instant.ofEpochMilli( timestamp );
 		return LocalDateTime.ofInstant( instant, ZoneId.systemDefault( ) ).truncatedTo( ChronoUnit.SECONDS );
 	}
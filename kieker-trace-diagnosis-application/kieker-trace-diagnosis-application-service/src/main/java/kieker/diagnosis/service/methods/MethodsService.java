@@ -16,15 +16,21 @@
 
 package kieker.diagnosis.service.methods;
 
+import java.util.BitSet;
 import java.util.List;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.google.inject.Singleton;
 
 import kieker.diagnosis.architecture.service.ServiceBase;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolIndex;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceStore;
 import kieker.diagnosis.service.filter.FilterService;
 
 /**
@@ -46,16 +52,134 @@ public class MethodsService extends ServiceBase {
 	public List<MethodCall> searchMethods( final MethodsFilter aFilter ) {
 		// Get the methods
 		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+
+		// The indices deliver the candidates of the search. Only if none of them is applicable, all method calls have to be scanned.
+		final BitSet candidates = findCandidates( monitoringLogService, aFilter );
+		if ( candidates != null ) {
+			return searchMethods( candidates, monitoringLogService.getMethods( ), monitoringLogService.getSymbolTable( ), aFilter );
+		}
+
+		final TraceStore traceStore = monitoringLogService.getTraceStore( );
+		if ( traceStore != null ) {
+			return searchMethods( traceStore, aFilter );
+		}
 		final List<MethodCall> methods = monitoringLogService.getMethods( );
+		final SymbolTable symbolTable = monitoringLogService.getSymbolTable( );
 
 		// Filter the methods
 		final FilterService filterService = getService( FilterService.class );
 		return methods
 				.parallelStream( )
-				.filter( filterService.getStringPredicate( MethodCall::getHost, aFilter.getHost( ), aFilter.isUseRegExpr( ) ) )
-				.filter( filterService.getStringPredicate( MethodCall::getClazz, aFilter.getClazz( ), aFilter.isUseRegExpr( ) ) )
-				.filter( filterService.getStringPredicate( MethodCall::getMethod, aFilter.getMethod( ), aFilter.isUseRegExpr( ) ) )
-				.filter( filterService.getStringPredicate( MethodCall::getException, aFilter.getException( ), aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, MethodCall::getHostId, aFilter.getHost( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, MethodCall::getClazzId, aFilter.getClazz( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, MethodCall::getMethodId, aFilter.getMethod( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( symbolTable, MethodCall::getExceptionId, aFilter.getException( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getLongPredicate( MethodCall::getTraceId, aFilter.getTraceId( ) ) )
+				.filter( getSearchTypePredicate( aFilter.getSearchType( ) ) )
+				.filter( filterService.getAfterTimePredicate( MethodCall::getTimestamp, aFilter.getLowerDate( ), aFilter.getLowerTime( ) ) )
+				.filter( filterService.getBeforeTimePredicate( MethodCall::getTimestamp, aFilter.getUpperDate( ), aFilter.getUpperTime( ) ) )
+				.collect( Collectors.toList( ) );
+	}
+
+	/**
+	 * Searches the method calls directly within the columns of the store. The string filters are evaluated only once per symbol and views are only
+	 * created for the method calls passing the cheap filters.
+	 */
+	private List<MethodCall> searchMethods( final TraceStore aTraceStore, final MethodsFilter aFilter ) {
+		final FilterService filterService = getService( FilterService.class );
+		final SymbolTable symbolTable = aTraceStore.getSymbolTable( );
+		final IntPredicate hostPredicate = filterService.getSymbolPredicate( symbolTable, aFilter.getHost( ), aFilter.isUseRegExpr( ) );
+		final IntPredicate clazzPredicate = filterService.getSymbolPredicate( symbolTable, aFilter.getClazz( ), aFilter.isUseRegExpr( ) );
+		final IntPredicate methodPredicate = filterService.getSymbolPredicate( symbolTable, aFilter.getMethod( ), aFilter.isUseRegExpr( ) );
+		final IntPredicate exceptionPredicate = filterService.getSymbolPredicate( symbolTable, aFilter.getException( ), aFilter.isUseRegExpr( ) );
+		final Long traceId = aFilter.getTraceId( );
+		final SearchType searchType = aFilter.getSearchType( );
+
+		return IntStream.range( 0, aTraceStore.getSize( ) )
+				.parallel( )
+				.filter( index -> traceId == null || aTraceStore.getTraceId( index ) == traceId.longValue( ) )
+				.filter( index -> isSearchTypeMatching( searchType, aTraceStore.getExceptionId( index ) != SymbolTable.NULL_SYMBOL ) )
+				.filter( index -> hostPredicate.test( aTraceStore.getHostId( index ) ) )
+				.filter( index -> clazzPredicate.test( aTraceStore.getClazzId( index ) ) )
+				.filter( index -> methodPredicate.test( aTraceStore.getMethodId( index ) ) )
+				.filter( index -> exceptionPredicate.test( aTraceStore.getExceptionId( index ) ) )
+				.mapToObj( aTraceStore::getMethodCall )
+				.filter( filterService.getAfterTimePredicate( MethodCall::getTimestamp, aFilter.getLowerDate( ), aFilter.getLowerTime( ) ) )
+				.filter( filterService.getBeforeTimePredicate( MethodCall::getTimestamp, aFilter.getUpperDate( ), aFilter.getUpperTime( ) ) )
+				.collect( Collectors.toList( ) );
+	}
+
+	private static boolean hasSymbolFilter( final MethodsFilter aFilter ) {
+		return aFilter.getHost( ) != null || aFilter.getClazz( ) != null || aFilter.getMethod( ) != null || aFilter.getException( ) != null;
+	}
+
+	/**
+	 * Determines the candidates of the search with the help of the indices. A trace id is the most selective criterion and is therefore answered first by
+	 * the trace id index. Substring searches are answered by the symbol index and time windows by the timestamp index. Regular expressions and bounds
+	 * consisting only of a time of the day can not be answered by an index.
+	 *
+	 * @return The positions of the candidates within the method calls or {@code null}, if no index is applicable.
+	 */
+	private BitSet findCandidates( final MonitoringLogService aMonitoringLogService, final MethodsFilter aFilter ) {
+		BitSet candidates = null;
+
+		final Long traceId = aFilter.getTraceId( );
+		if ( traceId != null ) {
+			candidates = aMonitoringLogService.getMethodTraceIdIndex( ).findMethodCalls( traceId.longValue( ) );
+			if ( candidates.isEmpty( ) ) {
+				return candidates;
+			}
+		}
+
+		if ( !aFilter.isUseRegExpr( ) && hasSymbolFilter( aFilter ) ) {
+			final SymbolIndex symbolIndex = aMonitoringLogService.getSymbolIndex( );
+			final BitSet symbolCandidates = symbolIndex.findMethodCalls( aFilter.getHost( ), aFilter.getClazz( ), aFilter.getMethod( ), aFilter.getException( ) );
+			if ( candidates == null ) {
+				candidates = symbolCandidates;
+			} else {
+				candidates.and( symbolCandidates );
+			}
+		}
+
+		final FilterService filterService = getService( FilterService.class );
+		final long lowerTimestamp = filterService.getLowerTimestamp( aFilter.getLowerDate( ), aFilter.getLowerTime( ) );
+		final long upperTimestamp = filterService.getUpperTimestamp( aFilter.getUpperDate( ), aFilter.getUpperTime( ) );
+		if ( lowerTimestamp != Long.MIN_VALUE || upperTimestamp != Long.MAX_VALUE ) {
+			final BitSet timeWindow = aMonitoringLogService.getMethodTimestampIndex( ).findMethodCalls( lowerTimestamp, upperTimestamp );
+			if ( candidates == null ) {
+				candidates = timeWindow;
+			} else {
+				candidates.and( timeWindow );
+			}
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Searches the method calls with the help of the candidates determined by the indices. All filters are applied to the candidates, as not every filter
+	 * might have been answered by an index. This is cheap, as the predicates are only simple lookups and comparisons.
+	 */
+	private List<MethodCall> searchMethods( final BitSet aCandidates, final List<MethodCall> aMethods, final SymbolTable aSymbolTable,
+			final MethodsFilter aFilter ) {
+		final FilterService filterService = getService( FilterService.class );
+
+		return aCandidates
+				.stream( )
+				.parallel( )
+				.mapToObj( aMethods::get )
+				.filter( filterService.getSymbolPredicate( aSymbolTable, MethodCall::getHostId, aFilter.getHost( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( aSymbolTable, MethodCall::getClazzId, aFilter.getClazz( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( aSymbolTable, MethodCall::getMethodId, aFilter.getMethod( ),
+						aFilter.isUseRegExpr( ) ) )
+				.filter( filterService.getSymbolPredicate( aSymbolTable, MethodCall::getExceptionId, aFilter.getException( ),
+						aFilter.isUseRegExpr( ) ) )
 				.filter( filterService.getLongPredicate( MethodCall::getTraceId, aFilter.getTraceId( ) ) )
 				.filter( getSearchTypePredicate( aFilter.getSearchType( ) ) )
 				.filter( filterService.getAfterTimePredicate( MethodCall::getTimestamp, aFilter.getLowerDate( ), aFilter.getLowerTime( ) ) )
@@ -64,10 +188,11 @@ public class MethodsService extends ServiceBase {
 	}
 
 	private Predicate<MethodCall> getSearchTypePredicate( final SearchType aSearchType ) {
-		return method -> {
-			final boolean failedCall = method.getException( ) != null;
-			return aSearchType == SearchType.ALL || aSearchType == SearchType.ONLY_FAILED && failedCall || aSearchType == SearchType.ONLY_SUCCESSFUL && !failedCall;
-		};
+		return method -> isSearchTypeMatching( aSearchType, method.getExceptionId( ) != SymbolTable.NULL_SYMBOL );
+	}
+
+	private static boolean isSearchTypeMatching( final SearchType aSearchType, final boolean aFailedCall ) {
+		return aSearchType == SearchType.ALL || aSearchType == SearchType.ONLY_FAILED && aFailedCall || aSearchType == SearchType.ONLY_SUCCESSFUL && !aFailedCall;
 	}
 
 	/**
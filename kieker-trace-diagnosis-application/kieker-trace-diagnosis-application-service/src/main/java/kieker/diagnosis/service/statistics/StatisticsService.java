@@ -16,13 +16,17 @@
 
 package kieker.diagnosis.service.statistics;
 
+import java.util.LongSummaryStatistics;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import com.google.inject.Singleton;
 
 import kieker.diagnosis.architecture.service.ServiceBase;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.TraceStore;
 import kieker.diagnosis.service.settings.TimestampAppearance;
 import kieker.diagnosis.service.statistics.Statistics.StatisticsBuilder;
 
@@ -59,16 +63,16 @@ public class StatisticsService extends ServiceBase {
 			statisticsBuilder.traces( monitoringLogService.getTraceRoots( ).size( ) );
 			statisticsBuilder.directory( monitoringLogService.getDirectory( ) );
 
-			final long minTimestamp = monitoringLogService.getMethods( )
-					.parallelStream( )
-					.map( MethodCall::getTimestamp )
-					.min( Long::compareTo )
-					.orElse( 0L );
-			final long maxTimestamp = monitoringLogService.getMethods( )
-					.parallelStream( )
-					.map( MethodCall::getTimestamp )
-					.max( Long::compareTo )
-					.orElse( 0L );
+			final LongStream timestamps;
+			final TraceStore traceStore = monitoringLogService.getTraceStore( );
+			if ( traceStore != null ) {
+				timestamps = IntStream.range( 0, traceStore.getSize( ) ).parallel( ).mapToLong( traceStore::getTimestamp );
+			} else {
+				timestamps = monitoringLogService.getMethods( ).parallelStream( ).mapToLong( MethodCall::getTimestamp );
+			}
+			final LongSummaryStatistics timestampStatistics = timestamps.summaryStatistics( );
+			final long minTimestamp = timestampStatistics.getCount( ) > 0 ? timestampStatistics.getMin( ) : 0L;
+			final long maxTimestamp = timestampStatistics.getCount( ) > 0 ? timestampStatistics.getMax( ) : 0L;
 			statisticsBuilder.beginnOfMonitoring( TimestampAppearance.DATE_AND_TIME.convert( minTimestamp ) );
 			statisticsBuilder.endOfMonitoring( TimestampAppearance.DATE_AND_TIME.convert( maxTimestamp ) );
 
@@ -39,6 +39,7 @@ public final class TracesFilter {
 	private SearchType searchType = SearchType.ALL;
 	private boolean useRegExpr;
 	private boolean searchWholeTrace;
+	private boolean groupByShape;
 	private LocalTime lowerTime;
 	private LocalDate upperDate;
 	private LocalTime upperTime;
@@ -17,16 +17,23 @@
 package kieker.diagnosis.service.traces;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Stack;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import com.carrotsearch.hppc.cursors.IntCursor;
 import com.google.inject.Singleton;
 
 import kieker.diagnosis.architecture.service.ServiceBase;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceShape;
+import kieker.diagnosis.service.data.TraceShapeIndex;
+import kieker.diagnosis.service.data.TraceStore;
 import kieker.diagnosis.service.filter.FilterService;
 
 /**
@@ -46,20 +53,26 @@ public class TracesService extends ServiceBase {
 	 * @return A new list containing all available traces matching the filter. Only the root method calls of the traces are returned.
 	 */
 	public List<MethodCall> searchTraces( final TracesFilter aFilter ) {
-		// Prepare the predicates
-		final FilterService filterService = getService( FilterService.class );
+		Predicate<MethodCall> predicate = createPredicate( aFilter );
 
-		final List<Predicate<MethodCall>> predicates = new ArrayList<>( );
-		predicates.add( filterService.getStringPredicate( MethodCall::getHost, aFilter.getHost( ), aFilter.isUseRegExpr( ) ) );
-		predicates.add( filterService.getStringPredicate( MethodCall::getClazz, aFilter.getClazz( ), aFilter.isUseRegExpr( ) ) );
-		predicates.add( filterService.getStringPredicate( MethodCall::getMethod, aFilter.getMethod( ), aFilter.isUseRegExpr( ) ) );
-		predicates.add( filterService.getStringPredicate( MethodCall::getException, aFilter.getException( ), aFilter.isUseRegExpr( ) ) );
-		predicates.add( filterService.getLongPredicate( MethodCall::getTraceId, aFilter.getTraceId( ) ) );
-		predicates.add( getSearchTypePredicate( aFilter.getSearchType( ) ) );
-		predicates.add( filterService.getAfterTimePredicate( MethodCall::getTimestamp, aFilter.getLowerDate( ), aFilter.getLowerTime( ) ) );
-		predicates.add( filterService.getBeforeTimePredicate( MethodCall::getTimestamp, aFilter.getUpperDate( ), aFilter.getUpperTime( ) ) );
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
 
-		Predicate<MethodCall> predicate = filterService.conjunct( predicates );
+		// If only the trace roots are searched, a time window can be resolved with the timestamp index
+		final BitSet candidates = findCandidates( monitoringLogService, aFilter );
+		if ( candidates != null ) {
+			final List<MethodCall> traceRoots = monitoringLogService.getTraceRoots( );
+			return candidates
+					.stream( )
+					.parallel( )
+					.mapToObj( traceRoots::get )
+					.filter( aFilter.isSearchWholeTrace( ) ? recursive( predicate ) : predicate )
+					.collect( Collectors.toList( ) );
+		}
+
+		final TraceStore traceStore = monitoringLogService.getTraceStore( );
+		if ( traceStore != null ) {
+			return searchTraces( traceStore, predicate, aFilter.isSearchWholeTrace( ) );
+		}
 
 		// If we should search the whole trace, we have to apply the predicate recursive
 		if ( aFilter.isSearchWholeTrace( ) ) {
@@ -67,7 +80,6 @@ public class TracesService extends ServiceBase {
 		}
 
 		// Get all trace roots...
-		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
 		final List<MethodCall> traceRoots = monitoringLogService.getTraceRoots( );
 
 		// ...and apply the filter to each of the traces
@@ -77,9 +89,173 @@ public class TracesService extends ServiceBase {
 				.collect( Collectors.toList( ) );
 	}
 
+	/**
+	 * Determines the candidates of the search with the help of the indices of the traces. A trace id is the most selective criterion and is therefore
+	 * answered first by the hash index. As all method calls of a trace share the trace id, this is valid even if the whole trace should be searched. The
+	 * timestamp index, on the other hand, can only be used for the roots.
+	 *
+	 * @return The positions of the candidates within the trace roots or {@code null}, if no index is applicable.
+	 */
+	private BitSet findCandidates( final MonitoringLogService aMonitoringLogService, final TracesFilter aFilter ) {
+		BitSet candidates = null;
+
+		final Long traceId = aFilter.getTraceId( );
+		if ( traceId != null ) {
+			candidates = new BitSet( );
+			for ( final IntCursor cursor : aMonitoringLogService.getTraceIdIndex( ).findTraces( traceId.longValue( ) ) ) {
+				candidates.set( cursor.value );
+			}
+		}
+
+		if ( !aFilter.isSearchWholeTrace( ) ) {
+			final FilterService filterService = getService( FilterService.class );
+			final long lowerTimestamp = filterService.getLowerTimestamp( aFilter.getLowerDate( ), aFilter.getLowerTime( ) );
+			final long upperTimestamp = filterService.getUpperTimestamp( aFilter.getUpperDate( ), aFilter.getUpperTime( ) );
+			if ( lowerTimestamp != Long.MIN_VALUE || upperTimestamp != Long.MAX_VALUE ) {
+				final BitSet timeWindow = aMonitoringLogService.getTraceTimestampIndex( ).findMethodCalls( lowerTimestamp, upperTimestamp );
+				if ( candidates == null ) {
+					candidates = timeWindow;
+				} else {
+					candidates.and( timeWindow );
+				}
+			}
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Searches the traces directly within the store. As the method calls are stored in pre-order, a whole trace can be searched without walking through
+	 * the tree: It ranges from its root to the root of the next trace.
+	 */
+	private List<MethodCall> searchTraces( final TraceStore aTraceStore, final Predicate<MethodCall> aPredicate, final boolean aSearchWholeTrace ) {
+		final int traceRootCount = aTraceStore.getTraceRootCount( );
+
+		return IntStream.range( 0, traceRootCount )
+				.parallel( )
+				.filter( rootIndex -> {
+					final int traceBegin = aTraceStore.getTraceRoot( rootIndex );
+					if ( !aSearchWholeTrace ) {
+						return aPredicate.test( aTraceStore.getMethodCall( traceBegin ) );
+					}
+
+					final int traceEnd = rootIndex + 1 < traceRootCount ? aTraceStore.getTraceRoot( rootIndex + 1 ) : aTraceStore.getSize( );
+					for ( int index = traceBegin; index < traceEnd; index++ ) {
+						if ( aPredicate.test( aTraceStore.getMethodCall( index ) ) ) {
+							return true;
+						}
+					}
+					return false;
+				} )
+				.mapToObj( rootIndex -> aTraceStore.getMethodCall( aTraceStore.getTraceRoot( rootIndex ) ) )
+				.collect( Collectors.toList( ) );
+	}
+
+	/**
+	 * This method searches, based on the given filter, for groups of structurally identical traces within the imported monitoring log. The groups are
+	 * calculated during the import. If the filter contains only criteria, which are the same for all traces of a group (host, class, and method), the
+	 * precalculated groups are used directly. Otherwise the groups are reduced to the matching traces.
+	 *
+	 * @param aFilter
+	 *            The filter to apply to the traces.
+	 *
+	 * @return A new list containing the groups with at least one trace matching the filter.
+	 */
+	public List<TraceShape> searchTraceShapes( final TracesFilter aFilter ) {
+		Predicate<MethodCall> predicate = createPredicate( aFilter );
+		if ( aFilter.isSearchWholeTrace( ) ) {
+			predicate = recursive( predicate );
+		}
+		final Predicate<MethodCall> tracePredicate = predicate;
+
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		final List<MethodCall> traceRoots = monitoringLogService.getTraceRoots( );
+		final TraceShapeIndex traceShapeIndex = monitoringLogService.getTraceShapeIndex( );
+		final List<TraceShape> shapes = traceShapeIndex.getShapes( );
+
+		if ( isStructuralFilter( aFilter ) ) {
+			// All traces of a shape have the same structure. It is therefore enough to check the first trace of each shape.
+			return shapes
+					.parallelStream( )
+					.filter( shape -> tracePredicate.test( traceRoots.get( shape.getFirstTraceIndex( ) ) ) )
+					.collect( Collectors.toList( ) );
+		}
+
+		return shapes
+				.parallelStream( )
+				.map( shape -> {
+					final TraceShape matchingShape = new TraceShape( shape.getShapeHash( ), traceShapeIndex.getHistogramPrecision( ) );
+					for ( final int traceIndex : shape.getTraceIndices( ) ) {
+						final MethodCall traceRoot = traceRoots.get( traceIndex );
+						if ( tracePredicate.test( traceRoot ) ) {
+							matchingShape.addTrace( traceIndex, traceRoot.getDuration( ) );
+						}
+					}
+					return matchingShape;
+				} )
+				.filter( shape -> shape.getCount( ) > 0 )
+				.collect( Collectors.toList( ) );
+	}
+
+	private boolean isStructuralFilter( final TracesFilter aFilter ) {
+		return aFilter.getException( ) == null && aFilter.getTraceId( ) == null && aFilter.getSearchType( ) == SearchType.ALL && aFilter.getLowerDate( ) == null
+				&& aFilter.getLowerTime( ) == null && aFilter.getUpperDate( ) == null && aFilter.getUpperTime( ) == null;
+	}
+
+	/**
+	 * Delivers the first trace of the given group, which represents the structure of all traces within the group.
+	 *
+	 * @param aTraceShape
+	 *            The group of traces.
+	 *
+	 * @return The root of the first trace.
+	 */
+	public MethodCall getRepresentativeTrace( final TraceShape aTraceShape ) {
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		return monitoringLogService.getTraceRoots( ).get( aTraceShape.getFirstTraceIndex( ) );
+	}
+
+	/**
+	 * Delivers all traces of the given group.
+	 *
+	 * @param aTraceShape
+	 *            The group of traces.
+	 *
+	 * @return A new list containing the roots of the traces.
+	 */
+	public List<MethodCall> getTraces( final TraceShape aTraceShape ) {
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		final List<MethodCall> traceRoots = monitoringLogService.getTraceRoots( );
+
+		return IntStream.of( aTraceShape.getTraceIndices( ) )
+				.mapToObj( traceRoots::get )
+				.collect( Collectors.toList( ) );
+	}
+
+	private Predicate<MethodCall> createPredicate( final TracesFilter aFilter ) {
+		final FilterService filterService = getService( FilterService.class );
+		final SymbolTable symbolTable = getService( MonitoringLogService.class ).getSymbolTable( );
+
+		final List<Predicate<MethodCall>> predicates = new ArrayList<>( );
+		predicates.add( filterService.getSymbolPredicate( symbolTable, MethodCall::getHostId, aFilter.getHost( ),
+				aFilter.isUseRegExpr( ) ) );
+		predicates.add( filterService.getSymbolPredicate( symbolTable, MethodCall::getClazzId, aFilter.getClazz( ),
+				aFilter.isUseRegExpr( ) ) );
+		predicates.add( filterService.getSymbolPredicate( symbolTable, MethodCall::getMethodId, aFilter.getMethod( ),
+				aFilter.isUseRegExpr( ) ) );
+		predicates.add( filterService.getSymbolPredicate( symbolTable, MethodCall::getExceptionId, aFilter.getException( ),
+				aFilter.isUseRegExpr( ) ) );
+		predicates.add( filterService.getLongPredicate( MethodCall::getTraceId, aFilter.getTraceId( ) ) );
+		predicates.add( getSearchTypePredicate( aFilter.getSearchType( ) ) );
+		predicates.add( filterService.getAfterTimePredicate( MethodCall::getTimestamp, aFilter.getLowerDate( ), aFilter.getLowerTime( ) ) );
+		predicates.add( filterService.getBeforeTimePredicate( MethodCall::getTimestamp, aFilter.getUpperDate( ), aFilter.getUpperTime( ) ) );
+
+		return filterService.conjunct( predicates );
+	}
+
 	private Predicate<MethodCall> getSearchTypePredicate( final SearchType aSearchType ) {
 		return method -> {
-			final boolean failedCall = method.getException( ) != null;
+			final boolean failedCall = method.getExceptionId( ) != SymbolTable.NULL_SYMBOL;
 			return aSearchType == SearchType.ALL || aSearchType == SearchType.ONLY_FAILED && failedCall || aSearchType == SearchType.ONLY_SUCCESSFUL && !failedCall;
 		};
 	}
@@ -116,4 +292,14 @@ public class TracesService extends ServiceBase {
 		return monitoringLogService.getTraceRoots( ).size( );
 	}
 
+	/**
+	 * This method counts the number of all groups of structurally identical traces within the imported monitoring log.
+	 *
+	 * @return The number of all groups.
+	 */
+	public int countTraceShapes( ) {
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		return monitoringLogService.getTraceShapeIndex( ).size( );
+	}
+
 }
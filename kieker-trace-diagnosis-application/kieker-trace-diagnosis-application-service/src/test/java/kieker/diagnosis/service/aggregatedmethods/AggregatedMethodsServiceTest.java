@@ -16,9 +16,13 @@
 
 package kieker.diagnosis.service.aggregatedmethods;
 
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -27,7 +31,11 @@ import com.google.inject.Injector;
 
 import kieker.diagnosis.service.KiekerTraceDiagnosisServiceModule;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.MethodTimeSeries;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TimeBucket;
 
 /**
  * Test class for the {@link AggregatedMethodsService}.
@@ -119,14 +127,70 @@ public class AggregatedMethodsServiceTest {
 		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 1 ) );
 	}
 
-	private void createMethodCall( final String aHost, final String aClazz, final String aMethod, final String aException ) {
+	@Test
+	public void testTimeWindowAggregation( ) {
+		final AggregatedMethodCall methodCall = createMethodCall( "host1", "class1", "op1", null );
+
+		final List<TimeBucket> buckets = new ArrayList<>( );
+		for ( long minute = 0; minute < 60; minute++ ) {
+			// The method degrades after 40 minutes
+			final TimeBucket bucket = new TimeBucket( minute * 60000L, DurationHistogram.DEFAULT_PRECISION );
+			bucket.record( minute < 40 ? 100L : 1000L );
+			buckets.add( bucket );
+		}
+		methodCall.setTimeSeries( new MethodTimeSeries( 60000L, buckets ) );
+
+		assertThat( ivMethodsService.getTimeSeries( methodCall ), hasSize( 60 ) );
+
+		final AggregatedMethodCall beforeDegradation = ivMethodsService.aggregateTimeWindow( methodCall, 0L, 40 * 60000L );
+		assertThat( beforeDegradation.getCount( ), is( 40 ) );
+		assertThat( beforeDegradation.getMaxDuration( ), is( 100L ) );
+		assertThat( ivDataService.getSymbolTable( ).resolve( beforeDegradation.getClazzId( ) ), is( "class1" ) );
+
+		final AggregatedMethodCall afterDegradation = ivMethodsService.aggregateTimeWindow( methodCall, 40 * 60000L, 60 * 60000L );
+		assertThat( afterDegradation.getCount( ), is( 20 ) );
+		assertThat( afterDegradation.getMinDuration( ), is( 1000L ) );
+		assertThat( afterDegradation.getAvgDuration( ), is( 1000L ) );
+		assertThat( afterDegradation.getMedianDuration( ), is( 1000L ) );
+
+		// Without time series, the window is empty
+		final AggregatedMethodCall otherMethodCall = createMethodCall( "host1", "class2", "op1", null );
+		assertThat( ivMethodsService.getTimeSeries( otherMethodCall ), hasSize( 0 ) );
+		assertThat( ivMethodsService.aggregateTimeWindow( otherMethodCall, 0L, 60000L ).getCount( ), is( 0 ) );
+	}
+
+	@Test
+	public void testHotMethods( ) {
+		createMethodCall( "host1", "class1", "op1", null ).setSelfDurations( 100L, 10L );
+		createMethodCall( "host1", "class1", "op2", null ).setSelfDurations( 300L, 30L );
+		createMethodCall( "host1", "class2", "op3", null ).setSelfDurations( 200L, 20L );
+		createMethodCall( "host1", "class2", "op4", "cause1" ).setSelfDurations( 400L, 40L );
+
+		final AggregatedMethodsFilter methodsFilter = new AggregatedMethodsFilter( );
+		final List<AggregatedMethodCall> hotMethods = ivMethodsService.searchHotMethods( methodsFilter, 3 );
+		assertThat( hotMethods, hasSize( 3 ) );
+		assertThat( ivDataService.getSymbolTable( ).resolve( hotMethods.get( 0 ).getMethodId( ) ), is( "op4" ) );
+		assertThat( ivDataService.getSymbolTable( ).resolve( hotMethods.get( 1 ).getMethodId( ) ), is( "op2" ) );
+		assertThat( ivDataService.getSymbolTable( ).resolve( hotMethods.get( 2 ).getMethodId( ) ), is( "op3" ) );
+
+		// The filter is applied before the limit
+		methodsFilter.setSearchType( SearchType.ONLY_SUCCESSFUL );
+		methodsFilter.setClazz( "class1" );
+		final List<AggregatedMethodCall> filteredHotMethods = ivMethodsService.searchHotMethods( methodsFilter, 3 );
+		assertThat( filteredHotMethods, hasSize( 2 ) );
+		assertThat( ivDataService.getSymbolTable( ).resolve( filteredHotMethods.get( 0 ).getMethodId( ) ), is( "op2" ) );
+	}
+
+	private AggregatedMethodCall createMethodCall( final String aHost, final String aClazz, final String aMethod, final String aException ) {
+		final SymbolTable symbolTable = ivDataService.getSymbolTable( );
 		final AggregatedMethodCall methodCall = new AggregatedMethodCall( );
-		methodCall.setHost( aHost );
-		methodCall.setClazz( aClazz );
-		methodCall.setMethod( aMethod );
-		methodCall.setException( aException );
+		methodCall.setHostId( symbolTable.intern( aHost ) );
+		methodCall.setClazzId( symbolTable.intern( aClazz ) );
+		methodCall.setMethodId( symbolTable.intern( aMethod ) );
+		methodCall.setExceptionId( symbolTable.intern( aException ) );
 
 		ivDataService.getAggreatedMethods( ).add( methodCall );
+		return methodCall;
 	}
 
 }
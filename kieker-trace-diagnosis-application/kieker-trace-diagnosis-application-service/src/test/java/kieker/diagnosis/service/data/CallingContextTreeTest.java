@@ -0,0 +1,91 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+
+/**
+ * Test class for the {@link CallingContextTree}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class CallingContextTreeTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testCallingContextTree( ) throws Exception {
+		// The method save is called from two different callers. One of the calls fails.
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		for ( long traceId = 0; traceId < 4; traceId++ ) {
+			final String caller = traceId < 2 ? "op1" : "op2";
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId * 100, traceId, 0, caller, "class1" ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId * 100 + 10, traceId, 1, "save", "class2" ) );
+			if ( traceId == 3 ) {
+				writer.writeRecord( new AfterOperationFailedEvent( traceId * 100 + 30, traceId, 2, "save", "class2", "cause" ) );
+			} else {
+				writer.writeRecord( new AfterOperationEvent( traceId * 100 + 30, traceId, 2, "save", "class2" ) );
+			}
+			writer.writeRecord( new AfterOperationEvent( traceId * 100 + 50, traceId, 3, caller, "class1" ) );
+		}
+		writer.writeMappingFile( );
+		writer.finishWriting( );
+
+		// The tree has to be available, even if the traces are moved into a compact storage
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "ARRAY" );
+		final CallingContextTree tree = service.getCallingContextTree( );
+		assertThat( tree.getSize( ), is( 4 ) );
+
+		final List<CallingContextNode> roots = tree.getRoots( );
+		assertThat( roots, hasSize( 2 ) );
+		assertThat( roots.get( 0 ).getMethod( ), is( "op1" ) );
+		assertThat( roots.get( 0 ).getCount( ), is( 2L ) );
+		assertThat( roots.get( 0 ).getTotalDuration( ), is( 100L ) );
+		assertThat( roots.get( 0 ).getSelfDuration( ), is( 60L ) );
+		assertThat( roots.get( 1 ).getMethod( ), is( "op2" ) );
+
+		// The same method has a separate node for each calling context
+		final CallingContextNode firstSave = roots.get( 0 ).getChildren( ).get( 0 );
+		final CallingContextNode secondSave = roots.get( 1 ).getChildren( ).get( 0 );
+		assertThat( firstSave.getMethod( ), is( "save" ) );
+		assertThat( firstSave.getClazz( ), is( "class2" ) );
+		assertThat( firstSave.getParent( ), is( roots.get( 0 ) ) );
+		assertThat( firstSave.hasChildren( ), is( false ) );
+		assertThat( firstSave.getCount( ), is( 2L ) );
+		assertThat( firstSave.getSelfDuration( ), is( 40L ) );
+		assertThat( firstSave.getFailedCount( ), is( 0L ) );
+		assertThat( secondSave.getMethod( ), is( "save" ) );
+		assertThat( secondSave.getFailedCount( ), is( 1L ) );
+		assertThat( secondSave.getDurationAtPercentile( 50.0 ), is( 20L ) );
+	}
+
+}
@@ -0,0 +1,86 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.number.OrderingComparison.greaterThanOrEqualTo;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test class for the {@link DurationHistogram}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class DurationHistogramTest {
+
+	@Test
+	public void testSmallDurationsAreExact( ) {
+		final DurationHistogram histogram = new DurationHistogram( 7 );
+		for ( long duration = 1; duration <= 100; duration++ ) {
+			histogram.record( duration );
+		}
+
+		assertThat( histogram.getTotalCount( ), is( 100L ) );
+		assertThat( histogram.getValueAtPercentile( 0.0 ), is( 1L ) );
+		assertThat( histogram.getValueAtPercentile( 50.0 ), is( 50L ) );
+		assertThat( histogram.getValueAtPercentile( 90.0 ), is( 90L ) );
+		assertThat( histogram.getValueAtPercentile( 99.9 ), is( 100L ) );
+		assertThat( histogram.getValueAtPercentile( 100.0 ), is( 100L ) );
+	}
+
+	@Test
+	public void testLargeDurationsStayWithinRelativeError( ) {
+		final DurationHistogram histogram = new DurationHistogram( 7 );
+		for ( long duration = 1; duration <= 10000; duration++ ) {
+			histogram.record( duration * 1_000_000L );
+		}
+
+		final long p99 = histogram.getValueAtPercentile( 99.0 );
+		assertThat( p99, is( greaterThanOrEqualTo( 9_900_000_000L ) ) );
+		assertThat( p99, is( lessThanOrEqualTo( 9_900_000_000L + 9_900_000_000L / 128 ) ) );
+		assertThat( histogram.getValueAtPercentile( 100.0 ), is( 10_000_000_000L ) );
+	}
+
+	@Test
+	public void testMergedHistogramEqualsSingleHistogram( ) {
+		final DurationHistogram singleHistogram = new DurationHistogram( 5 );
+		final DurationHistogram firstHistogram = new DurationHistogram( 5 );
+		final DurationHistogram secondHistogram = new DurationHistogram( 5 );
+		for ( long duration = 0; duration < 5000; duration++ ) {
+			final long value = ( duration * 7919 ) % 100_000;
+			singleHistogram.record( value );
+			( duration % 2 == 0 ? firstHistogram : secondHistogram ).record( value );
+		}
+
+		firstHistogram.merge( secondHistogram );
+
+		assertThat( firstHistogram.getTotalCount( ), is( singleHistogram.getTotalCount( ) ) );
+		for ( final double percentile : new double[] { 1.0, 25.0, 50.0, 90.0, 95.0, 99.0, 99.9 } ) {
+			assertThat( firstHistogram.getValueAtPercentile( percentile ), is( singleHistogram.getValueAtPercentile( percentile ) ) );
+		}
+	}
+
+	@Test( expected = IllegalArgumentException.class )
+	public void testMergeWithDifferentPrecisionFails( ) {
+		new DurationHistogram( 5 ).merge( new DurationHistogram( 7 ) );
+	}
+
+}
@@ -0,0 +1,89 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import java.io.File;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import kieker.diagnosis.service.KiekerTraceDiagnosisServiceModule;
+
+/**
+ * A helper for the tests, which imports monitoring logs with fresh services. The system properties are cached by the injector, which is why each service
+ * is created by a new injector.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class MonitoringLogImporter {
+
+	private MonitoringLogImporter( ) {
+	}
+
+	/**
+	 * Creates a new service with a new injector. The other services (for instance for the search) are found via the last created injector.
+	 *
+	 * @return The new service.
+	 */
+	public static MonitoringLogService createService( ) {
+		final Injector injector = Guice.createInjector( new KiekerTraceDiagnosisServiceModule( ) );
+		return injector.getInstance( MonitoringLogService.class );
+	}
+
+	/**
+	 * Imports the given directory with a new service.
+	 *
+	 * @param aDirectory
+	 *                          The directory containing the monitoring log.
+	 * @param aSystemProperties
+	 *                          Pairs of keys and values of system properties, which are set during the import.
+	 *
+	 * @return The new service.
+	 */
+	public static MonitoringLogService importDirectory( final File aDirectory, final String... aSystemProperties ) {
+		return importDirectory( aDirectory, new ImportProgress( ), aSystemProperties );
+	}
+
+	/**
+	 * Imports the given directory with a new service.
+	 *
+	 * @param aDirectory
+	 *                          The directory containing the monitoring log.
+	 * @param aImportProgress
+	 *                          The progress of the import.
+	 * @param aSystemProperties
+	 *                          Pairs of keys and values of system properties, which are set during the import.
+	 *
+	 * @return The new service.
+	 */
+	public static MonitoringLogService importDirectory( final File aDirectory, final ImportProgress aImportProgress, final String... aSystemProperties ) {
+		for ( int index = 0; index < aSystemProperties.length; index += 2 ) {
+			System.setProperty( aSystemProperties[index], aSystemProperties[index + 1] );
+		}
+
+		try {
+			final MonitoringLogService service = createService( );
+			service.importMonitoringLog( aDirectory, ImportType.DIRECTORY, aImportProgress );
+			return service;
+		} finally {
+			for ( int index = 0; index < aSystemProperties.length; index += 2 ) {
+				System.clearProperty( aSystemProperties[index] );
+			}
+		}
+	}
+
+}
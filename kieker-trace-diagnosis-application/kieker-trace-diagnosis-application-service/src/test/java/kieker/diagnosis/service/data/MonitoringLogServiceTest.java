@@ -18,7 +18,9 @@ package kieker.diagnosis.service.data;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.hamcrest.number.IsCloseTo.closeTo;
 import static org.hamcrest.number.OrderingComparison.greaterThan;
 import static org.junit.Assert.assertThat;
@@ -29,6 +31,7 @@ import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
@@ -190,6 +193,59 @@ public class MonitoringLogServiceTest {
 		assertThat( ivService.getProcessedBytes( ), is( greaterThan( 0L ) ) );
 	}
 
+	@Test
+	public void testMethodAggregationBySymbols( ) throws Exception {
+		// Prepare the data. The failed method call must not be aggregated with the successful one.
+		writeRecord( new TraceMetadata( 1L, 0L, "0", "host", 0L, 0 ) );
+		writeRecord( new BeforeOperationEvent( 1, 1L, 0, "op1", "class1" ) );
+		writeRecord( new AfterOperationEvent( 2, 1L, 0, "op1", "class1" ) );
+		writeRecord( new TraceMetadata( 2L, 0L, "0", "host", 0L, 0 ) );
+		writeRecord( new BeforeOperationEvent( 1, 2L, 0, "op1", "class1" ) );
+		writeRecord( new AfterOperationFailedEvent( 3, 2L, 0, "op1", "class1", "cause" ) );
+		writeMappingFile( );
+		finishWriting( );
+
+		// Import the directory
+		final File directory = ivTemporaryFolder.getRoot( );
+		ivService.importMonitoringLog( directory, ImportType.DIRECTORY );
+
+		// Make sure that the import worked as intended
+		final List<MethodCall> methods = ivService.getMethods( );
+		assertThat( methods, hasSize( 2 ) );
+		assertThat( methods.get( 0 ).getClazzId( ), is( methods.get( 1 ).getClazzId( ) ) );
+		assertThat( methods.get( 0 ).getMethodId( ), is( methods.get( 1 ).getMethodId( ) ) );
+		assertThat( methods.get( 0 ).getHostId( ), is( ivService.getSymbolTable( ).intern( "host" ) ) );
+
+		final List<AggregatedMethodCall> aggreatedMethods = ivService.getAggreatedMethods( );
+		assertThat( aggreatedMethods, hasSize( 2 ) );
+		assertThat( aggreatedMethods.get( 0 ).getCount( ), is( 1 ) );
+		assertThat( aggreatedMethods.get( 1 ).getCount( ), is( 1 ) );
+		assertThat( aggreatedMethods.get( 0 ).getClazzId( ), is( ivService.getSymbolTable( ).intern( "class1" ) ) );
+		assertThat( ivService.getSymbolTable( ).resolve( SymbolTable.NULL_SYMBOL ), is( nullValue( ) ) );
+	}
+
+	@Test
+	public void testSymbolTableIsReplacedByNextImport( ) throws Exception {
+		// Prepare the data
+		writeRecord( new TraceMetadata( 1L, 0L, "0", "host", 0L, 0 ) );
+		writeRecord( new BeforeOperationEvent( 1, 1L, 0, "op1", "class1" ) );
+		writeRecord( new AfterOperationFailedEvent( 2, 1L, 0, "op1", "class1", "cause" ) );
+		writeMappingFile( );
+		finishWriting( );
+
+		// Import the directory twice
+		final File directory = ivTemporaryFolder.getRoot( );
+		ivService.importMonitoringLog( directory, ImportType.DIRECTORY );
+		final SymbolTable firstSymbolTable = ivService.getSymbolTable( );
+		final MethodCall firstMethodCall = ivService.getMethods( ).get( 0 );
+		ivService.importMonitoringLog( directory, ImportType.DIRECTORY );
+
+		// Make sure that each import has its own symbols, while the method calls of the previous import can still be resolved with the previous table
+		assertThat( ivService.getSymbolTable( ), is( not( sameInstance( firstSymbolTable ) ) ) );
+		assertThat( ivService.getSymbolTable( ).resolve( ivService.getMethods( ).get( 0 ).getExceptionId( ) ), is( "cause" ) );
+		assertThat( firstSymbolTable.resolve( firstMethodCall.getExceptionId( ) ), is( "cause" ) );
+	}
+
 	@Test
 	public void testMethodAggregationValues1( ) throws Exception {
 		// Prepare the data
@@ -218,9 +274,9 @@ public class MonitoringLogServiceTest {
 
 		final AggregatedMethodCall aggregatedMethodCall = aggreatedMethods.get( 0 );
 		assertThat( aggregatedMethodCall.getCount( ), is( 3 ) );
-		assertThat( aggregatedMethodCall.getHost( ), is( "host" ) );
-		assertThat( aggregatedMethodCall.getClazz( ), is( "class1" ) );
-		assertThat( aggregatedMethodCall.getMethod( ), is( "op1" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( aggregatedMethodCall.getHostId( ) ), is( "host" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( aggregatedMethodCall.getClazzId( ) ), is( "class1" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( aggregatedMethodCall.getMethodId( ) ), is( "op1" ) );
 		assertThat( aggregatedMethodCall.getMinDuration( ), is( 1L ) );
 		assertThat( aggregatedMethodCall.getMaxDuration( ), is( 9L ) );
 		assertThat( aggregatedMethodCall.getAvgDuration( ), is( 4L ) );
@@ -260,9 +316,9 @@ public class MonitoringLogServiceTest {
 
 		final AggregatedMethodCall aggregatedMethodCall = aggreatedMethods.get( 0 );
 		assertThat( aggregatedMethodCall.getCount( ), is( 4 ) );
-		assertThat( aggregatedMethodCall.getHost( ), is( "host" ) );
-		assertThat( aggregatedMethodCall.getClazz( ), is( "class1" ) );
-		assertThat( aggregatedMethodCall.getMethod( ), is( "op1" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( aggregatedMethodCall.getHostId( ) ), is( "host" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( aggregatedMethodCall.getClazzId( ) ), is( "class1" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( aggregatedMethodCall.getMethodId( ) ), is( "op1" ) );
 		assertThat( aggregatedMethodCall.getMinDuration( ), is( 1L ) );
 		assertThat( aggregatedMethodCall.getMaxDuration( ), is( 20L ) );
 		assertThat( aggregatedMethodCall.getAvgDuration( ), is( 8L ) );
@@ -430,10 +486,10 @@ public class MonitoringLogServiceTest {
 
 		// Now some advanced checks
 		final MethodCall firstMethod = ivService.getMethods( ).get( 0 );
-		assertThat( firstMethod.getHost( ), is( "host" ) );
-		assertThat( firstMethod.getClazz( ), is( "class1" ) );
-		assertThat( firstMethod.getMethod( ), is( "op1" ) );
-		assertThat( firstMethod.getException( ), is( "cause" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( firstMethod.getHostId( ) ), is( "host" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( firstMethod.getClazzId( ) ), is( "class1" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( firstMethod.getMethodId( ) ), is( "op1" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( firstMethod.getExceptionId( ) ), is( "cause" ) );
 		assertThat( firstMethod.getTimestamp( ), is( 1L ) );
 		assertThat( firstMethod.getDuration( ), is( 3000000L ) );
 		assertThat( ( double ) firstMethod.getPercent( ), is( closeTo( 100.0, 0.01 ) ) );
@@ -442,10 +498,10 @@ public class MonitoringLogServiceTest {
 		assertThat( firstMethod.getTraceSize( ), is( 2 ) );
 
 		final MethodCall secondMethod = ivService.getMethods( ).get( 1 );
-		assertThat( secondMethod.getHost( ), is( "host" ) );
-		assertThat( secondMethod.getClazz( ), is( "class2" ) );
-		assertThat( secondMethod.getMethod( ), is( "op2" ) );
-		assertThat( secondMethod.getException( ), is( nullValue( ) ) );
+		assertThat( ivService.getSymbolTable( ).resolve( secondMethod.getHostId( ) ), is( "host" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( secondMethod.getClazzId( ) ), is( "class2" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( secondMethod.getMethodId( ) ), is( "op2" ) );
+		assertThat( ivService.getSymbolTable( ).resolve( secondMethod.getExceptionId( ) ), is( nullValue( ) ) );
 		assertThat( secondMethod.getTimestamp( ), is( 2L ) );
 		assertThat( secondMethod.getDuration( ), is( 500000L ) );
 		assertThat( ( double ) secondMethod.getPercent( ), is( closeTo( 16.66, 0.01 ) ) );
@@ -456,6 +512,117 @@ public class MonitoringLogServiceTest {
 		assertThat( ivService.getTraceRoots( ).get( 0 ), is( firstMethod ) );
 	}
 
+	@Test
+	public void testSelfDurations( ) throws Exception {
+		// The method op1 calls save twice. The second call of save calls flush.
+		writeRecord( new TraceMetadata( 1L, 0L, "0", "host", 0L, 0 ) );
+		writeRecord( new BeforeOperationEvent( 0, 1L, 0, "op1", "class1" ) );
+		writeRecord( new BeforeOperationEvent( 10, 1L, 1, "save", "class2" ) );
+		writeRecord( new AfterOperationEvent( 20, 1L, 2, "save", "class2" ) );
+		writeRecord( new BeforeOperationEvent( 30, 1L, 3, "save", "class2" ) );
+		writeRecord( new BeforeOperationEvent( 35, 1L, 4, "flush", "class3" ) );
+		writeRecord( new AfterOperationEvent( 55, 1L, 5, "flush", "class3" ) );
+		writeRecord( new AfterOperationEvent( 60, 1L, 6, "save", "class2" ) );
+		writeRecord( new AfterOperationEvent( 100, 1L, 7, "op1", "class1" ) );
+		writeMappingFile( );
+		finishWriting( );
+
+		// The self durations have to be available, even if the traces are moved into a compact storage
+		final MonitoringLogService service = importWithSystemProperty( "traceStorage", "ARRAY" );
+		final MethodCall root = service.getTraceRoots( ).get( 0 );
+		assertThat( root.getSelfDuration( ), is( 60L ) );
+		assertThat( root.getChildren( ).get( 0 ).getSelfDuration( ), is( 10L ) );
+		assertThat( root.getChildren( ).get( 1 ).getSelfDuration( ), is( 10L ) );
+		assertThat( root.getChildren( ).get( 1 ).getChildren( ).get( 0 ).getSelfDuration( ), is( 20L ) );
+
+		final List<AggregatedMethodCall> aggregatedMethods = service.getAggreatedMethods( );
+		assertThat( aggregatedMethods, hasSize( 3 ) );
+
+		final int saveId = service.getSymbolTable( ).intern( "save" );
+		final AggregatedMethodCall save = aggregatedMethods.stream( ).filter( method -> method.getMethodId( ) == saveId ).findFirst( ).get( );
+		assertThat( save.getTotalDuration( ), is( 40L ) );
+		assertThat( save.getTotalSelfDuration( ), is( 20L ) );
+		assertThat( save.getAvgSelfDuration( ), is( 10L ) );
+		assertThat( save.getMaxSelfDuration( ), is( 10L ) );
+		assertThat( save.getSelfDurationShare( ), is( 50.0f ) );
+	}
+
+	@Test
+	public void testImportProgress( ) throws Exception {
+		writeTracesForReadModeTests( );
+
+		final ImportProgress importProgress = new ImportProgress( );
+		ivService.importMonitoringLog( ivTemporaryFolder.getRoot( ), ImportType.DIRECTORY, importProgress );
+
+		// All bytes of the binary file should have been reported
+		assertThat( importProgress.getTotalBytes( ), is( ( long ) ivByteList.size( ) ) );
+		assertThat( importProgress.getProcessedBytes( ), is( ( long ) ivByteList.size( ) ) );
+		assertThat( importProgress.getProgress( ), is( 1.0 ) );
+		assertThat( importProgress.getEstimatedRemainingSeconds( ), is( 0L ) );
+		assertReadModeTestResult( );
+	}
+
+	@Test
+	public void testCancelledImport( ) throws Exception {
+		writeTracesForReadModeTests( );
+
+		final ImportProgress importProgress = new ImportProgress( );
+		importProgress.cancel( );
+
+		try {
+			ivService.importMonitoringLog( ivTemporaryFolder.getRoot( ), ImportType.DIRECTORY, importProgress );
+		} catch ( final CancellationException ex ) {
+			// Expected
+		}
+
+		// A cancelled import should not leave partial data
+		assertThat( ivService.isDataAvailable( ), is( false ) );
+		assertThat( ivService.getTraceRoots( ), hasSize( 0 ) );
+
+		ivExpectedException.expect( CancellationException.class );
+		ivService.importMonitoringLog( ivTemporaryFolder.getRoot( ), ImportType.DIRECTORY, importProgress );
+	}
+
+	private MonitoringLogService importWithSystemProperty( final String aKey, final String aValue ) {
+		System.setProperty( aKey, aValue );
+		try {
+			// We need a new injector, as the system properties are cached
+			final Injector injector = Guice.createInjector( new KiekerTraceDiagnosisServiceModule( ) );
+			final MonitoringLogService service = injector.getInstance( MonitoringLogService.class );
+			service.importMonitoringLog( ivTemporaryFolder.getRoot( ), ImportType.DIRECTORY );
+			return service;
+		} finally {
+			System.clearProperty( aKey );
+		}
+	}
+
+	private void writeTracesForReadModeTests( ) throws IOException {
+		for ( long traceId = 1; traceId <= 500; traceId++ ) {
+			writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+			writeRecord( new BeforeOperationEvent( 2000000L, traceId, 1, "op2", "class1" ) );
+			writeRecord( new AfterOperationEvent( 3000000L, traceId, 2, "op2", "class1" ) );
+			writeRecord( new AfterOperationFailedEvent( 5000000L, traceId, 3, "op1", "class1", "exception" ) );
+		}
+		writeMappingFile( );
+		finishWriting( );
+	}
+
+	private void assertReadModeTestResult( ) {
+		assertThat( ivService.getTraceRoots( ), hasSize( 500 ) );
+		assertThat( ivService.getMethods( ), hasSize( 1000 ) );
+		assertThat( ivService.getAggreatedMethods( ), hasSize( 2 ) );
+		assertThat( ivService.getDanglingRecords( ), is( 0 ) );
+		assertThat( ivService.getIncompleteTraces( ), is( 0 ) );
+		assertThat( ivService.getProcessedBytes( ), is( ( long ) ivByteList.size( ) ) );
+
+		final MethodCall lastRoot = ivService.getTraceRoots( ).get( 499 );
+		assertThat( lastRoot.getTraceId( ), is( 500L ) );
+		assertThat( ivService.getSymbolTable( ).resolve( lastRoot.getExceptionId( ) ), is( "exception" ) );
+		assertThat( lastRoot.getDuration( ), is( 4000000L ) );
+		assertThat( ivService.getSymbolTable( ).resolve( lastRoot.getChildren( ).get( 0 ).getMethodId( ) ), is( "op2" ) );
+	}
+
 	@SuppressWarnings( "deprecation" )
 	private void writeRecord( final AbstractMonitoringRecord aRecord ) {
 		// Register the record name
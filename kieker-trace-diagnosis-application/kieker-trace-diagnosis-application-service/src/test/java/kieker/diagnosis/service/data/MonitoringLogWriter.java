@@ -0,0 +1,237 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import com.carrotsearch.hppc.ByteArrayList;
+import com.google.common.io.Files;
+
+import kieker.common.record.AbstractMonitoringRecord;
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.common.record.io.DefaultValueSerializer;
+import kieker.common.record.io.IValueSerializer;
+import kieker.common.util.registry.IRegistry;
+import kieker.common.util.registry.Registry;
+
+/**
+ * A helper for the tests, which writes a monitoring log in the binary format of Kieker. The records are collected in memory and written into the binary
+ * file once the writing is finished.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class MonitoringLogWriter {
+
+	private final File ivDirectory;
+	private final IRegistry<String> ivStringRegistry = new Registry<>( );
+	private ByteArrayList ivByteList = new ByteArrayList( );
+
+	/**
+	 * Creates a new writer.
+	 *
+	 * @param aDirectory
+	 *                   The directory into which the monitoring log is written.
+	 */
+	public MonitoringLogWriter( final File aDirectory ) {
+		ivDirectory = aDirectory;
+	}
+
+	@SuppressWarnings( "deprecation" )
+	public void writeRecord( final AbstractMonitoringRecord aRecord ) {
+		// Register the record name
+		final int recordKey = ivStringRegistry.get( aRecord.getClass( ).getName( ) );
+
+		// Register the record's strings
+		aRecord.registerStrings( ivStringRegistry );
+
+		// Now write the record into our buffer
+		final byte[] byteArray = new byte[aRecord.getSize( ) + 4 + 8];
+		final ByteBuffer byteBuffer = ByteBuffer.wrap( byteArray );
+		byteBuffer.putInt( recordKey );
+		byteBuffer.putLong( System.currentTimeMillis( ) );
+		aRecord.serialize( DefaultValueSerializer.create( byteBuffer, ivStringRegistry ) );
+		byteBuffer.flip( );
+
+		ivByteList.add( byteArray );
+	}
+
+	/**
+	 * Removes the records written so far. The registered strings are kept, which means that the records of several binary files can share one mapping
+	 * file.
+	 */
+	public void clearRecords( ) {
+		ivByteList = new ByteArrayList( );
+	}
+
+	/**
+	 * Delivers the number of bytes of the records written so far.
+	 *
+	 * @return The number of bytes.
+	 */
+	public int getSize( ) {
+		return ivByteList.size( );
+	}
+
+	/**
+	 * Delivers the records written so far in the binary format.
+	 *
+	 * @return A new array containing the records.
+	 */
+	public byte[] getBytes( ) {
+		return ivByteList.toArray( );
+	}
+
+	public IRegistry<String> getStringRegistry( ) {
+		return ivStringRegistry;
+	}
+
+	public void writeMappingFile( ) throws IOException {
+		writeMappingFile( ivDirectory );
+	}
+
+	public void writeMappingFile( final File aDirectory ) throws IOException {
+		// Collect the mappings
+		final StringBuilder stringBuilder = new StringBuilder( );
+
+		final Object[] allStrings = ivStringRegistry.getAll( );
+		for ( final Object string : allStrings ) {
+			final int id = ivStringRegistry.get( ( String ) string );
+			stringBuilder.append( "$" ).append( id ).append( "=" ).append( string ).append( "\n" );
+		}
+
+		// Write the mapping file
+		final File mappingFile = new File( aDirectory, "kieker.map" );
+		Files.asCharSink( mappingFile, Charset.forName( "UTF-8" ) ).write( stringBuilder );
+	}
+
+	public void finishWriting( ) throws IOException {
+		finishWriting( ivDirectory );
+	}
+
+	public void finishWriting( final File aDirectory ) throws IOException {
+		final File binaryFile = new File( aDirectory, "kieker.bin" );
+		Files.write( getBytes( ), binaryFile );
+	}
+
+	/**
+	 * Writes a complete monitoring log with 500 traces. Each trace consists of two method calls and the root fails.
+	 *
+	 * @throws IOException
+	 *                     If the monitoring log could not be written.
+	 */
+	public void writeDefaultTraces( ) throws IOException {
+		for ( long traceId = 1; traceId <= 500; traceId++ ) {
+			writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+			writeRecord( new BeforeOperationEvent( 2000000L, traceId, 1, "op2", "class1" ) );
+			writeRecord( new AfterOperationEvent( 3000000L, traceId, 2, "op2", "class1" ) );
+			writeRecord( new AfterOperationFailedEvent( 5000000L, traceId, 3, "op1", "class1", "exception" ) );
+		}
+		writeMappingFile( );
+		finishWriting( );
+	}
+
+	/**
+	 * Makes sure that the given service contains exactly the traces written by {@link #writeDefaultTraces()}.
+	 *
+	 * @param aService
+	 *                 The service containing the imported monitoring log.
+	 */
+	public void assertDefaultTraces( final MonitoringLogService aService ) {
+		assertThat( aService.getTraceRoots( ), hasSize( 500 ) );
+		assertThat( aService.getMethods( ), hasSize( 1000 ) );
+		assertThat( aService.getAggreatedMethods( ), hasSize( 2 ) );
+		assertThat( aService.getDanglingRecords( ), is( 0 ) );
+		assertThat( aService.getIncompleteTraces( ), is( 0 ) );
+		assertThat( aService.getProcessedBytes( ), is( ( long ) getSize( ) ) );
+
+		final MethodCall lastRoot = aService.getTraceRoots( ).get( 499 );
+		assertThat( lastRoot.getTraceId( ), is( 500L ) );
+		assertThat( aService.getSymbolTable( ).resolve( lastRoot.getExceptionId( ) ), is( "exception" ) );
+		assertThat( lastRoot.getDuration( ), is( 4000000L ) );
+		assertThat( aService.getSymbolTable( ).resolve( lastRoot.getChildren( ).get( 0 ).getMethodId( ) ), is( "op2" ) );
+	}
+
+	/**
+	 * A record which is unknown to the importer, but which can be skipped due to its size. It is larger than the records known to the importer.
+	 */
+	public static class LargeRecord extends UnknownRecord {
+
+		private static final long serialVersionUID = 1L;
+
+		public static final int SIZE = 1000;
+
+		@Override
+		public int getSize( ) {
+			return SIZE;
+		}
+
+	}
+
+	/**
+	 * A record which is unknown to the importer.
+	 */
+	public static class UnknownRecord extends AbstractMonitoringRecord {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Object[] toArray( ) {
+			return null;
+		}
+
+		@Override
+		public void registerStrings( final IRegistry<String> aStringRegistry ) {
+		}
+
+		@Override
+		public void serialize( final IValueSerializer aSerializer ) throws BufferOverflowException {
+		}
+
+		@Override
+		public String[] getValueNames( ) {
+			return null;
+		}
+
+		@Override
+		public void initFromArray( final Object[] aValues ) {
+		}
+
+		@Override
+		public Class<?>[] getValueTypes( ) {
+			return null;
+		}
+
+		@Override
+		public int getSize( ) {
+			return 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test class for the {@link SortedIndex}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SortedIndexTest {
+
+	@Test
+	public void testPackedKeys( ) {
+		final SortedIndex index = SortedIndex.create( createMethodCalls( 30L, 10L, 20L, 10L, 40L ), MethodCall::getTimestamp );
+
+		assertThat( index.getSize( ), is( 5 ) );
+		assertThat( index.findMethodCalls( 10L ), is( bitSet( 1, 3 ) ) );
+		assertThat( index.findMethodCalls( 15L ), is( bitSet( ) ) );
+		assertThat( index.findMethodCalls( 10L, 30L ), is( bitSet( 1, 2, 3 ) ) );
+		assertThat( index.findMethodCalls( 11L, 41L ), is( bitSet( 0, 2, 4 ) ) );
+		assertThat( index.findMethodCalls( 50L, 60L ), is( bitSet( ) ) );
+	}
+
+	@Test
+	public void testKeysWhichDoNotFitIntoALong( ) {
+		// The range of the keys exceeds a long, which means that the keys are replaced by their ranks
+		final SortedIndex index = SortedIndex.create( createMethodCalls( Long.MAX_VALUE, 0L, Long.MIN_VALUE, Long.MAX_VALUE, -5L ), MethodCall::getTimestamp );
+
+		assertThat( index.getSize( ), is( 5 ) );
+		assertThat( index.findMethodCalls( Long.MAX_VALUE ), is( bitSet( 0, 3 ) ) );
+		assertThat( index.findMethodCalls( Long.MIN_VALUE ), is( bitSet( 2 ) ) );
+		assertThat( index.findMethodCalls( -5L, 1L ), is( bitSet( 1, 4 ) ) );
+		assertThat( index.findMethodCalls( Long.MIN_VALUE, Long.MAX_VALUE ), is( bitSet( 1, 2, 4 ) ) );
+		assertThat( index.findMethodCalls( 1L ), is( bitSet( ) ) );
+	}
+
+	@Test
+	public void testEmptyIndex( ) {
+		final SortedIndex index = SortedIndex.create( new ArrayList<>( ), MethodCall::getTimestamp );
+
+		assertThat( index.getSize( ), is( 0 ) );
+		assertThat( index.findMethodCalls( 0L ), is( bitSet( ) ) );
+		assertThat( index.findMethodCalls( Long.MIN_VALUE, Long.MAX_VALUE ), is( bitSet( ) ) );
+	}
+
+	private static List<MethodCall> createMethodCalls( final long... aTimestamps ) {
+		final List<MethodCall> methodCalls = new ArrayList<>( );
+		for ( final long timestamp : aTimestamps ) {
+			final MethodCall methodCall = new HeapMethodCall( );
+			methodCall.setTimestamp( timestamp );
+			methodCalls.add( methodCall );
+		}
+		return methodCalls;
+	}
+
+	private static BitSet bitSet( final int... aPositions ) {
+		final BitSet bitSet = new BitSet( );
+		for ( final int position : aPositions ) {
+			bitSet.set( position );
+		}
+		return bitSet;
+	}
+
+}
@@ -0,0 +1,121 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.carrotsearch.hppc.IntArrayList;
+
+/**
+ * Test class for the {@link SymbolIndex}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SymbolIndexTest {
+
+	private final SymbolTable ivSymbolTable = new SymbolTable( );
+
+	@Test
+	public void testSubstringSearchIgnoresCase( ) {
+		final List<MethodCall> methodCalls = new ArrayList<>( );
+		methodCalls.add( createMethodCall( "host1", "kieker.Importer", "importLog", null ) );
+		methodCalls.add( createMethodCall( "host2", "kieker.Exporter", "exportLog", "java.io.IOException" ) );
+		methodCalls.add( createMethodCall( "host1", "kieker.Exporter", "flush", null ) );
+		final SymbolIndex index = SymbolIndex.create( methodCalls, ivSymbolTable );
+
+		assertThat( index.getSize( ), is( 3 ) );
+		assertThat( index.findMethodCalls( null, "EXPORTER", null, null ), is( bitSet( 1, 2 ) ) );
+		assertThat( index.findMethodCalls( null, "porter", "LOG", null ), is( bitSet( 0, 1 ) ) );
+		assertThat( index.findMethodCalls( "host1", "porter", "log", null ), is( bitSet( 0 ) ) );
+		assertThat( index.findMethodCalls( null, null, null, "ioexception" ), is( bitSet( 1 ) ) );
+	}
+
+	@Test
+	public void testNullMatchesAllMethodCalls( ) {
+		final List<MethodCall> methodCalls = new ArrayList<>( );
+		methodCalls.add( createMethodCall( "host", "class1", "op1", null ) );
+		methodCalls.add( createMethodCall( "host", "class2", "op2", "exception" ) );
+		final SymbolIndex index = SymbolIndex.create( methodCalls, ivSymbolTable );
+
+		// A search string never matches the null symbol, while a missing search string matches everything
+		assertThat( index.findMethodCalls( null, null, null, null ), is( bitSet( 0, 1 ) ) );
+		assertThat( index.findMethodCalls( null, null, null, "" ), is( bitSet( 1 ) ) );
+	}
+
+	@Test
+	public void testShortSearchStringsAndMissingTrigrams( ) {
+		final List<MethodCall> methodCalls = new ArrayList<>( );
+		methodCalls.add( createMethodCall( "host", "Ab", "run", null ) );
+		methodCalls.add( createMethodCall( "host", "xab", "run", null ) );
+		methodCalls.add( createMethodCall( "host", "bax", "run", null ) );
+		final SymbolIndex index = SymbolIndex.create( methodCalls, ivSymbolTable );
+
+		// Search strings without a trigram are checked against all symbols
+		assertThat( index.findMethodCalls( null, "ab", null, null ), is( bitSet( 0, 1 ) ) );
+		assertThat( index.findMethodCalls( null, "unknown", null, null ), is( bitSet( ) ) );
+
+		// The trigrams of "abx" are contained in no symbol, although its characters are
+		assertThat( index.findMethodCalls( null, "abx", null, null ), is( bitSet( ) ) );
+	}
+
+	@Test
+	public void testFindSymbolsDeliversSortedIds( ) {
+		final List<MethodCall> methodCalls = new ArrayList<>( );
+		methodCalls.add( createMethodCall( "host", "class2", "save", null ) );
+		methodCalls.add( createMethodCall( "host", "class1", "saveAll", null ) );
+		final SymbolIndex index = SymbolIndex.create( methodCalls, ivSymbolTable );
+
+		final IntArrayList symbolIds = index.findSymbols( "SAVE" );
+		assertThat( symbolIds.size( ), is( 2 ) );
+		assertThat( symbolIds.get( 0 ), is( ivSymbolTable.intern( "save" ) ) );
+		assertThat( symbolIds.get( 1 ), is( ivSymbolTable.intern( "saveAll" ) ) );
+	}
+
+	@Test
+	public void testEmptyIndex( ) {
+		final SymbolIndex index = SymbolIndex.create( new ArrayList<>( ), ivSymbolTable );
+
+		assertThat( index.getSize( ), is( 0 ) );
+		assertThat( index.findMethodCalls( "host", null, null, null ), is( bitSet( ) ) );
+		assertThat( index.findSymbols( "host" ).size( ), is( 0 ) );
+	}
+
+	private MethodCall createMethodCall( final String aHost, final String aClazz, final String aMethod, final String aException ) {
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( ivSymbolTable.intern( aHost ) );
+		methodCall.setClazzId( ivSymbolTable.intern( aClazz ) );
+		methodCall.setMethodId( ivSymbolTable.intern( aMethod ) );
+		methodCall.setExceptionId( ivSymbolTable.intern( aException ) );
+		return methodCall;
+	}
+
+	private static BitSet bitSet( final int... aPositions ) {
+		final BitSet bitSet = new BitSet( );
+		for ( final int position : aPositions ) {
+			bitSet.set( position );
+		}
+		return bitSet;
+	}
+
+}
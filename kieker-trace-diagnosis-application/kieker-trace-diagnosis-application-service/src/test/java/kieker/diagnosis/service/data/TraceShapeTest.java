@@ -0,0 +1,77 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+
+/**
+ * Test class for the {@link TraceShape}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceShapeTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testTraceShapesAreCalculatedDuringImport( ) throws Exception {
+		// Every third trace has an additional method call
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		for ( long traceId = 0; traceId < 9; traceId++ ) {
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId * 100, traceId, 0, "op1", "class1" ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId * 100 + 10, traceId, 1, "op2", "class2" ) );
+			writer.writeRecord( new AfterOperationEvent( traceId * 100 + 20, traceId, 2, "op2", "class2" ) );
+			if ( traceId % 3 == 0 ) {
+				writer.writeRecord( new BeforeOperationEvent( traceId * 100 + 30, traceId, 3, "op3", "class2" ) );
+				writer.writeRecord( new AfterOperationEvent( traceId * 100 + 40, traceId, 4, "op3", "class2" ) );
+			}
+			writer.writeRecord( new AfterOperationEvent( traceId * 100 + 50, traceId, 5, "op1", "class1" ) );
+		}
+		writer.writeMappingFile( );
+		writer.finishWriting( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "ARRAY" );
+		final List<TraceShape> shapes = service.getTraceShapeIndex( ).getShapes( );
+		assertThat( shapes, hasSize( 2 ) );
+		assertThat( shapes.get( 0 ).getCount( ), is( 3 ) );
+		assertThat( shapes.get( 1 ).getCount( ), is( 6 ) );
+		assertThat( shapes.get( 1 ).getDurationAtPercentile( 50.0 ), is( 50L ) );
+
+		// The shapes calculated during the reconstruction have to be the same as the shapes calculated from the stored traces
+		final List<MethodCall> traceRoots = service.getTraceRoots( );
+		for ( final TraceShape shape : shapes ) {
+			for ( final int traceIndex : shape.getTraceIndices( ) ) {
+				assertThat( TraceShape.calculateShapeHash( traceRoots.get( traceIndex ) ), is( shape.getShapeHash( ) ) );
+			}
+		}
+	}
+
+}
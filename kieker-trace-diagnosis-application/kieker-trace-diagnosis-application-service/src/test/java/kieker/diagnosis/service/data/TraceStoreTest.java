@@ -0,0 +1,297 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.architecture.service.ServiceFactory;
+import kieker.diagnosis.service.methods.MethodsFilter;
+import kieker.diagnosis.service.methods.MethodsService;
+import kieker.diagnosis.service.methods.SearchType;
+import kieker.diagnosis.service.traces.TracesFilter;
+import kieker.diagnosis.service.traces.TracesService;
+
+/**
+ * Test class for the {@link TraceStore} and its implementations.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceStoreTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	private MonitoringLogWriter ivWriter;
+
+	@Before
+	public void setUp( ) {
+		ivWriter = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+	}
+
+	@Test
+	public void testAppendMethodCalls( ) {
+		final SymbolTable symbolTable = new SymbolTable( );
+		final TraceStore traceStore = ArrayTraceStore.create( symbolTable );
+		final int method = symbolTable.intern( "op" );
+
+		// The root has two children and the second child has a child itself
+		final int root = traceStore.appendMethodCall( 1L, 0, 10L, 100L, 0, method, 0, 3, 4, TraceStore.NO_INDEX );
+		final int firstChild = traceStore.appendMethodCall( 1L, 0, 11L, 30L, 0, method, 0, 1, 1, root );
+		final int secondChild = traceStore.appendMethodCall( 1L, 0, 50L, 50L, 0, method, 0, 2, 2, root );
+		final int grandChild = traceStore.appendMethodCall( 1L, 0, 51L, 10L, 0, method, 0, 1, 1, secondChild );
+		traceStore.appendMethodCall( 2L, 0, 200L, 5L, 0, method, 0, 1, 1, TraceStore.NO_INDEX );
+
+		assertThat( traceStore.getSize( ), is( 5 ) );
+		assertThat( traceStore.getTraceRootCount( ), is( 2 ) );
+		assertThat( traceStore.getTraceRoot( 1 ), is( 4 ) );
+
+		// The tree structure
+		assertThat( traceStore.getFirstChild( root ), is( firstChild ) );
+		assertThat( traceStore.getNextSibling( firstChild ), is( secondChild ) );
+		assertThat( traceStore.getNextSibling( secondChild ), is( TraceStore.NO_INDEX ) );
+		assertThat( traceStore.getFirstChild( secondChild ), is( grandChild ) );
+		assertThat( traceStore.getFirstChild( grandChild ), is( TraceStore.NO_INDEX ) );
+
+		// The percentages and the self durations are calculated while the method calls are appended
+		assertThat( traceStore.getPercent( root ), is( 100.0f ) );
+		assertThat( traceStore.getPercent( firstChild ), is( 30.0f ) );
+		assertThat( traceStore.getPercent( grandChild ), is( 20.0f ) );
+		assertThat( traceStore.getSelfDuration( root ), is( 20L ) );
+		assertThat( traceStore.getSelfDuration( secondChild ), is( 40L ) );
+		assertThat( traceStore.getSelfDuration( grandChild ), is( 10L ) );
+
+		// The views
+		final MethodCall rootView = traceStore.getTraceRoots( ).get( 0 );
+		assertThat( symbolTable.resolve( rootView.getMethodId( ) ), is( "op" ) );
+		assertThat( rootView.getChildren( ), hasSize( 2 ) );
+		assertThat( rootView.getChildren( ).get( 1 ).getChildren( ).get( 0 ), is( traceStore.getMethodCall( grandChild ) ) );
+		assertThat( traceStore.getMethodCalls( ), hasSize( 5 ) );
+	}
+
+	@Test
+	public void testAppendTracesOfAnotherStore( ) {
+		final SymbolTable symbolTable = new SymbolTable( );
+		final TraceStore firstStore = ArrayTraceStore.create( symbolTable );
+		final int firstRoot = firstStore.appendMethodCall( 1L, 0, 10L, 100L, 0, 0, 0, 2, 2, TraceStore.NO_INDEX );
+		firstStore.appendMethodCall( 1L, 0, 11L, 30L, 0, 0, 0, 1, 1, firstRoot );
+
+		final TraceStore secondStore = ArrayTraceStore.create( symbolTable );
+		final int secondRoot = secondStore.appendMethodCall( 2L, 0, 20L, 50L, 0, 0, 0, 2, 3, TraceStore.NO_INDEX );
+		secondStore.appendMethodCall( 2L, 0, 21L, 10L, 0, 0, 0, 1, 1, secondRoot );
+		secondStore.appendMethodCall( 2L, 0, 31L, 10L, 0, 0, 0, 1, 1, secondRoot );
+
+		firstStore.appendTraces( secondStore );
+
+		// The indices of the appended traces are shifted, while the values are copied unchanged
+		assertThat( firstStore.getSize( ), is( 5 ) );
+		assertThat( firstStore.getTraceRootCount( ), is( 2 ) );
+		assertThat( firstStore.getTraceRoot( 1 ), is( 2 ) );
+		assertThat( firstStore.getFirstChild( 2 ), is( 3 ) );
+		assertThat( firstStore.getNextSibling( 3 ), is( 4 ) );
+		assertThat( firstStore.getNextSibling( 4 ), is( TraceStore.NO_INDEX ) );
+		assertThat( firstStore.getSelfDuration( 2 ), is( 30L ) );
+		assertThat( firstStore.getPercent( 3 ), is( 20.0f ) );
+		assertThat( secondStore.getSize( ), is( 3 ) );
+
+		// Further method calls can be appended afterwards
+		final int thirdRoot = firstStore.appendMethodCall( 3L, 0, 40L, 10L, 0, 0, 0, 2, 2, TraceStore.NO_INDEX );
+		firstStore.appendMethodCall( 3L, 0, 41L, 5L, 0, 0, 0, 1, 1, thirdRoot );
+		assertThat( firstStore.getFirstChild( thirdRoot ), is( thirdRoot + 1 ) );
+		assertThat( firstStore.getTraceRoots( ).get( 2 ).getChildren( ), hasSize( 1 ) );
+	}
+
+	@Test
+	public void testCompactStoragesEqualHeapStorage( ) throws Exception {
+		for ( long traceId = 1; traceId <= 20; traceId++ ) {
+			ivWriter.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( traceId * 10, traceId, 0, "op1", "class1" ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( traceId * 10 + 1, traceId, 1, "op2", "class2" ) );
+			ivWriter.writeRecord( new AfterOperationEvent( traceId * 10 + 2, traceId, 2, "op2", "class2" ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( traceId * 10 + 3, traceId, 3, "op3", "class2" ) );
+			ivWriter.writeRecord( new AfterOperationFailedEvent( traceId * 10 + 4, traceId, 4, "op3", "class2", "cause" ) );
+			ivWriter.writeRecord( new AfterOperationEvent( traceId * 10 + 5, traceId, 5, "op1", "class1" ) );
+		}
+		ivWriter.writeMappingFile( );
+		ivWriter.finishWriting( );
+
+		// The services are found via the last created injector. We have to search directly after each import.
+		final MonitoringLogService heapService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "HEAP" );
+		final List<List<MethodCall>> heapSearchResults = searchForStorageTest( );
+		final MonitoringLogService arrayService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "ARRAY" );
+		final List<List<MethodCall>> arraySearchResults = searchForStorageTest( );
+
+		// Without a budget, the off-heap storage has to use a scratch file
+		final MonitoringLogService offHeapService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "OFF_HEAP",
+				"offHeapBudget", "0", "offHeapScratchDirectory", ivTemporaryFolder.newFolder( ).getAbsolutePath( ) );
+		final List<List<MethodCall>> offHeapSearchResults = searchForStorageTest( );
+
+		// Make sure that both storages deliver the same traces
+		assertThat( heapService.getTraceStore( ), is( nullValue( ) ) );
+		assertThat( arrayService.getTraceStore( ).getSize( ), is( 60 ) );
+		assertThat( arrayService.getMethods( ), hasSize( heapService.getMethods( ).size( ) ) );
+		assertThat( arrayService.getTraceRoots( ), hasSize( heapService.getTraceRoots( ).size( ) ) );
+
+		assertThat( offHeapService.getTraceStore( ), is( instanceOf( OffHeapTraceStore.class ) ) );
+		assertThat( ( ( OffHeapTraceStore ) offHeapService.getTraceStore( ) ).isUsingScratchFile( ), is( true ) );
+		assertThat( offHeapService.getMethods( ), hasSize( heapService.getMethods( ).size( ) ) );
+
+		for ( int index = 0; index < heapService.getTraceRoots( ).size( ); index++ ) {
+			assertSameTrace( arrayService.getTraceRoots( ).get( index ), arrayService.getSymbolTable( ),
+					heapService.getTraceRoots( ).get( index ), heapService.getSymbolTable( ) );
+			assertSameTrace( offHeapService.getTraceRoots( ).get( index ), offHeapService.getSymbolTable( ),
+					heapService.getTraceRoots( ).get( index ), heapService.getSymbolTable( ) );
+		}
+
+		// The heap collects the method calls in the same pre-order as the stores
+		for ( int index = 0; index < heapService.getMethods( ).size( ); index++ ) {
+			final MethodCall heapMethod = heapService.getMethods( ).get( index );
+			final MethodCall arrayMethod = arrayService.getMethods( ).get( index );
+			assertThat( arrayMethod.getTimestamp( ), is( heapMethod.getTimestamp( ) ) );
+			assertThat( arrayService.getSymbolTable( ).resolve( arrayMethod.getMethodId( ) ),
+					is( heapService.getSymbolTable( ).resolve( heapMethod.getMethodId( ) ) ) );
+		}
+
+		// Views on the same method call are equal
+		assertThat( arrayService.getTraceRoots( ).get( 0 ), is( arrayService.getMethods( ).get( 0 ) ) );
+		assertThat( arrayService.getTraceRoots( ).get( 1 ), is( arrayService.getMethods( ).get( 3 ) ) );
+
+		// The search within the columns delivers the same method calls as the search on the heap
+		assertThat( arraySearchResults.get( 0 ), hasSize( 20 ) );
+		assertThat( heapSearchResults.get( 0 ), hasSize( 20 ) );
+		assertThat( arraySearchResults.get( 1 ), hasSize( 1 ) );
+		assertThat( heapSearchResults.get( 1 ), hasSize( 1 ) );
+		assertSameTrace( arraySearchResults.get( 1 ).get( 0 ), arrayService.getSymbolTable( ),
+				heapSearchResults.get( 1 ).get( 0 ), heapService.getSymbolTable( ) );
+		assertThat( offHeapSearchResults.get( 0 ), hasSize( 20 ) );
+
+		for ( final List<List<MethodCall>> searchResults : Arrays.asList( heapSearchResults, arraySearchResults, offHeapSearchResults ) ) {
+			assertThat( searchResults.get( 2 ), hasSize( 0 ) );
+			assertThat( searchResults.get( 3 ), hasSize( 20 ) );
+		}
+		assertSameTrace( offHeapSearchResults.get( 1 ).get( 0 ), offHeapService.getSymbolTable( ),
+				heapSearchResults.get( 1 ).get( 0 ), heapService.getSymbolTable( ) );
+	}
+
+	@Test
+	public void testOffHeapStorageExceedingBudgetDuringImport( ) throws Exception {
+		// The traces need more than one MiB, which means that the store has to move from direct buffers to the scratch file while it grows
+		for ( long traceId = 1; traceId <= 6000; traceId++ ) {
+			ivWriter.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( traceId * 10, traceId, 0, "op1", "class1" ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( traceId * 10 + 1, traceId, 1, "op2", "class2" ) );
+			ivWriter.writeRecord( new AfterOperationEvent( traceId * 10 + 2, traceId, 2, "op2", "class2" ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( traceId * 10 + 3, traceId, 3, "op3", "class2" ) );
+			ivWriter.writeRecord( new AfterOperationEvent( traceId * 10 + 7, traceId, 4, "op3", "class2" ) );
+			ivWriter.writeRecord( new AfterOperationEvent( traceId * 10 + 9, traceId, 5, "op1", "class1" ) );
+		}
+		ivWriter.writeMappingFile( );
+		ivWriter.finishWriting( );
+
+		final MonitoringLogService heapService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "HEAP" );
+		final MonitoringLogService offHeapService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "traceStorage", "OFF_HEAP",
+				"offHeapBudget", "1", "offHeapScratchDirectory", ivTemporaryFolder.newFolder( ).getAbsolutePath( ) );
+
+		// Make sure that the copied and the mapped segments still contain the same traces
+		final OffHeapTraceStore traceStore = ( OffHeapTraceStore ) offHeapService.getTraceStore( );
+		assertThat( traceStore.isUsingScratchFile( ), is( true ) );
+		assertThat( traceStore.getSize( ), is( 18000 ) );
+		assertThat( offHeapService.getTraceRoots( ), hasSize( heapService.getTraceRoots( ).size( ) ) );
+
+		for ( int index = 0; index < heapService.getTraceRoots( ).size( ); index++ ) {
+			assertSameTrace( offHeapService.getTraceRoots( ).get( index ), offHeapService.getSymbolTable( ),
+					heapService.getTraceRoots( ).get( index ), heapService.getSymbolTable( ) );
+		}
+		assertThat( offHeapService.getAggreatedMethods( ), hasSize( 3 ) );
+		assertThat( offHeapService.getTraceShapeIndex( ).getShapes( ), hasSize( 1 ) );
+	}
+
+	private static List<List<MethodCall>> searchForStorageTest( ) {
+		final MethodsService methodsService = ServiceFactory.getService( MethodsService.class );
+		final List<List<MethodCall>> searchResults = new ArrayList<>( );
+
+		final MethodsFilter methodsFilter = new MethodsFilter( );
+		methodsFilter.setClazz( "class2" );
+		methodsFilter.setSearchType( SearchType.ONLY_SUCCESSFUL );
+		searchResults.add( methodsService.searchMethods( methodsFilter ) );
+
+		methodsFilter.setSearchType( SearchType.ALL );
+		methodsFilter.setTraceId( 3L );
+		methodsFilter.setUseRegExpr( true );
+		methodsFilter.setMethod( "op[13]" );
+		searchResults.add( methodsService.searchMethods( methodsFilter ) );
+
+		final TracesService tracesService = ServiceFactory.getService( TracesService.class );
+		final TracesFilter tracesFilter = new TracesFilter( );
+		tracesFilter.setMethod( "op3" );
+		searchResults.add( tracesService.searchTraces( tracesFilter ) );
+
+		tracesFilter.setSearchWholeTrace( true );
+		searchResults.add( tracesService.searchTraces( tracesFilter ) );
+
+		return searchResults;
+	}
+
+	/**
+	 * Makes sure that both traces contain the same method calls. The method calls can belong to different imports.
+	 *
+	 * @param aActual
+	 *                         The root of the actual trace.
+	 * @param aActualSymbols
+	 *                         The symbol table of the actual trace.
+	 * @param aExpected
+	 *                         The root of the expected trace.
+	 * @param aExpectedSymbols
+	 *                         The symbol table of the expected trace.
+	 */
+	public static void assertSameTrace( final MethodCall aActual, final SymbolTable aActualSymbols, final MethodCall aExpected,
+			final SymbolTable aExpectedSymbols ) {
+		assertThat( aActualSymbols.resolve( aActual.getHostId( ) ), is( aExpectedSymbols.resolve( aExpected.getHostId( ) ) ) );
+		assertThat( aActualSymbols.resolve( aActual.getClazzId( ) ), is( aExpectedSymbols.resolve( aExpected.getClazzId( ) ) ) );
+		assertThat( aActualSymbols.resolve( aActual.getMethodId( ) ), is( aExpectedSymbols.resolve( aExpected.getMethodId( ) ) ) );
+		assertThat( aActualSymbols.resolve( aActual.getExceptionId( ) ), is( aExpectedSymbols.resolve( aExpected.getExceptionId( ) ) ) );
+		assertThat( aActual.getTraceId( ), is( aExpected.getTraceId( ) ) );
+		assertThat( aActual.getTimestamp( ), is( aExpected.getTimestamp( ) ) );
+		assertThat( aActual.getDuration( ), is( aExpected.getDuration( ) ) );
+		assertThat( aActual.getSelfDuration( ), is( aExpected.getSelfDuration( ) ) );
+		assertThat( aActual.getTraceDepth( ), is( aExpected.getTraceDepth( ) ) );
+		assertThat( aActual.getTraceSize( ), is( aExpected.getTraceSize( ) ) );
+		assertThat( aActual.getPercent( ), is( aExpected.getPercent( ) ) );
+		assertThat( aActual.getChildren( ), hasSize( aExpected.getChildren( ).size( ) ) );
+
+		for ( int index = 0; index < aExpected.getChildren( ).size( ); index++ ) {
+			assertSameTrace( aActual.getChildren( ).get( index ), aActualSymbols, aExpected.getChildren( ).get( index ), aExpectedSymbols );
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import kieker.diagnosis.service.data.HeapMethodCall;
+import kieker.diagnosis.service.data.MethodCall;
+
+/**
+ * Test class for the {@link AggregationKeyFactory}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class AggregationKeyFactoryTest {
+
+	private final AggregationKeyFactory ivKeyFactory = new AggregationKeyFactory( );
+
+	@Test
+	public void testSmallIdsArePackedDirectly( ) {
+		final long key = ivKeyFactory.createKey( createMethodCall( 1, 2, 3, 4 ) );
+
+		// The keys do not depend on the factory
+		assertThat( key, is( new AggregationKeyFactory( ).createKey( createMethodCall( 1, 2, 3, 4 ) ) ) );
+		assertThat( key, is( not( ivKeyFactory.createKey( createMethodCall( 1, 2, 3, 0 ) ) ) ) );
+		assertThat( key, is( not( ivKeyFactory.createKey( createMethodCall( 4, 3, 2, 1 ) ) ) ) );
+		assertThat( key, is( not( ivKeyFactory.createKey( createMethodCall( 1, 3, 2, 4 ) ) ) ) );
+		assertThat( ivKeyFactory.createKey( createMethodCall( 0x7FFF, 0xFFFF, 0xFFFF, 0xFFFF ) ) < 0, is( false ) );
+	}
+
+	@Test
+	public void testLargeIdsGetSequenceNumbers( ) {
+		final long firstKey = ivKeyFactory.createKey( createMethodCall( 1, 2, 0x10000, 4 ) );
+		final long secondKey = ivKeyFactory.createKey( createMethodCall( 0x8000, 2, 3, 4 ) );
+
+		assertThat( firstKey, is( ivKeyFactory.createKey( createMethodCall( 1, 2, 0x10000, 4 ) ) ) );
+		assertThat( secondKey, is( ivKeyFactory.createKey( createMethodCall( 0x8000, 2, 3, 4 ) ) ) );
+		assertThat( firstKey, is( not( secondKey ) ) );
+
+		// The sequence numbers can never collide with the packed keys
+		assertThat( firstKey, is( not( ivKeyFactory.createKey( createMethodCall( 0, 0, 0, 0 ) ) ) ) );
+		assertThat( secondKey, is( not( ivKeyFactory.createKey( createMethodCall( 0, 0, 0, 1 ) ) ) ) );
+	}
+
+	private static MethodCall createMethodCall( final int aHostId, final int aClazzId, final int aMethodId, final int aExceptionId ) {
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( aHostId );
+		methodCall.setClazzId( aClazzId );
+		methodCall.setMethodId( aMethodId );
+		methodCall.setExceptionId( aExceptionId );
+		return methodCall;
+	}
+
+}
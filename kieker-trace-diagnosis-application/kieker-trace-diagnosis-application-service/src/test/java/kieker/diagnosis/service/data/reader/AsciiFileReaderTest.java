@@ -0,0 +1,137 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+import kieker.common.record.controlflow.OperationExecutionRecord;
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.common.record.misc.KiekerMetadataRecord;
+import kieker.common.record.system.CPUUtilizationRecord;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+
+/**
+ * Test class for the {@link AsciiFileReader}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class AsciiFileReaderTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testAsciiTokenizerEqualsRegexParser( ) throws Exception {
+		// Prepare the data. We use enough lines to exceed the buffer of the tokenizer.
+		final StringBuilder mapping = new StringBuilder( );
+		mapping.append( "$0=" ).append( TraceMetadata.class.getName( ) ).append( "\n" );
+		mapping.append( "$1=" ).append( BeforeOperationEvent.class.getName( ) ).append( "\n" );
+		mapping.append( "$2=" ).append( AfterOperationEvent.class.getName( ) ).append( "\n" );
+		mapping.append( "$3=" ).append( AfterOperationFailedEvent.class.getName( ) ).append( "\n" );
+		mapping.append( "$4=" ).append( KiekerMetadataRecord.class.getName( ) ).append( "\n" );
+		mapping.append( "$5=" ).append( CPUUtilizationRecord.class.getName( ) ).append( "\n" );
+		Files.asCharSink( new File( ivTemporaryFolder.getRoot( ), "kieker.map" ), Charset.forName( "UTF-8" ) ).write( mapping );
+
+		final StringBuilder content = new StringBuilder( );
+		content.append( "$4;1;1.13;KIEKER;host;1;false;0;MICROSECONDS;0\n" );
+		for ( long traceId = -2500; traceId < 2500; traceId++ ) {
+			final String lineBreak = traceId % 2 == 0 ? "\n" : "\r\n";
+			content.append( "$0;1;" ).append( traceId ).append( ";1;session;host" ).append( traceId % 3 ).append( ";-1;-1" ).append( lineBreak );
+			content.append( "$1;1;" ).append( 10000 + traceId ).append( ';' ).append( traceId ).append( ";0;op1;class1" ).append( lineBreak );
+			content.append( "$1;1;" ).append( 20000 + traceId ).append( ';' ).append( traceId ).append( ";1;op2;class2" ).append( lineBreak );
+			content.append( "$5;1;0;host;0;0;0;0;0;0;0;0" ).append( lineBreak );
+			content.append( "$3;1;" ).append( 30000 + traceId ).append( ';' ).append( traceId ).append( ";2;op2;class2;java.lang.Exception: a;b" ).append( lineBreak );
+			content.append( "$2;1;" ).append( 50000 + traceId ).append( ';' ).append( traceId ).append( ";3;op1;class1" ).append( lineBreak );
+			content.append( "invalid line" ).append( lineBreak );
+		}
+		content.append( "$0;1;42;1;session;host;-1;-1" );
+		Files.asCharSink( new File( ivTemporaryFolder.getRoot( ), "kieker.dat" ), Charset.forName( "UTF-8" ) ).write( content );
+
+		final MonitoringLogService regexService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "asciiFileReadMode", "REGEX" );
+		final MonitoringLogService tokenizerService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "asciiFileReadMode", "TOKENIZER" );
+
+		// Make sure that both imports deliver the same result
+		assertThat( regexService.getTraceRoots( ), hasSize( 5000 ) );
+		assertThat( regexService.getIgnoredRecords( ), is( 5000 ) );
+		assertThat( regexService.getIncompleteTraces( ), is( 1 ) );
+
+		assertThat( tokenizerService.getTraceRoots( ), hasSize( regexService.getTraceRoots( ).size( ) ) );
+		assertThat( tokenizerService.getMethods( ), hasSize( regexService.getMethods( ).size( ) ) );
+		assertThat( tokenizerService.getIgnoredRecords( ), is( regexService.getIgnoredRecords( ) ) );
+		assertThat( tokenizerService.getIncompleteTraces( ), is( regexService.getIncompleteTraces( ) ) );
+		assertThat( tokenizerService.getProcessedBytes( ), is( regexService.getProcessedBytes( ) ) );
+
+		final SymbolTable regexSymbols = regexService.getSymbolTable( );
+		final SymbolTable tokenizerSymbols = tokenizerService.getSymbolTable( );
+		for ( int index = 0; index < regexService.getMethods( ).size( ); index++ ) {
+			final MethodCall regexMethod = regexService.getMethods( ).get( index );
+			final MethodCall tokenizerMethod = tokenizerService.getMethods( ).get( index );
+
+			assertThat( tokenizerSymbols.resolve( tokenizerMethod.getHostId( ) ), is( regexSymbols.resolve( regexMethod.getHostId( ) ) ) );
+			assertThat( tokenizerSymbols.resolve( tokenizerMethod.getClazzId( ) ), is( regexSymbols.resolve( regexMethod.getClazzId( ) ) ) );
+			assertThat( tokenizerSymbols.resolve( tokenizerMethod.getMethodId( ) ), is( regexSymbols.resolve( regexMethod.getMethodId( ) ) ) );
+			assertThat( tokenizerSymbols.resolve( tokenizerMethod.getExceptionId( ) ),
+					is( regexSymbols.resolve( regexMethod.getExceptionId( ) ) ) );
+			assertThat( tokenizerMethod.getTraceId( ), is( regexMethod.getTraceId( ) ) );
+			assertThat( tokenizerMethod.getTimestamp( ), is( regexMethod.getTimestamp( ) ) );
+			assertThat( tokenizerMethod.getDuration( ), is( regexMethod.getDuration( ) ) );
+		}
+
+		final MethodCall method = tokenizerService.getMethods( ).stream( ).filter( m -> m.getExceptionId( ) != SymbolTable.NULL_SYMBOL ).findFirst( ).get( );
+		assertThat( tokenizerSymbols.resolve( method.getExceptionId( ) ), is( "java.lang.Exception: a;b" ) );
+		assertThat( method.getDuration( ), is( 10000000L ) );
+	}
+
+	@Test
+	public void testOperationExecutionRecordsInAsciiFile( ) throws Exception {
+		final StringBuilder mapping = new StringBuilder( );
+		mapping.append( "$0=" ).append( OperationExecutionRecord.class.getName( ) ).append( "\n" );
+		Files.asCharSink( new File( ivTemporaryFolder.getRoot( ), "kieker.map" ), Charset.forName( "UTF-8" ) ).write( mapping );
+
+		final StringBuilder content = new StringBuilder( );
+		content.append( "$0;1;public void pkg.Class2.op2();session;1;2000000;3000000;host;1;1\n" );
+		content.append( "$0;1;public void pkg.Class4.op4(int);session;1;4000000;5000000;host;3;2\n" );
+		content.append( "$0;1;public void pkg.Class3.op3(int);session;1;3500000;6000000;host;2;1\n" );
+		content.append( "$0;1;public static void pkg.Class1.op1();session;1;1000000;7000000;host;0;0\n" );
+		content.append( "$0;1;op5;session;2;1000000;2000000;host;1;1\n" );
+		Files.asCharSink( new File( ivTemporaryFolder.getRoot( ), "kieker.dat" ), Charset.forName( "UTF-8" ) ).write( content );
+
+		// Both read modes use the record handlers
+		for ( final AsciiFileReadMode readMode : AsciiFileReadMode.values( ) ) {
+			final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "asciiFileReadMode", readMode.name( ) );
+			RecordHandlerTableTest.assertOperationExecutionRecords( service );
+		}
+	}
+
+}
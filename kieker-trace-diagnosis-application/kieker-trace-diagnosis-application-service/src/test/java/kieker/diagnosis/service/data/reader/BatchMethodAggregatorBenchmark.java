@@ -0,0 +1,187 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.carrotsearch.hppc.LongArrayList;
+
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.HeapMethodCall;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.SymbolTable;
+
+/**
+ * This is a microbenchmark for the {@link BatchMethodAggregator}. It compares the aggregation with the baseline aggregation on synthetic method calls. The
+ * baseline calculates the keys (based on the symbols) in parallel, but puts them sequentially into shared maps. It is not executed during the build and
+ * has to be started manually (with a heap of at least 4 GB).
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class BatchMethodAggregatorBenchmark {
+
+	private static final int METHOD_CALLS = 10_000_000;
+	private static final int CLASSES = 100;
+	private static final int METHODS_PER_CLASS = 20;
+	private static final int HOSTS = 4;
+	private static final int RUNS = 5;
+
+	private BatchMethodAggregatorBenchmark( ) {
+	}
+
+	public static void main( final String[] aArgs ) throws IOException {
+		final SymbolTable symbolTable = new SymbolTable( );
+		final List<MethodCall> methodCalls = createMethodCalls( symbolTable );
+		final int parallelism = Runtime.getRuntime( ).availableProcessors( );
+
+		for ( int run = 1; run <= RUNS; run++ ) {
+			final long tin = System.nanoTime( );
+			final int baselineAggregatedMethods = aggregateWithBaseline( methodCalls, symbolTable ).size( );
+			final long baselineDuration = System.nanoTime( ) - tin;
+
+			final long tin2 = System.nanoTime( );
+			final BatchMethodAggregator aggregator = new BatchMethodAggregator( Long.MAX_VALUE, DurationHistogram.DEFAULT_PRECISION, parallelism, 0L );
+			final int aggregatedMethods = aggregator.aggregate( methodCalls ).size( );
+			final long duration = System.nanoTime( ) - tin2;
+
+			System.out.printf( "Run %d: baseline %d ms (%d aggregated methods), partitioned (%d partitions) %d ms (%d aggregated methods)%n", run,
+					baselineDuration / 1_000_000, baselineAggregatedMethods, parallelism, duration / 1_000_000, aggregatedMethods );
+		}
+	}
+
+	private static List<MethodCall> createMethodCalls( final SymbolTable aSymbolTable ) {
+		final Random random = new Random( 42 );
+		final List<MethodCall> methodCalls = new ArrayList<>( METHOD_CALLS );
+
+		for ( int index = 0; index < METHOD_CALLS; index++ ) {
+			final MethodCall methodCall = new HeapMethodCall( );
+			methodCall.setHostId( aSymbolTable.intern( "host" + random.nextInt( HOSTS ) ) );
+			methodCall.setClazzId( aSymbolTable.intern( "class" + random.nextInt( CLASSES ) ) );
+			methodCall.setMethodId( aSymbolTable.intern( "method" + random.nextInt( METHODS_PER_CLASS ) ) );
+			methodCall.setDuration( ( long ) ( random.nextGaussian( ) * 1_000_000 ) + 5_000_000 );
+			methodCalls.add( methodCall );
+		}
+
+		return methodCalls;
+	}
+
+	/**
+	 * The baseline aggregation, as it has been performed before the {@link BatchMethodAggregator} existed. The symbols are resolved via the table, as the
+	 * method calls contain only the ids.
+	 */
+	private static Queue<AggregatedMethodCall> aggregateWithBaseline( final List<MethodCall> aMethodCalls, final SymbolTable aSymbolTable ) {
+		final Map<BaselineAggregationKey, MethodCall> aggregationMapWithExemplaricMethodCall = new HashMap<>( );
+		final Map<BaselineAggregationKey, LongArrayList> aggregationMapWithDuration = new HashMap<>( );
+
+		aMethodCalls.parallelStream( ).map( method -> new BaselineAggregationKey( aSymbolTable, method ) ).sequential( ).forEach( key -> {
+			LongArrayList durationlist = aggregationMapWithDuration.get( key );
+
+			if ( durationlist == null ) {
+				durationlist = new LongArrayList( );
+
+				aggregationMapWithDuration.put( key, durationlist );
+				aggregationMapWithExemplaricMethodCall.put( key, key.ivMethodCall );
+			}
+
+			durationlist.add( key.ivMethodCall.getDuration( ) );
+		} );
+
+		aggregationMapWithDuration.values( ).parallelStream( ).forEach( list -> Arrays.sort( list.buffer, 0, list.size( ) ) );
+
+		final Queue<AggregatedMethodCall> aggregatedMethodCalls = new ConcurrentLinkedQueue<>( );
+		aggregationMapWithExemplaricMethodCall.keySet( ).parallelStream( ).forEach( key -> {
+			final MethodCall exemplaricMethodCall = aggregationMapWithExemplaricMethodCall.get( key );
+			final LongArrayList durationList = aggregationMapWithDuration.get( key );
+
+			long durationSum = 0;
+			final int size = durationList.size( );
+			final long[] array = durationList.buffer;
+			for ( int index = 0; index < size; index++ ) {
+				durationSum += array[index];
+			}
+
+			final AggregatedMethodCall aggregatedMethodCall = new AggregatedMethodCall( );
+			aggregatedMethodCall.setAvgDuration( durationSum / size );
+			aggregatedMethodCall.setTotalDuration( durationSum );
+			aggregatedMethodCall.setHostId( exemplaricMethodCall.getHostId( ) );
+			aggregatedMethodCall.setClazzId( exemplaricMethodCall.getClazzId( ) );
+			aggregatedMethodCall.setMethodId( exemplaricMethodCall.getMethodId( ) );
+			aggregatedMethodCall.setExceptionId( exemplaricMethodCall.getExceptionId( ) );
+			aggregatedMethodCall.setCount( size );
+			aggregatedMethodCall.setMedianDuration( array[size / 2] );
+			aggregatedMethodCall.setMinDuration( array[0] );
+			aggregatedMethodCall.setMaxDuration( array[size - 1] );
+
+			aggregatedMethodCalls.add( aggregatedMethodCall );
+		} );
+
+		return aggregatedMethodCalls;
+	}
+
+	/**
+	 * The key of the baseline aggregation, which compares the symbols of the method calls.
+	 */
+	private static final class BaselineAggregationKey {
+
+		private final String ivHost;
+		private final String ivClass;
+		private final String ivMethod;
+		private final String ivException;
+		private final MethodCall ivMethodCall;
+		private final int ivHash;
+
+		BaselineAggregationKey( final SymbolTable aSymbolTable, final MethodCall aMethodCall ) {
+			ivHost = aSymbolTable.resolve( aMethodCall.getHostId( ) );
+			ivClass = aSymbolTable.resolve( aMethodCall.getClazzId( ) );
+			ivMethod = aSymbolTable.resolve( aMethodCall.getMethodId( ) );
+			ivException = aSymbolTable.resolve( aMethodCall.getExceptionId( ) );
+			ivMethodCall = aMethodCall;
+
+			// We calculate the hash eagerly and only once
+			ivHash = Objects.hash( ivClass, ivException, ivHost, ivMethod );
+		}
+
+		@Override
+		public int hashCode( ) {
+			return ivHash;
+		}
+
+		@Override
+		public boolean equals( final Object aObject ) {
+			if ( !( aObject instanceof BaselineAggregationKey ) ) {
+				return false;
+			}
+
+			final BaselineAggregationKey other = ( BaselineAggregationKey ) aObject;
+			return Objects.equals( ivClass, other.ivClass ) && Objects.equals( ivException, other.ivException ) && Objects.equals( ivHost, other.ivHost )
+					&& Objects.equals( ivMethod, other.ivMethod );
+		}
+
+	}
+
+}
@@ -0,0 +1,89 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.common.record.misc.KiekerMetadataRecord;
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.MethodTimeSeries;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+import kieker.diagnosis.service.data.TimeBucket;
+
+/**
+ * Test class for the {@link BatchMethodAggregator}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class BatchMethodAggregatorTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testTimeBucketsAreCalculatedDuringImport( ) throws Exception {
+		// Each method call takes one second longer than the previous one
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeRecord( new KiekerMetadataRecord( "0", "0", "0", 0, false, 0L, TimeUnit.SECONDS.name( ), 0 ) );
+		for ( long traceId = 0; traceId < 6; traceId++ ) {
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId, traceId, 0, "op1", "class1" ) );
+			writer.writeRecord( new AfterOperationEvent( traceId * 2 + 1, traceId, 1, "op1", "class1" ) );
+		}
+		writer.writeMappingFile( );
+		writer.finishWriting( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "timeBucketInterval", "2000" );
+		final AggregatedMethodCall aggregatedMethodCall = service.getAggreatedMethods( ).get( 0 );
+		final MethodTimeSeries timeSeries = aggregatedMethodCall.getTimeSeries( );
+
+		// Make sure that the buckets contain the correct method calls
+		assertThat( timeSeries.getInterval( ), is( 2000L ) );
+		assertThat( timeSeries.getBuckets( ), hasSize( 3 ) );
+		assertThat( timeSeries.getBuckets( ).get( 1 ).getStartTimestamp( ), is( 2000L ) );
+		assertThat( timeSeries.getBuckets( ).get( 1 ).getCount( ), is( 2L ) );
+		assertThat( timeSeries.getBuckets( ).get( 1 ).getMinDuration( ), is( 3000000000L ) );
+		assertThat( timeSeries.getBuckets( ).get( 1 ).getMaxDuration( ), is( 4000000000L ) );
+		assertThat( timeSeries.getBuckets( ).get( 1 ).getTotalDuration( ), is( 7000000000L ) );
+
+		// A window can be aggregated from the buckets
+		final TimeBucket window = timeSeries.aggregate( 2500L, 6000L );
+		assertThat( window.getCount( ), is( 4L ) );
+		assertThat( window.getMinDuration( ), is( 3000000000L ) );
+		assertThat( window.getMaxDuration( ), is( 6000000000L ) );
+		assertThat( window.getTotalDuration( ), is( 18000000000L ) );
+
+		// The whole time series has to be the same as the aggregated method call
+		final TimeBucket all = timeSeries.aggregate( Long.MIN_VALUE / 2, Long.MAX_VALUE );
+		assertThat( all.getCount( ), is( ( long ) aggregatedMethodCall.getCount( ) ) );
+		assertThat( all.getTotalDuration( ), is( aggregatedMethodCall.getTotalDuration( ) ) );
+	}
+
+}
@@ -0,0 +1,164 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+import kieker.diagnosis.service.data.MonitoringLogWriter.LargeRecord;
+
+/**
+ * Test class for the {@link BinaryFileReader}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class BinaryFileReaderTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	private MonitoringLogWriter ivWriter;
+
+	@Before
+	public void setUp( ) {
+		ivWriter = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+	}
+
+	@Test
+	public void testMappedReadModeWithSmallWindows( ) throws Exception {
+		// Prepare enough data to span a lot of small windows. Some records will cross the window boundaries.
+		ivWriter.writeDefaultTraces( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "binaryFileReadMode", "MAPPED",
+				"mappedWindowSize", "512" );
+
+		// Make sure that the import worked as intended
+		ivWriter.assertDefaultTraces( service );
+	}
+
+	@Test
+	public void testMappedReadModeWithLargeIgnoredRecords( ) throws Exception {
+		// The ignored records are larger than the windows and cross the window boundaries
+		for ( long traceId = 1; traceId <= 50; traceId++ ) {
+			ivWriter.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			ivWriter.writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+			ivWriter.writeRecord( new LargeRecord( ) );
+			ivWriter.writeRecord( new AfterOperationEvent( 3000000L, traceId, 1, "op1", "class1" ) );
+		}
+		ivWriter.writeMappingFile( );
+		ivWriter.finishWriting( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "binaryFileReadMode", "MAPPED",
+				"mappedWindowSize", "512" );
+
+		// Make sure that the import worked as intended
+		assertThat( service.getTraceRoots( ), hasSize( 50 ) );
+		assertThat( service.getIgnoredRecords( ), is( 50 ) );
+		assertThat( service.getIncompleteTraces( ), is( 0 ) );
+		assertThat( service.getProcessedBytes( ), is( ( long ) ivWriter.getSize( ) ) );
+	}
+
+	@Test
+	public void testHeapReadMode( ) throws Exception {
+		ivWriter.writeDefaultTraces( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "binaryFileReadMode", "HEAP" );
+
+		// Make sure that the import worked as intended
+		ivWriter.assertDefaultTraces( service );
+	}
+
+	@Test
+	public void testCompressedBinaryFiles( ) throws Exception {
+		// Write the traces in chunks, each chunk with another codec. The last file is compressed, although the extension says otherwise.
+		final String[] fileNames = { "kieker-1.bin.gz", "kieker-2.bin.xz", "kieker-3.bin.zip", "kieker-4.bin.df", "kieker-5.bin" };
+		long uncompressedBytes = 0;
+
+		for ( int chunk = 0; chunk < fileNames.length; chunk++ ) {
+			ivWriter.clearRecords( );
+			for ( long traceId = chunk * 100 + 1; traceId <= chunk * 100 + 100; traceId++ ) {
+				ivWriter.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+				ivWriter.writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+				ivWriter.writeRecord( new BeforeOperationEvent( 2000000L, traceId, 1, "op2", "class1" ) );
+				ivWriter.writeRecord( new AfterOperationEvent( 3000000L, traceId, 2, "op2", "class1" ) );
+				ivWriter.writeRecord( new AfterOperationFailedEvent( 5000000L, traceId, 3, "op1", "class1", "exception" ) );
+			}
+			uncompressedBytes += ivWriter.getSize( );
+
+			final File file = new File( ivTemporaryFolder.getRoot( ), fileNames[chunk] );
+			try ( final OutputStream outputStream = createCompressingStream( chunk, new FileOutputStream( file ) ) ) {
+				outputStream.write( ivWriter.getBytes( ) );
+			}
+		}
+		ivWriter.writeMappingFile( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ) );
+
+		// Make sure that all files have been decompressed correctly
+		assertThat( service.getTraceRoots( ), hasSize( 500 ) );
+		assertThat( service.getMethods( ), hasSize( 1000 ) );
+		assertThat( service.getAggreatedMethods( ), hasSize( 2 ) );
+		assertThat( service.getDanglingRecords( ), is( 0 ) );
+		assertThat( service.getIncompleteTraces( ), is( 0 ) );
+		assertThat( service.getProcessedBytes( ), is( uncompressedBytes ) );
+		assertThat( service.getTraceRoots( ).get( 0 ).getDuration( ), is( 4000000L ) );
+		final MethodCall firstChild = service.getTraceRoots( ).get( 0 ).getChildren( ).get( 0 );
+		assertThat( service.getSymbolTable( ).resolve( firstChild.getMethodId( ) ), is( "op2" ) );
+	}
+
+	private OutputStream createCompressingStream( final int aChunk, final OutputStream aOutputStream ) throws IOException {
+		switch ( aChunk ) {
+			case 1:
+				return new XZOutputStream( aOutputStream, new LZMA2Options( ) );
+			case 2:
+				final ZipOutputStream zipOutputStream = new ZipOutputStream( aOutputStream );
+				zipOutputStream.putNextEntry( new ZipEntry( "kieker-3.bin" ) );
+				return zipOutputStream;
+			case 3:
+				return new DeflaterOutputStream( aOutputStream );
+			case 0:
+			default:
+				return new GZIPOutputStream( aOutputStream );
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.AfterOperationFailedEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.CallingContextTree;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.LiveImport;
+import kieker.diagnosis.service.data.LiveImportListener;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+
+/**
+ * Test class for the {@link LogTailer}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class LogTailerTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testLiveImport( ) throws Exception {
+		// Prepare ten traces. We remember where the sixth trace starts.
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		int sixthTraceStart = 0;
+		for ( long traceId = 1; traceId <= 10; traceId++ ) {
+			if ( traceId == 6 ) {
+				sixthTraceStart = writer.getSize( );
+			}
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+			writer.writeRecord( new BeforeOperationEvent( 2000000L, traceId, 1, "op2", "class1" ) );
+			writer.writeRecord( new AfterOperationEvent( 2000000L + traceId * 1000000L, traceId, 2, "op2", "class1" ) );
+			writer.writeRecord( new AfterOperationFailedEvent( 5000000L + traceId * 1000000L, traceId, 3, "op1", "class1", "exception" ) );
+		}
+		writer.writeMappingFile( );
+		final byte[] bytes = writer.getBytes( );
+
+		// Write the first five traces and a part of the sixth trace (including an incomplete record)
+		final File binaryFile = new File( ivTemporaryFolder.getRoot( ), "kieker.bin" );
+		final int firstPartLength = sixthTraceStart + 50;
+		try ( final FileOutputStream outputStream = new FileOutputStream( binaryFile ) ) {
+			outputStream.write( bytes, 0, firstPartLength );
+		}
+
+		// The data is published in our thread
+		final BlockingQueue<Runnable> publications = new LinkedBlockingQueue<>( );
+		final List<Exception> exceptions = new ArrayList<>( );
+		final LiveImportListener listener = new LiveImportListener( ) {
+
+			@Override
+			public void newDataAvailable( ) {
+				// Nothing to do here
+			}
+
+			@Override
+			public void liveImportFailed( final Exception aException ) {
+				exceptions.add( aException );
+			}
+
+		};
+
+		final MonitoringLogService service = MonitoringLogImporter.createService( );
+		final CallingContextTree callingContextTree;
+		System.setProperty( "liveImportInterval", "10" );
+		try {
+			final LiveImport liveImport = service.startLiveImport( ivTemporaryFolder.getRoot( ), publications::add, listener );
+
+			publishUntilTraceRoots( service, publications, 5 );
+			assertThat( service.getTraceRoots( ), hasSize( 5 ) );
+			assertThat( service.getMethods( ), hasSize( 10 ) );
+			assertThat( service.getAggreatedMethods( ), hasSize( 2 ) );
+			assertThat( service.getAggreatedMethods( ).get( 0 ).getCount( ), is( 5 ) );
+			assertThat( service.getIncompleteTraces( ), is( 1 ) );
+			callingContextTree = service.getCallingContextTree( );
+			assertThat( callingContextTree.getRoots( ).get( 0 ).getCount( ), is( 5L ) );
+
+			// Now the monitored system writes the rest of the traces
+			try ( final FileOutputStream outputStream = new FileOutputStream( binaryFile, true ) ) {
+				outputStream.write( bytes, firstPartLength, bytes.length - firstPartLength );
+			}
+
+			publishUntilTraceRoots( service, publications, 10 );
+			liveImport.stop( );
+		} finally {
+			System.clearProperty( "liveImportInterval" );
+		}
+
+		// The aggregated methods should have been updated, instead of being created again
+		assertThat( exceptions, hasSize( 0 ) );
+		assertThat( service.getTraceRoots( ), hasSize( 10 ) );
+		assertThat( service.getMethods( ), hasSize( 20 ) );
+		assertThat( service.getAggreatedMethods( ), hasSize( 2 ) );
+		assertThat( service.getIncompleteTraces( ), is( 0 ) );
+		assertThat( service.getProcessedBytes( ), is( ( long ) bytes.length ) );
+
+		for ( final AggregatedMethodCall aggregatedMethodCall : service.getAggreatedMethods( ) ) {
+			assertThat( aggregatedMethodCall.getCount( ), is( 10 ) );
+		}
+		final AggregatedMethodCall op2 = service.getAggreatedMethods( ).get( 1 );
+		assertThat( service.getSymbolTable( ).resolve( op2.getMethodId( ) ), is( "op2" ) );
+		assertThat( op2.getMinDuration( ), is( 1000000L ) );
+		assertThat( op2.getMaxDuration( ), is( 10000000L ) );
+		assertThat( op2.getTotalDuration( ), is( 55000000L ) );
+
+		// The live aggregation keeps no durations, which means that the median is taken from the histogram
+		final DurationHistogram histogram = new DurationHistogram( DurationHistogram.DEFAULT_PRECISION );
+		for ( long duration = 1000000L; duration <= 10000000L; duration += 1000000L ) {
+			histogram.record( duration );
+		}
+		assertThat( op2.getMedianDuration( ), is( histogram.getValueAtPercentile( 50.0 ) ) );
+
+		// The new traces should have been merged into the existing calling context tree
+		assertThat( service.getCallingContextTree( ), is( sameInstance( callingContextTree ) ) );
+		assertThat( callingContextTree.getTraceCount( ), is( 10 ) );
+		assertThat( callingContextTree.getRoots( ).get( 0 ).getCount( ), is( 10L ) );
+		assertThat( callingContextTree.getRoots( ).get( 0 ).getChildren( ).get( 0 ).getSelfDuration( ), is( op2.getTotalDuration( ) ) );
+	}
+
+	private static void publishUntilTraceRoots( final MonitoringLogService aService, final BlockingQueue<Runnable> aPublications, final int aTraceRoots )
+			throws InterruptedException {
+		final long deadline = System.currentTimeMillis( ) + 10000;
+
+		while ( aService.getTraceRoots( ).size( ) < aTraceRoots && System.currentTimeMillis( ) < deadline ) {
+			final Runnable publication = aPublications.poll( 1, TimeUnit.SECONDS );
+			if ( publication != null ) {
+				publication.run( );
+			}
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.controlflow.OperationExecutionRecord;
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.common.record.flow.trace.operation.CallOperationEvent;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+
+/**
+ * Test class for the {@link RecordHandlerTable}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class RecordHandlerTableTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	private MonitoringLogWriter ivWriter;
+
+	@Before
+	public void setUp( ) {
+		ivWriter = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+	}
+
+	@Test
+	public void testCallOperationEvents( ) throws Exception {
+		ivWriter.writeRecord( new TraceMetadata( 1L, 0L, "0", "host", 0L, 0 ) );
+		ivWriter.writeRecord( new BeforeOperationEvent( 1000000L, 1L, 0, "op1", "class1" ) );
+		ivWriter.writeRecord( new CallOperationEvent( 1500000L, 1L, 1, "op1", "class1", "op2", "class2" ) );
+		ivWriter.writeRecord( new BeforeOperationEvent( 2000000L, 1L, 2, "op2", "class2" ) );
+		ivWriter.writeRecord( new AfterOperationEvent( 3000000L, 1L, 3, "op2", "class2" ) );
+		ivWriter.writeRecord( new AfterOperationEvent( 4000000L, 1L, 4, "op1", "class1" ) );
+		ivWriter.writeMappingFile( );
+		ivWriter.finishWriting( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ) );
+
+		// The call events are part of the trace and should not be counted as ignored records
+		assertThat( service.getTraceRoots( ), hasSize( 1 ) );
+		assertThat( service.getMethods( ), hasSize( 2 ) );
+		assertThat( service.getIgnoredRecords( ), is( 0 ) );
+		assertThat( service.getTraceRoots( ).get( 0 ).getChildren( ).get( 0 ).getDuration( ), is( 1000000L ) );
+	}
+
+	@Test
+	public void testOperationExecutionRecords( ) throws Exception {
+		// The records are written when the method calls are finished. The root is therefore written last.
+		ivWriter.writeRecord( new OperationExecutionRecord( "public void pkg.Class2.op2()", "session", 1L, 2000000L, 3000000L, "host", 1, 1 ) );
+		ivWriter.writeRecord( new OperationExecutionRecord( "public void pkg.Class4.op4(int)", "session", 1L, 4000000L, 5000000L, "host", 3, 2 ) );
+		ivWriter.writeRecord( new OperationExecutionRecord( "public void pkg.Class3.op3(int)", "session", 1L, 3500000L, 6000000L, "host", 2, 1 ) );
+		ivWriter.writeRecord( new OperationExecutionRecord( "public static void pkg.Class1.op1()", "session", 1L, 1000000L, 7000000L, "host", 0, 0 ) );
+		ivWriter.writeRecord( new OperationExecutionRecord( "op5", "session", 2L, 1000000L, 2000000L, "host", 1, 1 ) );
+		ivWriter.writeMappingFile( );
+		ivWriter.finishWriting( );
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ) );
+
+		assertOperationExecutionRecords( service );
+	}
+
+	/**
+	 * Makes sure that the given service contains the traces of the operation execution records of {@link #testOperationExecutionRecords()}.
+	 *
+	 * @param aService
+	 *                 The service containing the imported monitoring log.
+	 */
+	static void assertOperationExecutionRecords( final MonitoringLogService aService ) {
+		// The second trace has no root and is therefore incomplete
+		assertThat( aService.getTraceRoots( ), hasSize( 1 ) );
+		assertThat( aService.getMethods( ), hasSize( 4 ) );
+		assertThat( aService.getIncompleteTraces( ), is( 1 ) );
+		assertThat( aService.getIgnoredRecords( ), is( 0 ) );
+
+		final SymbolTable symbolTable = aService.getSymbolTable( );
+		final MethodCall root = aService.getTraceRoots( ).get( 0 );
+		assertThat( symbolTable.resolve( root.getClazzId( ) ), is( "pkg.Class1" ) );
+		assertThat( symbolTable.resolve( root.getMethodId( ) ), is( "public static void pkg.Class1.op1()" ) );
+		assertThat( symbolTable.resolve( root.getHostId( ) ), is( "host" ) );
+		assertThat( root.getTimestamp( ), is( 1L ) );
+		assertThat( root.getDuration( ), is( 6000000L ) );
+		assertThat( root.getTraceSize( ), is( 4 ) );
+		assertThat( root.getTraceDepth( ), is( 3 ) );
+		assertThat( root.getChildren( ), hasSize( 2 ) );
+
+		final MethodCall secondChild = root.getChildren( ).get( 1 );
+		assertThat( symbolTable.resolve( root.getChildren( ).get( 0 ).getClazzId( ) ), is( "pkg.Class2" ) );
+		assertThat( symbolTable.resolve( secondChild.getClazzId( ) ), is( "pkg.Class3" ) );
+		assertThat( secondChild.getTraceSize( ), is( 2 ) );
+		assertThat( symbolTable.resolve( secondChild.getChildren( ).get( 0 ).getMethodId( ) ),
+				is( "public void pkg.Class4.op4(int)" ) );
+	}
+
+}
@@ -0,0 +1,164 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceShape;
+
+/**
+ * Test class for the {@link ShardedImporter}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class ShardedImporterTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testParallelImportEqualsSequentialImport( ) throws Exception {
+		// Prepare some directories. Each of them contains an incomplete trace and a dangling record.
+		for ( int directoryIndex = 0; directoryIndex < 8; directoryIndex++ ) {
+			final File directory = ivTemporaryFolder.newFolder( "directory" + directoryIndex );
+			final MonitoringLogWriter writer = new MonitoringLogWriter( directory );
+
+			final String host = "host" + directoryIndex;
+			for ( long traceId = 1; traceId <= 50; traceId++ ) {
+				writer.writeRecord( new TraceMetadata( traceId, 0L, "0", host, 0L, 0 ) );
+				writer.writeRecord( new BeforeOperationEvent( traceId * 10, traceId, 0, "op1", "class" + directoryIndex ) );
+				writer.writeRecord( new BeforeOperationEvent( traceId * 10 + 1, traceId, 1, "op2", "class" + directoryIndex ) );
+				writer.writeRecord( new AfterOperationEvent( traceId * 10 + 2, traceId, 2, "op2", "class" + directoryIndex ) );
+				writer.writeRecord( new AfterOperationEvent( traceId * 10 + 5, traceId, 3, "op1", "class" + directoryIndex ) );
+			}
+			writer.writeRecord( new TraceMetadata( 100L, 0L, "0", host, 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( 1000, 100L, 0, "op1", "class" + directoryIndex ) );
+			writer.writeRecord( new BeforeOperationEvent( 1000, 200L, 0, "op1", "class" + directoryIndex ) );
+
+			writer.writeMappingFile( );
+			writer.finishWriting( );
+		}
+
+		final MonitoringLogService sequentialService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "importParallelism", "1" );
+		final MonitoringLogService parallelService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "importParallelism", "4" );
+		final SymbolTable sequentialSymbols = sequentialService.getSymbolTable( );
+		final SymbolTable parallelSymbols = parallelService.getSymbolTable( );
+
+		// Make sure that both imports deliver the same result
+		assertThat( sequentialService.getTraceRoots( ), hasSize( 400 ) );
+		assertThat( sequentialService.getIncompleteTraces( ), is( 8 ) );
+		assertThat( sequentialService.getDanglingRecords( ), is( 8 ) );
+
+		assertThat( parallelService.getTraceRoots( ), hasSize( sequentialService.getTraceRoots( ).size( ) ) );
+		assertThat( parallelService.getMethods( ), hasSize( sequentialService.getMethods( ).size( ) ) );
+		assertThat( parallelService.getAggreatedMethods( ), hasSize( sequentialService.getAggreatedMethods( ).size( ) ) );
+		assertThat( parallelService.getIncompleteTraces( ), is( sequentialService.getIncompleteTraces( ) ) );
+		assertThat( parallelService.getDanglingRecords( ), is( sequentialService.getDanglingRecords( ) ) );
+		assertThat( parallelService.getProcessedBytes( ), is( sequentialService.getProcessedBytes( ) ) );
+
+		for ( int index = 0; index < sequentialService.getTraceRoots( ).size( ); index++ ) {
+			final MethodCall sequentialRoot = sequentialService.getTraceRoots( ).get( index );
+			final MethodCall parallelRoot = parallelService.getTraceRoots( ).get( index );
+
+			assertThat( parallelSymbols.resolve( parallelRoot.getHostId( ) ), is( sequentialSymbols.resolve( sequentialRoot.getHostId( ) ) ) );
+			assertThat( parallelSymbols.resolve( parallelRoot.getClazzId( ) ), is( sequentialSymbols.resolve( sequentialRoot.getClazzId( ) ) ) );
+			assertThat( parallelRoot.getTraceId( ), is( sequentialRoot.getTraceId( ) ) );
+			assertThat( parallelRoot.getDuration( ), is( sequentialRoot.getDuration( ) ) );
+		}
+
+		for ( int index = 0; index < sequentialService.getMethods( ).size( ); index++ ) {
+			final MethodCall sequentialMethod = sequentialService.getMethods( ).get( index );
+			final MethodCall parallelMethod = parallelService.getMethods( ).get( index );
+
+			assertThat( parallelSymbols.resolve( parallelMethod.getHostId( ) ), is( sequentialSymbols.resolve( sequentialMethod.getHostId( ) ) ) );
+			assertThat( parallelSymbols.resolve( parallelMethod.getMethodId( ) ), is( sequentialSymbols.resolve( sequentialMethod.getMethodId( ) ) ) );
+			assertThat( parallelMethod.getTraceId( ), is( sequentialMethod.getTraceId( ) ) );
+		}
+
+		// The partitions of the aggregation are merged in their order, which means that the aggregated methods have the same order as well. The
+		// services own different symbol tables, which is why the symbols are compared instead of their identifiers
+		for ( int index = 0; index < sequentialService.getAggreatedMethods( ).size( ); index++ ) {
+			final AggregatedMethodCall sequentialMethod = sequentialService.getAggreatedMethods( ).get( index );
+			final AggregatedMethodCall parallelMethod = parallelService.getAggreatedMethods( ).get( index );
+
+			assertThat( parallelSymbols.resolve( parallelMethod.getMethodId( ) ), is( sequentialSymbols.resolve( sequentialMethod.getMethodId( ) ) ) );
+			assertThat( parallelSymbols.resolve( parallelMethod.getClazzId( ) ), is( sequentialSymbols.resolve( sequentialMethod.getClazzId( ) ) ) );
+			assertThat( parallelMethod.getCount( ), is( sequentialMethod.getCount( ) ) );
+			assertThat( parallelMethod.getMedianDuration( ), is( sequentialMethod.getMedianDuration( ) ) );
+			assertThat( parallelMethod.getP99Duration( ), is( sequentialMethod.getP99Duration( ) ) );
+		}
+
+		// The shape hashes depend on the symbol ids, which are only deterministic within a sequential import. The grouping of the traces is the same
+		// nevertheless.
+		assertThat( parallelService.getTraceShapeIndex( ).getShapes( ), hasSize( sequentialService.getTraceShapeIndex( ).size( ) ) );
+		for ( int index = 0; index < sequentialService.getTraceShapeIndex( ).size( ); index++ ) {
+			final TraceShape sequentialShape = sequentialService.getTraceShapeIndex( ).getShapes( ).get( index );
+			final TraceShape parallelShape = parallelService.getTraceShapeIndex( ).getShapes( ).get( index );
+
+			assertThat( parallelShape.getTraceIndices( ), is( sequentialShape.getTraceIndices( ) ) );
+		}
+	}
+
+	@Test
+	public void testSymbolIdsOfParallelImportIdentifySymbols( ) throws Exception {
+		// Each directory uses the same symbols in another order, which means that the shards intern them concurrently
+		final String[] methods = { "op1", "op2", "op3", "op4" };
+		for ( int directoryIndex = 0; directoryIndex < 8; directoryIndex++ ) {
+			final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.newFolder( "directory" + directoryIndex ) );
+			for ( long traceId = 1; traceId <= 50; traceId++ ) {
+				final String method = methods[( int ) ( ( traceId + directoryIndex ) % methods.length )];
+				writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+				writer.writeRecord( new BeforeOperationEvent( traceId * 10, traceId, 0, method, "class" ) );
+				writer.writeRecord( new AfterOperationEvent( traceId * 10 + 5, traceId, 1, method, "class" ) );
+			}
+			writer.writeMappingFile( );
+			writer.finishWriting( );
+		}
+
+		final MonitoringLogService service = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "importParallelism", "8" );
+
+		// Whatever ids have been assigned, two method calls have the same id if and only if they have the same symbol
+		final SymbolTable symbolTable = service.getSymbolTable( );
+		assertThat( service.getMethods( ), hasSize( 400 ) );
+		for ( final MethodCall first : service.getMethods( ) ) {
+			for ( final MethodCall second : service.getMethods( ) ) {
+				assertThat( first.getMethodId( ) == second.getMethodId( ),
+						is( symbolTable.resolve( first.getMethodId( ) ).equals( symbolTable.resolve( second.getMethodId( ) ) ) ) );
+			}
+		}
+		assertThat( service.getAggreatedMethods( ), hasSize( methods.length ) );
+		assertThat( service.getTraceShapeIndex( ).getShapes( ), hasSize( methods.length ) );
+	}
+
+}
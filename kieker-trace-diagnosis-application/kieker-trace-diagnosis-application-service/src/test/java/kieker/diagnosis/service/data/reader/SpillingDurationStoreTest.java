@@ -0,0 +1,136 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.carrotsearch.hppc.LongArrayList;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.DurationHistogram;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+
+/**
+ * Test class for the {@link SpillingDurationStore}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SpillingDurationStoreTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testSpilledAggregationEqualsInMemoryAggregation( ) throws Exception {
+		// The durations are not sorted, which makes sure that the merged runs deliver the correct median
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		for ( long traceId = 1; traceId <= 31; traceId++ ) {
+			final long duration = ( traceId * 7 ) % 31;
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId * 100, traceId, 0, "op1", "class1" ) );
+			writer.writeRecord( new BeforeOperationEvent( traceId * 100 + 1, traceId, 1, "op2", "class2" ) );
+			writer.writeRecord( new AfterOperationEvent( traceId * 100 + 1 + duration, traceId, 2, "op2", "class2" ) );
+			writer.writeRecord( new AfterOperationEvent( traceId * 100 + 50, traceId, 3, "op1", "class1" ) );
+		}
+		writer.writeMappingFile( );
+		writer.finishWriting( );
+
+		// Without a memory budget, every duration is spilled to the temporary file
+		final MonitoringLogService inMemoryService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "aggregationMemoryBudget", "512" );
+		final MonitoringLogService spilledService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), "aggregationMemoryBudget", "0" );
+
+		final List<AggregatedMethodCall> inMemoryMethods = inMemoryService.getAggreatedMethods( );
+		final List<AggregatedMethodCall> spilledMethods = spilledService.getAggreatedMethods( );
+		assertThat( spilledMethods, hasSize( 2 ) );
+		assertThat( inMemoryMethods, hasSize( 2 ) );
+
+		for ( int index = 0; index < inMemoryMethods.size( ); index++ ) {
+			final AggregatedMethodCall inMemoryMethod = inMemoryMethods.get( index );
+			final AggregatedMethodCall spilledMethod = spilledMethods.get( index );
+
+			assertThat( spilledMethod.getMethodId( ), is( inMemoryMethod.getMethodId( ) ) );
+			assertThat( spilledMethod.getCount( ), is( inMemoryMethod.getCount( ) ) );
+			assertThat( spilledMethod.getMinDuration( ), is( inMemoryMethod.getMinDuration( ) ) );
+			assertThat( spilledMethod.getMedianDuration( ), is( inMemoryMethod.getMedianDuration( ) ) );
+			assertThat( spilledMethod.getMaxDuration( ), is( inMemoryMethod.getMaxDuration( ) ) );
+			assertThat( spilledMethod.getAvgDuration( ), is( inMemoryMethod.getAvgDuration( ) ) );
+			assertThat( spilledMethod.getTotalDuration( ), is( inMemoryMethod.getTotalDuration( ) ) );
+			assertThat( spilledMethod.getP99Duration( ), is( inMemoryMethod.getP99Duration( ) ) );
+		}
+
+		final AggregatedMethodCall aggregatedMethodCall = spilledMethods.get( 1 );
+		assertThat( spilledService.getSymbolTable( ).resolve( aggregatedMethodCall.getMethodId( ) ), is( "op2" ) );
+		assertThat( aggregatedMethodCall.getCount( ), is( 31 ) );
+		assertThat( aggregatedMethodCall.getMinDuration( ), is( 0L ) );
+		assertThat( aggregatedMethodCall.getMedianDuration( ), is( 15L ) );
+		assertThat( aggregatedMethodCall.getMaxDuration( ), is( 30L ) );
+		assertThat( aggregatedMethodCall.getTotalDuration( ), is( 465L ) );
+		assertThat( aggregatedMethodCall.getP90Duration( ), is( 27L ) );
+		assertThat( aggregatedMethodCall.getP95Duration( ), is( 29L ) );
+		assertThat( aggregatedMethodCall.getP99Duration( ), is( 30L ) );
+		assertThat( aggregatedMethodCall.getP999Duration( ), is( 30L ) );
+	}
+
+	@Test
+	public void testMedianIsFoundInManyRuns( ) throws Exception {
+		// The budget holds only two durations, which means that nearly every batch of durations is spilled into its own run
+		final LongArrayList allDurations = new LongArrayList( );
+		final AggregatedMethodCall aggregatedMethodCall = new AggregatedMethodCall( );
+		try ( final SpillingDurationStore store = new SpillingDurationStore( 2 * Long.BYTES, DurationHistogram.DEFAULT_PRECISION ) ) {
+			final int aggregatedMethod = store.addAggregatedMethod( );
+			final Random random = new Random( 42L );
+			for ( int batch = 0; batch < 2000; batch++ ) {
+				final LongArrayList durations = new LongArrayList( );
+				final DurationHistogram histogram = new DurationHistogram( DurationHistogram.DEFAULT_PRECISION );
+				for ( int index = 0; index < 3; index++ ) {
+					final long duration = random.nextInt( 100000 );
+					durations.add( duration );
+					histogram.record( duration );
+					allDurations.add( duration );
+				}
+				store.addDurations( aggregatedMethod, durations, histogram );
+			}
+
+			assertThat( store.isSpilled( ), is( true ) );
+			store.calculateValues( aggregatedMethod, aggregatedMethodCall );
+		}
+
+		// The median has to be the exact median of all durations
+		final long[] sortedDurations = allDurations.toArray( );
+		Arrays.sort( sortedDurations );
+		assertThat( aggregatedMethodCall.getCount( ), is( 6000 ) );
+		assertThat( aggregatedMethodCall.getMedianDuration( ), is( sortedDurations[3000] ) );
+		assertThat( aggregatedMethodCall.getMinDuration( ), is( sortedDurations[0] ) );
+		assertThat( aggregatedMethodCall.getMaxDuration( ), is( sortedDurations[5999] ) );
+	}
+
+}
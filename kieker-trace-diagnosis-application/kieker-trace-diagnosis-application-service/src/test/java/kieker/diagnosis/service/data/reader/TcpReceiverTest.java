@@ -0,0 +1,161 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.common.util.registry.IRegistry;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+
+/**
+ * Test class for the {@link TcpReceiver}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TcpReceiverTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testTcpImport( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		for ( long traceId = 1; traceId <= 10; traceId++ ) {
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+			writer.writeRecord( new BeforeOperationEvent( 2000000L, traceId, 1, "op2", "class1" ) );
+			writer.writeRecord( new AfterOperationEvent( 3000000L, traceId, 2, "op2", "class1" ) );
+			writer.writeRecord( new AfterOperationEvent( 5000000L, traceId, 3, "op1", "class1" ) );
+		}
+		final byte[] bytes = writer.getBytes( );
+
+		// We allow only two pending traces, which means that the receiver has to wait for the publications
+		final MonitoringLogService service = MonitoringLogImporter.createService( );
+		final TcpReceiver tcpReceiver = new TcpReceiver( service, 0, 2, 0 );
+		try ( final Socket socket = new Socket( InetAddress.getLoopbackAddress( ), tcpReceiver.getPort( ) ) ) {
+			final OutputStream outputStream = socket.getOutputStream( );
+			outputStream.write( createRegistrations( writer.getStringRegistry( ) ) );
+
+			// The first part ends within a record
+			outputStream.write( bytes, 0, 150 );
+			outputStream.flush( );
+			Thread.sleep( 50 );
+			outputStream.write( bytes, 150, bytes.length - 150 );
+			outputStream.flush( );
+
+			final long deadline = System.currentTimeMillis( ) + 10000;
+			while ( service.getTraceRoots( ).size( ) < 10 && System.currentTimeMillis( ) < deadline ) {
+				tcpReceiver.poll( ).run( );
+				Thread.sleep( 10 );
+			}
+		} finally {
+			tcpReceiver.close( );
+		}
+
+		assertThat( service.getTraceRoots( ), hasSize( 10 ) );
+		assertThat( service.getMethods( ), hasSize( 20 ) );
+		assertThat( service.getAggreatedMethods( ), hasSize( 2 ) );
+		assertThat( service.getIgnoredRecords( ), is( 0 ) );
+		assertThat( service.getIncompleteTraces( ), is( 0 ) );
+		assertThat( service.getTraceRoots( ).get( 9 ).getTraceId( ), is( 10L ) );
+		final MethodCall firstChild = service.getTraceRoots( ).get( 9 ).getChildren( ).get( 0 );
+		assertThat( service.getSymbolTable( ).resolve( firstChild.getMethodId( ) ), is( "op2" ) );
+	}
+
+	@Test
+	public void testClosedConnectionsAreRemoved( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		for ( long traceId = 1; traceId <= 10; traceId++ ) {
+			writer.writeRecord( new TraceMetadata( traceId, 0L, "0", "host", 0L, 0 ) );
+			writer.writeRecord( new BeforeOperationEvent( 1000000L, traceId, 0, "op1", "class1" ) );
+			writer.writeRecord( new AfterOperationEvent( 5000000L, traceId, 1, "op1", "class1" ) );
+		}
+		final byte[] bytes = writer.getBytes( );
+
+		// The last connection is closed within a trace
+		writer.writeRecord( new TraceMetadata( 11L, 0L, "0", "host", 0L, 0 ) );
+		writer.writeRecord( new BeforeOperationEvent( 1000000L, 11L, 0, "op1", "class1" ) );
+		final byte[] bytesWithIncompleteTrace = writer.getBytes( );
+		final byte[] registrations = createRegistrations( writer.getStringRegistry( ) );
+
+		// The monitored system reconnects for each part
+		final MonitoringLogService service = MonitoringLogImporter.createService( );
+		final TcpReceiver tcpReceiver = new TcpReceiver( service, 0, 100, 0 );
+		try {
+			for ( final byte[] part : new byte[][] { bytes, bytes, bytesWithIncompleteTrace } ) {
+				try ( final Socket socket = new Socket( InetAddress.getLoopbackAddress( ), tcpReceiver.getPort( ) ) ) {
+					final OutputStream outputStream = socket.getOutputStream( );
+					outputStream.write( registrations );
+					outputStream.write( part );
+					outputStream.flush( );
+				}
+			}
+
+			final long deadline = System.currentTimeMillis( ) + 10000;
+			while ( ( service.getTraceRoots( ).size( ) < 30 || tcpReceiver.getConnectionCount( ) > 0 ) && System.currentTimeMillis( ) < deadline ) {
+				tcpReceiver.poll( ).run( );
+				Thread.sleep( 10 );
+			}
+
+			assertThat( tcpReceiver.getConnectionCount( ), is( 0 ) );
+		} finally {
+			tcpReceiver.close( );
+		}
+
+		// The statistics of the removed connections must be kept
+		assertThat( service.getTraceRoots( ), hasSize( 30 ) );
+		assertThat( service.getIncompleteTraces( ), is( 1 ) );
+		assertThat( service.getProcessedBytes( ), is( 3L * registrations.length + 2L * bytes.length + bytesWithIncompleteTrace.length ) );
+	}
+
+	private static byte[] createRegistrations( final IRegistry<String> aStringRegistry ) {
+		// The strings are registered within the stream, just like Kieker's TCP writer does it
+		final ByteBuffer registrations = ByteBuffer.allocate( 10000 );
+		final Object[] allStrings = aStringRegistry.getAll( );
+		for ( final Object string : allStrings ) {
+			final byte[] bytes = ( ( String ) string ).getBytes( StandardCharsets.UTF_8 );
+			registrations.putInt( -1 );
+			registrations.putInt( aStringRegistry.get( ( String ) string ) );
+			registrations.putInt( bytes.length );
+			registrations.put( bytes );
+		}
+		registrations.flip( );
+
+		final byte[] bytes = new byte[registrations.remaining( )];
+		registrations.get( bytes );
+		return bytes;
+	}
+
+}
@@ -0,0 +1,100 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+
+package kieker.diagnosis.service.data.reader;
+
+import java.lang.management.ManagementFactory;
+
+import kieker.diagnosis.service.data.ArrayTraceStore;
+import kieker.diagnosis.service.data.ImportProgress;
+import kieker.diagnosis.service.data.MonitoringLogService;
+
+/**
+ * This is a microbenchmark for the trace reconstruction within the {@link TemporaryRepository}. It measures the time and the number of allocated bytes
+ * per processed record. The reconstruction into method call objects (with lists of children) is compared with the reconstruction directly into an
+ * {@link ArrayTraceStore}. In both cases, the finished traces are kept, as they would be during an import. It is not executed during the build and has to
+ * be started manually.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TemporaryRepositoryBenchmark {
+
+	private static final int TRACES = 250_000;
+	private static final int METHOD_CALLS_PER_TRACE = 8;
+	private static final int INTERLEAVED_TRACES = 64;
+	private static final int RUNS = 5;
+
+	private TemporaryRepositoryBenchmark( ) {
+	}
+
+	public static void main( final String[] aArgs ) {
+		final com.sun.management.ThreadMXBean threadMXBean = ( com.sun.management.ThreadMXBean ) ManagementFactory.getThreadMXBean( );
+		final long threadId = Thread.currentThread( ).getId( );
+
+		for ( int run = 1; run <= RUNS; run++ ) {
+			for ( final boolean useTraceStore : new boolean[] { false, true } ) {
+				final long allocatedBefore = threadMXBean.getThreadAllocatedBytes( threadId );
+				final long tin = System.nanoTime( );
+
+				final long records = reconstructTraces( useTraceStore );
+
+				final long tout = System.nanoTime( );
+				final long allocatedAfter = threadMXBean.getThreadAllocatedBytes( threadId );
+
+				System.out.printf( "Run %d (%s): %.1f ns/record, %.1f bytes/record%n", run, useTraceStore ? "trace store" : "method calls",
+						( double ) ( tout - tin ) / records, ( double ) ( allocatedAfter - allocatedBefore ) / records );
+			}
+		}
+	}
+
+	private static long reconstructTraces( final boolean aUseTraceStore ) {
+		final MonitoringLogService monitoringLogService = new MonitoringLogService( );
+		final TemporaryRepository repository = new TemporaryRepository( monitoringLogService, new ImportProgress( ) );
+		repository.processSourceTimeUnit( "NANOSECONDS" );
+		if ( aUseTraceStore ) {
+			repository.setTraceStoreFactory( ( ) -> ArrayTraceStore.create( monitoringLogService.getSymbolTable( ) ) );
+		}
+
+		long records = 0;
+		long timestamp = 0;
+
+		// A number of traces are always open at the same time, which means that the records of the traces are interleaved
+		for ( int trace = 0; trace < TRACES; trace += INTERLEAVED_TRACES ) {
+			for ( int openTrace = 0; openTrace < INTERLEAVED_TRACES; openTrace++ ) {
+				repository.processTraceMetadata( trace + openTrace, "host" );
+				records++;
+			}
+
+			for ( int methodCall = 0; methodCall < METHOD_CALLS_PER_TRACE; methodCall++ ) {
+				for ( int openTrace = 0; openTrace < INTERLEAVED_TRACES; openTrace++ ) {
+					repository.processBeforeOperationEvent( timestamp++, trace + openTrace );
+					records++;
+				}
+			}
+
+			for ( int methodCall = 0; methodCall < METHOD_CALLS_PER_TRACE; methodCall++ ) {
+				for ( int openTrace = 0; openTrace < INTERLEAVED_TRACES; openTrace++ ) {
+					repository.processAfterOperationEvent( timestamp++, trace + openTrace, "method", "class" );
+					records++;
+				}
+			}
+		}
+
+		return records;
+	}
+
+}
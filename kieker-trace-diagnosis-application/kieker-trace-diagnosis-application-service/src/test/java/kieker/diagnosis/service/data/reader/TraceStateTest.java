@@ -0,0 +1,135 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import kieker.diagnosis.service.data.ImportProgress;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+
+/**
+ * Test class for the {@link TraceState}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class TraceStateTest {
+
+	@Test
+	public void testResetDiscardsPreviousTrace( ) {
+		final TraceState traceState = new TraceState( );
+		traceState.reset( 1L, 1 );
+		final int root = traceState.push( 10L );
+		final int child = traceState.push( 11L );
+		traceState.setExceptionId( child, 2 );
+		traceState.addChildShape( 42L );
+		traceState.pop( );
+		traceState.addFinishedChild( child );
+
+		// The state is reused while the first trace is still open
+		traceState.reset( 2L, 3 );
+		assertThat( traceState.getTraceId( ), is( 2L ) );
+		assertThat( traceState.getHostId( ), is( 3 ) );
+		assertThat( traceState.getSize( ), is( 0 ) );
+		assertThat( traceState.isEmpty( ), is( true ) );
+
+		// The new method calls must not contain any values of the previous trace
+		final int newRoot = traceState.push( 20L );
+		assertThat( newRoot, is( root ) );
+		assertThat( traceState.peekShapeAccumulator( ), is( 0L ) );
+		final int newChild = traceState.push( 21L );
+		assertThat( newChild, is( child ) );
+		assertThat( traceState.getExceptionId( newChild ), is( SymbolTable.NULL_SYMBOL ) );
+		assertThat( traceState.getTraceSize( newRoot ), is( 1 ) );
+		assertThat( traceState.getTraceDepth( newRoot ), is( 1 ) );
+		traceState.pop( );
+		traceState.pop( );
+
+		final MethodCall methodCall = traceState.createMethodCalls( );
+		assertThat( methodCall.getTraceId( ), is( 2L ) );
+		assertThat( methodCall.getHostId( ), is( 3 ) );
+		assertThat( methodCall.getChildren( ), hasSize( 1 ) );
+		assertThat( methodCall.getChildren( ).get( 0 ).getExceptionId( ), is( SymbolTable.NULL_SYMBOL ) );
+	}
+
+	@Test
+	public void testPooledStatesWithInterleavedTracesAndExceptions( ) {
+		final MonitoringLogService monitoringLogService = new MonitoringLogService( );
+		final SymbolTable symbolTable = monitoringLogService.getSymbolTable( );
+		final TemporaryRepository repository = new TemporaryRepository( monitoringLogService, new ImportProgress( ) );
+		repository.processSourceTimeUnit( "NANOSECONDS" );
+
+		// The first traces are interleaved and the nested method call of the first trace fails
+		repository.processTraceMetadata( 1L, "host1" );
+		repository.processTraceMetadata( 2L, "host2" );
+		repository.processBeforeOperationEvent( 10L, 1L );
+		repository.processBeforeOperationEvent( 11L, 2L );
+		repository.processBeforeOperationEvent( 12L, 1L );
+		repository.processAfterOperationFailedEvent( 13L, 1L, "op2", "class1", "exception" );
+		repository.processAfterOperationEvent( 14L, 2L, "op3", "class2" );
+		repository.processAfterOperationEvent( 15L, 1L, "op1", "class1" );
+
+		final List<MethodCall> firstTraceRoots = repository.drainTraceRoots( );
+		assertThat( firstTraceRoots, hasSize( 2 ) );
+		assertThat( symbolTable.resolve( firstTraceRoots.get( 1 ).getChildren( ).get( 0 ).getExceptionId( ) ), is( "exception" ) );
+
+		// The next traces reuse the pooled states. A reopened trace discards its previous content.
+		repository.processTraceMetadata( 3L, "host3" );
+		repository.processTraceMetadata( 4L, "host4" );
+		repository.processBeforeOperationEvent( 20L, 4L );
+		repository.processBeforeOperationEvent( 21L, 3L );
+		repository.processTraceMetadata( 4L, "host4" );
+		repository.processBeforeOperationEvent( 22L, 4L );
+		repository.processAfterOperationEvent( 23L, 3L, "op4", "class3" );
+		repository.processBeforeOperationEvent( 24L, 4L );
+		repository.processAfterOperationEvent( 25L, 4L, "op6", "class4" );
+		repository.processAfterOperationEvent( 26L, 4L, "op5", "class4" );
+
+		final List<MethodCall> secondTraceRoots = repository.drainTraceRoots( );
+		assertThat( secondTraceRoots, hasSize( 2 ) );
+
+		final MethodCall thirdTrace = secondTraceRoots.get( 0 );
+		assertThat( thirdTrace.getTraceId( ), is( 3L ) );
+		assertThat( symbolTable.resolve( thirdTrace.getHostId( ) ), is( "host3" ) );
+		assertThat( symbolTable.resolve( thirdTrace.getMethodId( ) ), is( "op4" ) );
+		assertThat( thirdTrace.getExceptionId( ), is( SymbolTable.NULL_SYMBOL ) );
+		assertThat( thirdTrace.getChildren( ), hasSize( 0 ) );
+		assertThat( thirdTrace.getTraceSize( ), is( 1 ) );
+		assertThat( thirdTrace.getTraceDepth( ), is( 1 ) );
+		assertThat( thirdTrace.getDuration( ), is( 2L ) );
+
+		final MethodCall fourthTrace = secondTraceRoots.get( 1 );
+		assertThat( fourthTrace.getTraceId( ), is( 4L ) );
+		assertThat( symbolTable.resolve( fourthTrace.getHostId( ) ), is( "host4" ) );
+		assertThat( symbolTable.resolve( fourthTrace.getMethodId( ) ), is( "op5" ) );
+		assertThat( fourthTrace.getDuration( ), is( 4L ) );
+		assertThat( fourthTrace.getExceptionId( ), is( SymbolTable.NULL_SYMBOL ) );
+		assertThat( fourthTrace.getTraceSize( ), is( 2 ) );
+		assertThat( fourthTrace.getTraceDepth( ), is( 2 ) );
+		assertThat( fourthTrace.getChildren( ), hasSize( 1 ) );
+		assertThat( fourthTrace.getChildren( ).get( 0 ).getExceptionId( ), is( SymbolTable.NULL_SYMBOL ) );
+		assertThat( fourthTrace.getChildren( ).get( 0 ).getChildren( ), hasSize( 0 ) );
+	}
+
+}
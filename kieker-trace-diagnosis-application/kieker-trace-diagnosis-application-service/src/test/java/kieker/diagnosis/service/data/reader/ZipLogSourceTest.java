@@ -0,0 +1,97 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.reader;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.service.data.ImportType;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+
+/**
+ * Test class for the {@link ZipLogSource}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class ZipLogSourceTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Test
+	public void testZipFileImport( ) throws Exception {
+		// Prepare the data in two directories
+		final File firstDirectory = ivTemporaryFolder.newFolder( "first" );
+		final MonitoringLogWriter firstWriter = new MonitoringLogWriter( firstDirectory );
+		firstWriter.writeRecord( new TraceMetadata( 1L, 0L, "0", "host", 0L, 0 ) );
+		firstWriter.writeRecord( new BeforeOperationEvent( 10L, 1L, 0, "op1", "class1" ) );
+		firstWriter.writeRecord( new AfterOperationEvent( 15L, 1L, 0, "op1", "class1" ) );
+		firstWriter.writeMappingFile( );
+		firstWriter.finishWriting( );
+
+		final File secondDirectory = ivTemporaryFolder.newFolder( "first", "second" );
+		final MonitoringLogWriter secondWriter = new MonitoringLogWriter( secondDirectory );
+		secondWriter.writeRecord( new TraceMetadata( 2L, 0L, "0", "host", 0L, 0 ) );
+		secondWriter.writeRecord( new BeforeOperationEvent( 20L, 2L, 0, "op2", "class2" ) );
+		secondWriter.writeRecord( new BeforeOperationEvent( 21L, 2L, 0, "op3", "class2" ) );
+		secondWriter.writeRecord( new AfterOperationEvent( 22L, 2L, 0, "op3", "class2" ) );
+		secondWriter.writeRecord( new AfterOperationEvent( 25L, 2L, 0, "op2", "class2" ) );
+		secondWriter.writeMappingFile( );
+		secondWriter.finishWriting( );
+
+		// Write the ZIP file. The mapping files are intentionally stored after the binary files.
+		final File zipFile = new File( ivTemporaryFolder.newFolder( "zip" ), "log.zip" );
+		try ( final ZipOutputStream zipOutputStream = new ZipOutputStream( new FileOutputStream( zipFile ) ) ) {
+			for ( final String entry : new String[] { "first/kieker.bin", "first/kieker.map", "first/second/kieker.bin", "first/second/kieker.map" } ) {
+				zipOutputStream.putNextEntry( new ZipEntry( entry ) );
+				Files.copy( new File( ivTemporaryFolder.getRoot( ), entry ), zipOutputStream );
+				zipOutputStream.closeEntry( );
+			}
+		}
+
+		// Import the ZIP file
+		final MonitoringLogService service = MonitoringLogImporter.createService( );
+		service.importMonitoringLog( zipFile, ImportType.ZIP_FILE );
+
+		// Make sure that the import worked as intended
+		assertThat( service.getTraceRoots( ), hasSize( 2 ) );
+		assertThat( service.getMethods( ), hasSize( 3 ) );
+		assertThat( service.getAggreatedMethods( ), hasSize( 3 ) );
+		assertThat( service.getSymbolTable( ).resolve( service.getTraceRoots( ).get( 0 ).getMethodId( ) ), is( "op1" ) );
+		assertThat( service.getSymbolTable( ).resolve( service.getTraceRoots( ).get( 1 ).getMethodId( ) ), is( "op2" ) );
+		assertThat( service.getSymbolTable( ).resolve( service.getTraceRoots( ).get( 1 ).getChildren( ).get( 0 ).getMethodId( ) ), is( "op3" ) );
+		assertThat( service.getProcessedBytes( ), is( new File( firstDirectory, "kieker.bin" ).length( ) + new File( secondDirectory, "kieker.bin" ).length( ) ) );
+	}
+
+}
@@ -0,0 +1,233 @@
+/*************************************************************************** 
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)         
+ *                                                                           
+ * Licensed under the Apache License, Version 2.0 (the "License");           
+ * you may not use this file except in compliance with the License.          
+ * You may obtain a copy of the License at                                   
+ *                                                                           
+ *     http://www.apache.org/licenses/LICENSE-2.0                            
+ *                                                                           
+ * Unless required by applicable law or agreed to in writing, software       
+ * distributed under the License is distributed on an "AS IS" BASIS,         
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  
+ * See the License for the specific language governing permissions and       
+ * limitations under the License.                                            
+ ***************************************************************************/
+
+package kieker.diagnosis.service.data.snapshot;
+
+import static org.hamcrest.collection.IsArrayWithSize.arrayWithSize;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+import kieker.common.record.flow.trace.TraceMetadata;
+import kieker.common.record.flow.trace.operation.AfterOperationEvent;
+import kieker.common.record.flow.trace.operation.BeforeOperationEvent;
+import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.ImportProgress;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogImporter;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.MonitoringLogWriter;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceStorage;
+
+/**
+ * Test class for the {@link SnapshotStore}.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class SnapshotStoreTest {
+
+	@Rule
+	public TemporaryFolder ivTemporaryFolder = new TemporaryFolder( );
+
+	@Rule
+	public TemporaryFolder ivSnapshotFolder = new TemporaryFolder( );
+
+	@Test
+	public void testSnapshot( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+
+		// The first import writes the snapshot
+		final MonitoringLogService importedService = importWithSnapshots( new ImportProgress( ) );
+		assertThat( ivSnapshotFolder.getRoot( ).listFiles( ), arrayWithSize( 1 ) );
+
+		// The second import reads the snapshot. This means that not a single byte of the monitoring log is read.
+		final ImportProgress importProgress = new ImportProgress( );
+		final MonitoringLogService service = importWithSnapshots( importProgress );
+		assertThat( importProgress.getProcessedBytes( ), is( 0L ) );
+		writer.assertDefaultTraces( service );
+
+		final SymbolTable importedSymbols = importedService.getSymbolTable( );
+		final SymbolTable snapshotSymbols = service.getSymbolTable( );
+		assertThat( service.getMethods( ), hasSize( importedService.getMethods( ).size( ) ) );
+		for ( int index = 0; index < importedService.getMethods( ).size( ); index++ ) {
+			final MethodCall importedMethod = importedService.getMethods( ).get( index );
+			final MethodCall snapshotMethod = service.getMethods( ).get( index );
+
+			assertThat( snapshotSymbols.resolve( snapshotMethod.getMethodId( ) ), is( importedSymbols.resolve( importedMethod.getMethodId( ) ) ) );
+			assertThat( snapshotMethod.getTraceId( ), is( importedMethod.getTraceId( ) ) );
+			assertThat( snapshotMethod.getDuration( ), is( importedMethod.getDuration( ) ) );
+			assertThat( snapshotMethod.getTraceDepth( ), is( importedMethod.getTraceDepth( ) ) );
+			assertThat( snapshotMethod.getTraceSize( ), is( importedMethod.getTraceSize( ) ) );
+			assertThat( snapshotMethod.getPercent( ), is( importedMethod.getPercent( ) ) );
+			assertThat( snapshotMethod.getChildren( ), hasSize( importedMethod.getChildren( ).size( ) ) );
+		}
+
+		final AggregatedMethodCall importedAggregatedMethod = importedService.getAggreatedMethods( ).get( 1 );
+		final AggregatedMethodCall snapshotAggregatedMethod = service.getAggreatedMethods( ).get( 1 );
+		assertThat( snapshotSymbols.resolve( snapshotAggregatedMethod.getMethodId( ) ),
+				is( importedSymbols.resolve( importedAggregatedMethod.getMethodId( ) ) ) );
+		assertThat( snapshotAggregatedMethod.getCount( ), is( importedAggregatedMethod.getCount( ) ) );
+		assertThat( snapshotAggregatedMethod.getMedianDuration( ), is( importedAggregatedMethod.getMedianDuration( ) ) );
+		assertThat( snapshotSymbols.resolve( snapshotAggregatedMethod.getExceptionId( ) ),
+				is( importedSymbols.resolve( importedAggregatedMethod.getExceptionId( ) ) ) );
+	}
+
+	@Test
+	public void testSnapshotsAreDisabledByDefault( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+
+		MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ) );
+
+		final ImportProgress importProgress = new ImportProgress( );
+		MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), importProgress );
+		assertThat( importProgress.getProcessedBytes( ), is( ( long ) writer.getSize( ) ) );
+	}
+
+	@Test
+	public void testSnapshotIsInvalidatedByChangedMonitoringLog( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+		importWithSnapshots( new ImportProgress( ) );
+
+		// Now the monitoring log grows by one trace
+		writer.writeRecord( new TraceMetadata( 501L, 0L, "0", "host", 0L, 0 ) );
+		writer.writeRecord( new BeforeOperationEvent( 1000000L, 501L, 0, "op1", "class1" ) );
+		writer.writeRecord( new AfterOperationEvent( 2000000L, 501L, 1, "op1", "class1" ) );
+		writer.finishWriting( );
+
+		final ImportProgress importProgress = new ImportProgress( );
+		final MonitoringLogService service = importWithSnapshots( importProgress );
+		assertThat( importProgress.getProcessedBytes( ), is( ( long ) writer.getSize( ) ) );
+		assertThat( service.getTraceRoots( ), hasSize( 501 ) );
+	}
+
+	@Test
+	public void testSnapshotIsInvalidatedByChangedSettings( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+		importWithSnapshots( new ImportProgress( ) );
+
+		// The percentiles and the time series depend on the settings. The snapshot must not be used anymore.
+		for ( final String key : Arrays.asList( "histogramPrecision", "timeBucketInterval" ) ) {
+			final ImportProgress importProgress = new ImportProgress( );
+			importWithSnapshots( importProgress, key, "5" );
+			assertThat( importProgress.getProcessedBytes( ), is( ( long ) writer.getSize( ) ) );
+		}
+	}
+
+	@Test
+	public void testSnapshotWithHeapStorage( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+
+		// Without a store the traces are written from and read into the method calls on the heap
+		importWithSnapshots( new ImportProgress( ), "traceStorage", "HEAP" );
+
+		final ImportProgress importProgress = new ImportProgress( );
+		final MonitoringLogService service = importWithSnapshots( importProgress, "traceStorage", "HEAP" );
+		assertThat( importProgress.getProcessedBytes( ), is( 0L ) );
+		assertThat( service.getTraceStore( ), is( nullValue( ) ) );
+		writer.assertDefaultTraces( service );
+	}
+
+	@Test
+	public void testLeastRecentlyUsedSnapshotsAreDeleted( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+
+		// An old snapshot of another monitoring log fills the snapshot directory completely
+		final File oldSnapshot = ivSnapshotFolder.newFile( "old.snapshot" );
+		Files.write( new byte[1024 * 1024], oldSnapshot );
+		assertThat( oldSnapshot.setLastModified( 0L ), is( true ) );
+
+		importWithSnapshots( new ImportProgress( ), "snapshotDirectorySize", "1" );
+
+		assertThat( oldSnapshot.exists( ), is( false ) );
+		assertThat( ivSnapshotFolder.getRoot( ).listFiles( ), arrayWithSize( 1 ) );
+
+		// The new snapshot is still used
+		final ImportProgress importProgress = new ImportProgress( );
+		final MonitoringLogService service = importWithSnapshots( importProgress );
+		assertThat( importProgress.getProcessedBytes( ), is( 0L ) );
+		writer.assertDefaultTraces( service );
+	}
+
+	@Test
+	public void testColumnsAreMappedInSegments( ) throws Exception {
+		final MonitoringLogWriter writer = new MonitoringLogWriter( ivTemporaryFolder.getRoot( ) );
+		writer.writeDefaultTraces( );
+		final MonitoringLogService importedService = MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ) );
+
+		final byte[] key = "key".getBytes( StandardCharsets.UTF_8 );
+		new SnapshotStore( ivSnapshotFolder.getRoot( ), Long.MAX_VALUE ).writeSnapshot( key, importedService );
+
+		// The tiny segments make sure that the values are read from a lot of segments and that some of them end within a value
+		for ( final TraceStorage traceStorage : TraceStorage.values( ) ) {
+			System.setProperty( "traceStorage", traceStorage.name( ) );
+			try {
+				final MonitoringLogService service = MonitoringLogImporter.createService( );
+				assertThat( new SnapshotStore( ivSnapshotFolder.getRoot( ), Long.MAX_VALUE, 100 ).readSnapshot( key, service ), is( true ) );
+
+				writer.assertDefaultTraces( service );
+				final SymbolTable importedSymbols = importedService.getSymbolTable( );
+				final SymbolTable snapshotSymbols = service.getSymbolTable( );
+				assertThat( service.getMethods( ), hasSize( importedService.getMethods( ).size( ) ) );
+				for ( int index = 0; index < importedService.getMethods( ).size( ); index++ ) {
+					final MethodCall importedMethod = importedService.getMethods( ).get( index );
+					final MethodCall snapshotMethod = service.getMethods( ).get( index );
+
+					assertThat( snapshotMethod.getTimestamp( ), is( importedMethod.getTimestamp( ) ) );
+					assertThat( snapshotMethod.getDuration( ), is( importedMethod.getDuration( ) ) );
+					assertThat( snapshotMethod.getSelfDuration( ), is( importedMethod.getSelfDuration( ) ) );
+					assertThat( snapshotMethod.getTraceId( ), is( importedMethod.getTraceId( ) ) );
+					assertThat( snapshotSymbols.resolve( snapshotMethod.getHostId( ) ), is( importedSymbols.resolve( importedMethod.getHostId( ) ) ) );
+					assertThat( snapshotSymbols.resolve( snapshotMethod.getClazzId( ) ), is( importedSymbols.resolve( importedMethod.getClazzId( ) ) ) );
+					assertThat( snapshotSymbols.resolve( snapshotMethod.getMethodId( ) ), is( importedSymbols.resolve( importedMethod.getMethodId( ) ) ) );
+					assertThat( snapshotSymbols.resolve( snapshotMethod.getExceptionId( ) ),
+							is( importedSymbols.resolve( importedMethod.getExceptionId( ) ) ) );
+					assertThat( snapshotMethod.getTraceDepth( ), is( importedMethod.getTraceDepth( ) ) );
+					assertThat( snapshotMethod.getTraceSize( ), is( importedMethod.getTraceSize( ) ) );
+					assertThat( snapshotMethod.getPercent( ), is( importedMethod.getPercent( ) ) );
+					assertThat( snapshotMethod.getChildren( ), hasSize( importedMethod.getChildren( ).size( ) ) );
+				}
+			} finally {
+				System.clearProperty( "traceStorage" );
+			}
+		}
+	}
+
+	private MonitoringLogService importWithSnapshots( final ImportProgress aImportProgress, final String... aSystemProperties ) {
+		final String[] systemProperties = Arrays.copyOf( aSystemProperties, aSystemProperties.length + 2 );
+		systemProperties[aSystemProperties.length] = "snapshotDirectory";
+		systemProperties[aSystemProperties.length + 1] = ivSnapshotFolder.getRoot( ).getAbsolutePath( );
+		return MonitoringLogImporter.importDirectory( ivTemporaryFolder.getRoot( ), aImportProgress, systemProperties );
+	}
+
+}
@@ -19,6 +19,7 @@ package kieker.diagnosis.service.filter;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 import org.junit.Before;
@@ -28,6 +29,7 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 
 import kieker.diagnosis.service.KiekerTraceDiagnosisServiceModule;
+import kieker.diagnosis.service.data.SymbolTable;
 
 /**
  * Test class for the {@link FilterService}.
@@ -56,4 +58,19 @@ public final class FilterServiceTest {
 		assertThat( predicate.test( null ), is( false ) );
 	}
 	
+	@Test
+	public void testGetSymbolPredicateWithRegExpr( ) {
+		final SymbolTable symbolTable = new SymbolTable( );
+		final int matchingSymbol = symbolTable.intern( "kieker.filter.SymbolPredicate" );
+		final int otherSymbol = symbolTable.intern( "kieker.filter.OtherPredicate" );
+
+		final IntPredicate predicate = filterService.getSymbolPredicate( symbolTable, ".*Symbol.*", true );
+		assertThat( predicate.test( matchingSymbol ), is( true ) );
+		assertThat( predicate.test( otherSymbol ), is( false ) );
+		assertThat( predicate.test( SymbolTable.NULL_SYMBOL ), is( false ) );
+
+		// Symbols which are unknown during the creation of the predicate have to be evaluated as well
+		assertThat( predicate.test( symbolTable.intern( "kieker.filter.LateSymbolPredicate" ) ), is( true ) );
+	}
+
 }
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertThat;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Calendar;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,8 +31,10 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 
 import kieker.diagnosis.service.KiekerTraceDiagnosisServiceModule;
+import kieker.diagnosis.service.data.HeapMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 
 /**
  * Test class for the {@link MethodsService}.
@@ -75,6 +78,37 @@ public class MethodsServiceTest {
 		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 1 ) );
 	}
 
+	@Test
+	public void testSubstringSearchWithSymbolIndex( ) {
+		// Prepare some data for the search
+		createMethodCall( "host1", "kieker.Repository", "saveOrder", null );
+		createMethodCall( "host1", "kieker.REPOSITORY", "saveAll", "cause1" );
+		createMethodCall( "host2", "kieker.Service", "bcaXcab", null );
+		createMethodCall( "host2", "kieker.Service", "save", null );
+
+		// The search ignores the case
+		final MethodsFilter methodsFilter = new MethodsFilter( );
+		methodsFilter.setClazz( "repository" );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 2 ) );
+
+		// The filters are combined
+		methodsFilter.setMethod( "Order" );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 1 ) );
+
+		// Search strings shorter than a trigram are supported as well
+		methodsFilter.setClazz( null );
+		methodsFilter.setMethod( "sa" );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 3 ) );
+
+		// All trigrams are contained, but not the search string itself
+		methodsFilter.setMethod( "bcab" );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 0 ) );
+
+		// Method calls added after a search are found as well
+		createMethodCall( "host3", "kieker.Service", "bcab", null );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 1 ) );
+	}
+
 	@Test
 	public void testSearchWithRegularExpressions( ) {
 		// Prepare some data for the search
@@ -148,6 +182,34 @@ public class MethodsServiceTest {
 		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 0 ) );
 	}
 
+	@Test
+	public void testTraceIdFilterCombinedWithSymbolIndex( ) {
+		// Prepare some data for the search. The method calls are not sorted by trace id.
+		createMethodCall( 2L, "op1" );
+		createMethodCall( 1L, "op1" );
+		createMethodCall( 2L, "op2" );
+		createMethodCall( 1L, "op2" );
+		createMethodCall( 2L, "op1" );
+
+		// The result has to keep the order of the method calls
+		final MethodsFilter methodsFilter = new MethodsFilter( );
+		methodsFilter.setTraceId( 2L );
+		final List<MethodCall> methodCalls = ivMethodsService.searchMethods( methodsFilter );
+		assertThat( methodCalls.size( ), is( 3 ) );
+		assertThat( methodCalls.get( 0 ), is( ivDataService.getMethods( ).get( 0 ) ) );
+		assertThat( methodCalls.get( 1 ), is( ivDataService.getMethods( ).get( 2 ) ) );
+		assertThat( methodCalls.get( 2 ), is( ivDataService.getMethods( ).get( 4 ) ) );
+
+		methodsFilter.setMethod( "op1" );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 2 ) );
+
+		methodsFilter.setTraceId( 1L );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 1 ) );
+
+		methodsFilter.setMethod( "op3" );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 0 ) );
+	}
+
 	@Test
 	public void testLowerTimeFilter( ) {
 		// Prepare some data for the search
@@ -266,19 +328,57 @@ public class MethodsServiceTest {
 		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 3 ) );
 	}
 
+	@Test
+	public void testTimeWindowWithTimestampIndex( ) {
+		// Prepare some data for the search. The method calls are not sorted by time.
+		createMethodCall( 2015, 01, 04, 15, 25 );
+		createMethodCall( 2000, 05, 01, 15, 20 );
+		createMethodCall( 2015, 01, 01, 15, 20 );
+		createMethodCall( 2015, 01, 02, 10, 00 );
+		createMethodCall( 2015, 01, 05, 15, 20 );
+
+		final MethodsFilter methodsFilter = new MethodsFilter( );
+		methodsFilter.setLowerDate( LocalDate.of( 2015, 01, 01 ) );
+		methodsFilter.setUpperDate( LocalDate.of( 2015, 01, 04 ) );
+
+		// The result has to keep the order of the method calls
+		final List<MethodCall> methodCalls = ivMethodsService.searchMethods( methodsFilter );
+		assertThat( methodCalls.size( ), is( 3 ) );
+		assertThat( methodCalls.get( 0 ), is( ivDataService.getMethods( ).get( 0 ) ) );
+		assertThat( methodCalls.get( 1 ), is( ivDataService.getMethods( ).get( 2 ) ) );
+		assertThat( methodCalls.get( 2 ), is( ivDataService.getMethods( ).get( 3 ) ) );
+
+		// The bounds are inclusive with a precision of seconds
+		methodsFilter.setLowerTime( LocalTime.of( 15, 20 ) );
+		methodsFilter.setUpperTime( LocalTime.of( 15, 25 ) );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 3 ) );
+
+		methodsFilter.setUpperTime( LocalTime.of( 15, 24, 59 ) );
+		assertThat( ivMethodsService.searchMethods( methodsFilter ).size( ), is( 2 ) );
+	}
+
 	private void createMethodCall( final String aHost, final String aClazz, final String aMethod, final String aException ) {
-		final MethodCall methodCall = new MethodCall( );
-		methodCall.setHost( aHost );
-		methodCall.setClazz( aClazz );
-		methodCall.setMethod( aMethod );
-		methodCall.setException( aException );
+		final SymbolTable symbolTable = ivDataService.getSymbolTable( );
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( symbolTable.intern( aHost ) );
+		methodCall.setClazzId( symbolTable.intern( aClazz ) );
+		methodCall.setMethodId( symbolTable.intern( aMethod ) );
+		methodCall.setExceptionId( symbolTable.intern( aException ) );
 
 		ivDataService.getMethods( ).add( methodCall );
 	}
 
 	private void createMethodCall( final long aTraceId ) {
-		final MethodCall methodCall = new MethodCall( );
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setTraceId( aTraceId );
+
+		ivDataService.getMethods( ).add( methodCall );
+	}
+
+	private void createMethodCall( final long aTraceId, final String aMethod ) {
+		final MethodCall methodCall = new HeapMethodCall( );
 		methodCall.setTraceId( aTraceId );
+		methodCall.setMethodId( ivDataService.getSymbolTable( ).intern( aMethod ) );
 
 		ivDataService.getMethods( ).add( methodCall );
 	}
@@ -287,7 +387,7 @@ public class MethodsServiceTest {
 		final Calendar calendar = Calendar.getInstance( );
 		calendar.set( aYear, aMonth - 1, aDay, aHour, aMinute, 0 );
 
-		final MethodCall methodCall = new MethodCall( );
+		final MethodCall methodCall = new HeapMethodCall( );
 		methodCall.setTimestamp( calendar.getTimeInMillis( ) );
 
 		ivDataService.getMethods( ).add( methodCall );
@@ -33,6 +33,7 @@ import com.google.inject.Injector;
 
 import kieker.diagnosis.service.KiekerTraceDiagnosisServiceModule;
 import kieker.diagnosis.service.ServiceMockModule;
+import kieker.diagnosis.service.data.HeapMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
 
@@ -110,7 +111,7 @@ public final class StatisticsServiceTest {
 		final Calendar calendar = Calendar.getInstance( );
 		calendar.set( aYear, aMonth - 1, aDay, aHour, aMinute, 0 );
 
-		final MethodCall methodCall = new MethodCall( );
+		final MethodCall methodCall = new HeapMethodCall( );
 		methodCall.setTimestamp( calendar.getTimeInMillis( ) );
 
 		return methodCall;
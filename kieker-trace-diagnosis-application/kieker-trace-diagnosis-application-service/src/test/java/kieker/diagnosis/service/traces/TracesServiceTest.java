@@ -22,6 +22,7 @@ import static org.junit.Assert.assertThat;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Calendar;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,8 +31,11 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 
 import kieker.diagnosis.service.KiekerTraceDiagnosisServiceModule;
+import kieker.diagnosis.service.data.HeapMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceShape;
 
 /**
  * Test class for the {@link TracesService}.
@@ -164,6 +168,41 @@ public final class TracesServiceTest {
 		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 0 ) );
 	}
 
+	@Test
+	public void testTraceIdFilterWithTraceIdIndex( ) {
+		// Prepare some data for the search. The last trace is added directly and has to be indexed later.
+		createTrace( 1L, 10L, null, "op2" );
+		createTrace( 2L, 10L, "exc1", "op3" );
+		createTrace( 1L, 20L, null, "op4" );
+		createMethodCall( 2L );
+
+		// Now search with a filter
+		final TracesFilter tracesFilter = new TracesFilter( );
+		tracesFilter.setTraceId( 1L );
+		final List<MethodCall> traces = tracesService.searchTraces( tracesFilter );
+		assertThat( traces.size( ), is( 2 ) );
+		assertThat( traces.get( 0 ).getDuration( ), is( 10L ) );
+		assertThat( traces.get( 1 ).getDuration( ), is( 20L ) );
+
+		tracesFilter.setTraceId( 2L );
+		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 2 ) );
+
+		tracesFilter.setSearchType( SearchType.ONLY_FAILED );
+		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 1 ) );
+
+		// The other criteria are still applied to the whole trace
+		tracesFilter.setSearchType( SearchType.ALL );
+		tracesFilter.setTraceId( 1L );
+		tracesFilter.setMethod( "op4" );
+		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 0 ) );
+
+		tracesFilter.setSearchWholeTrace( true );
+		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 1 ) );
+
+		tracesFilter.setTraceId( 3L );
+		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 0 ) );
+	}
+
 	@Test
 	public void testLowerTimeFilter( ) {
 		// Prepare some data for the search
@@ -282,39 +321,102 @@ public final class TracesServiceTest {
 		assertThat( tracesService.searchTraces( tracesFilter ).size( ), is( 3 ) );
 	}
 
+	@Test
+	public void testGroupByShape( ) {
+		// Three traces have the same structure, the other traces differ in the children
+		createTrace( 1L, 10L, null, "op2" );
+		createTrace( 2L, 20L, null, "op2" );
+		createTrace( 3L, 30L, "cause1", "op2" );
+		createTrace( 4L, 40L, null, "op3" );
+		createTrace( 5L, 50L, null, "op2", "op2" );
+
+		assertThat( tracesService.countTraceShapes( ), is( 3 ) );
+
+		final TracesFilter tracesFilter = new TracesFilter( );
+		tracesFilter.setGroupByShape( true );
+		final List<TraceShape> shapes = tracesService.searchTraceShapes( tracesFilter );
+		assertThat( shapes.size( ), is( 3 ) );
+		assertThat( shapes.get( 0 ).getCount( ), is( 3 ) );
+		assertThat( shapes.get( 0 ).getTotalDuration( ), is( 60L ) );
+		assertThat( shapes.get( 0 ).getMaxDuration( ), is( 30L ) );
+		assertThat( tracesService.getRepresentativeTrace( shapes.get( 0 ) ).getTraceId( ), is( 1L ) );
+		assertThat( tracesService.getTraces( shapes.get( 0 ) ).size( ), is( 3 ) );
+
+		// Structural criteria are checked once per shape
+		tracesFilter.setMethod( "op3" );
+		assertThat( tracesService.searchTraceShapes( tracesFilter ).size( ), is( 0 ) );
+
+		tracesFilter.setSearchWholeTrace( true );
+		assertThat( tracesService.searchTraceShapes( tracesFilter ).size( ), is( 1 ) );
+
+		// Other criteria reduce the shapes to the matching traces
+		tracesFilter.setMethod( null );
+		tracesFilter.setSearchWholeTrace( false );
+		tracesFilter.setException( "cause1" );
+		final List<TraceShape> failedShapes = tracesService.searchTraceShapes( tracesFilter );
+		assertThat( failedShapes.size( ), is( 1 ) );
+		assertThat( failedShapes.get( 0 ).getCount( ), is( 1 ) );
+		assertThat( failedShapes.get( 0 ).getShapeHash( ), is( shapes.get( 0 ).getShapeHash( ) ) );
+		assertThat( tracesService.getRepresentativeTrace( failedShapes.get( 0 ) ).getTraceId( ), is( 3L ) );
+	}
+
 	private void createMethodCall( final String aHost, final String aClazz, final String aMethod, final String aException ) {
-		final MethodCall methodCall = new MethodCall( );
-		methodCall.setHost( aHost );
-		methodCall.setClazz( aClazz );
-		methodCall.setMethod( aMethod );
-		methodCall.setException( aException );
+		final SymbolTable symbolTable = dataService.getSymbolTable( );
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( symbolTable.intern( aHost ) );
+		methodCall.setClazzId( symbolTable.intern( aClazz ) );
+		methodCall.setMethodId( symbolTable.intern( aMethod ) );
+		methodCall.setExceptionId( symbolTable.intern( aException ) );
 
 		dataService.getTraceRoots( ).add( methodCall );
 	}
 
 	private void createMethodCallWithChild( final String aHost1, final String aHost2 ) {
-		final MethodCall methodCall = new MethodCall( );
-		methodCall.setHost( aHost1 );
+		final SymbolTable symbolTable = dataService.getSymbolTable( );
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( symbolTable.intern( aHost1 ) );
 
-		final MethodCall child = new MethodCall( );
-		child.setHost( aHost2 );
+		final MethodCall child = new HeapMethodCall( );
+		child.setHostId( symbolTable.intern( aHost2 ) );
 		methodCall.addChild( child );
 
 		dataService.getTraceRoots( ).add( methodCall );
 	}
 
+	private void createTrace( final long aTraceId, final long aDuration, final String aException, final String... aChildMethods ) {
+		final SymbolTable symbolTable = dataService.getSymbolTable( );
+		final MethodCall methodCall = new HeapMethodCall( );
+		methodCall.setHostId( symbolTable.intern( "host1" ) );
+		methodCall.setClazzId( symbolTable.intern( "class1" ) );
+		methodCall.setMethodId( symbolTable.intern( "op1" ) );
+		methodCall.setExceptionId( symbolTable.intern( aException ) );
+		methodCall.setTraceId( aTraceId );
+		methodCall.setDuration( aDuration );
+
+		for ( final String childMethod : aChildMethods ) {
+			final MethodCall child = new HeapMethodCall( );
+			child.setHostId( symbolTable.intern( "host1" ) );
+			child.setClazzId( symbolTable.intern( "class1" ) );
+			child.setMethodId( symbolTable.intern( childMethod ) );
+			child.setTraceId( aTraceId );
+			methodCall.addChild( child );
+		}
+
+		dataService.addTraceRoot( methodCall );
+	}
+
 	private void createMethodCall( final int aYear, final int aMonth, final int aDay, final int aHour, final int aMinute ) {
 		final Calendar calendar = Calendar.getInstance( );
 		calendar.set( aYear, aMonth - 1, aDay, aHour, aMinute, 0 );
 
-		final MethodCall methodCall = new MethodCall( );
+		final MethodCall methodCall = new HeapMethodCall( );
 		methodCall.setTimestamp( calendar.getTimeInMillis( ) );
 
 		dataService.getTraceRoots( ).add( methodCall );
 	}
 
 	private void createMethodCall( final long aTraceId ) {
-		final MethodCall methodCall = new MethodCall( );
+		final MethodCall methodCall = new HeapMethodCall( );
 		methodCall.setTraceId( aTraceId );
 
 		dataService.getTraceRoots( ).add( methodCall );
@@ -46,6 +46,8 @@ import kieker.diagnosis.architecture.ui.EnumStringConverter;
 import kieker.diagnosis.architecture.ui.ViewBase;
 import kieker.diagnosis.service.aggregatedmethods.SearchType;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 import kieker.diagnosis.service.settings.ClassAppearance;
 import kieker.diagnosis.service.settings.MethodAppearance;
 import kieker.diagnosis.service.settings.properties.ClassAppearanceProperty;
@@ -80,7 +82,15 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 	private final TableColumn<AggregatedMethodCall, String> ivColumnAvgDuration;
 	private final TableColumn<AggregatedMethodCall, String> ivColumnMedianDuration;
 	private final TableColumn<AggregatedMethodCall, String> ivColumnMaxDuration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnP90Duration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnP95Duration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnP99Duration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnP999Duration;
 	private final TableColumn<AggregatedMethodCall, String> ivColumnTotalDuration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnTotalSelfDuration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnAvgSelfDuration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnMaxSelfDuration;
+	private final TableColumn<AggregatedMethodCall, String> ivColumnSelfDurationShare;
 
 	// Details
 	private final TextField ivDetailsCount;
@@ -104,6 +114,9 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 	@Inject
 	private PropertiesService ivPropertiesService;
 
+	@Inject
+	private MonitoringLogService ivMonitoringLogService;
+
 	public void initialize( ) {
 		getController( ).performInitialize( );
 	}
@@ -268,7 +281,8 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 
 			{
 				ivHostColumn = new TableColumn<>( );
-				ivHostColumn.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getHost( ) ) );
+				ivHostColumn.setCellValueFactory(
+						aParam -> new ReadOnlyObjectWrapper<>( ivMonitoringLogService.getSymbolTable( ).resolve( aParam.getValue( ).getHostId( ) ) ) );
 				ivHostColumn.setText( getLocalizedString( "columnHost" ) );
 				ivHostColumn.setPrefWidth( 100 );
 
@@ -341,6 +355,54 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 				ivTableView.getColumns( ).add( ivColumnMaxDuration );
 			}
 
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getP90Duration );
+
+				ivColumnP90Duration = new TableColumn<>( );
+				ivColumnP90Duration.setCellValueFactory( cellValueFactory );
+				ivColumnP90Duration.setText( getLocalizedString( "columnP90Duration" ) );
+				ivColumnP90Duration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnP90Duration );
+			}
+
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getP95Duration );
+
+				ivColumnP95Duration = new TableColumn<>( );
+				ivColumnP95Duration.setCellValueFactory( cellValueFactory );
+				ivColumnP95Duration.setText( getLocalizedString( "columnP95Duration" ) );
+				ivColumnP95Duration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnP95Duration );
+			}
+
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getP99Duration );
+
+				ivColumnP99Duration = new TableColumn<>( );
+				ivColumnP99Duration.setCellValueFactory( cellValueFactory );
+				ivColumnP99Duration.setText( getLocalizedString( "columnP99Duration" ) );
+				ivColumnP99Duration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnP99Duration );
+			}
+
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getP999Duration );
+
+				ivColumnP999Duration = new TableColumn<>( );
+				ivColumnP999Duration.setCellValueFactory( cellValueFactory );
+				ivColumnP999Duration.setText( getLocalizedString( "columnP999Duration" ) );
+				ivColumnP999Duration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnP999Duration );
+			}
+
 			{
 				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
 				cellValueFactory.setGetter( AggregatedMethodCall::getTotalDuration );
@@ -353,6 +415,51 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 				ivTableView.getColumns( ).add( ivColumnTotalDuration );
 			}
 
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getTotalSelfDuration );
+
+				ivColumnTotalSelfDuration = new TableColumn<>( );
+				ivColumnTotalSelfDuration.setCellValueFactory( cellValueFactory );
+				ivColumnTotalSelfDuration.setText( getLocalizedString( "columnTotalSelfDuration" ) );
+				ivColumnTotalSelfDuration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnTotalSelfDuration );
+			}
+
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getAvgSelfDuration );
+
+				ivColumnAvgSelfDuration = new TableColumn<>( );
+				ivColumnAvgSelfDuration.setCellValueFactory( cellValueFactory );
+				ivColumnAvgSelfDuration.setText( getLocalizedString( "columnAvgSelfDuration" ) );
+				ivColumnAvgSelfDuration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnAvgSelfDuration );
+			}
+
+			{
+				final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+				cellValueFactory.setGetter( AggregatedMethodCall::getMaxSelfDuration );
+
+				ivColumnMaxSelfDuration = new TableColumn<>( );
+				ivColumnMaxSelfDuration.setCellValueFactory( cellValueFactory );
+				ivColumnMaxSelfDuration.setText( getLocalizedString( "columnMaxSelfDuration" ) );
+				ivColumnMaxSelfDuration.setPrefWidth( 150 );
+
+				ivTableView.getColumns( ).add( ivColumnMaxSelfDuration );
+			}
+
+			{
+				ivColumnSelfDurationShare = new TableColumn<>( );
+				ivColumnSelfDurationShare.setCellValueFactory( aParam -> new ReadOnlyStringWrapper( String.format( "%.1f %%", aParam.getValue( ).getSelfDurationShare( ) ) ) );
+				ivColumnSelfDurationShare.setText( getLocalizedString( "columnSelfDurationShare" ) );
+				ivColumnSelfDurationShare.setPrefWidth( 100 );
+
+				ivTableView.getColumns( ).add( ivColumnSelfDurationShare );
+			}
+
 			// The default sorting is a little bit too slow. Therefore we use a custom sort policy which sorts directly the data.
 			ivTableView.setSortPolicy( param -> {
 				final ObservableList<TableColumn<AggregatedMethodCall, ?>> sortOrder = param.getSortOrder( );
@@ -370,33 +477,41 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 					}
 
 					if ( tableColumn == ivHostColumn ) {
+						final SymbolTable symbolTable = ivMonitoringLogService.getSymbolTable( );
+
 						final ObservableList<AggregatedMethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
-							items.sort( ( o1, o2 ) -> o1.getHost( ).compareTo( o2.getHost( ) ) );
+							items.sort( ( o1, o2 ) -> symbolTable.resolve( o1.getHostId( ) ).compareTo( symbolTable.resolve( o2.getHostId( ) ) ) );
 						} else {
-							items.sort( ( o1, o2 ) -> o2.getHost( ).compareTo( o1.getHost( ) ) );
+							items.sort( ( o1, o2 ) -> symbolTable.resolve( o2.getHostId( ) ).compareTo( symbolTable.resolve( o1.getHostId( ) ) ) );
 						}
 					}
 
 					if ( tableColumn == ivClassColumn ) {
 						final ClassAppearance classAppearance = ivPropertiesService.loadApplicationProperty( ClassAppearanceProperty.class );
+						final SymbolTable symbolTable = ivMonitoringLogService.getSymbolTable( );
 
 						final ObservableList<AggregatedMethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
-							items.sort( ( o1, o2 ) -> classAppearance.convert( o1.getClazz( ) ).compareTo( classAppearance.convert( o2.getClazz( ) ) ) );
+							items.sort( ( o1, o2 ) -> classAppearance.convert( symbolTable.resolve( o1.getClazzId( ) ) )
+									.compareTo( classAppearance.convert( symbolTable.resolve( o2.getClazzId( ) ) ) ) );
 						} else {
-							items.sort( ( o1, o2 ) -> classAppearance.convert( o2.getClazz( ) ).compareTo( classAppearance.convert( o1.getClazz( ) ) ) );
+							items.sort( ( o1, o2 ) -> classAppearance.convert( symbolTable.resolve( o2.getClazzId( ) ) )
+									.compareTo( classAppearance.convert( symbolTable.resolve( o1.getClazzId( ) ) ) ) );
 						}
 					}
 
 					if ( tableColumn == ivMethodColumn ) {
 						final MethodAppearance methodAppearance = ivPropertiesService.loadApplicationProperty( MethodAppearanceProperty.class );
+						final SymbolTable symbolTable = ivMonitoringLogService.getSymbolTable( );
 
 						final ObservableList<AggregatedMethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
-							items.sort( ( o1, o2 ) -> methodAppearance.convert( o1.getMethod( ) ).compareTo( methodAppearance.convert( o2.getMethod( ) ) ) );
+							items.sort( ( o1, o2 ) -> methodAppearance.convert( symbolTable.resolve( o1.getMethodId( ) ) )
+									.compareTo( methodAppearance.convert( symbolTable.resolve( o2.getMethodId( ) ) ) ) );
 						} else {
-							items.sort( ( o1, o2 ) -> methodAppearance.convert( o2.getMethod( ) ).compareTo( methodAppearance.convert( o1.getMethod( ) ) ) );
+							items.sort( ( o1, o2 ) -> methodAppearance.convert( symbolTable.resolve( o2.getMethodId( ) ) )
+									.compareTo( methodAppearance.convert( symbolTable.resolve( o1.getMethodId( ) ) ) ) );
 						}
 					}
 
@@ -436,6 +551,42 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 						}
 					}
 
+					if ( tableColumn == ivColumnP90Duration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getP90Duration( ), o2.getP90Duration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getP90Duration( ), o1.getP90Duration( ) ) );
+						}
+					}
+
+					if ( tableColumn == ivColumnP95Duration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getP95Duration( ), o2.getP95Duration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getP95Duration( ), o1.getP95Duration( ) ) );
+						}
+					}
+
+					if ( tableColumn == ivColumnP99Duration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getP99Duration( ), o2.getP99Duration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getP99Duration( ), o1.getP99Duration( ) ) );
+						}
+					}
+
+					if ( tableColumn == ivColumnP999Duration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getP999Duration( ), o2.getP999Duration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getP999Duration( ), o1.getP999Duration( ) ) );
+						}
+					}
+
 					if ( tableColumn == ivColumnTotalDuration ) {
 						final ObservableList<AggregatedMethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
@@ -444,6 +595,42 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 							items.sort( ( o1, o2 ) -> Long.compare( o2.getTotalDuration( ), o1.getTotalDuration( ) ) );
 						}
 					}
+
+					if ( tableColumn == ivColumnTotalSelfDuration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getTotalSelfDuration( ), o2.getTotalSelfDuration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getTotalSelfDuration( ), o1.getTotalSelfDuration( ) ) );
+						}
+					}
+
+					if ( tableColumn == ivColumnAvgSelfDuration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getAvgSelfDuration( ), o2.getAvgSelfDuration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getAvgSelfDuration( ), o1.getAvgSelfDuration( ) ) );
+						}
+					}
+
+					if ( tableColumn == ivColumnMaxSelfDuration ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Long.compare( o1.getMaxSelfDuration( ), o2.getMaxSelfDuration( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Long.compare( o2.getMaxSelfDuration( ), o1.getMaxSelfDuration( ) ) );
+						}
+					}
+
+					if ( tableColumn == ivColumnSelfDurationShare ) {
+						final ObservableList<AggregatedMethodCall> items = param.getItems( );
+						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
+							items.sort( ( o1, o2 ) -> Float.compare( o1.getSelfDurationShare( ), o2.getSelfDurationShare( ) ) );
+						} else {
+							items.sort( ( o1, o2 ) -> Float.compare( o2.getSelfDurationShare( ), o1.getSelfDurationShare( ) ) );
+						}
+					}
 				}
 
 				return true;
@@ -776,10 +963,38 @@ public class AggregatedMethodsView extends ViewBase<AggregatedMethodsController>
 		return ivColumnMaxDuration;
 	}
 
+	TableColumn<AggregatedMethodCall, String> getColumnP90Duration( ) {
+		return ivColumnP90Duration;
+	}
+
+	TableColumn<AggregatedMethodCall, String> getColumnP95Duration( ) {
+		return ivColumnP95Duration;
+	}
+
+	TableColumn<AggregatedMethodCall, String> getColumnP99Duration( ) {
+		return ivColumnP99Duration;
+	}
+
+	TableColumn<AggregatedMethodCall, String> getColumnP999Duration( ) {
+		return ivColumnP999Duration;
+	}
+
 	TableColumn<AggregatedMethodCall, String> getColumnTotalDuration( ) {
 		return ivColumnTotalDuration;
 	}
 
+	TableColumn<AggregatedMethodCall, String> getColumnTotalSelfDuration( ) {
+		return ivColumnTotalSelfDuration;
+	}
+
+	TableColumn<AggregatedMethodCall, String> getColumnAvgSelfDuration( ) {
+		return ivColumnAvgSelfDuration;
+	}
+
+	TableColumn<AggregatedMethodCall, String> getColumnMaxSelfDuration( ) {
+		return ivColumnMaxSelfDuration;
+	}
+
 	Label getStatusLabel( ) {
 		return ivStatusLabel;
 	}
@@ -29,6 +29,8 @@ import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.ui.ViewModelBase;
 import kieker.diagnosis.service.aggregatedmethods.AggregatedMethodsFilter;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 import kieker.diagnosis.service.export.CSVData;
 import kieker.diagnosis.service.pattern.PatternService;
 
@@ -45,7 +47,14 @@ class AggregatedMethodsViewModel extends ViewModelBase<AggregatedMethodsView> {
 		getView( ).getColumnAvgDuration( ).setText( getLocalizedString( "columnAvgDuration" ) + " " + aSuffix );
 		getView( ).getColumnMedianDuration( ).setText( getLocalizedString( "columnMedianDuration" ) + " " + aSuffix );
 		getView( ).getColumnMaxDuration( ).setText( getLocalizedString( "columnMaxDuration" ) + " " + aSuffix );
+		getView( ).getColumnP90Duration( ).setText( getLocalizedString( "columnP90Duration" ) + " " + aSuffix );
+		getView( ).getColumnP95Duration( ).setText( getLocalizedString( "columnP95Duration" ) + " " + aSuffix );
+		getView( ).getColumnP99Duration( ).setText( getLocalizedString( "columnP99Duration" ) + " " + aSuffix );
+		getView( ).getColumnP999Duration( ).setText( getLocalizedString( "columnP999Duration" ) + " " + aSuffix );
 		getView( ).getColumnTotalDuration( ).setText( getLocalizedString( "columnTotalDuration" ) + " " + aSuffix );
+		getView( ).getColumnTotalSelfDuration( ).setText( getLocalizedString( "columnTotalSelfDuration" ) + " " + aSuffix );
+		getView( ).getColumnAvgSelfDuration( ).setText( getLocalizedString( "columnAvgSelfDuration" ) + " " + aSuffix );
+		getView( ).getColumnMaxSelfDuration( ).setText( getLocalizedString( "columnMaxSelfDuration" ) + " " + aSuffix );
 
 	}
 
@@ -53,11 +62,13 @@ class AggregatedMethodsViewModel extends ViewModelBase<AggregatedMethodsView> {
 		final String noDataAvailable = getLocalizedString( "noDataAvailable" );
 
 		if ( aMethodCall != null ) {
+			final SymbolTable symbolTable = getService( MonitoringLogService.class ).getSymbolTable( );
 			getView( ).getDetailsCount( ).setText( Integer.toString( aMethodCall.getCount( ) ) );
-			getView( ).getDetailsHost( ).setText( aMethodCall.getHost( ) );
-			getView( ).getDetailsClass( ).setText( aMethodCall.getClazz( ) );
-			getView( ).getDetailsMethod( ).setText( aMethodCall.getMethod( ) );
-			getView( ).getDetailsException( ).setText( aMethodCall.getException( ) != null ? aMethodCall.getException( ) : noDataAvailable );
+			getView( ).getDetailsHost( ).setText( symbolTable.resolve( aMethodCall.getHostId( ) ) );
+			getView( ).getDetailsClass( ).setText( symbolTable.resolve( aMethodCall.getClazzId( ) ) );
+			getView( ).getDetailsMethod( ).setText( symbolTable.resolve( aMethodCall.getMethodId( ) ) );
+			getView( ).getDetailsException( ).setText(
+					aMethodCall.getExceptionId( ) != SymbolTable.NULL_SYMBOL ? symbolTable.resolve( aMethodCall.getExceptionId( ) ) : noDataAvailable );
 			getView( ).getDetailsMinDuration( ).setText( String.format( "%d [ns]", aMethodCall.getMinDuration( ) ) );
 			getView( ).getDetailsAvgDuration( ).setText( String.format( "%d [ns]", aMethodCall.getAvgDuration( ) ) );
 			getView( ).getDetailsMedianDuration( ).setText( String.format( "%d [ns]", aMethodCall.getMedianDuration( ) ) );
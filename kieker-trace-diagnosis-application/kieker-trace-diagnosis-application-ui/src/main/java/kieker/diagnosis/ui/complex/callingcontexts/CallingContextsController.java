@@ -0,0 +1,74 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.ui.complex.callingcontexts;
+
+import java.util.List;
+
+import com.google.inject.Singleton;
+
+import kieker.diagnosis.architecture.ui.ControllerBase;
+import kieker.diagnosis.service.callingcontexts.CallingContextsService;
+import kieker.diagnosis.service.data.CallingContextNode;
+import kieker.diagnosis.service.settings.SettingsService;
+
+/**
+ * The controller of the calling contexts tab.
+ *
+ * @author Nils Christian Ehmke
+ */
+@Singleton
+class CallingContextsController extends ControllerBase<CallingContextsViewModel> {
+
+	private List<CallingContextNode> ivRoots;
+	private int ivTotalNodes;
+	private String ivDurationSuffix;
+
+	/**
+	 * This action is performed once during the application's start.
+	 */
+	public void performInitialize( ) {
+		getViewModel( ).updatePresentationStatus( 0 );
+	}
+
+	/**
+	 * This action is performed when settings or data are changed and the view has to be refreshed. The actual refresh is only performed when
+	 * {@link #performRefresh()} is called. This method prepares only the refresh.
+	 */
+	public void performPrepareRefresh( ) {
+		// Get the calling context tree
+		final CallingContextsService callingContextsService = getService( CallingContextsService.class );
+		ivRoots = callingContextsService.getRoots( );
+		ivTotalNodes = callingContextsService.countNodes( );
+
+		// Get the duration suffix
+		final SettingsService settingsService = getService( SettingsService.class );
+		ivDurationSuffix = settingsService.getCurrentDurationSuffix( );
+	}
+
+	/**
+	 * This action is performed, when a refresh of the view is required. The preparation of the refresh is performed in {@link #performPrepareRefresh()}.
+	 */
+	public void performRefresh( ) {
+		// Update the view
+		getViewModel( ).updatePresentationRoots( ivRoots );
+		getViewModel( ).updatePresentationStatus( ivTotalNodes );
+
+		// Update the column headers of the table
+		getViewModel( ).updatePresentationDurationColumnHeader( ivDurationSuffix );
+	}
+
+}
@@ -0,0 +1,215 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.ui.complex.callingcontexts;
+
+import java.util.function.Function;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import kieker.diagnosis.architecture.ui.ViewBase;
+import kieker.diagnosis.service.data.CallingContextNode;
+import kieker.diagnosis.ui.complex.callingcontexts.components.DurationCellValueFactory;
+
+/**
+ * The view of the calling contexts tab.
+ *
+ * @author Nils Christian Ehmke
+ */
+@Singleton
+public class CallingContextsView extends ViewBase<CallingContextsController> {
+
+	// Table
+	private final TreeTableView<CallingContextNode> ivTreeTableView;
+	private final TreeTableColumn<CallingContextNode, Long> ivColumnTotalDuration;
+	private final TreeTableColumn<CallingContextNode, Long> ivColumnSelfDuration;
+	private final TreeTableColumn<CallingContextNode, Long> ivColumnAvgDuration;
+	private final TreeTableColumn<CallingContextNode, Long> ivColumnMedianDuration;
+	private final TreeTableColumn<CallingContextNode, Long> ivColumnP90Duration;
+	private final TreeTableColumn<CallingContextNode, Long> ivColumnP99Duration;
+
+	private final Label ivStatusLabel;
+
+	@Inject
+	public CallingContextsView( ) {
+		// Tree table
+		{
+			ivTreeTableView = new TreeTableView<>( );
+			ivTreeTableView.setId( "tabCallingContextsTreeTable" );
+			ivTreeTableView.setShowRoot( false );
+			ivTreeTableView.setTableMenuButtonVisible( true );
+
+			final Label placeholder = new Label( );
+			placeholder.setText( getLocalizedString( "noDataAvailable" ) );
+			ivTreeTableView.setPlaceholder( placeholder );
+
+			VBox.setVgrow( ivTreeTableView, Priority.ALWAYS );
+
+			{
+				final TreeTableColumn<CallingContextNode, String> column = new TreeTableColumn<>( );
+				column.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getValue( ).getHost( ) ) );
+				column.setText( getLocalizedString( "columnHost" ) );
+				column.setPrefWidth( 100 );
+
+				ivTreeTableView.getColumns( ).add( column );
+			}
+
+			{
+				final TreeTableColumn<CallingContextNode, String> column = new TreeTableColumn<>( );
+				column.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getValue( ).getClazz( ) ) );
+				column.setText( getLocalizedString( "columnClass" ) );
+				column.setPrefWidth( 200 );
+
+				ivTreeTableView.getColumns( ).add( column );
+			}
+
+			{
+				final TreeTableColumn<CallingContextNode, String> column = new TreeTableColumn<>( );
+				column.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getValue( ).getMethod( ) ) );
+				column.setText( getLocalizedString( "columnMethod" ) );
+				column.setPrefWidth( 400 );
+
+				ivTreeTableView.getColumns( ).add( column );
+			}
+
+			{
+				final TreeTableColumn<CallingContextNode, Long> column = new TreeTableColumn<>( );
+				column.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getValue( ).getCount( ) ) );
+				column.setText( getLocalizedString( "columnCount" ) );
+				column.setPrefWidth( 100 );
+
+				ivTreeTableView.getColumns( ).add( column );
+			}
+
+			{
+				final TreeTableColumn<CallingContextNode, Long> column = new TreeTableColumn<>( );
+				column.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getValue( ).getFailedCount( ) ) );
+				column.setText( getLocalizedString( "columnFailedCount" ) );
+				column.setPrefWidth( 100 );
+
+				ivTreeTableView.getColumns( ).add( column );
+			}
+
+			{
+				ivColumnTotalDuration = createDurationColumn( CallingContextNode::getTotalDuration );
+				ivTreeTableView.getColumns( ).add( ivColumnTotalDuration );
+			}
+
+			{
+				ivColumnSelfDuration = createDurationColumn( CallingContextNode::getSelfDuration );
+				ivTreeTableView.getColumns( ).add( ivColumnSelfDuration );
+			}
+
+			{
+				ivColumnAvgDuration = createDurationColumn( CallingContextNode::getAvgDuration );
+				ivTreeTableView.getColumns( ).add( ivColumnAvgDuration );
+			}
+
+			{
+				ivColumnMedianDuration = createDurationColumn( aNode -> aNode.getDurationAtPercentile( 50.0 ) );
+				ivTreeTableView.getColumns( ).add( ivColumnMedianDuration );
+			}
+
+			{
+				ivColumnP90Duration = createDurationColumn( aNode -> aNode.getDurationAtPercentile( 90.0 ) );
+				ivTreeTableView.getColumns( ).add( ivColumnP90Duration );
+			}
+
+			{
+				ivColumnP99Duration = createDurationColumn( aNode -> aNode.getDurationAtPercentile( 99.0 ) );
+				ivTreeTableView.getColumns( ).add( ivColumnP99Duration );
+			}
+
+			getChildren( ).add( ivTreeTableView );
+		}
+
+		// Status bar
+		{
+			ivStatusLabel = new Label( );
+			VBox.setMargin( ivStatusLabel, new Insets( 5 ) );
+			getChildren( ).add( ivStatusLabel );
+		}
+	}
+
+	private TreeTableColumn<CallingContextNode, Long> createDurationColumn( final Function<CallingContextNode, Long> aGetter ) {
+		final DurationCellValueFactory cellValueFactory = new DurationCellValueFactory( );
+		cellValueFactory.setGetter( aGetter );
+
+		final TreeTableColumn<CallingContextNode, Long> column = new TreeTableColumn<>( );
+		column.setCellValueFactory( cellValueFactory );
+		column.setPrefWidth( 150 );
+
+		return column;
+	}
+
+	TreeTableView<CallingContextNode> getTreeTableView( ) {
+		return ivTreeTableView;
+	}
+
+	TreeTableColumn<CallingContextNode, Long> getColumnTotalDuration( ) {
+		return ivColumnTotalDuration;
+	}
+
+	TreeTableColumn<CallingContextNode, Long> getColumnSelfDuration( ) {
+		return ivColumnSelfDuration;
+	}
+
+	TreeTableColumn<CallingContextNode, Long> getColumnAvgDuration( ) {
+		return ivColumnAvgDuration;
+	}
+
+	TreeTableColumn<CallingContextNode, Long> getColumnMedianDuration( ) {
+		return ivColumnMedianDuration;
+	}
+
+	TreeTableColumn<CallingContextNode, Long> getColumnP90Duration( ) {
+		return ivColumnP90Duration;
+	}
+
+	TreeTableColumn<CallingContextNode, Long> getColumnP99Duration( ) {
+		return ivColumnP99Duration;
+	}
+
+	Label getStatusLabel( ) {
+		return ivStatusLabel;
+	}
+
+	@Override
+	public void setParameter( final Object aParameter ) {
+
+	}
+
+	public void initialize( ) {
+		getController( ).performInitialize( );
+	}
+
+	public void prepareRefresh( ) {
+		getController( ).performPrepareRefresh( );
+	}
+
+	public void performRefresh( ) {
+		getController( ).performRefresh( );
+	}
+
+}
@@ -0,0 +1,62 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.ui.complex.callingcontexts;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.List;
+
+import com.google.inject.Singleton;
+
+import javafx.scene.control.TreeItem;
+import kieker.diagnosis.architecture.ui.ViewModelBase;
+import kieker.diagnosis.service.data.CallingContextNode;
+import kieker.diagnosis.ui.complex.callingcontexts.components.CallingContextTreeItem;
+
+/**
+ * The view model of the calling contexts tab.
+ *
+ * @author Nils Christian Ehmke
+ */
+@Singleton
+class CallingContextsViewModel extends ViewModelBase<CallingContextsView> {
+
+	public void updatePresentationRoots( final List<CallingContextNode> aRoots ) {
+		final TreeItem<CallingContextNode> root = new TreeItem<>( );
+		final List<TreeItem<CallingContextNode>> rootChildren = root.getChildren( );
+		getView( ).getTreeTableView( ).setRoot( root );
+
+		for ( final CallingContextNode node : aRoots ) {
+			rootChildren.add( new CallingContextTreeItem( node ) );
+		}
+	}
+
+	public void updatePresentationDurationColumnHeader( final String aSuffix ) {
+		getView( ).getColumnTotalDuration( ).setText( getLocalizedString( "columnTotalDuration" ) + " " + aSuffix );
+		getView( ).getColumnSelfDuration( ).setText( getLocalizedString( "columnSelfDuration" ) + " " + aSuffix );
+		getView( ).getColumnAvgDuration( ).setText( getLocalizedString( "columnAvgDuration" ) + " " + aSuffix );
+		getView( ).getColumnMedianDuration( ).setText( getLocalizedString( "columnMedianDuration" ) + " " + aSuffix );
+		getView( ).getColumnP90Duration( ).setText( getLocalizedString( "columnP90Duration" ) + " " + aSuffix );
+		getView( ).getColumnP99Duration( ).setText( getLocalizedString( "columnP99Duration" ) + " " + aSuffix );
+	}
+
+	public void updatePresentationStatus( final int aNodes ) {
+		final NumberFormat decimalFormat = DecimalFormat.getInstance( );
+		getView( ).getStatusLabel( ).setText( String.format( getLocalizedString( "statusLabel" ), decimalFormat.format( aNodes ) ) );
+	}
+
+}
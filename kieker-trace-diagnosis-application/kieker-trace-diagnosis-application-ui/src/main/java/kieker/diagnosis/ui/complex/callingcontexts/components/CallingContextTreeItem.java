@@ -0,0 +1,73 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.ui.complex.callingcontexts.components;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+import kieker.diagnosis.service.data.CallingContextNode;
+
+/**
+ * This is an item for a tree table, which contains a node of the calling context tree. The children are loaded in a lazy way, as the tree can contain a
+ * large number of nodes.
+ *
+ * @author Nils Christian Ehmke
+ */
+public final class CallingContextTreeItem extends TreeItem<CallingContextNode> {
+
+	private boolean ivChildrenInitialized = false;
+
+	/**
+	 * Creates a new tree item.
+	 *
+	 * @param aNode
+	 *            The node to be contained in the new item.
+	 */
+	public CallingContextTreeItem( final CallingContextNode aNode ) {
+		super( aNode );
+	}
+
+	@Override
+	public final ObservableList<TreeItem<CallingContextNode>> getChildren( ) {
+		// Initialize the children in a lazy way.
+		if ( !ivChildrenInitialized ) {
+			ivChildrenInitialized = true;
+			initializeChildren( );
+		}
+
+		return super.getChildren( );
+	}
+
+	@Override
+	public final boolean isLeaf( ) {
+		return !getValue( ).hasChildren( );
+	}
+
+	private void initializeChildren( ) {
+		final List<CallingContextNode> children = getValue( ).getChildren( );
+		final List<TreeItem<CallingContextNode>> result = new ArrayList<>( children.size( ) );
+
+		for ( final CallingContextNode child : children ) {
+			result.add( new CallingContextTreeItem( child ) );
+		}
+
+		super.getChildren( ).setAll( result );
+	}
+
+}
@@ -19,9 +19,13 @@ package kieker.diagnosis.ui.complex.main;
 import java.io.File;
 import java.io.InputStream;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 import com.google.inject.Singleton;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
@@ -33,6 +37,7 @@ import javafx.scene.image.Image;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import kieker.diagnosis.architecture.common.ExceptionUtil;
 import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.exception.BusinessRuntimeException;
@@ -44,7 +49,9 @@ import kieker.diagnosis.architecture.service.properties.PropertiesService;
 import kieker.diagnosis.architecture.ui.ControllerBase;
 import kieker.diagnosis.architecture.ui.ViewBase;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
+import kieker.diagnosis.service.data.ImportProgress;
 import kieker.diagnosis.service.data.ImportType;
+import kieker.diagnosis.service.data.LiveImportListener;
 import kieker.diagnosis.service.data.MethodCall;
 import kieker.diagnosis.service.data.MonitoringLogService;
 import kieker.diagnosis.service.export.CSVData;
@@ -118,6 +125,63 @@ public class MainController extends ControllerBase<MainViewModel> {
 		}
 	}
 
+	/**
+	 * This action is performed, when the user wants to follow a monitoring log, which is still being written.
+	 */
+	public void performStartLiveImport( ) {
+		final DirectoryChooser directoryChooser = new DirectoryChooser( );
+		directoryChooser.setTitle( getLocalizedString( "titleImportLog" ) );
+
+		final File lastImportDirectory = getInitialDirectory( );
+		if ( lastImportDirectory.isDirectory( ) ) {
+			directoryChooser.setInitialDirectory( lastImportDirectory );
+		}
+
+		final File directory = directoryChooser.showDialog( getViewModel( ).getWindow( ) );
+		if ( directory != null ) {
+			// Remember the directory as initial directory for the next time
+			setNewInitialDirectory( lastImportDirectory, directory );
+
+			// The new data is published in the UI thread. This way the views never see a partially published state.
+			final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+			monitoringLogService.startLiveImport( directory, Platform::runLater, createLiveImportListener( ) );
+		}
+	}
+
+	/**
+	 * This action is performed, when the user wants to receive the records of a running system via Kieker's TCP writer.
+	 */
+	public void performStartTcpImport( ) {
+		// The new data is published in the UI thread. This way the views never see a partially published state.
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		monitoringLogService.startTcpImport( Platform::runLater, createLiveImportListener( ) );
+	}
+
+	private LiveImportListener createLiveImportListener( ) {
+		return new LiveImportListener( ) {
+
+			@Override
+			public void newDataAvailable( ) {
+				getViewModel( ).prepareRefresh( );
+				getViewModel( ).performRefresh( );
+			}
+
+			@Override
+			public void liveImportFailed( final Exception aException ) {
+				ExceptionUtil.handleException( aException, getLogger( ).getName( ) );
+			}
+
+		};
+	}
+
+	/**
+	 * This action is performed, when the user wants to stop following a monitoring log. The already imported data is kept.
+	 */
+	public void performStopLiveImport( ) {
+		final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
+		monitoringLogService.stopLiveImport( );
+	}
+
 	private File getInitialDirectory( ) {
 		final PropertiesService propertiesService = getService( PropertiesService.class );
 		final String lastImportPath = propertiesService.loadApplicationProperty( LastImportPathProperty.class );
@@ -222,11 +286,17 @@ public class MainController extends ControllerBase<MainViewModel> {
 
 		@Override
 		public void run( ) {
-			// Show the progress dialog
+			// Show the progress dialog. The progress of the import is polled regularly, as the readers should not be slowed down by the UI.
+			final ImportProgress importProgress = new ImportProgress( );
 			final ProgressDialog importerDialogView = new ProgressDialog( );
+			final Timeline progressTimeline = new Timeline( new KeyFrame( Duration.millis( 250 ), aEvent -> showImportProgress( importerDialogView, importProgress ) ) );
+			progressTimeline.setCycleCount( Animation.INDEFINITE );
+
 			Platform.runLater( ( ) -> {
 				importerDialogView.setMessage( getLocalizedString( "processImport" ) );
 				importerDialogView.setProgress( -1.0 );
+				importerDialogView.setOnCancel( importProgress::cancel );
+				progressTimeline.play( );
 				importerDialogView.open( getViewModel( ).getWindow( ) );
 			} );
 
@@ -235,12 +305,19 @@ public class MainController extends ControllerBase<MainViewModel> {
 				BusinessRuntimeException exception = null;
 				final MonitoringLogService monitoringLogService = getService( MonitoringLogService.class );
 				try {
-					monitoringLogService.importMonitoringLog( ivDirectoryOrFile, ivType );
+					monitoringLogService.importMonitoringLog( ivDirectoryOrFile, ivType, importProgress );
 				} catch ( final BusinessRuntimeException ex ) {
 					// If a business exception occurs, we still want to refresh, but we also want to display the exception.
 					exception = ex;
+				} catch ( final CancellationException ex ) {
+					// The user cancelled the import. There is no need to display anything, but we still want to refresh (to clear the views).
 				}
 
+				Platform.runLater( ( ) -> {
+					progressTimeline.stop( );
+					importerDialogView.setProgress( -1.0 );
+				} );
+
 				// Now refresh everything
 				Platform.runLater( ( ) -> {
 					importerDialogView.setMessage( getLocalizedString( "processRefresh" ) );
@@ -260,11 +337,36 @@ public class MainController extends ControllerBase<MainViewModel> {
 				ExceptionUtil.handleException( ex, getLogger( ).getName( ) );
 			} finally {
 				Platform.runLater( ( ) -> {
+					progressTimeline.stop( );
 					importerDialogView.close( );
 				} );
 			}
 		}
 
+		private void showImportProgress( final ProgressDialog aProgressDialog, final ImportProgress aImportProgress ) {
+			final double progress = aImportProgress.getProgress( );
+			if ( progress < 0.0 ) {
+				// We do not yet know how much data has to be read
+				return;
+			}
+
+			final double bytesPerMegabyte = 1024.0 * 1024.0;
+			final double processedMegabytes = aImportProgress.getProcessedBytes( ) / bytesPerMegabyte;
+			final double totalMegabytes = aImportProgress.getTotalBytes( ) / bytesPerMegabyte;
+			final double megabytesPerSecond = aImportProgress.getBytesPerSecond( ) / bytesPerMegabyte;
+
+			final long remainingSeconds = aImportProgress.getEstimatedRemainingSeconds( );
+			final String remainingTime;
+			if ( remainingSeconds < 0 ) {
+				remainingTime = "--:--:--";
+			} else {
+				remainingTime = String.format( "%d:%02d:%02d", remainingSeconds / 3600, remainingSeconds / 60 % 60, remainingSeconds % 60 );
+			}
+
+			aProgressDialog.setProgress( progress );
+			aProgressDialog.setDetails( String.format( getLocalizedString( "importProgressDetails" ), processedMegabytes, totalMegabytes, megabytesPerSecond, remainingTime ) );
+		}
+
 	}
 
 	public void performSaveAsFavorite( final Class<? extends ViewBase<?>> aClass, final Object aFilter ) {
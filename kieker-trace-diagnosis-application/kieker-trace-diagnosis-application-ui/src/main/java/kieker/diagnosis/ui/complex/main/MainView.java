@@ -31,6 +31,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import kieker.diagnosis.architecture.ui.ViewBase;
 import kieker.diagnosis.ui.complex.aggregatedmethods.AggregatedMethodsView;
+import kieker.diagnosis.ui.complex.callingcontexts.CallingContextsView;
 import kieker.diagnosis.ui.complex.methods.MethodsView;
 import kieker.diagnosis.ui.complex.statistics.StatisticsView;
 import kieker.diagnosis.ui.complex.traces.TracesView;
@@ -41,12 +42,14 @@ public class MainView extends ViewBase<MainController> {
 	private final TracesView ivTracesView;
 	private final MethodsView ivMethodsView;
 	private final AggregatedMethodsView ivAggregatedMethodsView;
+	private final CallingContextsView ivCallingContextsView;
 	private final StatisticsView ivStatisticsView;
 	private final TabPane ivTabPane;
 	private final Menu ivFavorites;
 
 	@Inject
-	public MainView( final TracesView aTracesView, final MethodsView aMethodsView, final AggregatedMethodsView aAggregatedMethodsView, final StatisticsView aStatisticsView ) {
+	public MainView( final TracesView aTracesView, final MethodsView aMethodsView, final AggregatedMethodsView aAggregatedMethodsView, final CallingContextsView aCallingContextsView,
+			final StatisticsView aStatisticsView ) {
 		// Main menu
 		{
 			final MenuBar menuBar = new MenuBar( );
@@ -76,6 +79,33 @@ public class MainView extends ViewBase<MainController> {
 					menu.getItems( ).add( menuItem );
 				}
 
+				{
+					final MenuItem menuItem = new MenuItem( );
+					menuItem.setId( "menuItemStartLiveImport" );
+					menuItem.setText( getLocalizedString( "startLiveImport" ) );
+					menuItem.setOnAction( ( e ) -> getController( ).performStartLiveImport( ) );
+
+					menu.getItems( ).add( menuItem );
+				}
+
+				{
+					final MenuItem menuItem = new MenuItem( );
+					menuItem.setId( "menuItemStartTcpImport" );
+					menuItem.setText( getLocalizedString( "startTcpImport" ) );
+					menuItem.setOnAction( ( e ) -> getController( ).performStartTcpImport( ) );
+
+					menu.getItems( ).add( menuItem );
+				}
+
+				{
+					final MenuItem menuItem = new MenuItem( );
+					menuItem.setId( "menuItemStopLiveImport" );
+					menuItem.setText( getLocalizedString( "stopLiveImport" ) );
+					menuItem.setOnAction( ( e ) -> getController( ).performStopLiveImport( ) );
+
+					menu.getItems( ).add( menuItem );
+				}
+
 				{
 					final SeparatorMenuItem separatorMenuItem = new SeparatorMenuItem( );
 
@@ -237,6 +267,20 @@ public class MainView extends ViewBase<MainController> {
 				ivAggregatedMethodsView.getSearchButton( ).defaultButtonProperty( ).bind( ivTabPane.getSelectionModel( ).selectedItemProperty( ).isEqualTo( tab ) );
 			}
 
+			{
+
+				ivCallingContextsView = aCallingContextsView;
+				ivCallingContextsView.initialize( );
+
+				final Tab tab = new Tab( );
+				tab.setId( "tabCallingContexts" );
+
+				tab.setText( getLocalizedString( "callingContexts" ) );
+				tab.setContent( aCallingContextsView );
+
+				ivTabPane.getTabs( ).add( tab );
+			}
+
 			{
 
 				ivStatisticsView = aStatisticsView;
@@ -268,6 +312,7 @@ public class MainView extends ViewBase<MainController> {
 		ivTracesView.prepareRefresh( );
 		ivMethodsView.prepareRefresh( );
 		ivAggregatedMethodsView.prepareRefresh( );
+		ivCallingContextsView.prepareRefresh( );
 		ivStatisticsView.prepareRefresh( );
 	}
 
@@ -275,6 +320,7 @@ public class MainView extends ViewBase<MainController> {
 		ivTracesView.performRefresh( );
 		ivMethodsView.performRefresh( );
 		ivAggregatedMethodsView.performRefresh( );
+		ivCallingContextsView.performRefresh( );
 		ivStatisticsView.performRefresh( );
 	}
 
@@ -25,6 +25,8 @@ import kieker.diagnosis.architecture.exception.BusinessRuntimeException;
 import kieker.diagnosis.architecture.ui.ControllerBase;
 import kieker.diagnosis.service.data.AggregatedMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 import kieker.diagnosis.service.export.CSVData;
 import kieker.diagnosis.service.methods.MethodsFilter;
 import kieker.diagnosis.service.methods.MethodsService;
@@ -127,12 +129,13 @@ class MethodsController extends ControllerBase<MethodsViewModel> {
 			final AggregatedMethodCall methodCall = (AggregatedMethodCall) aParameter;
 
 			// We have to prepare a filter which maches only the method call
+			final SymbolTable symbolTable = getService( MonitoringLogService.class ).getSymbolTable( );
 			final MethodsFilter filter = new MethodsFilter( );
-			filter.setHost( methodCall.getHost( ) );
-			filter.setClazz( methodCall.getClazz( ) );
-			filter.setMethod( methodCall.getMethod( ) );
-			filter.setException( methodCall.getException( ) );
-			filter.setSearchType( methodCall.getException( ) != null ? SearchType.ONLY_FAILED : SearchType.ONLY_SUCCESSFUL );
+			filter.setHost( symbolTable.resolve( methodCall.getHostId( ) ) );
+			filter.setClazz( symbolTable.resolve( methodCall.getClazzId( ) ) );
+			filter.setMethod( symbolTable.resolve( methodCall.getMethodId( ) ) );
+			filter.setException( symbolTable.resolve( methodCall.getExceptionId( ) ) );
+			filter.setSearchType( methodCall.getExceptionId( ) != SymbolTable.NULL_SYMBOL ? SearchType.ONLY_FAILED : SearchType.ONLY_SUCCESSFUL );
 
 			getViewModel( ).updatePresentationFilter( filter );
 
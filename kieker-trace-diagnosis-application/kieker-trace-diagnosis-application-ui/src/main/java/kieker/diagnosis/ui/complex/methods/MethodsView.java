@@ -48,6 +48,8 @@ import kieker.diagnosis.architecture.service.properties.PropertiesService;
 import kieker.diagnosis.architecture.ui.EnumStringConverter;
 import kieker.diagnosis.architecture.ui.ViewBase;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 import kieker.diagnosis.service.methods.SearchType;
 import kieker.diagnosis.service.settings.ClassAppearance;
 import kieker.diagnosis.service.settings.MethodAppearance;
@@ -108,6 +110,9 @@ public class MethodsView extends ViewBase<MethodsController> {
 	@Inject
 	private PropertiesService ivPropertiesService;
 
+	@Inject
+	private MonitoringLogService ivMonitoringLogService;
+
 	public void initialize( ) {
 		getController( ).performInitialize( );
 	}
@@ -337,7 +342,8 @@ public class MethodsView extends ViewBase<MethodsController> {
 
 			{
 				ivHostColumn = new TableColumn<>( );
-				ivHostColumn.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getHost( ) ) );
+				ivHostColumn.setCellValueFactory(
+						aParam -> new ReadOnlyObjectWrapper<>( ivMonitoringLogService.getSymbolTable( ).resolve( aParam.getValue( ).getHostId( ) ) ) );
 				ivHostColumn.setText( getLocalizedString( "columnHost" ) );
 				ivHostColumn.setPrefWidth( 100 );
 
@@ -397,33 +403,41 @@ public class MethodsView extends ViewBase<MethodsController> {
 					final TableColumn<MethodCall, ?> tableColumn = sortOrder.get( 0 );
 
 					if ( tableColumn == ivHostColumn ) {
+						final SymbolTable symbolTable = ivMonitoringLogService.getSymbolTable( );
+
 						final ObservableList<MethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
-							items.sort( ( o1, o2 ) -> o1.getHost( ).compareTo( o2.getHost( ) ) );
+							items.sort( ( o1, o2 ) -> symbolTable.resolve( o1.getHostId( ) ).compareTo( symbolTable.resolve( o2.getHostId( ) ) ) );
 						} else {
-							items.sort( ( o1, o2 ) -> o2.getHost( ).compareTo( o1.getHost( ) ) );
+							items.sort( ( o1, o2 ) -> symbolTable.resolve( o2.getHostId( ) ).compareTo( symbolTable.resolve( o1.getHostId( ) ) ) );
 						}
 					}
 
 					if ( tableColumn == ivClassColumn ) {
 						final ClassAppearance classAppearance = ivPropertiesService.loadApplicationProperty( ClassAppearanceProperty.class );
+						final SymbolTable symbolTable = ivMonitoringLogService.getSymbolTable( );
 
 						final ObservableList<MethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
-							items.sort( ( o1, o2 ) -> classAppearance.convert( o1.getClazz( ) ).compareTo( classAppearance.convert( o2.getClazz( ) ) ) );
+							items.sort( ( o1, o2 ) -> classAppearance.convert( symbolTable.resolve( o1.getClazzId( ) ) )
+									.compareTo( classAppearance.convert( symbolTable.resolve( o2.getClazzId( ) ) ) ) );
 						} else {
-							items.sort( ( o1, o2 ) -> classAppearance.convert( o2.getClazz( ) ).compareTo( classAppearance.convert( o1.getClazz( ) ) ) );
+							items.sort( ( o1, o2 ) -> classAppearance.convert( symbolTable.resolve( o2.getClazzId( ) ) )
+									.compareTo( classAppearance.convert( symbolTable.resolve( o1.getClazzId( ) ) ) ) );
 						}
 					}
 
 					if ( tableColumn == ivMethodColumn ) {
 						final MethodAppearance methodAppearance = ivPropertiesService.loadApplicationProperty( MethodAppearanceProperty.class );
+						final SymbolTable symbolTable = ivMonitoringLogService.getSymbolTable( );
 
 						final ObservableList<MethodCall> items = param.getItems( );
 						if ( tableColumn.getSortType( ) == SortType.ASCENDING ) {
-							items.sort( ( o1, o2 ) -> methodAppearance.convert( o1.getMethod( ) ).compareTo( methodAppearance.convert( o2.getMethod( ) ) ) );
+							items.sort( ( o1, o2 ) -> methodAppearance.convert( symbolTable.resolve( o1.getMethodId( ) ) )
+									.compareTo( methodAppearance.convert( symbolTable.resolve( o2.getMethodId( ) ) ) ) );
 						} else {
-							items.sort( ( o1, o2 ) -> methodAppearance.convert( o2.getMethod( ) ).compareTo( methodAppearance.convert( o1.getMethod( ) ) ) );
+							items.sort( ( o1, o2 ) -> methodAppearance.convert( symbolTable.resolve( o2.getMethodId( ) ) )
+									.compareTo( methodAppearance.convert( symbolTable.resolve( o1.getMethodId( ) ) ) ) );
 						}
 					}
 
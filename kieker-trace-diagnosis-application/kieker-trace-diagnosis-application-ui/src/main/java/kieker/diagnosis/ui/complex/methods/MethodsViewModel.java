@@ -29,6 +29,8 @@ import javafx.scene.control.TableView;
 import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.ui.ViewModelBase;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 import kieker.diagnosis.service.export.CSVData;
 import kieker.diagnosis.service.methods.MethodsFilter;
 import kieker.diagnosis.service.pattern.PatternService;
@@ -50,10 +52,12 @@ class MethodsViewModel extends ViewModelBase<MethodsView> {
 		final String noDataAvailable = getLocalizedString( "noDataAvailable" );
 
 		if ( aMethodCall != null ) {
-			getView( ).getDetailsHost( ).setText( aMethodCall.getHost( ) );
-			getView( ).getDetailsClass( ).setText( aMethodCall.getClazz( ) );
-			getView( ).getDetailsMethod( ).setText( aMethodCall.getMethod( ) );
-			getView( ).getDetailsException( ).setText( aMethodCall.getException( ) != null ? aMethodCall.getException( ) : noDataAvailable );
+			final SymbolTable symbolTable = getService( MonitoringLogService.class ).getSymbolTable( );
+			getView( ).getDetailsHost( ).setText( symbolTable.resolve( aMethodCall.getHostId( ) ) );
+			getView( ).getDetailsClass( ).setText( symbolTable.resolve( aMethodCall.getClazzId( ) ) );
+			getView( ).getDetailsMethod( ).setText( symbolTable.resolve( aMethodCall.getMethodId( ) ) );
+			getView( ).getDetailsException( ).setText(
+					aMethodCall.getExceptionId( ) != SymbolTable.NULL_SYMBOL ? symbolTable.resolve( aMethodCall.getExceptionId( ) ) : noDataAvailable );
 			getView( ).getDetailsDuration( ).setText( String.format( "%d [ns]", aMethodCall.getDuration( ) ) );
 			getView( ).getDetailsTimestamp( ).setText( Long.toString( aMethodCall.getTimestamp( ) ) );
 			getView( ).getDetailsTraceId( ).setText( Long.toString( aMethodCall.getTraceId( ) ) );
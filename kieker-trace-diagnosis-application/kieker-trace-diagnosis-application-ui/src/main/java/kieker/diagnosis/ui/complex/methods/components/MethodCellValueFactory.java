@@ -23,6 +23,7 @@ import javafx.util.Callback;
 import kieker.diagnosis.architecture.service.ServiceFactory;
 import kieker.diagnosis.architecture.service.properties.PropertiesService;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
 import kieker.diagnosis.service.settings.MethodAppearance;
 import kieker.diagnosis.service.settings.properties.MethodAppearanceProperty;
 
@@ -34,11 +35,13 @@ import kieker.diagnosis.service.settings.properties.MethodAppearanceProperty;
 public class MethodCellValueFactory implements Callback<CellDataFeatures<MethodCall, String>, ObservableValue<String>> {
 
 	private final PropertiesService ivPropertiesService = ServiceFactory.getService( PropertiesService.class );
+	private final MonitoringLogService ivMonitoringLogService = ServiceFactory.getService( MonitoringLogService.class );
 
 	@Override
 	public ObservableValue<String> call( final CellDataFeatures<MethodCall, String> aParam ) {
 		final MethodAppearance methodAppearance = ivPropertiesService.loadApplicationProperty( MethodAppearanceProperty.class );
-		return new ReadOnlyObjectWrapper<>( methodAppearance.convert( aParam.getValue( ).getMethod( ) ) );
+		final String method = ivMonitoringLogService.getSymbolTable( ).resolve( aParam.getValue( ).getMethodId( ) );
+		return new ReadOnlyObjectWrapper<>( methodAppearance.convert( method ) );
 	}
 
 }
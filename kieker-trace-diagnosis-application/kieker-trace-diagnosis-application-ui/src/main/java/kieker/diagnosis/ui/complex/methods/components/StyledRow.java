@@ -18,6 +18,7 @@ package kieker.diagnosis.ui.complex.methods.components;
 
 import javafx.scene.control.TableRow;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.SymbolTable;
 
 /**
  * This is a row for a table which is aware of a method call being failed. If the method call has an exception, it is styled accordingly.
@@ -32,7 +33,7 @@ public final class StyledRow extends TableRow<MethodCall> {
 
 		getStyleClass( ).remove( "failed" );
 
-		if ( aItem != null && aItem.getException( ) != null ) {
+		if ( aItem != null && aItem.getExceptionId( ) != SymbolTable.NULL_SYMBOL ) {
 			getStyleClass( ).add( "failed" );
 		}
 	}
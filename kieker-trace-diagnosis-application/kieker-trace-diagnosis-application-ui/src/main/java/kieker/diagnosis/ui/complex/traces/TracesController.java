@@ -17,6 +17,7 @@
 package kieker.diagnosis.ui.complex.traces;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.google.inject.Singleton;
 
@@ -24,6 +25,7 @@ import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.exception.BusinessRuntimeException;
 import kieker.diagnosis.architecture.ui.ControllerBase;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.TraceShape;
 import kieker.diagnosis.service.settings.SettingsService;
 import kieker.diagnosis.service.traces.TracesFilter;
 import kieker.diagnosis.service.traces.TracesService;
@@ -97,14 +99,25 @@ class TracesController extends ControllerBase<TracesViewModel> {
 			// Get the filter input from the user
 			final TracesFilter filter = getViewModel( ).savePresentationFilter( );
 
-			// Find the trace roots to display
 			final TracesService tracesService = getService( TracesService.class );
-			final List<MethodCall> traceRoots = tracesService.searchTraces( filter );
-			final int totalTraces = tracesService.countTraces( );
-
-			// Update the view
-			getViewModel( ).updatePresentationTraces( traceRoots );
-			getViewModel( ).updatePresentationStatus( traceRoots.size( ), totalTraces );
+			if ( filter.isGroupByShape( ) ) {
+				// Find the groups of structurally identical traces to display
+				final List<TraceShape> traceShapes = tracesService.searchTraceShapes( filter );
+				final List<MethodCall> representativeTraces = traceShapes.stream( ).map( tracesService::getRepresentativeTrace ).collect( Collectors.toList( ) );
+				final int totalTraceShapes = tracesService.countTraceShapes( );
+
+				// Update the view
+				getViewModel( ).updatePresentationTraceShapes( traceShapes, representativeTraces );
+				getViewModel( ).updatePresentationShapeStatus( traceShapes.size( ), totalTraceShapes );
+			} else {
+				// Find the trace roots to display
+				final List<MethodCall> traceRoots = tracesService.searchTraces( filter );
+				final int totalTraces = tracesService.countTraces( );
+
+				// Update the view
+				getViewModel( ).updatePresentationTraces( traceRoots );
+				getViewModel( ).updatePresentationStatus( traceRoots.size( ), totalTraces );
+			}
 		} catch ( final BusinessException ex ) {
 			throw new BusinessRuntimeException( ex );
 		}
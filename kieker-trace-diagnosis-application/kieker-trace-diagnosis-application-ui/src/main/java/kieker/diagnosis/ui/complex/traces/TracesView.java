@@ -43,6 +43,7 @@ import jfxtras.scene.control.LocalTimeTextField;
 import kieker.diagnosis.architecture.ui.EnumStringConverter;
 import kieker.diagnosis.architecture.ui.ViewBase;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
 import kieker.diagnosis.service.traces.SearchType;
 import kieker.diagnosis.ui.atom.LongTextField;
 import kieker.diagnosis.ui.complex.traces.components.ClassCellValueFactory;
@@ -50,6 +51,7 @@ import kieker.diagnosis.ui.complex.traces.components.DurationCellValueFactory;
 import kieker.diagnosis.ui.complex.traces.components.MethodCellValueFactory;
 import kieker.diagnosis.ui.complex.traces.components.StyledRow;
 import kieker.diagnosis.ui.complex.traces.components.TimestampCellValueFactory;
+import kieker.diagnosis.ui.complex.traces.components.TraceShapeCellValueFactory;
 
 /**
  * The view of the traces tab.
@@ -72,11 +74,15 @@ public class TracesView extends ViewBase<TracesController> {
 	private final DatePicker ivFilterUpperDate;
 	private final LocalTimeTextField ivFilterUpperTime;
 	private final CheckBox ivFilterSearchWholeTrace;
+	private final CheckBox ivFilterGroupByShape;
 	private final ComboBox<SearchType> ivFilterSearchType;
 
 	// Table
 	private final TreeTableView<MethodCall> ivTreeTableView;
 	private TreeTableColumn<MethodCall, Long> ivDurationColumn;
+	private final TreeTableColumn<MethodCall, Long> ivColumnShapeCount;
+	private final TreeTableColumn<MethodCall, Long> ivColumnShapeMedianDuration;
+	private final TreeTableColumn<MethodCall, Long> ivColumnShapeP99Duration;
 
 	// Details
 	private final TextField ivDetailsHost;
@@ -94,6 +100,9 @@ public class TracesView extends ViewBase<TracesController> {
 
 	private final Button ivSearchButton;
 
+	@Inject
+	private MonitoringLogService ivMonitoringLogService;
+
 	@Inject
 	public TracesView( ) {
 		// Filter
@@ -106,9 +115,9 @@ public class TracesView extends ViewBase<TracesController> {
 				outerGridPane.setHgap( 5 );
 				outerGridPane.setVgap( 5 );
 
-				for ( int i = 0; i < 3; i++ ) {
+				for ( int i = 0; i < 4; i++ ) {
 					final RowConstraints constraint = new RowConstraints( );
-					constraint.setPercentHeight( 100.0 / 3 );
+					constraint.setPercentHeight( 100.0 / 4 );
 					outerGridPane.getRowConstraints( ).add( constraint );
 				}
 
@@ -282,13 +291,25 @@ public class TracesView extends ViewBase<TracesController> {
 					outerGridPane.getChildren( ).add( ivFilterSearchWholeTrace );
 				}
 
+				{
+					ivFilterGroupByShape = new CheckBox( );
+					ivFilterGroupByShape.setId( "tabTracesFilterGroupByShape" );
+					ivFilterGroupByShape.setText( getLocalizedString( "filterGroupByShape" ) );
+
+					GridPane.setColumnIndex( ivFilterGroupByShape, 1 );
+					GridPane.setRowIndex( ivFilterGroupByShape, 2 );
+					GridPane.setValignment( ivFilterGroupByShape, VPos.CENTER );
+
+					outerGridPane.getChildren( ).add( ivFilterGroupByShape );
+				}
+
 				{
 					final Hyperlink hyperlink = new Hyperlink( );
 					hyperlink.setText( getLocalizedString( "saveAsFavorite" ) );
 					hyperlink.setOnAction( e -> getController( ).performSaveAsFavorite( ) );
 
 					GridPane.setColumnIndex( hyperlink, 0 );
-					GridPane.setRowIndex( hyperlink, 2 );
+					GridPane.setRowIndex( hyperlink, 3 );
 
 					outerGridPane.getChildren( ).add( hyperlink );
 				}
@@ -303,7 +324,7 @@ public class TracesView extends ViewBase<TracesController> {
 					ivSearchButton.setGraphic( createIcon( Icon.SEARCH ) );
 
 					GridPane.setColumnIndex( ivSearchButton, 1 );
-					GridPane.setRowIndex( ivSearchButton, 2 );
+					GridPane.setRowIndex( ivSearchButton, 3 );
 
 					outerGridPane.getChildren( ).add( ivSearchButton );
 				}
@@ -332,7 +353,8 @@ public class TracesView extends ViewBase<TracesController> {
 
 			{
 				final TreeTableColumn<MethodCall, String> column = new TreeTableColumn<>( );
-				column.setCellValueFactory( aParam -> new ReadOnlyObjectWrapper<>( aParam.getValue( ).getValue( ).getHost( ) ) );
+				column.setCellValueFactory(
+						aParam -> new ReadOnlyObjectWrapper<>( ivMonitoringLogService.getSymbolTable( ).resolve( aParam.getValue( ).getValue( ).getHostId( ) ) ) );
 				column.setText( getLocalizedString( "columnHost" ) );
 				column.setPrefWidth( 100 );
 
@@ -411,6 +433,35 @@ public class TracesView extends ViewBase<TracesController> {
 				ivTreeTableView.getColumns( ).add( column );
 			}
 
+			// The columns of the groups are only visible, if the traces are grouped by their shapes
+			{
+				ivColumnShapeCount = new TreeTableColumn<>( );
+				ivColumnShapeCount.setCellValueFactory( new TraceShapeCellValueFactory( aShape -> (long) aShape.getCount( ), false ) );
+				ivColumnShapeCount.setText( getLocalizedString( "columnShapeCount" ) );
+				ivColumnShapeCount.setPrefWidth( 100 );
+				ivColumnShapeCount.setVisible( false );
+
+				ivTreeTableView.getColumns( ).add( ivColumnShapeCount );
+			}
+
+			{
+				ivColumnShapeMedianDuration = new TreeTableColumn<>( );
+				ivColumnShapeMedianDuration.setCellValueFactory( new TraceShapeCellValueFactory( aShape -> aShape.getDurationAtPercentile( 50.0 ), true ) );
+				ivColumnShapeMedianDuration.setPrefWidth( 150 );
+				ivColumnShapeMedianDuration.setVisible( false );
+
+				ivTreeTableView.getColumns( ).add( ivColumnShapeMedianDuration );
+			}
+
+			{
+				ivColumnShapeP99Duration = new TreeTableColumn<>( );
+				ivColumnShapeP99Duration.setCellValueFactory( new TraceShapeCellValueFactory( aShape -> aShape.getDurationAtPercentile( 99.0 ), true ) );
+				ivColumnShapeP99Duration.setPrefWidth( 150 );
+				ivColumnShapeP99Duration.setVisible( false );
+
+				ivTreeTableView.getColumns( ).add( ivColumnShapeP99Duration );
+			}
+
 			getChildren( ).add( ivTreeTableView );
 		}
 
@@ -710,6 +761,10 @@ public class TracesView extends ViewBase<TracesController> {
 		return ivFilterSearchType;
 	}
 
+	CheckBox getFilterGroupByShape( ) {
+		return ivFilterGroupByShape;
+	}
+
 	TreeTableView<MethodCall> getTreeTableView( ) {
 		return ivTreeTableView;
 	}
@@ -762,6 +817,18 @@ public class TracesView extends ViewBase<TracesController> {
 		return ivDurationColumn;
 	}
 
+	TreeTableColumn<MethodCall, Long> getColumnShapeCount( ) {
+		return ivColumnShapeCount;
+	}
+
+	TreeTableColumn<MethodCall, Long> getColumnShapeMedianDuration( ) {
+		return ivColumnShapeMedianDuration;
+	}
+
+	TreeTableColumn<MethodCall, Long> getColumnShapeP99Duration( ) {
+		return ivColumnShapeP99Duration;
+	}
+
 	@Override
 	public void setParameter( final Object aParameter ) {
 		getController( ).performSetParameter( aParameter );
@@ -27,7 +27,11 @@ import javafx.scene.control.TreeItem;
 import kieker.diagnosis.architecture.exception.BusinessException;
 import kieker.diagnosis.architecture.service.properties.PropertiesService;
 import kieker.diagnosis.architecture.ui.ViewModelBase;
+import kieker.diagnosis.service.data.HeapMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceShape;
 import kieker.diagnosis.service.pattern.PatternService;
 import kieker.diagnosis.service.settings.MethodCallAggregation;
 import kieker.diagnosis.service.settings.properties.MaxNumberOfMethodCallsProperty;
@@ -54,6 +58,45 @@ class TracesViewModel extends ViewModelBase<TracesView> {
 	public void updatePresentationTraces( final List<MethodCall> aTraceRoots ) {
 		final PropertiesService propertiesService = getService( PropertiesService.class );
 		final boolean showUnmonitoredTime = propertiesService.loadApplicationProperty( ShowUnmonitoredTimeProperty.class );
+		final Aggregator aggregator = createAggregator( );
+
+		final TreeItem<MethodCall> root = new TreeItem<>( );
+		root.setValue( new HeapMethodCall( ) );
+
+		// Convert the trace roots to tree items
+		for ( final MethodCall methodCall : aTraceRoots ) {
+			root.getChildren( ).add( new MethodCallTreeItem( methodCall, showUnmonitoredTime, aggregator ) );
+		}
+
+		getView( ).getTreeTableView( ).setRoot( root );
+		updateShapeColumnsVisibility( false );
+	}
+
+	public void updatePresentationTraceShapes( final List<TraceShape> aTraceShapes, final List<MethodCall> aRepresentativeTraces ) {
+		final PropertiesService propertiesService = getService( PropertiesService.class );
+		final boolean showUnmonitoredTime = propertiesService.loadApplicationProperty( ShowUnmonitoredTimeProperty.class );
+		final Aggregator aggregator = createAggregator( );
+
+		final TreeItem<MethodCall> root = new TreeItem<>( );
+		root.setValue( new HeapMethodCall( ) );
+
+		// Each group is shown as its representative trace
+		for ( int index = 0; index < aTraceShapes.size( ); index++ ) {
+			root.getChildren( ).add( new MethodCallTreeItem( aRepresentativeTraces.get( index ), showUnmonitoredTime, aggregator, aTraceShapes.get( index ) ) );
+		}
+
+		getView( ).getTreeTableView( ).setRoot( root );
+		updateShapeColumnsVisibility( true );
+	}
+
+	private void updateShapeColumnsVisibility( final boolean aVisible ) {
+		getView( ).getColumnShapeCount( ).setVisible( aVisible );
+		getView( ).getColumnShapeMedianDuration( ).setVisible( aVisible );
+		getView( ).getColumnShapeP99Duration( ).setVisible( aVisible );
+	}
+
+	private Aggregator createAggregator( ) {
+		final PropertiesService propertiesService = getService( PropertiesService.class );
 
 		// Prepare the aggregator based on the properties
 		final Aggregator aggregator;
@@ -82,29 +125,25 @@ class TracesViewModel extends ViewModelBase<TracesView> {
 
 		}
 
-		final TreeItem<MethodCall> root = new TreeItem<>( );
-		root.setValue( new MethodCall( ) );
-
-		// Convert the trace roots to tree items
-		for ( final MethodCall methodCall : aTraceRoots ) {
-			root.getChildren( ).add( new MethodCallTreeItem( methodCall, showUnmonitoredTime, aggregator ) );
-		}
-
-		getView( ).getTreeTableView( ).setRoot( root );
+		return aggregator;
 	}
 
 	public void updatePresentationDurationColumnHeader( final String aSuffix ) {
 		getView( ).getDurationColumn( ).setText( getLocalizedString( "columnDuration" ) + " " + aSuffix );
+		getView( ).getColumnShapeMedianDuration( ).setText( getLocalizedString( "columnShapeMedianDuration" ) + " " + aSuffix );
+		getView( ).getColumnShapeP99Duration( ).setText( getLocalizedString( "columnShapeP99Duration" ) + " " + aSuffix );
 	}
 
 	public void updatePresentationDetails( final MethodCall aMethodCall ) {
 		final String noDataAvailable = getLocalizedString( "noDataAvailable" );
 
 		if ( aMethodCall != null ) {
-			getView( ).getDetailsHost( ).setText( aMethodCall.getHost( ) );
-			getView( ).getDetailsClass( ).setText( aMethodCall.getClazz( ) );
-			getView( ).getDetailsMethod( ).setText( aMethodCall.getMethod( ) );
-			getView( ).getDetailsException( ).setText( aMethodCall.getException( ) != null ? aMethodCall.getException( ) : noDataAvailable );
+			final SymbolTable symbolTable = getService( MonitoringLogService.class ).getSymbolTable( );
+			getView( ).getDetailsHost( ).setText( symbolTable.resolve( aMethodCall.getHostId( ) ) );
+			getView( ).getDetailsClass( ).setText( symbolTable.resolve( aMethodCall.getClazzId( ) ) );
+			getView( ).getDetailsMethod( ).setText( symbolTable.resolve( aMethodCall.getMethodId( ) ) );
+			getView( ).getDetailsException( ).setText(
+					aMethodCall.getExceptionId( ) != SymbolTable.NULL_SYMBOL ? symbolTable.resolve( aMethodCall.getExceptionId( ) ) : noDataAvailable );
 			getView( ).getDetailsTraceDepth( ).setText( Integer.toString( aMethodCall.getTraceDepth( ) ) );
 			getView( ).getDetailsTraceSize( ).setText( Integer.toString( aMethodCall.getTraceSize( ) ) );
 			getView( ).getDetailsDuration( ).setText( String.format( "%d [ns]", aMethodCall.getDuration( ) ) );
@@ -130,6 +169,12 @@ class TracesViewModel extends ViewModelBase<TracesView> {
 		getView( ).getStatusLabel( ).setText( String.format( getLocalizedString( "statusLabel" ), decimalFormat.format( aTraces ), decimalFormat.format( aTotalTraces ) ) );
 	}
 
+	public void updatePresentationShapeStatus( final int aTraceShapes, final int aTotalTraceShapes ) {
+		final NumberFormat decimalFormat = DecimalFormat.getInstance( );
+		getView( ).getStatusLabel( ).setText(
+				String.format( getLocalizedString( "statusLabelShapes" ), decimalFormat.format( aTraceShapes ), decimalFormat.format( aTotalTraceShapes ) ) );
+	}
+
 	public MethodCall getSelected( ) {
 		final TreeItem<MethodCall> selectedItem = getView( ).getTreeTableView( ).getSelectionModel( ).getSelectedItem( );
 		return selectedItem != null ? selectedItem.getValue( ) : null;
@@ -143,6 +188,7 @@ class TracesViewModel extends ViewModelBase<TracesView> {
 		getView( ).getFilterTraceId( ).setText( aFilter.getTraceId( ) != null ? Long.toString( aFilter.getTraceId( ) ) : null );
 		getView( ).getFilterUseRegExpr( ).setSelected( aFilter.isUseRegExpr( ) );
 		getView( ).getFilterSearchWholeTrace( ).setSelected( aFilter.isSearchWholeTrace( ) );
+		getView( ).getFilterGroupByShape( ).setSelected( aFilter.isGroupByShape( ) );
 		getView( ).getFilterLowerDate( ).setValue( aFilter.getLowerDate( ) );
 		getView( ).getFilterLowerTime( ).setLocalTime( aFilter.getLowerTime( ) );
 		getView( ).getFilterUpperDate( ).setValue( aFilter.getUpperDate( ) );
@@ -159,6 +205,7 @@ class TracesViewModel extends ViewModelBase<TracesView> {
 		filter.setException( trimToNull( getView( ).getFilterException( ).getText( ) ) );
 		filter.setUseRegExpr( getView( ).getFilterUseRegExpr( ).isSelected( ) );
 		filter.setSearchWholeTrace( getView( ).getFilterSearchWholeTrace( ).isSelected( ) );
+		filter.setGroupByShape( getView( ).getFilterGroupByShape( ).isSelected( ) );
 		filter.setLowerDate( getView( ).getFilterLowerDate( ).getValue( ) );
 		filter.setLowerTime( getView( ).getFilterLowerTime( ).getLocalTime( ) );
 		filter.setUpperDate( getView( ).getFilterUpperDate( ).getValue( ) );
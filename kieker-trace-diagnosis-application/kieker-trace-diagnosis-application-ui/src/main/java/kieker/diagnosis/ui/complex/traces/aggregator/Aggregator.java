@@ -21,7 +21,11 @@ import java.util.List;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
 
+import kieker.diagnosis.architecture.service.ServiceFactory;
+import kieker.diagnosis.service.data.HeapMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
 
 /**
  * Implementation of this class are responsible for aggregating method calls in a trace by various parameters.
@@ -56,12 +60,13 @@ public abstract class Aggregator {
 		final int traceDepth = aList.parallelStream( ).map( MethodCall::getTraceDepth ).max( Comparator.naturalOrder( ) ).get( );
 		final int traceSize = aList.parallelStream( ).map( MethodCall::getTraceSize ).collect( Collectors.summingInt( Integer::intValue ) );
 
-		// Create the dummy method call
-		final MethodCall methodCall = new MethodCall( );
+		// Create the dummy method call. Its texts are added to the symbols of the import, as the method call contains only their ids.
+		final SymbolTable symbolTable = ServiceFactory.getService( MonitoringLogService.class ).getSymbolTable( );
+		final MethodCall methodCall = new HeapMethodCall( );
 
-		methodCall.setHost( "-" );
-		methodCall.setClazz( "-" );
-		methodCall.setMethod( String.format( ivResourceBundle.getString( "methodCallsAggregated" ), aList.size( ) ) );
+		methodCall.setHostId( symbolTable.intern( "-" ) );
+		methodCall.setClazzId( symbolTable.intern( "-" ) );
+		methodCall.setMethodId( symbolTable.intern( String.format( ivResourceBundle.getString( "methodCallsAggregated" ), aList.size( ) ) ) );
 		methodCall.setTraceId( aList.get( 0 ).getTraceId( ) );
 		methodCall.setPercent( (float) percent );
 		methodCall.setDuration( duration );
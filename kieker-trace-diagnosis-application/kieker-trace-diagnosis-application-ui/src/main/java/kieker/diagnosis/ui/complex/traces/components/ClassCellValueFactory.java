@@ -23,6 +23,7 @@ import javafx.util.Callback;
 import kieker.diagnosis.architecture.service.ServiceFactory;
 import kieker.diagnosis.architecture.service.properties.PropertiesService;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
 import kieker.diagnosis.service.settings.ClassAppearance;
 import kieker.diagnosis.service.settings.properties.ClassAppearanceProperty;
 
@@ -34,11 +35,13 @@ import kieker.diagnosis.service.settings.properties.ClassAppearanceProperty;
 public class ClassCellValueFactory implements Callback<CellDataFeatures<MethodCall, String>, ObservableValue<String>> {
 
 	private final PropertiesService ivPropertiesService = ServiceFactory.getService( PropertiesService.class );
+	private final MonitoringLogService ivMonitoringLogService = ServiceFactory.getService( MonitoringLogService.class );
 
 	@Override
 	public ObservableValue<String> call( final CellDataFeatures<MethodCall, String> aParam ) {
 		final ClassAppearance classAppearance = ivPropertiesService.loadApplicationProperty( ClassAppearanceProperty.class );
-		return new ReadOnlyObjectWrapper<>( classAppearance.convert( aParam.getValue( ).getValue( ).getClazz( ) ) );
+		final String clazz = ivMonitoringLogService.getSymbolTable( ).resolve( aParam.getValue( ).getValue( ).getClazzId( ) );
+		return new ReadOnlyObjectWrapper<>( classAppearance.convert( clazz ) );
 	}
 
 }
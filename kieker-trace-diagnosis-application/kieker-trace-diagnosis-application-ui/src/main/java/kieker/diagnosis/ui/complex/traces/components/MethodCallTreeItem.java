@@ -22,7 +22,12 @@ import java.util.ResourceBundle;
 
 import javafx.collections.ObservableList;
 import javafx.scene.control.TreeItem;
+import kieker.diagnosis.architecture.service.ServiceFactory;
+import kieker.diagnosis.service.data.HeapMethodCall;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.MonitoringLogService;
+import kieker.diagnosis.service.data.SymbolTable;
+import kieker.diagnosis.service.data.TraceShape;
 import kieker.diagnosis.ui.complex.traces.aggregator.Aggregator;
 
 /**
@@ -38,6 +43,7 @@ public final class MethodCallTreeItem extends TreeItem<MethodCall> {
 	private boolean ivChildrenInitialized = false;
 	private final boolean ivShowUnmonitoredTime;
 	private final Aggregator ivAggregator;
+	private final TraceShape ivTraceShape;
 
 	/**
 	 * Creates a new tree item.
@@ -50,10 +56,31 @@ public final class MethodCallTreeItem extends TreeItem<MethodCall> {
 	 *            The aggregator which is used to aggregate the children of the node.
 	 */
 	public MethodCallTreeItem( final MethodCall aMethodCall, final boolean aShowUnmonitoredTime, final Aggregator aAggregator ) {
+		this( aMethodCall, aShowUnmonitoredTime, aAggregator, null );
+	}
+
+	/**
+	 * Creates a new tree item for a trace, which represents a whole group of structurally identical traces.
+	 *
+	 * @param aMethodCall
+	 *            The root of the representative trace.
+	 * @param aShowUnmonitoredTime
+	 *            Determines whether the node should show the unmonitored time.
+	 * @param aAggregator
+	 *            The aggregator which is used to aggregate the children of the node.
+	 * @param aTraceShape
+	 *            The group of traces represented by this item. This can be {@code null}.
+	 */
+	public MethodCallTreeItem( final MethodCall aMethodCall, final boolean aShowUnmonitoredTime, final Aggregator aAggregator, final TraceShape aTraceShape ) {
 		super( aMethodCall );
 
 		ivShowUnmonitoredTime = aShowUnmonitoredTime;
 		ivAggregator = aAggregator;
+		ivTraceShape = aTraceShape;
+	}
+
+	public TraceShape getTraceShape( ) {
+		return ivTraceShape;
 	}
 
 	@Override
@@ -88,11 +115,12 @@ public final class MethodCallTreeItem extends TreeItem<MethodCall> {
 				duration += child.getDuration( );
 			}
 
-			// We create a dummy entry for the unmonitored time
-			final MethodCall methodCall = new MethodCall( );
-			methodCall.setHost( "-" );
-			methodCall.setClazz( "-" );
-			methodCall.setMethod( cvResourceBundle.getString( "unmonitoredTime" ) );
+			// We create a dummy entry for the unmonitored time. Its texts are added to the symbols of the import, as the entry contains only their ids.
+			final SymbolTable symbolTable = ServiceFactory.getService( MonitoringLogService.class ).getSymbolTable( );
+			final MethodCall methodCall = new HeapMethodCall( );
+			methodCall.setHostId( symbolTable.intern( "-" ) );
+			methodCall.setClazzId( symbolTable.intern( "-" ) );
+			methodCall.setMethodId( symbolTable.intern( cvResourceBundle.getString( "unmonitoredTime" ) ) );
 			methodCall.setTraceId( getValue( ).getTraceId( ) );
 			methodCall.setTimestamp( getValue( ).getTimestamp( ) );
 
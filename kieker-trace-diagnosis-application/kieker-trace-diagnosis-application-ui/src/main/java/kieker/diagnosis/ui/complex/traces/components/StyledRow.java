@@ -18,6 +18,7 @@ package kieker.diagnosis.ui.complex.traces.components;
 
 import javafx.scene.control.TreeTableRow;
 import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.SymbolTable;
 
 /**
  * This is a row for a tree table which is aware of a method call being failed. If the method call has an exception, it is styled accordingly.
@@ -33,7 +34,7 @@ public final class StyledRow extends TreeTableRow<MethodCall> {
 		// Remove a potential style class from an earlier run
 		getStyleClass( ).remove( "failed" );
 
-		if ( aItem != null && aItem.getException( ) != null ) {
+		if ( aItem != null && aItem.getExceptionId( ) != SymbolTable.NULL_SYMBOL ) {
 			getStyleClass( ).add( "failed" );
 		}
 	}
@@ -0,0 +1,75 @@
+/***************************************************************************
+ * Copyright 2015-2018 Kieker Project (http://kieker-monitoring.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ***************************************************************************/
+
+package kieker.diagnosis.ui.complex.traces.components;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableColumn.CellDataFeatures;
+import javafx.util.Callback;
+import kieker.diagnosis.architecture.service.ServiceFactory;
+import kieker.diagnosis.architecture.service.properties.PropertiesService;
+import kieker.diagnosis.service.data.MethodCall;
+import kieker.diagnosis.service.data.TraceShape;
+import kieker.diagnosis.service.settings.properties.TimeUnitProperty;
+
+/**
+ * This is a cell factory for a tree table which shows a value of the group of traces, which is represented by a trace root. Other method calls show no
+ * value.
+ *
+ * @author Nils Christian Ehmke
+ */
+public class TraceShapeCellValueFactory implements Callback<CellDataFeatures<MethodCall, Long>, ObservableValue<Long>> {
+
+	private final PropertiesService ivPropertiesService = ServiceFactory.getService( PropertiesService.class );
+
+	private final Function<TraceShape, Long> ivGetter;
+	private final boolean ivDuration;
+
+	/**
+	 * Creates a new cell factory.
+	 *
+	 * @param aGetter
+	 *            The getter for the value of the group.
+	 * @param aDuration
+	 *            Determines whether the value is a duration, which is shown in the configured time unit.
+	 */
+	public TraceShapeCellValueFactory( final Function<TraceShape, Long> aGetter, final boolean aDuration ) {
+		ivGetter = aGetter;
+		ivDuration = aDuration;
+	}
+
+	@Override
+	public ObservableValue<Long> call( final CellDataFeatures<MethodCall, Long> aParam ) {
+		final TreeItem<MethodCall> treeItem = aParam.getValue( );
+		final TraceShape traceShape = treeItem instanceof MethodCallTreeItem ? ( (MethodCallTreeItem) treeItem ).getTraceShape( ) : null;
+		if ( traceShape == null ) {
+			return new ReadOnlyObjectWrapper<>( );
+		}
+
+		final long value = ivGetter.apply( traceShape );
+		if ( ivDuration ) {
+			final TimeUnit timeUnit = ivPropertiesService.loadApplicationProperty( TimeUnitProperty.class );
+			return new ReadOnlyObjectWrapper<>( timeUnit.convert( value, TimeUnit.NANOSECONDS ) );
+		}
+		return new ReadOnlyObjectWrapper<>( value );
+	}
+
+}
@@ -24,6 +24,7 @@ import com.google.inject.Singleton;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.Image;
@@ -48,12 +49,16 @@ public class ProgressDialog extends VBox {
 
 	private Label ivLabel;
 
+	private final Label ivDetailsLabel;
+
+	private final Button ivCancelButton;
+
 	public ProgressDialog( ) {
 		setAlignment( Pos.CENTER );
 		setPadding( new Insets( 5 ) );
 		setSpacing( 10 );
 
-		setPrefHeight( 100 );
+		setMinHeight( 100 );
 		setPrefWidth( 250 );
 
 		{
@@ -68,7 +73,24 @@ public class ProgressDialog extends VBox {
 
 			getChildren( ).add( ivLabel );
 		}
-		
+
+		{
+			ivDetailsLabel = new Label( );
+			ivDetailsLabel.setVisible( false );
+			ivDetailsLabel.setManaged( false );
+
+			getChildren( ).add( ivDetailsLabel );
+		}
+
+		{
+			ivCancelButton = new Button( ivResourceBundle.getString( "cancel" ) );
+			ivCancelButton.setId( "progressDialogCancel" );
+			ivCancelButton.setVisible( false );
+			ivCancelButton.setManaged( false );
+
+			getChildren( ).add( ivCancelButton );
+		}
+
 		getStylesheets( ).add( "/kieker/diagnosis/architecture/ui/Dialog.css" );
 	}
 
@@ -116,4 +138,32 @@ public class ProgressDialog extends VBox {
 		ivProgressIndicator.setProgress( aProgress );
 	}
 
+	/**
+	 * Sets an additional message below the main message (for instance the throughput of a process).
+	 *
+	 * @param aDetails
+	 *                 The additional message.
+	 */
+	public void setDetails( final String aDetails ) {
+		ivDetailsLabel.setText( aDetails );
+		ivDetailsLabel.setVisible( true );
+		ivDetailsLabel.setManaged( true );
+		layout( );
+	}
+
+	/**
+	 * Shows a cancel button in the dialog. The given action is performed once, when the user presses the button.
+	 *
+	 * @param aCancelAction
+	 *                      The action to perform.
+	 */
+	public void setOnCancel( final Runnable aCancelAction ) {
+		ivCancelButton.setOnAction( aEvent -> {
+			ivCancelButton.setDisable( true );
+			aCancelAction.run( );
+		} );
+		ivCancelButton.setVisible( true );
+		ivCancelButton.setManaged( true );
+	}
+
 }
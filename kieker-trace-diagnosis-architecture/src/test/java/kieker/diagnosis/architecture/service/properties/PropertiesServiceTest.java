@@ -20,6 +20,8 @@ import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -64,4 +66,11 @@ public final class PropertiesServiceTest {
 
 		assertThat( propertiesService.loadSystemProperty( DevelopmentModeProperty.class ), is( Boolean.FALSE ) );
 	}
+
+	@Test
+	public void testLoadSystemPropertyWithDefaultValue( ) {
+		assertThat( propertiesService.loadSystemProperty( SimpleEnumSystemProperty.class ), is( TimeUnit.MILLISECONDS ) );
+		assertThat( propertiesService.loadSystemProperty( SimpleIntegerSystemProperty.class ), is( 42 ) );
+		assertThat( propertiesService.loadSystemProperty( SimpleStringSystemProperty.class ), is( "default" ) );
+	}
 }